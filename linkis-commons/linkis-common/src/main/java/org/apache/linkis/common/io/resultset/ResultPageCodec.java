@@ -0,0 +1,107 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.linkis.common.io.resultset;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Compact encoding of one page of result set rows, used by filesystem/openFile when the client asks
+ * for contentFormat=compact. Rows are written as length prefixed utf-8 cells, gzipped and then
+ * base64 encoded, so that the page can still be carried by a normal json Message.
+ */
+public class ResultPageCodec {
+
+  public static final String COMPACT = "compact";
+
+  private static final byte VERSION = 1;
+
+  private static final int NULL_CELL = -1;
+
+  private ResultPageCodec() {}
+
+  public static boolean isCompact(String contentFormat) {
+    return COMPACT.equalsIgnoreCase(contentFormat);
+  }
+
+  public static String encode(List<String[]> rows) throws IOException {
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    try (DataOutputStream out =
+        new DataOutputStream(new BufferedOutputStream(new GZIPOutputStream(bytes)))) {
+      out.writeByte(VERSION);
+      out.writeInt(rows.size());
+      for (String[] row : rows) {
+        out.writeInt(row.length);
+        for (String cell : row) {
+          if (cell == null) {
+            out.writeInt(NULL_CELL);
+          } else {
+            byte[] value = cell.getBytes(StandardCharsets.UTF_8);
+            out.writeInt(value.length);
+            out.write(value);
+          }
+        }
+      }
+    }
+    return Base64.getEncoder().encodeToString(bytes.toByteArray());
+  }
+
+  public static List<List<String>> decode(String content) throws IOException {
+    byte[] bytes = Base64.getDecoder().decode(content);
+    try (DataInputStream in =
+        new DataInputStream(
+            new BufferedInputStream(new GZIPInputStream(new ByteArrayInputStream(bytes))))) {
+      byte version = in.readByte();
+      if (version != VERSION) {
+        throw new IOException("Unsupported result page version " + version);
+      }
+      int rowNum = in.readInt();
+      List<List<String>> rows = new ArrayList<>(rowNum);
+      byte[] buffer = new byte[256];
+      for (int i = 0; i < rowNum; i++) {
+        int columnNum = in.readInt();
+        List<String> row = new ArrayList<>(columnNum);
+        for (int j = 0; j < columnNum; j++) {
+          int length = in.readInt();
+          if (length == NULL_CELL) {
+            row.add(null);
+          } else {
+            if (length > buffer.length) {
+              buffer = new byte[Math.max(length, buffer.length * 2)];
+            }
+            in.readFully(buffer, 0, length);
+            row.add(new String(buffer, 0, length, StandardCharsets.UTF_8));
+          }
+        }
+        rows.add(row);
+      }
+      return rows;
+    }
+  }
+}
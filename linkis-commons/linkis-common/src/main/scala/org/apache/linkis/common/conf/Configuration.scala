@@ -70,6 +70,12 @@ object Configuration extends Logging {
 
   val VARIABLE_OPERATION: Boolean = CommonVars("wds.linkis.variable.operation", false).getValue
 
+  val VARIABLE_TEMPLATE_CACHE_ENABLED =
+    CommonVars("linkis.variable.template.cache.enabled", true)
+
+  val VARIABLE_TEMPLATE_CACHE_MAX_SIZE =
+    CommonVars("linkis.variable.template.cache.max.size", new ByteType("200m"))
+
   val ERROR_MSG_TIP =
     CommonVars(
       "linkis.jobhistory.error.msg.tip",
@@ -0,0 +1,202 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.linkis.common.listener
+
+import org.apache.linkis.common.utils.{Logging, Utils}
+
+import java.util.concurrent.{ArrayBlockingQueue, TimeoutException, TimeUnit}
+import java.util.concurrent.atomic.{AtomicBoolean, AtomicInteger, AtomicLong}
+import java.util.concurrent.atomic.LongAdder
+
+/**
+ * An asynchronous listener bus whose events are partitioned by the key of `getEventKey` into the
+ * queues of a fixed number of shards. Every shard is consumed by its own thread blocking on the
+ * queue, so the events of one key are dispatched in the order they were posted, while the events
+ * of unrelated keys are dispatched in parallel. Events without a key are spread over the shards.
+ *
+ * @param eventQueueCapacity
+ *   capacity of the queue of each shard, the events posted to a full shard are dropped
+ */
+abstract class ShardedListenerEventBus[L <: EventListener, E <: Event](
+    val eventQueueCapacity: Int,
+    name: String
+)(shardNum: Int = 5)
+    extends ListenerBus[L, E]
+    with Logging {
+
+  private class QueuedEvent(val event: E, val postTime: Long)
+
+  private class Shard(val index: Int) extends Runnable {
+
+    val queue = new ArrayBlockingQueue[QueuedEvent](math.max(eventQueueCapacity, 1))
+
+    /** events posted to this shard and not yet dispatched to all listeners */
+    val pendingNum = new AtomicInteger(0)
+
+    override def run(): Unit = {
+      Thread.currentThread().setName(s"$name-Shard-Thread-$index")
+      logger.info(s"$name shard $index begin.")
+      while (!stopped.get || !queue.isEmpty) {
+        val queued = Utils.tryCatch(queue.poll(STOP_CHECK_INTERVAL_MILLS, TimeUnit.MILLISECONDS)) {
+          case _: InterruptedException =>
+            logger.info(s"$name shard $index is interrupted, ${queue.size} events are dropped.")
+            return
+          case t: Throwable => throw t
+        }
+        if (queued != null) {
+          onDispatch(System.nanoTime - queued.postTime)
+          Utils.tryFinally(Utils.tryAndError(postToAll(queued.event)))(pendingNum.decrementAndGet())
+        }
+      }
+      logger.info(s"$name shard $index stopped.")
+    }
+
+  }
+
+  private val STOP_CHECK_INTERVAL_MILLS = 1000L
+
+  private val shards = Array.tabulate(math.max(shardNum, 1))(new Shard(_))
+
+  private val executorService =
+    Utils.newFixedThreadPool(shards.length, name + "-Shard-ThreadPool-", true)
+
+  private val started = new AtomicBoolean(false)
+  private val stopped = new AtomicBoolean(false)
+
+  private val keylessIndex = new AtomicInteger(0)
+
+  private val dispatchedNum = new LongAdder
+  private val dispatchLatencyNanos = new LongAdder
+  private val maxDispatchLatencyNanos = new AtomicLong(0L)
+  private val droppedNum = new AtomicLong(0L)
+  private val logDroppedEvent = new AtomicBoolean(false)
+
+  /**
+   * The key to partition the event by, such as the id of the job it belongs to. The events of the
+   * same key are dispatched in order, null means the event can be dispatched by any shard.
+   */
+  protected def getEventKey(event: E): Any
+
+  private def getShard(event: E): Shard = {
+    val key = getEventKey(event)
+    val hash =
+      if (key == null) keylessIndex.getAndIncrement()
+      else {
+        val h = key.hashCode
+        h ^ (h >>> 16)
+      }
+    shards((hash & Int.MaxValue) % shards.length)
+  }
+
+  /**
+   * Start the shard threads, the events posted before are dispatched at once. This should only be
+   * called once.
+   */
+  def start(): Unit = {
+    if (started.compareAndSet(false, true)) {
+      shards.foreach(executorService.submit(_))
+    } else {
+      throw new IllegalStateException(s"$name already started!")
+    }
+  }
+
+  def post(event: E): Unit = {
+    if (stopped.get) {
+      onDropEvent(event, s"$name has already stopped! Dropping event $event.")
+    } else {
+      val shard = getShard(event)
+      shard.pendingNum.incrementAndGet()
+      if (!shard.queue.offer(new QueuedEvent(event, System.nanoTime))) {
+        shard.pendingNum.decrementAndGet()
+        onDropEvent(
+          event,
+          s"Dropping ListenerEvent because no remaining room in the queue of shard " +
+            s"${shard.index}. This likely means one of the Listeners is too slow to keep up " +
+            "with the events."
+        )
+      }
+    }
+  }
+
+  private def onDropEvent(event: E, msg: => String): Unit = {
+    droppedNum.incrementAndGet()
+    // Only log the first dropped event to avoid duplicated annoying logs.
+    if (logDroppedEvent.compareAndSet(false, true)) logger.error(msg)
+  }
+
+  private def onDispatch(latencyNanos: Long): Unit = {
+    dispatchedNum.increment()
+    dispatchLatencyNanos.add(latencyNanos)
+    var max = maxDispatchLatencyNanos.get
+    while (latencyNanos > max && !maxDispatchLatencyNanos.compareAndSet(max, latencyNanos)) {
+      max = maxDispatchLatencyNanos.get
+    }
+  }
+
+  /** Number of events waiting in the queues of all shards */
+  def getQueueDepth: Int = shards.map(_.queue.size).sum
+
+  def getShardQueueDepths: Array[Int] = shards.map(_.queue.size)
+
+  def getDispatchedNum: Long = dispatchedNum.sum
+
+  def getDroppedNum: Long = droppedNum.get
+
+  /** Average time in microseconds from posting an event to dispatching it to the listeners */
+  def getAvgDispatchLatencyMicros: Long = {
+    val num = dispatchedNum.sum
+    if (num == 0) 0L else TimeUnit.NANOSECONDS.toMicros(dispatchLatencyNanos.sum / num)
+  }
+
+  def getMaxDispatchLatencyMicros: Long =
+    TimeUnit.NANOSECONDS.toMicros(maxDispatchLatencyNanos.get)
+
+  /**
+   * Wait until all the posted events have been dispatched to all the listeners, or until the
+   * specified time has elapsed.
+   */
+  @throws(classOf[TimeoutException])
+  def waitUntilEmpty(timeoutMillis: Long): Unit = {
+    val finishTime = System.currentTimeMillis + timeoutMillis
+    while (shards.exists(_.pendingNum.get > 0)) {
+      if (System.currentTimeMillis > finishTime) {
+        throw new TimeoutException(
+          s"The event queue is not empty after $timeoutMillis milliseconds"
+        )
+      }
+      Thread.sleep(10)
+    }
+  }
+
+  /**
+   * Stop the listener bus. The shard threads exit once the queued events have been dispatched, the
+   * events posted after stopping are dropped.
+   */
+  def stop(): Unit = {
+    if (!started.get()) {
+      throw new IllegalStateException(s"Attempted to stop $name that has not yet started!")
+    }
+    if (stopped.compareAndSet(false, true)) {
+      logger.info(s"try to stop $name, ${getQueueDepth} events are still in queue.")
+      executorService.shutdown()
+    }
+  }
+
+  override val toString: String = name + "-ListenerBus"
+
+}
@@ -0,0 +1,165 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.linkis.common.utils
+
+import org.apache.linkis.common.conf.Configuration
+import org.apache.linkis.common.exception.LinkisCommonErrorException
+import org.apache.linkis.common.variable.VariableType
+
+import org.apache.commons.lang3.StringUtils
+
+import java.nio.charset.StandardCharsets
+
+import scala.collection.mutable
+
+import com.google.common.cache.{Cache, CacheBuilder, Weigher}
+import com.google.common.hash.Hashing
+
+/**
+ * A script compiled once into its literal segments and variable expressions by the same regexes
+ * of VariableUtils, rendering it against the variables is a single pass over the segments.
+ *
+ * @param codes
+ *   literal segments, split exactly as VariableUtils.parserVar does
+ * @param expressions
+ *   variable expressions between the segments
+ * @param customVariables
+ *   variables defined by `@set` in the script, null if the language type is unknown
+ */
+class VariableTemplate private (
+    codes: Array[String],
+    expressions: Array[VariableTemplate.Expression],
+    val customVariables: collection.Map[String, String]
+) extends Logging {
+
+  private val literalLength = codes.map(_.length).sum
+
+  /**
+   * Same as VariableUtils.parserVar on the compiled code
+   */
+  def render(nameAndType: collection.Map[String, VariableType]): String = {
+    val parseCode = new java.lang.StringBuilder(literalLength + expressions.length * 16)
+    val expressionCache = mutable.HashSet[String]()
+    var i = 0
+    expressions.foreach { expr =>
+      i = i + 1
+      val str = expr.text
+      if (expr.name == null || expr.name.trim.isEmpty) {
+        throw new LinkisCommonErrorException(20041, s"[$str] replaced var is null")
+      }
+      val varType = nameAndType.get(expr.name.trim).orNull
+      if (varType == null) {
+        logger.warn(
+          s"Use undefined variables or use the set method: [$str](使用了未定义的变量或者使用了set方式:[$str])"
+        )
+        parseCode.append(codes(i - 1)).append(str)
+      } else {
+        var expression = expr.name.trim
+        var res: String = varType.getValue
+        if (expr.signal != null && !expr.signal.trim.isEmpty) {
+          if (expr.rightValue == null || expr.rightValue.trim.isEmpty) {
+            throw new LinkisCommonErrorException(
+              20042,
+              s"[$str] expression is not right, please check"
+            )
+          }
+          expression = expression + "_" + expr.signal.trim + "_" + expr.rightValue.trim
+          val rightToken = expr.rightValue.trim
+          val rightRes = nameAndType.get(rightToken).map(_.getValue).getOrElse(rightToken)
+          res = varType.calculator(expr.signal.trim, rightRes)
+        }
+        if (expressionCache.add(expression)) {
+          logger.info(s"Variable expression [$str] = $res(变量表达式[$str] = $res)")
+        }
+        parseCode.append(codes(i - 1)).append(res)
+      }
+    }
+    if (i == codes.length - 1) {
+      parseCode.append(codes(i))
+    }
+    StringUtils.strip(parseCode.toString)
+  }
+
+}
+
+object VariableTemplate extends Logging {
+
+  private[utils] case class Expression(
+      text: String,
+      name: String,
+      signal: String,
+      rightValue: String
+  )
+
+  private case class TemplateKey(languageType: String, length: Int, hash: String)
+
+  private lazy val templateCache: Cache[TemplateKey, VariableTemplate] = CacheBuilder
+    .newBuilder()
+    .maximumWeight(Configuration.VARIABLE_TEMPLATE_CACHE_MAX_SIZE.getValue.toLong)
+    .weigher(new Weigher[TemplateKey, VariableTemplate] {
+      override def weigh(key: TemplateKey, value: VariableTemplate): Int = key.length * 2
+    })
+    .recordStats()
+    .build()
+
+  /**
+   * Compile the code without looking for the variables defined in it
+   */
+  def compile(code: String): VariableTemplate = compile(code, null)
+
+  /**
+   * Compile the code, the compiled form is cached by the hash of the code
+   *
+   * @param languageType
+   *   the language type to look for the variables defined by `@set`, null to skip it
+   */
+  def compile(code: String, languageType: String): VariableTemplate = {
+    if (!Configuration.VARIABLE_TEMPLATE_CACHE_ENABLED.getValue) {
+      return doCompile(code, languageType)
+    }
+    val hash = Hashing.murmur3_128().hashString(code, StandardCharsets.UTF_8).toString
+    val key = TemplateKey(languageType, code.length, hash)
+    val template = templateCache.getIfPresent(key)
+    if (template != null) {
+      template
+    } else {
+      val compiled = doCompile(code, languageType)
+      templateCache.put(key, compiled)
+      compiled
+    }
+  }
+
+  private def doCompile(code: String, languageType: String): VariableTemplate = {
+    val customVariables =
+      if (languageType == null) null else VariableUtils.getCustomVar(code, languageType)
+    val expressions = VariableUtils.codeReg
+      .findAllIn(code)
+      .flatMap { str =>
+        VariableUtils.calReg
+          .findFirstMatchIn(str)
+          .map(ma => Expression(str, ma.group(1), ma.group(2), ma.group(3)))
+      }
+      .toArray
+    new VariableTemplate(VariableUtils.codeReg.split(code), expressions, customVariables)
+  }
+
+  def getCacheStats: String = templateCache.stats().toString
+
+  def clearCache(): Unit = templateCache.invalidateAll()
+
+}
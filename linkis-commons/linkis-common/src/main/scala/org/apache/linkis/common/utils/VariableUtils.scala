@@ -43,14 +43,14 @@ object VariableUtils extends Logging {
 
   val RUN_TODAY_H = "run_today_h"
 
-  private val codeReg =
+  private[utils] val codeReg =
     "\\$\\{\\s*[A-Za-z][A-Za-z0-9_\\.]*\\s*[\\+\\-\\*/]?\\s*[A-Za-z0-9_\\.]*\\s*\\}".r
 
   /**
    * calculation Reg Get custom variables, if it is related to the left and right variables of the
    * analytical calculation of the calculation
    */
-  private val calReg =
+  private[utils] val calReg =
     "(\\s*[A-Za-z][A-Za-z0-9_\\.]*\\s*)([\\+\\-\\*/]?)(\\s*[A-Za-z0-9_\\.]*\\s*)".r
 
   def replace(replaceStr: String): String = replace(replaceStr, new util.HashMap[String, Any](0))
@@ -84,7 +84,7 @@ object VariableUtils extends Logging {
       }
     }
     initAllDateVars(run_date, nameAndType)
-    val codeOperation = parserVar(replaceStr, nameAndType)
+    val codeOperation = VariableTemplate.compile(replaceStr).render(nameAndType)
     parserDate(codeOperation, run_date)
   }
 
@@ -97,9 +97,10 @@ object VariableUtils extends Logging {
 
     val nameAndType = mutable.Map[String, variable.VariableType]()
 
-    val nameAndValue: mutable.Map[String, String] = getCustomVar(code, languageType)
+    val template = VariableTemplate.compile(code, languageType)
+    val nameAndValue = template.customVariables
 
-    def putNameAndType(data: mutable.Map[String, String]): Unit = if (null != data) data foreach {
+    def putNameAndType(data: Iterable[(String, String)]): Unit = if (null != data) data foreach {
       case (key, value) =>
         key match {
           case RUN_DATE =>
@@ -142,7 +143,7 @@ object VariableUtils extends Logging {
       }
     }
     initAllDateVars(run_date, nameAndType)
-    val codeOperation = parserVar(code, nameAndType)
+    val codeOperation = template.render(nameAndType)
     parserDate(codeOperation, run_date)
   }
 
@@ -0,0 +1,72 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.linkis.common.io.resultset;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+class ResultPageCodecTest {
+
+  @Test
+  public void testEncodeAndDecode() throws IOException {
+    List<String[]> rows = new ArrayList<>();
+    rows.add(new String[] {"1", "linkis", null, ""});
+    rows.add(new String[] {"2", "中文", "NULL", "a\tb\nc"});
+    rows.add(new String[] {});
+
+    List<List<String>> decoded = ResultPageCodec.decode(ResultPageCodec.encode(rows));
+
+    Assertions.assertEquals(rows.size(), decoded.size());
+    for (int i = 0; i < rows.size(); i++) {
+      Assertions.assertEquals(Arrays.asList(rows.get(i)), decoded.get(i));
+    }
+  }
+
+  @Test
+  public void testEncodeEmptyPage() throws IOException {
+    Assertions.assertTrue(
+        ResultPageCodec.decode(ResultPageCodec.encode(new ArrayList<>())).isEmpty());
+  }
+
+  @Test
+  public void testLongCell() throws IOException {
+    StringBuilder builder = new StringBuilder();
+    for (int i = 0; i < 10000; i++) {
+      builder.append(i);
+    }
+    List<String[]> rows = new ArrayList<>();
+    rows.add(new String[] {"short", builder.toString(), "short"});
+
+    List<String> decoded = ResultPageCodec.decode(ResultPageCodec.encode(rows)).get(0);
+
+    Assertions.assertEquals(builder.toString(), decoded.get(1));
+    Assertions.assertEquals("short", decoded.get(2));
+  }
+
+  @Test
+  public void testIsCompact() {
+    Assertions.assertTrue(ResultPageCodec.isCompact("compact"));
+    Assertions.assertFalse(ResultPageCodec.isCompact(null));
+    Assertions.assertFalse(ResultPageCodec.isCompact("json"));
+  }
+}
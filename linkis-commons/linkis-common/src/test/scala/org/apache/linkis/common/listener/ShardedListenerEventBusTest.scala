@@ -0,0 +1,193 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.linkis.common.listener
+
+import org.apache.linkis.common.utils.Logging
+
+import java.util.concurrent.{ConcurrentHashMap, CountDownLatch}
+import java.util.concurrent.atomic.AtomicLong
+
+import org.junit.jupiter.api.{Assertions, Disabled, Test}
+
+class ShardedListenerEventBusTest extends Logging {
+
+  case class TestEvent(key: String, seq: Int) extends Event
+
+  class TestListener extends EventListener {
+
+    val received = new AtomicLong(0L)
+
+    val lastSeqs = new ConcurrentHashMap[String, Integer]()
+
+    @volatile var outOfOrder = false
+
+    def onEvent(event: TestEvent): Unit = {
+      val last = lastSeqs.put(event.key, event.seq)
+      if (last != null && last >= event.seq) outOfOrder = true
+      received.incrementAndGet()
+    }
+
+    override def onEventError(event: Event, t: Throwable): Unit = {}
+
+  }
+
+  class TestShardedBus(capacity: Int, shardNum: Int)
+      extends ShardedListenerEventBus[TestListener, TestEvent](capacity, "TestShardedBus")(
+        shardNum
+      ) {
+
+    override protected def getEventKey(event: TestEvent): Any = event.key
+
+    override protected def doPostEvent(listener: TestListener, event: TestEvent): Unit =
+      listener.onEvent(event)
+
+  }
+
+  class TestBus(capacity: Int, threadNum: Int)
+      extends ListenerEventBus[TestListener, TestEvent](capacity, "TestBus")(threadNum) {
+
+    override protected def doPostEvent(listener: TestListener, event: TestEvent): Unit =
+      listener.onEvent(event)
+
+  }
+
+  @Test
+  def testKeyOrder(): Unit = {
+    val bus = new TestShardedBus(100000, 4)
+    val listener = new TestListener
+    bus.addListener(listener)
+    bus.start()
+    val producerNum = 8
+    val eventNum = 10000
+    produce(producerNum, eventNum, bus.post)
+    bus.waitUntilEmpty(60000)
+    Assertions.assertEquals(producerNum * eventNum, listener.received.get)
+    Assertions.assertFalse(listener.outOfOrder)
+    Assertions.assertEquals(producerNum * eventNum, bus.getDispatchedNum)
+    Assertions.assertEquals(0, bus.getQueueDepth)
+    Assertions.assertEquals(0, bus.getDroppedNum)
+    Assertions.assertTrue(bus.getMaxDispatchLatencyMicros >= bus.getAvgDispatchLatencyMicros)
+    bus.stop()
+  }
+
+  @Test
+  def testDropAndStop(): Unit = {
+    val bus = new TestShardedBus(10, 1)
+    val listener = new TestListener
+    bus.addListener(listener)
+    // not started yet, the events stay in the queue
+    (1 to 20).foreach(i => bus.post(TestEvent("key", i)))
+    Assertions.assertEquals(10, bus.getQueueDepth)
+    Assertions.assertEquals(10, bus.getDroppedNum)
+    bus.start()
+    bus.waitUntilEmpty(10000)
+    Assertions.assertEquals(10, listener.received.get)
+    bus.stop()
+    bus.post(TestEvent("key", 21))
+    Assertions.assertEquals(11, bus.getDroppedNum)
+  }
+
+  @Test
+  def testManyProducersOnFewShards(): Unit = {
+    val bus = new TestShardedBus(100000, 2)
+    val listener = new TestListener
+    bus.addListener(listener)
+    bus.start()
+    val producerNum = 32
+    val eventNum = 500
+    produce(producerNum, eventNum, bus.post)
+    bus.waitUntilEmpty(60000)
+    Assertions.assertEquals(producerNum * eventNum, listener.received.get)
+    Assertions.assertEquals(producerNum * 16, listener.lastSeqs.size)
+    Assertions.assertFalse(listener.outOfOrder)
+    Assertions.assertEquals(0, bus.getDroppedNum)
+    bus.stop()
+  }
+
+  /**
+   * Compare the events/sec of the sharded bus with the ListenerEventBus at 1, 8 and 32 producers.
+   */
+  @Test
+  @Disabled("Benchmark, run it manually")
+  def testThroughput(): Unit = {
+    val eventNum = 200000
+    Array(1, 8, 32).foreach { producerNum =>
+      val perProducer = eventNum / producerNum
+      val shardedBus = new TestShardedBus(eventNum, 5)
+      val shardedRate = measure(producerNum, perProducer)(
+        listener => {
+          shardedBus.addListener(listener)
+          shardedBus.start()
+        },
+        shardedBus.post,
+        () => {
+          shardedBus.waitUntilEmpty(120000)
+          shardedBus.stop()
+        }
+      )
+      val bus = new TestBus(eventNum, 5)
+      val rate = measure(producerNum, perProducer)(
+        listener => {
+          bus.addListener(listener)
+          bus.start()
+        },
+        bus.post,
+        () => {
+          bus.waitUntilEmpty(120000)
+          bus.stop()
+        }
+      )
+      logger.info(
+        s"$producerNum producers, events/sec of ShardedListenerEventBus: $shardedRate, " +
+          s"ListenerEventBus: $rate, avg dispatch latency of ShardedListenerEventBus: " +
+          s"${shardedBus.getAvgDispatchLatencyMicros}us"
+      )
+      Assertions.assertEquals(producerNum * perProducer, shardedBus.getDispatchedNum)
+    }
+  }
+
+  /** @return events/sec received by the listener */
+  private def measure(producerNum: Int, eventNum: Int)(
+      start: TestListener => Unit,
+      post: TestEvent => Unit,
+      stop: () => Unit
+  ): Long = {
+    val listener = new TestListener
+    start(listener)
+    val startTime = System.nanoTime
+    produce(producerNum, eventNum, post)
+    stop()
+    listener.received.get * 1000000000L / math.max(System.nanoTime - startTime, 1L)
+  }
+
+  private def produce(producerNum: Int, eventNum: Int, post: TestEvent => Unit): Unit = {
+    val latch = new CountDownLatch(producerNum)
+    (0 until producerNum).foreach { p =>
+      val thread = new Thread(new Runnable {
+        override def run(): Unit = {
+          (1 to eventNum).foreach(i => post(TestEvent(s"$p-${i % 16}", i)))
+          latch.countDown()
+        }
+      })
+      thread.setDaemon(true)
+      thread.start()
+    }
+    latch.await()
+  }
+
+}
@@ -0,0 +1,149 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.linkis.common.utils
+
+import org.apache.linkis.common.variable.{
+  CustomDateType,
+  DateType,
+  DoubleValue,
+  StringType,
+  VariableType
+}
+
+import java.util
+
+import scala.collection.mutable
+import scala.util.Try
+
+import org.junit.jupiter.api.Assertions.{assertEquals, assertSame, assertTrue}
+import org.junit.jupiter.api.{Disabled, Test}
+
+class VariableTemplateTest {
+
+  private val nameAndType = mutable.Map[String, VariableType](
+    "run_date" -> DateType(new CustomDateType("20200228", false)),
+    "run_date_std" -> DateType(new CustomDateType("2020-02-28")),
+    "days" -> DoubleValue(3),
+    "user" -> StringType("hadoop")
+  )
+
+  private val scripts = Array(
+    "",
+    "select 1",
+    "${run_date}",
+    "${run_date}${days}",
+    "select '${run_date}' as d",
+    "select '${run_date}'",
+    "${run_date} from t where dt='${run_date-1}' and n=${days*2}",
+    "select '${ run_date + days }', '${run_date_std-7}', '${undefined}', '${user}' ",
+    "select '${undefined}'",
+    "select '${run_date+}'",
+    "select '${user+1}'",
+    "select '${days/0}' \n --@set a=1\n",
+    "  select ${days+1}${days-1} from ${user}.t where x = '$' and y = '{}'  ",
+    "select '${run_date}', '&{yyyyMMdd%-1d}' -- ${run_date.x}"
+  )
+
+  private def legacy(code: String): Try[String] = Try(VariableUtils.parserVar(code, nameAndType))
+
+  private def compiled(code: String): Try[String] =
+    Try(VariableTemplate.compile(code).render(nameAndType))
+
+  private def assertSameResult(expected: Try[String], actual: Try[String]): Unit = {
+    assertEquals(expected.isSuccess, actual.isSuccess)
+    if (expected.isSuccess) {
+      assertEquals(expected.get, actual.get)
+    } else {
+      assertEquals(expected.failed.get.getClass, actual.failed.get.getClass)
+      assertEquals(expected.failed.get.getMessage, actual.failed.get.getMessage)
+    }
+  }
+
+  @Test def testRenderSameAsParserVar(): Unit = {
+    scripts.foreach { script =>
+      assertSameResult(legacy(script), compiled(script))
+      // rendered again from the cache
+      assertSameResult(legacy(script), compiled(script))
+    }
+  }
+
+  @Test def testCustomVariables(): Unit = {
+    val code = "--@set a=1\n--@set b = 2;\nselect ${a}\n--@sett\n"
+    val template = VariableTemplate.compile(code, CodeAndRunTypeUtils.LANGUAGE_TYPE_SQL)
+    assertEquals(
+      VariableUtils.getCustomVar(code, CodeAndRunTypeUtils.LANGUAGE_TYPE_SQL),
+      template.customVariables
+    )
+    assertSame(template, VariableTemplate.compile(code, CodeAndRunTypeUtils.LANGUAGE_TYPE_SQL))
+    assertEquals(null, VariableTemplate.compile(code).customVariables)
+  }
+
+  @Test def testReplace(): Unit = {
+    val code = "--@set a=1\nselect '${run_date}', ${a+2}, '${run_date_std-1}' from t"
+    val variables = new util.HashMap[String, String]()
+    variables.put("run_date", "20200228")
+    assertEquals(
+      "--@set a=1\nselect '20200228', 3, '2020-02-27' from t",
+      VariableUtils.replace(code, "sql", variables)
+    )
+    assertEquals(
+      VariableUtils.replace(code, "sql", variables),
+      VariableUtils.replace(code, "sql", variables)
+    )
+  }
+
+  private def largeScript: String = {
+    val builder = new StringBuilder
+    while (builder.length < 300 * 1024) {
+      builder ++= "select a, b, '${run_date}' as d, ${days+1} as n from db_${user}.t\n"
+      builder ++= "where dt between '${run_date_std-7}' and '${run_date_std}' and c = 'x';\n"
+    }
+    builder.toString
+  }
+
+  @Test def testLargeScript(): Unit = {
+    val script = largeScript
+    val rendered = compiled(script).get
+    assertEquals(VariableUtils.parserVar(script, nameAndType), rendered)
+    assertTrue(!rendered.contains("${"))
+    assertSame(VariableTemplate.compile(script), VariableTemplate.compile(script))
+  }
+
+  /** Compares the throughput of a large script with parserVar, the result is printed */
+  @Test
+  @Disabled("Benchmark, run it manually")
+  def testThroughput(): Unit = {
+    val script = largeScript
+    def opsPerSecond(render: => String): Double = {
+      val start = System.nanoTime()
+      var ops = 0
+      while (System.nanoTime() - start < 2000000000L) {
+        render
+        ops += 1
+      }
+      ops / ((System.nanoTime() - start) / 1e9)
+    }
+    val legacyOps = opsPerSecond(VariableUtils.parserVar(script, nameAndType))
+    val compiledOps = opsPerSecond(VariableTemplate.compile(script).render(nameAndType))
+    // scalastyle:off println
+    println(f"300 KB script, parserVar: $legacyOps%.1f ops/s, template: $compiledOps%.1f ops/s")
+    // scalastyle:on println
+    assertTrue(compiledOps > 0)
+  }
+
+}
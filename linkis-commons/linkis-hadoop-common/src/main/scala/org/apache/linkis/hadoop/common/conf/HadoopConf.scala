@@ -61,4 +61,14 @@ object HadoopConf {
   val HDFS_ENABLE_CACHE_MAX_TIME =
     CommonVars("wds.linkis.hadoop.hdfs.cache.max.time", new TimeType("12h")).getValue.toLong
 
+  val HADOOP_CONF_CACHE_ENABLE = CommonVars("linkis.hadoop.conf.cache.enable", true).getValue
+
+  val HADOOP_CONF_CHECK_INTERVAL =
+    CommonVars("linkis.hadoop.conf.check.interval", new TimeType("5s")).getValue.toLong
+
+  val UGI_CACHE_ENABLE = CommonVars("linkis.hadoop.ugi.cache.enable", true).getValue
+
+  val KERBEROS_RELOGIN_INTERVAL =
+    CommonVars("linkis.hadoop.kerberos.relogin.interval", new TimeType("10m")).getValue.toLong
+
 }
@@ -21,11 +21,13 @@ import org.apache.linkis.hadoop.common.conf.HadoopConf
 
 import org.apache.hadoop.fs.FileSystem
 
+import java.util.concurrent.atomic.AtomicInteger
+
 class HDFSFileSystemContainer(fs: FileSystem, user: String, label: String) {
 
-  private var lastAccessTime: Long = System.currentTimeMillis()
+  @volatile private var lastAccessTime: Long = System.currentTimeMillis()
 
-  private var count: Int = 0
+  private val count = new AtomicInteger(0)
 
   def getFileSystem: FileSystem = this.fs
 
@@ -39,17 +41,17 @@ class HDFSFileSystemContainer(fs: FileSystem, user: String, label: String) {
     this.lastAccessTime = System.currentTimeMillis()
   }
 
-  def addAccessCount(): Unit = {
-    count = count + 1
-  }
+  def addAccessCount(): Unit = count.incrementAndGet()
+
+  def minusAccessCount(): Unit = count.decrementAndGet()
 
-  def minusAccessCount(): Unit = count = count - 1
+  def getAccessCount: Int = count.get()
 
   def canRemove(): Boolean = {
     val currentTime = System.currentTimeMillis()
     val idleTime = currentTime - this.lastAccessTime
     idleTime > HadoopConf.HDFS_ENABLE_CACHE_MAX_TIME || (System
-      .currentTimeMillis() - this.lastAccessTime > HadoopConf.HDFS_ENABLE_CACHE_IDLE_TIME) && count <= 0
+      .currentTimeMillis() - this.lastAccessTime > HadoopConf.HDFS_ENABLE_CACHE_IDLE_TIME) && count.get() <= 0
   }
 
 }
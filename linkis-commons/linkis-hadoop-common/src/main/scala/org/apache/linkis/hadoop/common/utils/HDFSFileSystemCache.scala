@@ -0,0 +1,136 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.linkis.hadoop.common.utils
+
+import org.apache.linkis.common.utils.Logging
+import org.apache.linkis.hadoop.common.entity.HDFSFileSystemContainer
+
+import org.apache.commons.io.IOUtils
+import org.apache.commons.lang3.StringUtils
+import org.apache.hadoop.fs.FileSystem
+
+import java.util.concurrent.{Callable, ConcurrentHashMap, ExecutionException, FutureTask}
+
+import scala.collection.JavaConverters._
+
+/**
+ * FileSystems shared per user and label. Lookups and the idle cleaner use a concurrent map, the
+ * access counting of one key happens under one of a fixed set of lock stripes. A FileSystem is
+ * created outside the stripes, callers asking for the same key meanwhile wait for its creation.
+ */
+class HDFSFileSystemCache(stripes: Int) extends Logging {
+
+  private val JOINT = "_"
+
+  private val fileSystems = new ConcurrentHashMap[String, HDFSFileSystemContainer]()
+
+  private val creations = new ConcurrentHashMap[String, FutureTask[HDFSFileSystemContainer]]()
+
+  private val locks = Array.fill(stripes)(new Object)
+
+  private def lockOf(cacheKey: String): Object =
+    locks((cacheKey.hashCode & Int.MaxValue) % locks.length)
+
+  def getFileSystem(userName: String, label: String, create: => FileSystem): FileSystem = {
+    val cacheKey = userName + JOINT + label
+    var fileSystem: FileSystem = null
+    while (fileSystem == null) {
+      val container = getOrCreateContainer(cacheKey, userName, label, create)
+      fileSystem = lockOf(cacheKey).synchronized {
+        // the container may have been removed as idle before it was counted
+        if (fileSystems.get(cacheKey) eq container) {
+          container.addAccessCount()
+          container.updateLastAccessTime
+          container.getFileSystem
+        } else null
+      }
+    }
+    fileSystem
+  }
+
+  private def getOrCreateContainer(
+      cacheKey: String,
+      userName: String,
+      label: String,
+      create: => FileSystem
+  ): HDFSFileSystemContainer = {
+    val container = fileSystems.get(cacheKey)
+    if (container != null) {
+      container
+    } else {
+      val creation = new FutureTask[HDFSFileSystemContainer](new Callable[HDFSFileSystemContainer] {
+        override def call(): HDFSFileSystemContainer = {
+          // one creation runs per key at a time, the previous one may have put it already
+          val created = fileSystems.get(cacheKey)
+          if (created != null) {
+            created
+          } else {
+            val newContainer = new HDFSFileSystemContainer(create, userName, label)
+            fileSystems.put(cacheKey, newContainer)
+            newContainer
+          }
+        }
+      })
+      val running = creations.putIfAbsent(cacheKey, creation)
+      if (running == null) {
+        try creation.run()
+        finally creations.remove(cacheKey, creation)
+      }
+      try {
+        (if (running == null) creation else running).get()
+      } catch {
+        case e: ExecutionException => throw e.getCause
+      }
+    }
+  }
+
+  def releaseFileSystem(userName: String, label: String, isForce: Boolean): Unit = {
+    val cacheKey = userName + JOINT + label
+    val container = fileSystems.get(cacheKey)
+    if (null != container) {
+      if (isForce) {
+        lockOf(cacheKey).synchronized(fileSystems.remove(cacheKey, container))
+        IOUtils.closeQuietly(container.getFileSystem)
+        logger.info(s"user${container.getUser} to Force remove hdfsFileSystemContainer")
+      } else {
+        lockOf(cacheKey).synchronized(container.minusAccessCount())
+      }
+    }
+  }
+
+  def removeIdleFileSystems(): Unit = fileSystems.asScala.foreach { case (cacheKey, container) =>
+    if (container.canRemove() && StringUtils.isNotBlank(container.getUser)) {
+      lockOf(cacheKey).synchronized {
+        if (container.canRemove() && fileSystems.remove(cacheKey, container)) {
+          IOUtils.closeQuietly(container.getFileSystem)
+          logger.info(
+            s"user${container.getUser} to remove hdfsFileSystemContainer,because hdfsFileSystemContainer can remove"
+          )
+        }
+      }
+    }
+  }
+
+  def getAccessCount(userName: String, label: String): Int = {
+    val container = fileSystems.get(userName + JOINT + label)
+    if (container == null) 0 else container.getAccessCount
+  }
+
+  def size: Int = fileSystems.size()
+
+}
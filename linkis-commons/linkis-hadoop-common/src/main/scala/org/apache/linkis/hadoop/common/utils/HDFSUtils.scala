@@ -20,59 +20,30 @@ package org.apache.linkis.hadoop.common.utils
 import org.apache.linkis.common.utils.{Logging, Utils}
 import org.apache.linkis.hadoop.common.conf.HadoopConf
 import org.apache.linkis.hadoop.common.conf.HadoopConf._
-import org.apache.linkis.hadoop.common.entity.HDFSFileSystemContainer
 
 import org.apache.commons.io.IOUtils
 import org.apache.commons.lang3.StringUtils
 import org.apache.hadoop.conf.Configuration
-import org.apache.hadoop.fs.{FileSystem, Path}
+import org.apache.hadoop.fs.FileSystem
 import org.apache.hadoop.security.UserGroupInformation
 
 import java.io.File
-import java.nio.file.Paths
 import java.security.PrivilegedExceptionAction
 import java.util.concurrent.TimeUnit
 
-import scala.collection.JavaConverters._
-
 object HDFSUtils extends Logging {
 
-  private val fileSystemCache: java.util.Map[String, HDFSFileSystemContainer] =
-    new java.util.HashMap[String, HDFSFileSystemContainer]()
+  private val fileSystemCache = new HDFSFileSystemCache(64)
+
+  private val confCache = new HadoopConfCache(HadoopConf.HADOOP_CONF_CHECK_INTERVAL)
 
-  private val LOCKER_SUFFIX = "_HDFS"
   private val DEFAULT_CACHE_LABEL = "default"
-  private val JOINT = "_"
 
   if (HadoopConf.HDFS_ENABLE_CACHE) {
     logger.info("HDFS Cache enabled ")
     Utils.defaultScheduler.scheduleAtFixedRate(
       new Runnable {
-        override def run(): Unit = Utils.tryAndWarn {
-          fileSystemCache
-            .values()
-            .asScala
-            .filter { hdfsFileSystemContainer =>
-              hdfsFileSystemContainer.canRemove() && StringUtils.isNotBlank(
-                hdfsFileSystemContainer.getUser
-              )
-            }
-            .foreach { hdfsFileSystemContainer =>
-              val locker =
-                hdfsFileSystemContainer.getUser + JOINT + hdfsFileSystemContainer.getLabel + LOCKER_SUFFIX
-              locker.intern() synchronized {
-                if (hdfsFileSystemContainer.canRemove()) {
-                  fileSystemCache.remove(
-                    hdfsFileSystemContainer.getUser + JOINT + hdfsFileSystemContainer.getLabel
-                  )
-                  IOUtils.closeQuietly(hdfsFileSystemContainer.getFileSystem)
-                  logger.info(
-                    s"user${hdfsFileSystemContainer.getUser} to remove hdfsFileSystemContainer,because hdfsFileSystemContainer can remove"
-                  )
-                }
-              }
-            }
-        }
+        override def run(): Unit = Utils.tryAndWarn(fileSystemCache.removeIdleFileSystems())
       },
       3 * 60 * 1000,
       60 * 1000,
@@ -99,22 +70,12 @@ object HDFSUtils extends Logging {
     }
   }
 
-  def getConfiguration(user: String, hadoopConfDir: String): Configuration = {
-    val confPath = new File(hadoopConfDir)
-    if (!confPath.exists() || confPath.isFile) {
-      throw new RuntimeException(
-        s"Create hadoop configuration failed, path $hadoopConfDir not exists."
-      )
+  def getConfiguration(user: String, hadoopConfDir: String): Configuration =
+    if (HadoopConf.HADOOP_CONF_CACHE_ENABLE) {
+      confCache.getConfiguration(hadoopConfDir)
+    } else {
+      HadoopConfCache.createConfiguration(hadoopConfDir)
     }
-    val conf = new Configuration()
-    conf.addResource(
-      new Path(Paths.get(hadoopConfDir, "core-site.xml").toAbsolutePath.toFile.getAbsolutePath)
-    )
-    conf.addResource(
-      new Path(Paths.get(hadoopConfDir, "hdfs-site.xml").toAbsolutePath.toFile.getAbsolutePath)
-    )
-    conf
-  }
 
   def getHDFSRootUserFileSystem: FileSystem = getHDFSRootUserFileSystem(
     getConfiguration(HADOOP_ROOT_USER.getValue)
@@ -136,26 +97,12 @@ object HDFSUtils extends Logging {
       label: String,
       conf: org.apache.hadoop.conf.Configuration
   ): FileSystem = if (HadoopConf.HDFS_ENABLE_CACHE) {
+    // we use cacheLabel to create HDFSFileSystemContainer, and in the rest part of HDFSUtils, we consistently
+    // use the same cacheLabel to operate HDFSFileSystemContainer, like close or remove.
+    // At the same time, we don't want to change the behavior of createFileSystem which is out of HDFSUtils,
+    // so we continue to use the original label to createFileSystem.
     val cacheLabel = if (label == null) DEFAULT_CACHE_LABEL else label
-    val cacheKey = userName + JOINT + cacheLabel
-    val locker = cacheKey + LOCKER_SUFFIX
-    locker.intern().synchronized {
-      val hdfsFileSystemContainer = if (fileSystemCache.containsKey(cacheKey)) {
-        fileSystemCache.get(cacheKey)
-      } else {
-        // we use cacheLabel to create HDFSFileSystemContainer, and in the rest part of HDFSUtils, we consistently
-        // use the same cacheLabel to operate HDFSFileSystemContainer, like close or remove.
-        // At the same time, we don't want to change the behavior of createFileSystem which is out of HDFSUtils,
-        // so we continue to use the original label to createFileSystem.
-        val newHDFSFileSystemContainer =
-          new HDFSFileSystemContainer(createFileSystem(userName, label, conf), userName, cacheLabel)
-        fileSystemCache.put(cacheKey, newHDFSFileSystemContainer)
-        newHDFSFileSystemContainer
-      }
-      hdfsFileSystemContainer.addAccessCount()
-      hdfsFileSystemContainer.updateLastAccessTime
-      hdfsFileSystemContainer.getFileSystem
-    }
+    fileSystemCache.getFileSystem(userName, cacheLabel, createFileSystem(userName, label, conf))
   } else {
     createFileSystem(userName, label, conf)
   }
@@ -170,9 +117,8 @@ object HDFSUtils extends Logging {
   ): FileSystem =
     getUserGroupInformation(userName, label)
       .doAs(new PrivilegedExceptionAction[FileSystem] {
-        // scalastyle:off FileSystemGet
-        def run: FileSystem = FileSystem.get(conf)
-        // scalastyle:on FileSystemGet
+        // the ugi may be a cached one, so every caller gets its own instance to close
+        def run: FileSystem = FileSystem.newInstance(conf)
       })
 
   def closeHDFSFIleSystem(fileSystem: FileSystem, userName: String): Unit =
@@ -193,20 +139,7 @@ object HDFSUtils extends Logging {
     if (null != fileSystem && StringUtils.isNotBlank(userName)) {
       if (HadoopConf.HDFS_ENABLE_CACHE) {
         val cacheLabel = if (label == null) DEFAULT_CACHE_LABEL else label
-        val cacheKey = userName + JOINT + cacheLabel
-        val hdfsFileSystemContainer = fileSystemCache.get(cacheKey)
-        if (null != hdfsFileSystemContainer) {
-          val locker = cacheKey + LOCKER_SUFFIX
-          if (isForce) {
-            locker synchronized fileSystemCache.remove(cacheKey)
-            IOUtils.closeQuietly(hdfsFileSystemContainer.getFileSystem)
-            logger.info(
-              s"user${hdfsFileSystemContainer.getUser} to Force remove hdfsFileSystemContainer"
-            )
-          } else {
-            locker synchronized hdfsFileSystemContainer.minusAccessCount()
-          }
-        }
+        fileSystemCache.releaseFileSystem(userName, cacheLabel, isForce)
       } else {
         IOUtils.closeQuietly(fileSystem)
       }
@@ -221,17 +154,12 @@ object HDFSUtils extends Logging {
       if (!isKeytabProxyUserEnabled(label)) {
         val path = new File(getKeytabPath(label), userName + ".keytab").getPath
         val user = getKerberosUser(userName, label)
-        UserGroupInformation.setConfiguration(getConfigurationByLabel(userName, label))
-        UserGroupInformation.loginUserFromKeytabAndReturnUGI(user, path)
+        UGICache.getLoginUser(user, path, getConfigurationByLabel(userName, label))
       } else {
         val superUser = getKeytabSuperUser(label)
         val path = new File(getKeytabPath(label), superUser + ".keytab").getPath
         val user = getKerberosUser(superUser, label)
-        UserGroupInformation.setConfiguration(getConfigurationByLabel(superUser, label))
-        UserGroupInformation.createProxyUser(
-          userName,
-          UserGroupInformation.loginUserFromKeytabAndReturnUGI(user, path)
-        )
+        UGICache.getProxyUser(userName, user, path, getConfigurationByLabel(superUser, label))
       }
     } else {
       UserGroupInformation.createRemoteUser(userName)
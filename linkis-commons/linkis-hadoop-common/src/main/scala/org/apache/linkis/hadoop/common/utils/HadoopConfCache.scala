@@ -0,0 +1,103 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.linkis.hadoop.common.utils
+
+import org.apache.linkis.common.utils.Logging
+
+import org.apache.hadoop.conf.Configuration
+import org.apache.hadoop.fs.Path
+
+import java.io.File
+import java.nio.file.Paths
+import java.util.concurrent.ConcurrentHashMap
+import java.util.function.BiFunction
+
+/**
+ * Parsed core-site.xml and hdfs-site.xml per hadoop conf dir. The cached Configuration is never
+ * handed out, callers get a copy of it which skips the xml parsing. The files are checked for a
+ * newer mtime at most once per checkInterval and reloaded when one changed.
+ */
+class HadoopConfCache(checkInterval: Long) extends Logging {
+
+  private class ConfSnapshot(val conf: Configuration, val modifiedTimes: Seq[Long]) {
+    @volatile var checkTime: Long = System.currentTimeMillis()
+  }
+
+  private val snapshots = new ConcurrentHashMap[String, ConfSnapshot]()
+
+  def getConfiguration(hadoopConfDir: String): Configuration =
+    new Configuration(getSnapshot(hadoopConfDir).conf)
+
+  def size: Int = snapshots.size()
+
+  private def getSnapshot(hadoopConfDir: String): ConfSnapshot = {
+    val cached = snapshots.get(hadoopConfDir)
+    val now = System.currentTimeMillis()
+    if (cached != null && now - cached.checkTime < checkInterval) {
+      cached
+    } else if (cached != null && cached.modifiedTimes == getModifiedTimes(hadoopConfDir)) {
+      cached.checkTime = now
+      cached
+    } else {
+      // only one thread parses the files, the others take its snapshot
+      snapshots.compute(
+        hadoopConfDir,
+        new BiFunction[String, ConfSnapshot, ConfSnapshot] {
+          override def apply(dir: String, current: ConfSnapshot): ConfSnapshot =
+            if (current != null && (current ne cached)) current else loadSnapshot(dir)
+        }
+      )
+    }
+  }
+
+  private def loadSnapshot(hadoopConfDir: String): ConfSnapshot = {
+    // read the mtimes first, a change during the parsing is picked up by the next check
+    val modifiedTimes = getModifiedTimes(hadoopConfDir)
+    val conf = HadoopConfCache.createConfiguration(hadoopConfDir)
+    // force the parsing so that the copies only clone the properties
+    conf.size()
+    logger.info(s"Loaded hadoop configuration from $hadoopConfDir")
+    new ConfSnapshot(conf, modifiedTimes)
+  }
+
+  private def getModifiedTimes(hadoopConfDir: String): Seq[Long] =
+    HadoopConfCache.CONF_FILES.map(file => new File(hadoopConfDir, file).lastModified()).toList
+
+}
+
+object HadoopConfCache {
+
+  private val CONF_FILES = Array("core-site.xml", "hdfs-site.xml")
+
+  def createConfiguration(hadoopConfDir: String): Configuration = {
+    val confPath = new File(hadoopConfDir)
+    if (!confPath.exists() || confPath.isFile) {
+      throw new RuntimeException(
+        s"Create hadoop configuration failed, path $hadoopConfDir not exists."
+      )
+    }
+    val conf = new Configuration()
+    CONF_FILES.foreach { file =>
+      conf.addResource(
+        new Path(Paths.get(hadoopConfDir, file).toAbsolutePath.toFile.getAbsolutePath)
+      )
+    }
+    conf
+  }
+
+}
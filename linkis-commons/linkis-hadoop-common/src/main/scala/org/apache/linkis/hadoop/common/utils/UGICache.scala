@@ -0,0 +1,100 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.linkis.hadoop.common.utils
+
+import org.apache.linkis.common.utils.{Logging, Utils}
+import org.apache.linkis.hadoop.common.conf.HadoopConf
+
+import org.apache.hadoop.conf.Configuration
+import org.apache.hadoop.security.UserGroupInformation
+
+import java.util.concurrent.{ConcurrentHashMap, TimeUnit}
+import java.util.function.{Function => JFunction}
+
+import scala.collection.JavaConverters._
+
+/**
+ * Keytab logins and the proxy users on top of them, keyed by principal and keytab. A login is
+ * done once per key instead of once per call, and a scheduled task checks the tickets of the
+ * cached logins and relogins from the keytab before they expire.
+ */
+object UGICache extends Logging {
+
+  private val JOINT = "_"
+
+  private val loginUsers = new ConcurrentHashMap[String, UserGroupInformation]()
+  private val proxyUsers = new ConcurrentHashMap[String, UserGroupInformation]()
+
+  if (HadoopConf.UGI_CACHE_ENABLE) {
+    Utils.defaultScheduler.scheduleAtFixedRate(
+      new Runnable {
+        override def run(): Unit = loginUsers.values().asScala.foreach { ugi =>
+          Utils.tryAndWarn(ugi.checkTGTAndReloginFromKeytab())
+        }
+      },
+      HadoopConf.KERBEROS_RELOGIN_INTERVAL,
+      HadoopConf.KERBEROS_RELOGIN_INTERVAL,
+      TimeUnit.MILLISECONDS
+    )
+  }
+
+  def getLoginUser(
+      principal: String,
+      keytab: String,
+      conf: => Configuration
+  ): UserGroupInformation = if (HadoopConf.UGI_CACHE_ENABLE) {
+    loginUsers.computeIfAbsent(
+      principal + JOINT + keytab,
+      new JFunction[String, UserGroupInformation] {
+        override def apply(key: String): UserGroupInformation = login(principal, keytab, conf)
+      }
+    )
+  } else {
+    login(principal, keytab, conf)
+  }
+
+  def getProxyUser(
+      userName: String,
+      principal: String,
+      keytab: String,
+      conf: => Configuration
+  ): UserGroupInformation = if (HadoopConf.UGI_CACHE_ENABLE) {
+    proxyUsers.computeIfAbsent(
+      userName + JOINT + principal + JOINT + keytab,
+      new JFunction[String, UserGroupInformation] {
+        override def apply(key: String): UserGroupInformation =
+          UserGroupInformation.createProxyUser(userName, getLoginUser(principal, keytab, conf))
+      }
+    )
+  } else {
+    UserGroupInformation.createProxyUser(userName, login(principal, keytab, conf))
+  }
+
+  // setConfiguration is global, so it is kept together with the login it is meant for
+  private def login(
+      principal: String,
+      keytab: String,
+      conf: Configuration
+  ): UserGroupInformation = synchronized {
+    UserGroupInformation.setConfiguration(conf)
+    val ugi = UserGroupInformation.loginUserFromKeytabAndReturnUGI(principal, keytab)
+    logger.info(s"Login $principal with keytab $keytab")
+    ugi
+  }
+
+}
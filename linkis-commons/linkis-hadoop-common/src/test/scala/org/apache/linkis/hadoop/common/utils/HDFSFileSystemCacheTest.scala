@@ -0,0 +1,138 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.linkis.hadoop.common.utils
+
+import org.apache.hadoop.conf.Configuration
+import org.apache.hadoop.fs.FileSystem
+
+import java.net.URI
+import java.util.concurrent.{Callable, ConcurrentHashMap, CountDownLatch, Executors, TimeUnit}
+import java.util.concurrent.atomic.AtomicInteger
+
+import org.junit.jupiter.api.{Assertions, Test}
+import org.junit.jupiter.api.function.Executable
+
+class HDFSFileSystemCacheTest {
+
+  private val created = new AtomicInteger()
+
+  private def newFileSystem(): FileSystem = {
+    created.incrementAndGet()
+    FileSystem.newInstance(new URI("file:///"), new Configuration())
+  }
+
+  @Test
+  def testConcurrentAccessCounting(): Unit = {
+    val cache = new HDFSFileSystemCache(16)
+    val users = Array("u1", "u2", "u3", "u4")
+    val threads = 16
+    val loops = 10000
+    val seen = new ConcurrentHashMap[String, java.util.Set[FileSystem]]()
+    users.foreach(user => seen.put(user, ConcurrentHashMap.newKeySet[FileSystem]()))
+
+    val pool = Executors.newFixedThreadPool(threads)
+    try {
+      val futures = (0 until threads).map { t =>
+        pool.submit(new Callable[Unit] {
+          override def call(): Unit = (0 until loops).foreach { i =>
+            val user = users((t + i) % users.length)
+            seen.get(user).add(cache.getFileSystem(user, "default", newFileSystem()))
+            cache.releaseFileSystem(user, "default", false)
+          }
+        })
+      }
+      futures.foreach(_.get())
+    } finally {
+      pool.shutdownNow()
+    }
+
+    Assertions.assertEquals(users.length, created.get())
+    Assertions.assertEquals(users.length, cache.size)
+    users.foreach { user =>
+      Assertions.assertEquals(1, seen.get(user).size())
+      Assertions.assertEquals(0, cache.getAccessCount(user, "default"))
+    }
+  }
+
+  @Test
+  def testCreateOutsideOfLock(): Unit = {
+    // a single stripe, so every key shares the lock
+    val cache = new HDFSFileSystemCache(1)
+    val creating = new CountDownLatch(1)
+    val proceed = new CountDownLatch(1)
+    val pool = Executors.newFixedThreadPool(2)
+    try {
+      val slow = pool.submit(new Callable[FileSystem] {
+        override def call(): FileSystem = cache.getFileSystem(
+          "u1",
+          "default", {
+            creating.countDown()
+            proceed.await()
+            newFileSystem()
+          }
+        )
+      })
+      Assertions.assertTrue(creating.await(10, TimeUnit.SECONDS))
+      val waiting = pool.submit(new Callable[FileSystem] {
+        override def call(): FileSystem = cache.getFileSystem("u1", "default", newFileSystem())
+      })
+      // another key is served while u1 is being created
+      cache.getFileSystem("u2", "default", newFileSystem())
+      Assertions.assertEquals(1, cache.getAccessCount("u2", "default"))
+      Assertions.assertEquals(0, cache.getAccessCount("u1", "default"))
+
+      proceed.countDown()
+      Assertions.assertSame(slow.get(), waiting.get())
+      Assertions.assertEquals(2, cache.getAccessCount("u1", "default"))
+      Assertions.assertEquals(2, created.get())
+    } finally {
+      proceed.countDown()
+      pool.shutdownNow()
+    }
+  }
+
+  @Test
+  def testFailedCreation(): Unit = {
+    val cache = new HDFSFileSystemCache(4)
+    val failure = new IllegalStateException("kerberos login failed")
+    val thrown = Assertions.assertThrows(
+      classOf[IllegalStateException],
+      new Executable {
+        override def execute(): Unit = cache.getFileSystem("u1", "default", throw failure)
+      }
+    )
+    Assertions.assertSame(failure, thrown)
+    Assertions.assertEquals(0, cache.size)
+    // the next caller tries again
+    cache.getFileSystem("u1", "default", newFileSystem())
+    Assertions.assertEquals(1, cache.getAccessCount("u1", "default"))
+  }
+
+  @Test
+  def testForceRelease(): Unit = {
+    val cache = new HDFSFileSystemCache(4)
+    val fs = cache.getFileSystem("u1", "default", newFileSystem())
+    Assertions.assertSame(fs, cache.getFileSystem("u1", "default", newFileSystem()))
+    Assertions.assertEquals(2, cache.getAccessCount("u1", "default"))
+    cache.releaseFileSystem("u1", "default", true)
+    Assertions.assertEquals(0, cache.size)
+    Assertions.assertNotSame(fs, cache.getFileSystem("u1", "default", newFileSystem()))
+    Assertions.assertEquals(2, created.get())
+  }
+
+}
@@ -0,0 +1,124 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.linkis.hadoop.common.utils
+
+import java.io.File
+import java.nio.charset.StandardCharsets
+import java.nio.file.Files
+import java.util.concurrent.{Callable, Executors, TimeUnit}
+
+import org.junit.jupiter.api.{Assertions, Disabled, Test}
+
+class HadoopConfCacheTest {
+
+  private val KEY = "linkis.test.conf.key"
+
+  private def writeCoreSite(dir: File, value: String): Unit = {
+    val xml = "<?xml version=\"1.0\"?><configuration><property><name>" + KEY +
+      "</name><value>" + value + "</value></property></configuration>"
+    Files.write(new File(dir, "core-site.xml").toPath, xml.getBytes(StandardCharsets.UTF_8))
+  }
+
+  private def newConfDir(value: String): File = {
+    val dir = Files.createTempDirectory("hadoop-conf").toFile
+    dir.deleteOnExit()
+    writeCoreSite(dir, value)
+    dir
+  }
+
+  @Test
+  def testCopiesAreIsolated(): Unit = {
+    val dir = newConfDir("v1")
+    val cache = new HadoopConfCache(0)
+    val conf = cache.getConfiguration(dir.getPath)
+    Assertions.assertEquals("v1", conf.get(KEY))
+    conf.set(KEY, "changed")
+    Assertions.assertEquals("v1", cache.getConfiguration(dir.getPath).get(KEY))
+    Assertions.assertEquals(1, cache.size)
+  }
+
+  @Test
+  def testReloadWhenModified(): Unit = {
+    val dir = newConfDir("v1")
+    val coreSite = new File(dir, "core-site.xml")
+    val cache = new HadoopConfCache(0)
+    val lazyCache = new HadoopConfCache(TimeUnit.HOURS.toMillis(1))
+    Assertions.assertEquals("v1", cache.getConfiguration(dir.getPath).get(KEY))
+    Assertions.assertEquals("v1", lazyCache.getConfiguration(dir.getPath).get(KEY))
+
+    writeCoreSite(dir, "v2")
+    coreSite.setLastModified(coreSite.lastModified() + 10000)
+    Assertions.assertEquals("v2", cache.getConfiguration(dir.getPath).get(KEY))
+    // not checked again before the interval is over
+    Assertions.assertEquals("v1", lazyCache.getConfiguration(dir.getPath).get(KEY))
+  }
+
+  @Test
+  def testMissingDir(): Unit = {
+    val cache = new HadoopConfCache(0)
+    val failed =
+      try {
+        cache.getConfiguration("/not/exists/hadoop/conf")
+        false
+      } catch {
+        case _: RuntimeException => true
+      }
+    Assertions.assertTrue(failed)
+  }
+
+  @Test
+  def testConcurrency(): Unit = {
+    val dir = newConfDir("v1")
+    val cache = new HadoopConfCache(TimeUnit.SECONDS.toMillis(5))
+    val calls = 2000
+    val threads = 8
+    val pool = Executors.newFixedThreadPool(threads)
+    try {
+      val futures = (0 until threads).map { _ =>
+        pool.submit(new Callable[Int] {
+          override def call(): Int =
+            (0 until calls).count(_ => cache.getConfiguration(dir.getPath).get(KEY) == "v1")
+        })
+      }
+      futures.foreach(future => Assertions.assertEquals(calls, future.get()))
+    } finally {
+      pool.shutdownNow()
+    }
+    Assertions.assertEquals(1, cache.size)
+  }
+
+  @Test
+  @Disabled("Benchmark, run it manually")
+  def testPerCallCost(): Unit = {
+    val dir = newConfDir("v1")
+    val cache = new HadoopConfCache(TimeUnit.SECONDS.toMillis(5))
+    val calls = 2000
+
+    var start = System.nanoTime()
+    (0 until calls).foreach(_ => HadoopConfCache.createConfiguration(dir.getPath).get(KEY))
+    val parseNanos = (System.nanoTime() - start) / calls
+
+    start = System.nanoTime()
+    (0 until calls).foreach(_ => cache.getConfiguration(dir.getPath).get(KEY))
+    val cachedNanos = (System.nanoTime() - start) / calls
+    // scalastyle:off println
+    println(s"per call: parse ${parseNanos / 1000}us, cached copy ${cachedNanos / 1000}us")
+    // scalastyle:on println
+  }
+
+}
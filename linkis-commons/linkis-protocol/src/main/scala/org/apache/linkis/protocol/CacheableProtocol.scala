@@ -18,5 +18,25 @@
 package org.apache.linkis.protocol
 
 trait CacheableProtocol extends Protocol {
+
+  /**
+   * Fields identifying the response of this protocol. The RPC cache is keyed by the class of the
+   * protocol and these fields, all the fields of a case class are used by default.
+   */
+  def cacheKeyFields: Array[String] = this match {
+    case product: Product => product.productIterator.map(CacheableProtocol.fieldToString).toArray
+    case _ => Array(toString)
+  }
+
   override def toString: String = super.toString
 }
+
+object CacheableProtocol {
+
+  def fieldToString(field: Any): String = field match {
+    case null => "null"
+    case array: Array[_] => array.map(fieldToString).mkString("[", ",", "]")
+    case _ => field.toString
+  }
+
+}
@@ -112,6 +112,24 @@ object RPCConfiguration {
   val BDP_RPC_CACHE_CONF_EXPIRE_TIME: CommonVars[Long] =
     CommonVars("wds.linkis.rpc.cache.expire.time", 120000L)
 
+  val BDP_RPC_CACHE_MAX_SIZE: CommonVars[Int] = CommonVars("linkis.rpc.cache.max.size", 1000)
+
+  /**
+   * Max entries cached for the protocol, e.g. linkis.rpc.cache.RequestQueryGlobalConfig.max.size,
+   * 0 disables the cache of the protocol.
+   */
+  def getCacheMaxSize(protocolName: String): Int =
+    CommonVars(s"linkis.rpc.cache.$protocolName.max.size", BDP_RPC_CACHE_MAX_SIZE.getValue).getValue
+
+  /**
+   * Time to live of the entries cached for the protocol, e.g.
+   * linkis.rpc.cache.RequestQueryGlobalConfig.expire.time
+   */
+  def getCacheExpireTime(protocolName: String): Long = CommonVars(
+    s"linkis.rpc.cache.$protocolName.expire.time",
+    BDP_RPC_CACHE_CONF_EXPIRE_TIME.getValue
+  ).getValue
+
   val CONTEXT_SERVICE_REQUEST_PREFIX = "contextservice"
 
   val CONTEXT_SERVICE_NAME: String =
@@ -19,7 +19,8 @@ package org.apache.linkis.rpc.interceptor.common
 
 import org.apache.linkis.common.exception.WarnException
 import org.apache.linkis.common.utils.{Logging, Utils}
-import org.apache.linkis.protocol.CacheableProtocol
+import org.apache.linkis.protocol.{BroadcastProtocol, CacheableProtocol}
+import org.apache.linkis.rpc.{BroadcastListener, Sender}
 import org.apache.linkis.rpc.conf.RPCConfiguration
 import org.apache.linkis.rpc.interceptor.{
   RPCInterceptor,
@@ -27,74 +28,151 @@ import org.apache.linkis.rpc.interceptor.{
   RPCInterceptorExchange
 }
 
+import org.apache.commons.lang3.StringUtils
+
 import org.springframework.stereotype.Component
-import org.springframework.util.StringUtils
 
-import java.util.concurrent.{Callable, TimeUnit}
+import java.util.concurrent.{Callable, ConcurrentHashMap, TimeUnit}
+
+import scala.collection.JavaConverters._
 
-import com.google.common.cache.{Cache, CacheBuilder, RemovalListener, RemovalNotification}
+import com.google.common.cache.{
+  Cache,
+  CacheBuilder,
+  CacheStats,
+  RemovalListener,
+  RemovalNotification
+}
 
+/**
+ * Caches the responses of [[CacheableProtocol]]s. Every protocol class has its own cache, whose
+ * capacity and time to live are configured by `linkis.rpc.cache.<ProtocolName>.max.size` and
+ * `linkis.rpc.cache.<ProtocolName>.expire.time`. Entries are keyed by [[RPCCacheKey]] and expire
+ * after write, the providing service broadcasts [[RemoveRPCCacheRequest]] to drop them earlier.
+ */
 @Component
-class CacheableRPCInterceptor extends RPCInterceptor with Logging {
-
-  private val guavaCache: Cache[Any, Any] = CacheBuilder
-    .newBuilder()
-    .concurrencyLevel(5)
-    .expireAfterAccess(
-      RPCConfiguration.BDP_RPC_CACHE_CONF_EXPIRE_TIME.getValue,
-      TimeUnit.MILLISECONDS
-    )
-    .initialCapacity(20) // TODO Make parameters(做成参数)
-    .maximumSize(1000)
-    .recordStats()
-    .removalListener(new RemovalListener[Any, Any] {
-
-      override def onRemoval(removalNotification: RemovalNotification[Any, Any]): Unit = {
-        logger.debug(
-          s"CacheSender removed key => ${removalNotification.getKey}, value => ${removalNotification.getValue}."
-        )
-      }
+class CacheableRPCInterceptor extends RPCInterceptor with BroadcastListener with Logging {
 
-    })
-    .asInstanceOf[CacheBuilder[Any, Any]]
-    .build()
+  private val protocolCaches = new ConcurrentHashMap[String, Option[Cache[RPCCacheKey, Any]]]()
 
   override val order: Int = 10
 
+  private def getCache(protocolClass: Class[_]): Option[Cache[RPCCacheKey, Any]] = {
+    val protocolName = protocolClass.getName
+    val cache = protocolCaches.get(protocolName)
+    if (cache != null) cache
+    else {
+      val newCache = createCache(protocolClass.getSimpleName)
+      val oldCache = protocolCaches.putIfAbsent(protocolName, newCache)
+      if (oldCache != null) oldCache else newCache
+    }
+  }
+
+  private def createCache(protocolName: String): Option[Cache[RPCCacheKey, Any]] = {
+    val maxSize = RPCConfiguration.getCacheMaxSize(protocolName)
+    val expireTime = RPCConfiguration.getCacheExpireTime(protocolName)
+    if (maxSize <= 0 || expireTime <= 0) {
+      logger.info(s"RPC cache of $protocolName is disabled.")
+      return None
+    }
+    logger.info(s"Create RPC cache of $protocolName, maxSize: $maxSize, expireTime: $expireTime.")
+    val cache = CacheBuilder
+      .newBuilder()
+      .concurrencyLevel(5)
+      .expireAfterWrite(expireTime, TimeUnit.MILLISECONDS)
+      .initialCapacity(math.min(maxSize, 20))
+      .maximumSize(maxSize)
+      .recordStats()
+      .removalListener(new RemovalListener[Any, Any] {
+
+        override def onRemoval(removalNotification: RemovalNotification[Any, Any]): Unit = {
+          logger.debug(
+            s"CacheSender removed key => ${removalNotification.getKey}, value => ${removalNotification.getValue}."
+          )
+        }
+
+      })
+      .asInstanceOf[CacheBuilder[RPCCacheKey, Any]]
+      .build[RPCCacheKey, Any]()
+    Some(cache)
+  }
+
   override def intercept(
       interceptorExchange: RPCInterceptorExchange,
       chain: RPCInterceptorChain
   ): Any = interceptorExchange.getProtocol match {
     case cacheable: CacheableProtocol =>
-      guavaCache.get(
-        cacheable.toString,
-        new Callable[Any] {
-
-          override def call(): Any = {
-            val returnMsg = chain.handle(interceptorExchange)
-            returnMsg match {
-              case warn: WarnException =>
-                throw warn
-              case _ =>
-                returnMsg
-            }
-          }
+      getCache(cacheable.getClass) match {
+        case Some(cache) =>
+          cache.get(
+            RPCCacheKey(cacheable),
+            new Callable[Any] {
 
-        }
-      )
+              override def call(): Any = {
+                val returnMsg = chain.handle(interceptorExchange)
+                returnMsg match {
+                  case warn: WarnException =>
+                    throw warn
+                  case _ =>
+                    returnMsg
+                }
+              }
+
+            }
+          )
+        case None => chain.handle(interceptorExchange)
+      }
     case _ => chain.handle(interceptorExchange)
   }
 
-  def removeCache(cacheKey: String): Boolean = {
+  /**
+   * Remove the cached responses of the protocol whose key fields start with `keyFieldsPrefix`
+   * @return
+   *   number of removed entries
+   */
+  def removeCache(protocolClass: String, keyFieldsPrefix: Array[String]): Int = {
+    if (StringUtils.isBlank(protocolClass)) return 0
+    val cache = protocolCaches.get(protocolClass)
+    if (cache == null || cache.isEmpty) return 0
     Utils.tryCatch {
-      if (!StringUtils.isEmpty(cacheKey)) {
-        guavaCache.invalidate(cacheKey)
-      }
-      true
+      val keys = cache.get.asMap().keySet().asScala.filter(_.startsWith(keyFieldsPrefix))
+      cache.get.invalidateAll(keys.asJava)
+      keys.size
     } { case exception: Exception =>
-      logger.warn(s"Failed to clean RPC cache, cache key:${cacheKey}", exception)
-      false
+      logger.warn(s"Failed to clean RPC cache of $protocolClass", exception)
+      0
     }
   }
 
+  def removeCache(protocol: CacheableProtocol): Int =
+    removeCache(protocol.getClass.getName, protocol.cacheKeyFields)
+
+  def getCacheStats: Map[String, CacheStats] = protocolCaches.asScala.collect {
+    case (protocolName, Some(cache)) => protocolName -> cache.stats()
+  }.toMap
+
+  override def onBroadcastEvent(protocol: BroadcastProtocol, sender: Sender): Unit =
+    protocol match {
+      case request: RemoveRPCCacheRequest =>
+        val removedNum = removeCache(request.protocolClass, request.keyFieldsPrefix)
+        logger.info(s"Removed $removedNum RPC cache entries of ${request.protocolClass}.")
+      case _ =>
+    }
+
+}
+
+object CacheableRPCInterceptor extends Logging {
+
+  /**
+   * Broadcast the request to all the instances of the applications caching the protocol.
+   */
+  def broadcastRemoveCache(applicationNames: Array[String], request: RemoveRPCCacheRequest): Unit =
+    applicationNames.filter(StringUtils.isNotBlank).foreach { applicationName =>
+      Utils.tryAndWarn {
+        // A broadcast request is marked as skipBroadcast once sent, so send a copy every time
+        Sender.getSender(applicationName).send(request.copy())
+        logger.info(s"Broadcast $request to $applicationName.")
+      }
+    }
+
 }
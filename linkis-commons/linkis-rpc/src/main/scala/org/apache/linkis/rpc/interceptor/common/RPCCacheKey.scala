@@ -0,0 +1,55 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.linkis.rpc.interceptor.common
+
+import org.apache.linkis.protocol.CacheableProtocol
+
+import java.util
+
+/**
+ * Key of the responses cached by [[CacheableRPCInterceptor]], built from the class and the key
+ * fields of the protocol, so that equal requests share the entry whatever their toString is.
+ */
+class RPCCacheKey(val protocolName: String, val fields: Array[String]) {
+
+  private val hash =
+    31 * protocolName.hashCode + util.Arrays.hashCode(fields.asInstanceOf[Array[AnyRef]])
+
+  def startsWith(prefix: Array[String]): Boolean =
+    prefix == null || prefix.length <= fields.length && prefix.indices.forall(i =>
+      prefix(i) == fields(i)
+    )
+
+  override def hashCode(): Int = hash
+
+  override def equals(obj: Any): Boolean = obj match {
+    case key: RPCCacheKey =>
+      hash == key.hashCode && protocolName == key.protocolName && fields.sameElements(key.fields)
+    case _ => false
+  }
+
+  override def toString: String = protocolName + fields.mkString("(", ",", ")")
+
+}
+
+object RPCCacheKey {
+
+  def apply(protocol: CacheableProtocol): RPCCacheKey =
+    new RPCCacheKey(protocol.getClass.getName, protocol.cacheKeyFields)
+
+}
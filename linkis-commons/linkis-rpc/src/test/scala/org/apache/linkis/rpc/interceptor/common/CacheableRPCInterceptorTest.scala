@@ -0,0 +1,117 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.linkis.rpc.interceptor.common
+
+import org.apache.linkis.protocol.CacheableProtocol
+import org.apache.linkis.rpc.interceptor.{
+  BaseRPCInterceptorChain,
+  BaseRPCInterceptorExchange,
+  RPCInterceptor,
+  RPCInterceptorChain,
+  RPCInterceptorExchange
+}
+
+import java.util.concurrent.atomic.AtomicInteger
+
+import org.junit.jupiter.api.{Assertions, DisplayName, Test}
+
+case class TestQueryRequest(user: String, ids: Array[Long], filter: String)
+    extends CacheableProtocol
+
+class CacheableRPCInterceptorTest {
+
+  /** Answers the requests in process, in place of the remote service */
+  private class InProcessSender extends RPCInterceptor {
+
+    val handledNum = new AtomicInteger(0)
+
+    override val order: Int = Int.MaxValue
+
+    override def intercept(
+        interceptorExchange: RPCInterceptorExchange,
+        chain: RPCInterceptorChain
+    ): Any = {
+      handledNum.incrementAndGet()
+      "response of " + interceptorExchange.getProtocol
+    }
+
+  }
+
+  private def ask(
+      interceptor: CacheableRPCInterceptor,
+      sender: InProcessSender,
+      protocol: CacheableProtocol
+  ): Any = new BaseRPCInterceptorChain(0, Array(interceptor, sender), "test-service")
+    .handle(new BaseRPCInterceptorExchange(protocol, () => null))
+
+  @Test
+  @DisplayName("structuralKeyTest")
+  def structuralKeyTest(): Unit = {
+    val interceptor = new CacheableRPCInterceptor
+    val sender = new InProcessSender
+    ask(interceptor, sender, TestQueryRequest("hadoop", Array(1L, 2L), null))
+    // Arrays are compared by elements, not by their identity
+    ask(interceptor, sender, TestQueryRequest("hadoop", Array(1L, 2L), null))
+    Assertions.assertEquals(1, sender.handledNum.get())
+    ask(interceptor, sender, TestQueryRequest("hadoop", Array(1L, 3L), null))
+    ask(interceptor, sender, TestQueryRequest("spark", Array(1L, 2L), null))
+    Assertions.assertEquals(3, sender.handledNum.get())
+    val stats = interceptor.getCacheStats(classOf[TestQueryRequest].getName)
+    Assertions.assertEquals(1, stats.hitCount())
+  }
+
+  @Test
+  @DisplayName("removeCacheTest")
+  def removeCacheTest(): Unit = {
+    val interceptor = new CacheableRPCInterceptor
+    val sender = new InProcessSender
+    Array("a", "b").foreach { filter =>
+      ask(interceptor, sender, TestQueryRequest("hadoop", Array(1L), filter))
+      ask(interceptor, sender, TestQueryRequest("spark", Array(1L), filter))
+    }
+    Assertions.assertEquals(4, sender.handledNum.get())
+    val request = RemoveRPCCacheRequest(classOf[TestQueryRequest].getName, Array("hadoop"))
+    interceptor.onBroadcastEvent(request, null)
+    ask(interceptor, sender, TestQueryRequest("hadoop", Array(1L), "a"))
+    ask(interceptor, sender, TestQueryRequest("hadoop", Array(1L), "b"))
+    ask(interceptor, sender, TestQueryRequest("spark", Array(1L), "a"))
+    Assertions.assertEquals(6, sender.handledNum.get())
+    Assertions.assertEquals(
+      1,
+      interceptor.removeCache(TestQueryRequest("spark", Array(1L), "b"))
+    )
+    Assertions.assertEquals(
+      3,
+      interceptor.removeCache(classOf[TestQueryRequest].getName, Array.empty[String])
+    )
+  }
+
+  @Test
+  @DisplayName("cacheKeyTest")
+  def cacheKeyTest(): Unit = {
+    val key = RPCCacheKey(TestQueryRequest("hadoop", Array(1L, 2L), null))
+    Assertions.assertEquals(
+      classOf[TestQueryRequest].getName + "(hadoop,[1,2],null)",
+      key.toString
+    )
+    Assertions.assertEquals(key, RPCCacheKey(TestQueryRequest("hadoop", Array(1L, 2L), null)))
+    Assertions.assertTrue(key.startsWith(Array("hadoop", "[1,2]")))
+    Assertions.assertFalse(key.startsWith(Array("hadoop", "[1]")))
+  }
+
+}
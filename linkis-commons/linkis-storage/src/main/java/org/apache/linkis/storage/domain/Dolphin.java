@@ -24,6 +24,7 @@ import org.apache.linkis.storage.utils.StorageUtils;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.UnsupportedEncodingException;
+import java.math.BigDecimal;
 import java.nio.charset.Charset;
 
 import org.slf4j.Logger;
@@ -64,6 +65,9 @@ public class Dolphin {
   public static final int FILE_EMPTY = 31;
 
   public static byte[] getBytes(Object value) {
+    if (value instanceof BigDecimal) {
+      return ((BigDecimal) value).toPlainString().getBytes(CHAR_SET);
+    }
     return value.toString().getBytes(CHAR_SET);
   }
 
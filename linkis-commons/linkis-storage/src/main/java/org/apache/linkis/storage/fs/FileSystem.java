@@ -65,6 +65,14 @@ public abstract class FileSystem implements Fs {
     return null;
   }
 
+  /**
+   * Whether the user may list a directory, file systems that look the path up for every check
+   * override it to answer both from one lookup.
+   */
+  public boolean canReadAndExecute(FsPath dest) throws IOException {
+    return canRead(dest) && canExecute(dest);
+  }
+
   public boolean createNewFile(FsPath dest) throws IOException {
     return create(dest.getPath());
   }
@@ -301,6 +301,11 @@ public class HDFSFileSystem extends FileSystem {
     return canAccess(dest, FsAction.WRITE);
   }
 
+  @Override
+  public boolean canReadAndExecute(FsPath dest) throws IOException {
+    return canAccess(dest, FsAction.READ_EXECUTE);
+  }
+
   @Override
   public boolean exists(FsPath dest) throws IOException {
     try {
@@ -431,6 +431,26 @@ public class LocalFileSystem extends FileSystem {
         PosixFilePermission.OTHERS_WRITE);
   }
 
+  @Override
+  public boolean canReadAndExecute(FsPath dest) throws IOException {
+    String path = dest.getPath();
+    if (!exists(dest)) {
+      throw new IOException("path " + path + " not exists.");
+    }
+    if (FsPath.WINDOWS) return true;
+    PosixFileAttributes attr = Files.readAttributes(Paths.get(path), PosixFileAttributes.class);
+    return can(
+            attr,
+            PosixFilePermission.OWNER_READ,
+            PosixFilePermission.GROUP_READ,
+            PosixFilePermission.OTHERS_READ)
+        && can(
+            attr,
+            PosixFilePermission.OWNER_EXECUTE,
+            PosixFilePermission.GROUP_EXECUTE,
+            PosixFilePermission.OTHERS_EXECUTE);
+  }
+
   @Override
   public boolean exists(FsPath dest) throws IOException {
     return new File(dest.getPath()).exists();
@@ -470,6 +490,14 @@ public class LocalFileSystem extends FileSystem {
     }
     if (FsPath.WINDOWS) return true;
     PosixFileAttributes attr = Files.readAttributes(Paths.get(path), PosixFileAttributes.class);
+    return can(attr, userPermission, groupPermission, otherPermission);
+  }
+
+  private boolean can(
+      PosixFileAttributes attr,
+      PosixFilePermission userPermission,
+      PosixFilePermission groupPermission,
+      PosixFilePermission otherPermission) {
     Set<PosixFilePermission> permissions = attr.permissions();
     if (attr.owner().getName().equals(user) && permissions.contains(userPermission)) {
       return true;
@@ -36,6 +36,7 @@ import org.apache.hadoop.fs.aliyun.oss.AliyunOSSFileSystem;
 import org.apache.hadoop.fs.permission.FsAction;
 import org.apache.hadoop.fs.permission.FsPermission;
 
+import java.io.FilterOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
@@ -57,6 +58,9 @@ public class OSSFileSystem extends FileSystem {
 
   private String label = null;
 
+  private final ObjectExistsCache existsCache =
+      new ObjectExistsCache(StorageConfiguration.OBJECT_EXISTS_CACHE_TTL.getValue().toLong());
+
   private static final Logger logger = LoggerFactory.getLogger(OSSFileSystem.class);
 
   /** File System abstract method start */
@@ -108,6 +112,7 @@ public class OSSFileSystem extends FileSystem {
     }
     boolean result =
         fs.mkdirs(new Path(path), new FsPermission(FsAction.ALL, FsAction.ALL, FsAction.ALL));
+    existsCache.invalidate(path);
     this.setPermission(new FsPath(path), this.getDefaultFolderPerm());
     return result;
   }
@@ -119,7 +124,10 @@ public class OSSFileSystem extends FileSystem {
     while (!exists(parentPath)) {
       parentPath = getParentPath(parentPath.getPath());
     }
-    return fs.mkdirs(new Path(path), new FsPermission(FsAction.ALL, FsAction.ALL, FsAction.ALL));
+    boolean result =
+        fs.mkdirs(new Path(path), new FsPermission(FsAction.ALL, FsAction.ALL, FsAction.ALL));
+    existsCache.invalidate(path);
+    return result;
   }
 
   @Override
@@ -239,7 +247,22 @@ public class OSSFileSystem extends FileSystem {
             0L,
             null);
     this.setPermission(dest, this.getDefaultFilePerm());
-    return out;
+    // the object shows up once the stream is closed
+    return new FilterOutputStream(out) {
+      @Override
+      public void write(byte[] b, int off, int len) throws IOException {
+        out.write(b, off, len);
+      }
+
+      @Override
+      public void close() throws IOException {
+        try {
+          super.close();
+        } finally {
+          existsCache.invalidate(path);
+        }
+      }
+    };
   }
 
   @Override
@@ -249,6 +272,7 @@ public class OSSFileSystem extends FileSystem {
     }
     // to do
     boolean result = fs.createNewFile(new Path(checkOSSPath(dest)));
+    existsCache.invalidate(checkOSSPath(dest));
     this.setPermission(new FsPath(dest), this.getDefaultFilePerm());
     return result;
   }
@@ -267,6 +291,7 @@ public class OSSFileSystem extends FileSystem {
             false,
             true,
             fs.getConf());
+    existsCache.invalidateAll();
     this.setPermission(new FsPath(dest), this.getDefaultFilePerm());
     return res;
   }
@@ -293,8 +318,13 @@ public class OSSFileSystem extends FileSystem {
 
   @Override
   public boolean exists(FsPath dest) throws IOException {
+    String path = checkOSSPath(dest.getPath());
+    return existsCache.exists(path, () -> existsWithRetry(path));
+  }
+
+  private boolean existsWithRetry(String path) throws IOException {
     try {
-      return fs.exists(new Path(checkOSSPath(dest.getPath())));
+      return fs.exists(new Path(path));
     } catch (IOException e) {
       String message = e.getMessage();
       String rootCauseMessage = ExceptionUtils.getRootCauseMessage(e);
@@ -303,7 +333,7 @@ public class OSSFileSystem extends FileSystem {
               && rootCauseMessage.matches(LinkisStorageConf.HDFS_FILE_SYSTEM_REST_ERRS))) {
         logger.info("Failed to execute exists, retry", e);
         resetRootOSS();
-        return fs.exists(new Path(checkOSSPath(dest.getPath())));
+        return fs.exists(new Path(path));
       } else {
         throw e;
       }
@@ -325,13 +355,21 @@ public class OSSFileSystem extends FileSystem {
   @Override
   public boolean delete(FsPath dest) throws IOException {
     String path = checkOSSPath(dest.getPath());
-    return fs.delete(new Path(path), true);
+    try {
+      return fs.delete(new Path(path), true);
+    } finally {
+      existsCache.invalidateAll();
+    }
   }
 
   @Override
   public boolean renameTo(FsPath oldDest, FsPath newDest) throws IOException {
-    return fs.rename(
-        new Path(checkOSSPath(oldDest.getPath())), new Path(checkOSSPath(newDest.getPath())));
+    try {
+      return fs.rename(
+          new Path(checkOSSPath(oldDest.getPath())), new Path(checkOSSPath(newDest.getPath())));
+    } finally {
+      existsCache.invalidateAll();
+    }
   }
 
   @Override
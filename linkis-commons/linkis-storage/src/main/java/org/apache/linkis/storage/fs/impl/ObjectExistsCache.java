@@ -0,0 +1,85 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.linkis.storage.fs.impl;
+
+import java.io.IOException;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.util.concurrent.UncheckedExecutionException;
+
+/**
+ * Short lived answers of exists for object stores, where every check is a remote call. A change
+ * of a path drops the cached answers of the path and of all its parents, since creating or
+ * deleting an object can make its directories appear or disappear.
+ */
+class ObjectExistsCache {
+
+  private final Cache<String, Boolean> cache;
+
+  ObjectExistsCache(long ttlMillis) {
+    this.cache =
+        ttlMillis > 0
+            ? CacheBuilder.newBuilder()
+                .expireAfterWrite(ttlMillis, TimeUnit.MILLISECONDS)
+                .maximumSize(10000)
+                .build()
+            : null;
+  }
+
+  boolean exists(String path, Callable<Boolean> loader) throws IOException {
+    try {
+      return cache == null ? loader.call() : cache.get(normalize(path), loader);
+    } catch (ExecutionException | UncheckedExecutionException e) {
+      if (e.getCause() instanceof IOException) {
+        throw (IOException) e.getCause();
+      }
+      throw new IOException(e.getCause());
+    } catch (IOException | RuntimeException e) {
+      throw e;
+    } catch (Exception e) {
+      throw new IOException(e);
+    }
+  }
+
+  void invalidate(String path) {
+    if (cache == null || path == null) {
+      return;
+    }
+    String current = normalize(path);
+    while (!current.isEmpty()) {
+      cache.invalidate(current);
+      int index = current.lastIndexOf('/');
+      current = index < 0 ? "" : current.substring(0, index);
+    }
+  }
+
+  // for recursive deletes and renames, which change paths below the given one as well
+  void invalidateAll() {
+    if (cache != null) {
+      cache.invalidateAll();
+    }
+  }
+
+  private static String normalize(String path) {
+    return path.endsWith("/") ? path.substring(0, path.length() - 1) : path;
+  }
+}
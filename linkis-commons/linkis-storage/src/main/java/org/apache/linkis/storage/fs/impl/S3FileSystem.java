@@ -18,6 +18,7 @@
 package org.apache.linkis.storage.fs.impl;
 
 import org.apache.linkis.common.io.FsPath;
+import org.apache.linkis.common.utils.Utils;
 import org.apache.linkis.storage.domain.FsPathListWithError;
 import org.apache.linkis.storage.exception.StorageWarnException;
 import org.apache.linkis.storage.fs.FileSystem;
@@ -31,7 +32,7 @@ import java.io.*;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
-import java.util.stream.Collectors;
+import java.util.concurrent.ExecutorService;
 
 import com.amazonaws.auth.AWSStaticCredentialsProvider;
 import com.amazonaws.auth.BasicAWSCredentials;
@@ -39,8 +40,8 @@ import com.amazonaws.client.builder.AwsClientBuilder;
 import com.amazonaws.services.s3.AmazonS3;
 import com.amazonaws.services.s3.AmazonS3ClientBuilder;
 import com.amazonaws.services.s3.model.AmazonS3Exception;
+import com.amazonaws.services.s3.model.ListObjectsV2Request;
 import com.amazonaws.services.s3.model.ListObjectsV2Result;
-import com.amazonaws.services.s3.model.ObjectMetadata;
 import com.amazonaws.services.s3.model.S3ObjectSummary;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -64,6 +65,13 @@ public class S3FileSystem extends FileSystem {
 
   private static final String INIT_FILE_NAME = ".s3_dir_init";
 
+  private static final ExecutorService uploadExecutor =
+      Utils.newCachedThreadPool(
+          StorageConfiguration.S3_MULTIPART_UPLOAD_THREADS.getValue(), "S3-Part-Upload-", true);
+
+  private final ObjectExistsCache existsCache =
+      new ObjectExistsCache(StorageConfiguration.OBJECT_EXISTS_CACHE_TTL.getValue().toLong());
+
   @Override
   public void init(Map<String, String> properties) throws IOException {
     accessKey = StorageConfiguration.S3_ACCESS_KEY.getValue(properties);
@@ -88,6 +96,11 @@ public class S3FileSystem extends FileSystem {
             .build();
   }
 
+  void init(AmazonS3 s3Client, String bucket) {
+    this.s3Client = s3Client;
+    this.bucket = bucket;
+  }
+
   @Override
   public String fsName() {
     return StorageUtils.S3;
@@ -122,13 +135,25 @@ public class S3FileSystem extends FileSystem {
 
   @Override
   public OutputStream write(FsPath dest, boolean overwrite) throws IOException {
-    try (InputStream inputStream = read(dest);
-        OutputStream outputStream = new S3OutputStream(s3Client, bucket, dest.getPath())) {
-      if (overwrite) {
+    String key = dest.getPath();
+    OutputStream outputStream =
+        new S3MultipartOutputStream(
+            s3Client,
+            bucket,
+            key,
+            StorageConfiguration.S3_MULTIPART_PART_SIZE.getValue().toLong(),
+            StorageConfiguration.S3_MULTIPART_MAX_INFLIGHT.getValue(),
+            uploadExecutor,
+            () -> existsCache.invalidate(key));
+    if (!overwrite && exists(dest)) {
+      try (InputStream inputStream = read(dest)) {
         IOUtils.copy(inputStream, outputStream);
+      } catch (IOException e) {
+        IOUtils.closeQuietly(outputStream);
+        throw e;
       }
-      return outputStream;
     }
+    return outputStream;
   }
 
   @Override
@@ -137,65 +162,88 @@ public class S3FileSystem extends FileSystem {
       return false;
     }
     s3Client.putObject(bucket, dest, "");
+    existsCache.invalidate(dest);
     return true;
   }
 
   @Override
   public List<FsPath> list(FsPath path) throws IOException {
-    try {
-      if (!StringUtils.isEmpty(path.getPath())) {
-        ListObjectsV2Result listObjectsV2Result = s3Client.listObjectsV2(bucket, path.getPath());
-        List<S3ObjectSummary> s3ObjectSummaries = listObjectsV2Result.getObjectSummaries();
-        return s3ObjectSummaries.stream()
-            .filter(summary -> !isInitFile(summary))
-            .map(
-                summary -> {
-                  FsPath newPath = new FsPath(buildPath(summary.getKey()));
-                  return fillStorageFile(newPath, summary);
-                })
-            .collect(Collectors.toList());
-      }
-    } catch (AmazonS3Exception e) {
-      throw new IOException("You have not permission to access path " + path.getPath());
+    if (StringUtils.isEmpty(path.getPath())) {
+      return new ArrayList<>();
     }
-
-    return new ArrayList<>();
+    return listChildren(path);
   }
 
   @Override
   public FsPathListWithError listPathWithError(FsPath path) throws IOException {
+    if (StringUtils.isEmpty(path.getPath())) {
+      return null;
+    }
+    return new FsPathListWithError(listChildren(path), "");
+  }
+
+  /**
+   * The direct children of a directory: objects are files and common prefixes are directories.
+   * Every page of the listing is followed, a directory is not cut at 1000 keys.
+   */
+  private List<FsPath> listChildren(FsPath path) throws IOException {
+    String prefix = toDirPrefix(path.getPath());
+    ListObjectsV2Request request =
+        new ListObjectsV2Request()
+            .withBucketName(bucket)
+            .withPrefix(prefix)
+            .withDelimiter("/")
+            .withFetchOwner(true);
+    List<FsPath> children = new ArrayList<>();
     try {
-      if (!StringUtils.isEmpty(path.getPath())) {
-        ListObjectsV2Result listObjectsV2Result = s3Client.listObjectsV2(bucket, path.getPath());
-        List<S3ObjectSummary> s3ObjectSummaries = listObjectsV2Result.getObjectSummaries();
-        if (s3ObjectSummaries != null) {
-          List<FsPath> rtn = new ArrayList();
-          String message = "";
-          for (S3ObjectSummary summary : s3ObjectSummaries) {
-            if (isDir(summary, path.getPath()) || isInitFile(summary)) continue;
-            FsPath newPath = new FsPath(buildPath(summary.getKey()));
-            rtn.add(fillStorageFile(newPath, summary));
-          }
-          return new FsPathListWithError(rtn, message);
+      ListObjectsV2Result result;
+      do {
+        result = s3Client.listObjectsV2(request);
+        for (String commonPrefix : result.getCommonPrefixes()) {
+          FsPath dir = new FsPath(buildPath(commonPrefix));
+          dir.setIsdir(true);
+          dir.setLength(0);
+          children.add(dir);
         }
-      }
+        for (S3ObjectSummary summary : result.getObjectSummaries()) {
+          if (isInitFile(summary) || prefix.equals(summary.getKey())) continue;
+          children.add(fillStorageFile(new FsPath(buildPath(summary.getKey())), summary));
+        }
+        request.setContinuationToken(result.getNextContinuationToken());
+      } while (result.isTruncated());
     } catch (AmazonS3Exception e) {
       throw new IOException("You have not permission to access path " + path.getPath());
     }
-
-    return null;
+    return children;
   }
 
   @Override
   public boolean exists(FsPath dest) throws IOException {
+    String key = dest.getPath();
+    return existsCache.exists(key, () -> objectExists(key));
+  }
+
+  // an object with the key itself, or a directory with objects under it
+  private boolean objectExists(String key) {
     try {
-      int size = s3Client.listObjectsV2(bucket, dest.getPath()).getObjectSummaries().size();
-      return size > 0;
+      if (s3Client.doesObjectExist(bucket, key)) {
+        return true;
+      }
+      ListObjectsV2Request request =
+          new ListObjectsV2Request()
+              .withBucketName(bucket)
+              .withPrefix(toDirPrefix(key))
+              .withMaxKeys(1);
+      return !s3Client.listObjectsV2(request).getObjectSummaries().isEmpty();
     } catch (AmazonS3Exception e) {
       return false;
     }
   }
 
+  private static String toDirPrefix(String path) {
+    return path.endsWith("/") ? path : path + "/";
+  }
+
   @Override
   public boolean delete(FsPath dest) throws IOException {
     try {
@@ -203,6 +251,8 @@ public class S3FileSystem extends FileSystem {
       return true;
     } catch (AmazonS3Exception e) {
       throw new IOException("You have not permission to access path " + dest.getPath());
+    } finally {
+      existsCache.invalidate(dest.getPath());
     }
   }
 
@@ -211,6 +261,8 @@ public class S3FileSystem extends FileSystem {
     try {
       s3Client.copyObject(bucket, oldDest.getPath(), bucket, newDest.getPath());
       s3Client.deleteObject(bucket, oldDest.getPath());
+      existsCache.invalidate(oldDest.getPath());
+      existsCache.invalidate(newDest.getPath());
       return true;
     } catch (AmazonS3Exception e) {
       s3Client.deleteObject(bucket, newDest.getPath());
@@ -226,16 +278,13 @@ public class S3FileSystem extends FileSystem {
   public boolean copy(String origin, String dest) throws IOException {
     try {
       s3Client.copyObject(bucket, origin, bucket, dest);
+      existsCache.invalidate(dest);
       return true;
     } catch (AmazonS3Exception e) {
       throw new IOException("You have not permission to access path " + origin + " or " + dest);
     }
   }
 
-  private boolean isDir(S3ObjectSummary s3ObjectSummary, String prefix) {
-    return s3ObjectSummary.getKey().substring(prefix.length()).contains("/");
-  }
-
   private boolean isInitFile(S3ObjectSummary s3ObjectSummary) {
     return s3ObjectSummary.getKey().contains(INIT_FILE_NAME);
   }
@@ -260,19 +309,14 @@ public class S3FileSystem extends FileSystem {
   }
 
   private FsPath fillStorageFile(FsPath fsPath, S3ObjectSummary s3ObjectSummary) {
-    fsPath.setModification_time(s3ObjectSummary.getLastModified().getTime());
-    fsPath.setOwner(s3ObjectSummary.getOwner().getDisplayName());
-    try {
-      fsPath.setIsdir(isDir(s3ObjectSummary, fsPath.getParent().getPath()));
-    } catch (Throwable e) {
-      logger.warn("Failed to fill storage file：" + fsPath.getPath(), e);
+    if (s3ObjectSummary.getLastModified() != null) {
+      fsPath.setModification_time(s3ObjectSummary.getLastModified().getTime());
     }
-
-    if (fsPath.isdir()) {
-      fsPath.setLength(0);
-    } else {
-      fsPath.setLength(s3ObjectSummary.getSize());
+    if (s3ObjectSummary.getOwner() != null) {
+      fsPath.setOwner(s3ObjectSummary.getOwner().getDisplayName());
     }
+    fsPath.setIsdir(false);
+    fsPath.setLength(s3ObjectSummary.getSize());
     return fsPath;
   }
 
@@ -345,23 +389,3 @@ public class S3FileSystem extends FileSystem {
     return StorageUtils.S3_SCHEMA + "/" + path;
   }
 }
-
-class S3OutputStream extends ByteArrayOutputStream {
-  private AmazonS3 s3Client;
-  private String bucket;
-  private String path;
-
-  public S3OutputStream(AmazonS3 s3Client, String bucket, String path) {
-    this.s3Client = s3Client;
-    this.bucket = bucket;
-    this.path = path;
-  }
-
-  @Override
-  public void close() throws IOException {
-    byte[] buffer = this.toByteArray();
-    try (InputStream in = new ByteArrayInputStream(buffer)) {
-      s3Client.putObject(bucket, path, in, new ObjectMetadata());
-    }
-  }
-}
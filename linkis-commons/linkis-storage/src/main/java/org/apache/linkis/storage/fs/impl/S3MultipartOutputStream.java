@@ -0,0 +1,242 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.linkis.storage.fs.impl;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
+import com.amazonaws.services.s3.AmazonS3;
+import com.amazonaws.services.s3.model.AbortMultipartUploadRequest;
+import com.amazonaws.services.s3.model.CompleteMultipartUploadRequest;
+import com.amazonaws.services.s3.model.InitiateMultipartUploadRequest;
+import com.amazonaws.services.s3.model.ObjectMetadata;
+import com.amazonaws.services.s3.model.PartETag;
+import com.amazonaws.services.s3.model.UploadPartRequest;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Uploads what is written as the parts of a multipart upload while the writing goes on. At most
+ * maxInflight part buffers exist per stream, a writer that is ahead of the uploads waits for a
+ * buffer to come back, so the heap used is bounded by maxInflight * partSize whatever the size of
+ * the object. An object smaller than one part is sent with a single putObject.
+ */
+class S3MultipartOutputStream extends OutputStream {
+
+  private static final Logger logger = LoggerFactory.getLogger(S3MultipartOutputStream.class);
+
+  private static final int MIN_PART_SIZE = 5 * 1024 * 1024;
+
+  private static final int INITIAL_BUFFER_SIZE = 64 * 1024;
+
+  private final AmazonS3 s3Client;
+  private final String bucket;
+  private final String key;
+  private final int partSize;
+  private final int maxInflight;
+  private final ExecutorService executor;
+  private final Runnable onClose;
+
+  private final BlockingQueue<byte[]> freeBuffers;
+  private final List<Future<PartETag>> parts = new ArrayList<>();
+  private int allocatedBuffers = 0;
+  private byte[] buffer;
+  private int position = 0;
+  private String uploadId;
+  private boolean closed = false;
+
+  S3MultipartOutputStream(
+      AmazonS3 s3Client,
+      String bucket,
+      String key,
+      long partSize,
+      int maxInflight,
+      ExecutorService executor,
+      Runnable onClose) {
+    this.s3Client = s3Client;
+    this.bucket = bucket;
+    this.key = key;
+    this.partSize = (int) Math.min(Integer.MAX_VALUE - 8, Math.max(MIN_PART_SIZE, partSize));
+    this.maxInflight = Math.max(1, maxInflight);
+    this.executor = executor;
+    this.onClose = onClose;
+    this.freeBuffers = new ArrayBlockingQueue<>(this.maxInflight + 1);
+    // the first buffer grows on demand, small objects never get a whole part
+    this.buffer = new byte[Math.min(INITIAL_BUFFER_SIZE, this.partSize)];
+    this.allocatedBuffers = 1;
+  }
+
+  @Override
+  public void write(int b) throws IOException {
+    ensureWritable();
+    buffer[position++] = (byte) b;
+  }
+
+  @Override
+  public void write(byte[] b, int off, int len) throws IOException {
+    while (len > 0) {
+      ensureWritable();
+      int count = Math.min(len, buffer.length - position);
+      System.arraycopy(b, off, buffer, position, count);
+      position += count;
+      off += count;
+      len -= count;
+    }
+  }
+
+  private void ensureWritable() throws IOException {
+    if (closed) {
+      throw new IOException("Stream of " + key + " is closed");
+    }
+    if (buffer == null) {
+      buffer = takeBuffer();
+    } else if (position == buffer.length) {
+      if (buffer.length < partSize) {
+        buffer = Arrays.copyOf(buffer, (int) Math.min(partSize, buffer.length * 2L));
+      } else {
+        uploadPart();
+        buffer = takeBuffer();
+      }
+    }
+  }
+
+  private byte[] takeBuffer() throws IOException {
+    byte[] free = freeBuffers.poll();
+    if (free == null && allocatedBuffers < maxInflight) {
+      allocatedBuffers++;
+      return new byte[partSize];
+    }
+    try {
+      return free != null ? free : freeBuffers.take();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new InterruptedIOException("Interrupted while uploading " + key);
+    }
+  }
+
+  private void uploadPart() throws IOException {
+    checkFailedParts();
+    if (uploadId == null) {
+      uploadId =
+          s3Client
+              .initiateMultipartUpload(new InitiateMultipartUploadRequest(bucket, key))
+              .getUploadId();
+    }
+    final String currentUploadId = uploadId;
+    final byte[] data = buffer;
+    final int length = position;
+    final int partNumber = parts.size() + 1;
+    buffer = null;
+    position = 0;
+    parts.add(
+        executor.submit(
+            () -> {
+              try {
+                UploadPartRequest request =
+                    new UploadPartRequest()
+                        .withBucketName(bucket)
+                        .withKey(key)
+                        .withUploadId(currentUploadId)
+                        .withPartNumber(partNumber)
+                        .withInputStream(new ByteArrayInputStream(data, 0, length))
+                        .withPartSize(length);
+                return s3Client.uploadPart(request).getPartETag();
+              } finally {
+                freeBuffers.offer(data);
+              }
+            }));
+  }
+
+  private void checkFailedParts() throws IOException {
+    for (Future<PartETag> part : parts) {
+      if (part.isDone()) {
+        waitPart(part);
+      }
+    }
+  }
+
+  private PartETag waitPart(Future<PartETag> part) throws IOException {
+    try {
+      return part.get();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new InterruptedIOException("Interrupted while uploading " + key);
+    } catch (ExecutionException e) {
+      throw new IOException("Failed to upload a part of " + key, e.getCause());
+    }
+  }
+
+  @Override
+  public void close() throws IOException {
+    if (closed) {
+      return;
+    }
+    closed = true;
+    try {
+      if (uploadId == null) {
+        ObjectMetadata metadata = new ObjectMetadata();
+        metadata.setContentLength(position);
+        s3Client.putObject(bucket, key, new ByteArrayInputStream(buffer, 0, position), metadata);
+      } else {
+        if (position > 0) {
+          uploadPart();
+        }
+        List<PartETag> partETags = new ArrayList<>(parts.size());
+        for (Future<PartETag> part : parts) {
+          partETags.add(waitPart(part));
+        }
+        s3Client.completeMultipartUpload(
+            new CompleteMultipartUploadRequest(bucket, key, uploadId, partETags));
+      }
+    } catch (IOException | RuntimeException e) {
+      abort();
+      throw e instanceof IOException ? (IOException) e : new IOException(e);
+    } finally {
+      buffer = null;
+      freeBuffers.clear();
+      onClose.run();
+    }
+  }
+
+  /** Part buffers allocated by the stream, they are reused so it never exceeds maxInflight. */
+  int getAllocatedBuffers() {
+    return allocatedBuffers;
+  }
+
+  private void abort() {
+    if (uploadId == null) {
+      return;
+    }
+    parts.forEach(part -> part.cancel(true));
+    try {
+      s3Client.abortMultipartUpload(new AbortMultipartUploadRequest(bucket, key, uploadId));
+    } catch (RuntimeException e) {
+      logger.warn("Failed to abort the multipart upload of {}", key, e);
+    }
+  }
+}
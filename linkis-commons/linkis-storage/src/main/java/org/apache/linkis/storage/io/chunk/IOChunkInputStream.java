@@ -0,0 +1,117 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.linkis.storage.io.chunk;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.Socket;
+
+import org.apache.commons.io.IOUtils;
+
+/**
+ * Reads a file through the chunk channel. The EngineConn keeps sending chunks without waiting for
+ * the client, so the next chunks are read ahead into the socket buffers while the current one is
+ * consumed.
+ */
+public class IOChunkInputStream extends InputStream {
+
+  private final Socket socket;
+  private final DataInputStream in;
+  private int remaining = 0;
+  private boolean ended = false;
+  private boolean closed = false;
+
+  public IOChunkInputStream(IOChunkProtocol.Endpoint endpoint, IOChunkProtocol.Header header)
+      throws IOException {
+    header.op = IOChunkProtocol.OP_READ;
+    header.token = endpoint.token;
+    socket = endpoint.connect();
+    try {
+      DataOutputStream out =
+          new DataOutputStream(new BufferedOutputStream(socket.getOutputStream()));
+      header.write(out);
+      out.flush();
+      in = new DataInputStream(new BufferedInputStream(socket.getInputStream(), 64 * 1024));
+    } catch (IOException e) {
+      IOUtils.closeQuietly(socket);
+      throw e;
+    }
+  }
+
+  private boolean nextChunk() throws IOException {
+    if (closed) {
+      throw new IOException("Stream closed.");
+    }
+    while (remaining == 0 && !ended) {
+      int len = IOChunkProtocol.readChunkLength(in);
+      if (len == IOChunkProtocol.END) {
+        ended = true;
+      } else {
+        remaining = len;
+      }
+    }
+    return remaining > 0;
+  }
+
+  @Override
+  public int read() throws IOException {
+    if (!nextChunk()) {
+      return -1;
+    }
+    int v = in.read();
+    if (v < 0) {
+      throw new EOFException("The io chunk channel is closed unexpectedly.");
+    }
+    remaining--;
+    return v;
+  }
+
+  @Override
+  public int read(byte[] b, int off, int len) throws IOException {
+    if (len == 0) {
+      return 0;
+    }
+    if (!nextChunk()) {
+      return -1;
+    }
+    int read = in.read(b, off, Math.min(len, remaining));
+    if (read < 0) {
+      throw new EOFException("The io chunk channel is closed unexpectedly.");
+    }
+    remaining -= read;
+    return read;
+  }
+
+  @Override
+  public int available() throws IOException {
+    return closed ? 0 : Math.min(remaining, in.available());
+  }
+
+  @Override
+  public void close() throws IOException {
+    if (!closed) {
+      closed = true;
+      socket.close();
+    }
+  }
+}
@@ -0,0 +1,117 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.linkis.storage.io.chunk;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.Socket;
+
+import org.apache.commons.io.IOUtils;
+
+/**
+ * Writes a file through the chunk channel. Chunks are streamed one after another without waiting
+ * for each of them to be written, the EngineConn acknowledges the whole file once it is closed.
+ */
+public class IOChunkOutputStream extends OutputStream {
+
+  private final Socket socket;
+  private final DataOutputStream out;
+  private final byte[] buffer;
+  private int index = 0;
+  private boolean closed = false;
+
+  public IOChunkOutputStream(
+      IOChunkProtocol.Endpoint endpoint, IOChunkProtocol.Header header, int chunkSize)
+      throws IOException {
+    header.op = IOChunkProtocol.OP_WRITE;
+    header.token = endpoint.token;
+    buffer = new byte[chunkSize];
+    socket = endpoint.connect();
+    try {
+      out = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream(), 64 * 1024));
+      header.write(out);
+    } catch (IOException e) {
+      IOUtils.closeQuietly(socket);
+      throw e;
+    }
+  }
+
+  private void ensureOpen() throws IOException {
+    if (closed) {
+      throw new IOException("Stream closed.");
+    }
+  }
+
+  private void writeBuffer() throws IOException {
+    IOChunkProtocol.writeChunk(out, buffer, 0, index);
+    index = 0;
+  }
+
+  @Override
+  public void write(int b) throws IOException {
+    ensureOpen();
+    if (index == buffer.length) {
+      writeBuffer();
+    }
+    buffer[index++] = (byte) b;
+  }
+
+  @Override
+  public void write(byte[] b, int off, int len) throws IOException {
+    ensureOpen();
+    if (len >= buffer.length) {
+      // Large writes are sent as they are instead of being copied into the buffer
+      writeBuffer();
+      IOChunkProtocol.writeChunk(out, b, off, len);
+    } else {
+      if (len > buffer.length - index) {
+        writeBuffer();
+      }
+      System.arraycopy(b, off, buffer, index, len);
+      index += len;
+    }
+  }
+
+  @Override
+  public void flush() throws IOException {
+    ensureOpen();
+    writeBuffer();
+    out.flush();
+  }
+
+  /** Ends the stream and waits until the EngineConn has closed the file */
+  @Override
+  public void close() throws IOException {
+    if (closed) {
+      return;
+    }
+    try {
+      writeBuffer();
+      IOChunkProtocol.writeEnd(out);
+      DataInputStream in = new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+      IOChunkProtocol.readChunkLength(in);
+    } finally {
+      closed = true;
+      socket.close();
+    }
+  }
+}
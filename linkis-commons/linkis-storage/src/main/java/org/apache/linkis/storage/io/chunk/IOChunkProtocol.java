@@ -0,0 +1,160 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.linkis.storage.io.chunk;
+
+import org.apache.linkis.storage.utils.StorageConfiguration;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+
+/**
+ * Binary protocol of the chunk channel between the io file client and the io_file EngineConn,
+ * which streams file content without wrapping every chunk into a result set of a job.
+ *
+ * <p>A connection carries one request: a header, then the chunks of the file sent by the
+ * EngineConn for a read, or by the client for a write. A chunk is its length followed by its
+ * bytes, {@link #END} ends the stream and {@link #ERROR} is followed by an error message. A write
+ * is acknowledged by {@link #END} once the file is closed.
+ */
+public class IOChunkProtocol {
+
+  public static final int MAGIC = 0x4C494F43;
+
+  public static final byte OP_READ = 1;
+
+  public static final byte OP_WRITE = 2;
+
+  public static final int END = 0;
+
+  public static final int ERROR = -1;
+
+  public static class Header {
+    public byte op;
+    public String token;
+    public String proxyUser;
+    public long fsId;
+    /** FsPath serialized by MethodEntitySerializer */
+    public String path;
+    /** start position of a read */
+    public long position;
+    /** whether a write overwrites the file */
+    public boolean overwrite;
+
+    public void write(DataOutputStream out) throws IOException {
+      out.writeInt(MAGIC);
+      out.writeByte(op);
+      out.writeUTF(token);
+      out.writeUTF(proxyUser);
+      out.writeLong(fsId);
+      out.writeUTF(path);
+      out.writeLong(position);
+      out.writeBoolean(overwrite);
+    }
+
+    public static Header read(DataInputStream in) throws IOException {
+      if (in.readInt() != MAGIC) {
+        throw new IOException("Not a request of the io chunk channel.");
+      }
+      Header header = new Header();
+      header.op = in.readByte();
+      header.token = in.readUTF();
+      header.proxyUser = in.readUTF();
+      header.fsId = in.readLong();
+      header.path = in.readUTF();
+      header.position = in.readLong();
+      header.overwrite = in.readBoolean();
+      return header;
+    }
+  }
+
+  /** Endpoint of the chunk channel, in the form of host:port:token */
+  public static class Endpoint {
+    public final String host;
+    public final int port;
+    public final String token;
+
+    public Endpoint(String host, int port, String token) {
+      this.host = host;
+      this.port = port;
+      this.token = token;
+    }
+
+    public static Endpoint parse(String endpoint) {
+      String[] parts = endpoint.split(":");
+      if (parts.length != 3) {
+        throw new IllegalArgumentException("Illegal io chunk endpoint " + endpoint);
+      }
+      return new Endpoint(parts[0], Integer.parseInt(parts[1]), parts[2]);
+    }
+
+    public Socket connect() throws IOException {
+      int timeout = StorageConfiguration.IO_CHUNK_SOCKET_TIMEOUT.getValue();
+      Socket socket = new Socket();
+      try {
+        socket.setTcpNoDelay(true);
+        socket.setSoTimeout(timeout);
+        socket.connect(new InetSocketAddress(host, port), Math.min(timeout, 30 * 1000));
+      } catch (IOException e) {
+        socket.close();
+        throw e;
+      }
+      return socket;
+    }
+
+    @Override
+    public String toString() {
+      return host + ":" + port + ":" + token;
+    }
+  }
+
+  public static void writeChunk(DataOutputStream out, byte[] bytes, int off, int len)
+      throws IOException {
+    if (len > 0) {
+      out.writeInt(len);
+      out.write(bytes, off, len);
+    }
+  }
+
+  public static void writeEnd(DataOutputStream out) throws IOException {
+    out.writeInt(END);
+    out.flush();
+  }
+
+  public static void writeError(DataOutputStream out, String message) throws IOException {
+    out.writeInt(ERROR);
+    out.writeUTF(message == null ? "unknown error" : message);
+    out.flush();
+  }
+
+  /**
+   * @return length of the next chunk, {@link #END} if the stream ended
+   * @throws IOException the error sent by the peer
+   */
+  public static int readChunkLength(DataInputStream in) throws IOException {
+    int len = in.readInt();
+    if (len == ERROR) {
+      throw new IOException(in.readUTF());
+    } else if (len < 0) {
+      throw new IOException("Illegal chunk length " + len);
+    }
+    return len;
+  }
+}
@@ -85,26 +85,28 @@ public class TableResultSerializer extends ResultSerializer {
    */
   public static byte[] toByteArray(
       int length, int colByteLen, List<byte[]> colIndex, List<byte[]> dataBytes) {
-    List<Byte> row = new ArrayList<>();
-    colIndex.addAll(dataBytes);
-
-    for (byte intByte : Dolphin.getIntBytes(length)) {
-      row.add(intByte);
+    // Copy into one array of the exact size, boxing every byte of a large result costs too much
+    byte[] lengthBytes = Dolphin.getIntBytes(length);
+    byte[] colLenBytes = Dolphin.getIntBytes(colByteLen);
+    int size = lengthBytes.length + colLenBytes.length;
+    for (byte[] bytes : colIndex) {
+      size += bytes.length;
     }
-
-    for (byte colByte : Dolphin.getIntBytes(colByteLen)) {
-      row.add(colByte);
+    for (byte[] bytes : dataBytes) {
+      size += bytes.length;
     }
-
-    colIndex.forEach(
-        bytes -> {
-          for (byte b : bytes) {
-            row.add(b);
-          }
-        });
-    byte[] result = new byte[row.size()];
-    for (int i = 0; i < result.length; i++) {
-      result[i] = row.get(i);
+    byte[] result = new byte[size];
+    System.arraycopy(lengthBytes, 0, result, 0, lengthBytes.length);
+    int pos = lengthBytes.length;
+    System.arraycopy(colLenBytes, 0, result, pos, colLenBytes.length);
+    pos += colLenBytes.length;
+    for (byte[] bytes : colIndex) {
+      System.arraycopy(bytes, 0, result, pos, bytes.length);
+      pos += bytes.length;
+    }
+    for (byte[] bytes : dataBytes) {
+      System.arraycopy(bytes, 0, result, pos, bytes.length);
+      pos += bytes.length;
     }
     return result;
   }
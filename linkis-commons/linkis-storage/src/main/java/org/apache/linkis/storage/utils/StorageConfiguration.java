@@ -19,6 +19,7 @@ package org.apache.linkis.storage.utils;
 
 import org.apache.linkis.common.conf.ByteType;
 import org.apache.linkis.common.conf.CommonVars;
+import org.apache.linkis.common.conf.TimeType;
 
 import java.util.List;
 
@@ -92,6 +93,15 @@ public class StorageConfiguration {
   public static CommonVars<ByteType> IO_PROXY_WRITE_CACHE_SIZE =
       new CommonVars<>("wds.linkis.storage.io.write.cache.size", new ByteType("64k"), null, null);
 
+  public static CommonVars<Boolean> IO_CHUNK_TRANSPORT_ENABLED =
+      new CommonVars<>("linkis.storage.io.chunk.transport.enabled", false, null, null);
+
+  public static CommonVars<ByteType> IO_CHUNK_SIZE =
+      new CommonVars<>("linkis.storage.io.chunk.size", new ByteType("1m"), null, null);
+
+  public static CommonVars<Integer> IO_CHUNK_SOCKET_TIMEOUT =
+      new CommonVars<>("linkis.storage.io.chunk.socket.timeout", 10 * 60 * 1000, null, null);
+
   public static CommonVars<String> IO_DEFAULT_CREATOR =
       new CommonVars<>("wds.linkis.storage.io.default.creator", "IDE", null, null);
   public static CommonVars<String> IO_FS_RE_INIT =
@@ -158,4 +168,19 @@ public class StorageConfiguration {
 
   public static CommonVars<String> S3_BUCKET =
       new CommonVars("linkis.storage.s3.bucket", "", null, null);
+
+  /** parts of a multipart upload, s3 needs at least 5m for every part but the last */
+  public static CommonVars<ByteType> S3_MULTIPART_PART_SIZE =
+      new CommonVars<>("linkis.storage.s3.multipart.part.size", new ByteType("8m"), null, null);
+
+  /** parts of one stream that are buffered or uploading at the same time */
+  public static CommonVars<Integer> S3_MULTIPART_MAX_INFLIGHT =
+      new CommonVars<>("linkis.storage.s3.multipart.max.inflight", 4, null, null);
+
+  public static CommonVars<Integer> S3_MULTIPART_UPLOAD_THREADS =
+      new CommonVars<>("linkis.storage.s3.multipart.upload.threads", 16, null, null);
+
+  /** how long exists of s3 and oss paths is cached, 0 turns the cache off */
+  public static CommonVars<TimeType> OBJECT_EXISTS_CACHE_TTL =
+      new CommonVars<>("linkis.storage.object.exists.cache.ttl", new TimeType("5s"), null, null);
 }
@@ -0,0 +1,400 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.linkis.storage.fs.impl;
+
+import org.apache.linkis.common.io.FsPath;
+
+import org.apache.commons.io.IOUtils;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.amazonaws.services.s3.AmazonS3;
+import com.amazonaws.services.s3.model.AbortMultipartUploadRequest;
+import com.amazonaws.services.s3.model.AmazonS3Exception;
+import com.amazonaws.services.s3.model.CompleteMultipartUploadRequest;
+import com.amazonaws.services.s3.model.CompleteMultipartUploadResult;
+import com.amazonaws.services.s3.model.InitiateMultipartUploadRequest;
+import com.amazonaws.services.s3.model.InitiateMultipartUploadResult;
+import com.amazonaws.services.s3.model.ListObjectsV2Request;
+import com.amazonaws.services.s3.model.ListObjectsV2Result;
+import com.amazonaws.services.s3.model.ObjectMetadata;
+import com.amazonaws.services.s3.model.PartETag;
+import com.amazonaws.services.s3.model.PutObjectResult;
+import com.amazonaws.services.s3.model.S3Object;
+import com.amazonaws.services.s3.model.S3ObjectSummary;
+import com.amazonaws.services.s3.model.UploadPartRequest;
+import com.amazonaws.services.s3.model.UploadPartResult;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.atLeast;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class S3FileSystemTest {
+
+  private static final String BUCKET = "linkis";
+
+  private static final long MB = 1024L * 1024;
+
+  private InMemoryS3 store;
+
+  private S3FileSystem fs;
+
+  @BeforeEach
+  public void setUp() {
+    store = new InMemoryS3();
+    fs = new S3FileSystem();
+    fs.init(store.client, BUCKET);
+  }
+
+  @Test
+  public void testSmallWriteIsSinglePut() throws IOException {
+    FsPath path = new FsPath("/data/small.txt");
+    try (OutputStream out = fs.write(path, true)) {
+      out.write("hello".getBytes(StandardCharsets.UTF_8));
+    }
+    assertEquals("hello", read(path));
+    assertEquals(0, store.initiatedUploads.get());
+
+    try (OutputStream out = fs.write(path, false)) {
+      out.write(" world".getBytes(StandardCharsets.UTF_8));
+    }
+    assertEquals("hello world", read(path));
+
+    try (OutputStream out = fs.write(path, true)) {
+      out.write("again".getBytes(StandardCharsets.UTF_8));
+    }
+    assertEquals("again", read(path));
+  }
+
+  @Test
+  public void testLargeWriteIsMultipart() throws IOException {
+    long total = 3 * 8 * MB + MB;
+    byte[] chunk = new byte[(int) MB];
+    FsPath path = new FsPath("/data/large.bin");
+    try (OutputStream out = fs.write(path, true)) {
+      for (long written = 0; written < total; written += chunk.length) {
+        out.write(chunk);
+      }
+    }
+    assertEquals(total, store.objects.get(path.getPath()).longValue());
+    assertEquals(1, store.initiatedUploads.get());
+    assertEquals(4, store.uploadedParts.get());
+    assertTrue(store.uploads.isEmpty());
+  }
+
+  @Test
+  public void testInflightPartsAreBounded() throws IOException {
+    int maxInflight = 2;
+    int partNum = 8;
+    store.partLatencyMills = 20;
+    ExecutorService executor = Executors.newFixedThreadPool(partNum);
+    S3MultipartOutputStream out =
+        new S3MultipartOutputStream(
+            store.client, BUCKET, "/data/bounded.bin", 5 * MB, maxInflight, executor, () -> {});
+    try {
+      byte[] chunk = new byte[(int) MB];
+      for (int i = 0; i < partNum * 5; i++) {
+        out.write(chunk);
+      }
+      out.close();
+    } finally {
+      executor.shutdownNow();
+    }
+    assertEquals(partNum, store.uploadedParts.get());
+    // the writer waits for a free buffer instead of allocating more, whatever the pool size
+    assertTrue(out.getAllocatedBuffers() <= maxInflight);
+    assertTrue(store.maxConcurrentParts.get() <= maxInflight);
+  }
+
+  @Test
+  public void testFailedPartAbortsUpload() {
+    store.failParts.set(true);
+    FsPath path = new FsPath("/data/failed.bin");
+    byte[] chunk = new byte[(int) MB];
+    boolean failed = false;
+    try (OutputStream out = fs.write(path, true)) {
+      for (int i = 0; i < 64; i++) {
+        out.write(chunk);
+      }
+    } catch (IOException e) {
+      failed = true;
+    }
+    assertTrue(failed);
+    assertTrue(store.uploads.isEmpty());
+    assertFalse(store.objects.containsKey(path.getPath()));
+  }
+
+  @Test
+  public void testListFollowsAllPages() throws IOException {
+    for (int i = 0; i < 10000; i++) {
+      store.put(String.format("/data/big/file-%05d", i), 10);
+    }
+    for (int i = 0; i < 10; i++) {
+      for (int j = 0; j < 300; j++) {
+        store.put("/data/big/sub-" + i + "/part-" + j, 1);
+      }
+    }
+    store.put("/data/big/.s3_dir_init", 0);
+    store.put("/data/bigger/file", 1);
+
+    List<FsPath> children = fs.list(new FsPath("/data/big"));
+    assertEquals(10010, children.size());
+    Set<String> paths = new HashSet<>();
+    int dirs = 0;
+    for (FsPath child : children) {
+      paths.add(child.getPath());
+      if (child.isdir()) {
+        dirs++;
+      } else {
+        assertEquals(10, child.getLength());
+      }
+    }
+    assertEquals(10010, paths.size());
+    assertEquals(10, dirs);
+    verify(store.client, atLeast(11)).listObjectsV2(any(ListObjectsV2Request.class));
+
+    assertEquals(300, fs.listPathWithError(new FsPath("/data/big/sub-3/")).getFsPaths().size());
+  }
+
+  @Test
+  public void testExistsIsCachedAndInvalidated() throws IOException {
+    FsPath path = new FsPath("/data/cached.txt");
+    assertFalse(fs.exists(path));
+    assertFalse(fs.exists(path));
+    verify(store.client, times(1)).doesObjectExist(BUCKET, path.getPath());
+
+    assertTrue(fs.create(path.getPath()));
+    assertTrue(fs.exists(path));
+    assertTrue(fs.exists(new FsPath("/data")));
+
+    fs.delete(path);
+    assertFalse(fs.exists(path));
+    assertFalse(fs.exists(new FsPath("/data")));
+  }
+
+  private String read(FsPath path) throws IOException {
+    try (InputStream in = fs.read(path)) {
+      return IOUtils.toString(in, StandardCharsets.UTF_8);
+    }
+  }
+
+  /**
+   * A bucket kept in memory behind a mocked client. Objects of multipart uploads only keep their
+   * size, their parts are counted and dropped.
+   */
+  private static class InMemoryS3 {
+
+    final NavigableMap<String, Long> objects = new ConcurrentSkipListMap<>();
+    final Map<String, byte[]> contents = new ConcurrentHashMap<>();
+    final Map<String, Map<Integer, Long>> uploads = new ConcurrentHashMap<>();
+    final AtomicLong initiatedUploads = new AtomicLong();
+    final AtomicLong uploadedParts = new AtomicLong();
+    final AtomicInteger concurrentParts = new AtomicInteger();
+    final AtomicInteger maxConcurrentParts = new AtomicInteger();
+    volatile long partLatencyMills = 0;
+    final AtomicBoolean failParts = new AtomicBoolean(false);
+    final AmazonS3 client = mock(AmazonS3.class);
+
+    InMemoryS3() {
+      when(client.doesObjectExist(anyString(), anyString()))
+          .thenAnswer(invocation -> objects.containsKey(invocation.<String>getArgument(1)));
+      when(client.putObject(anyString(), anyString(), anyString()))
+          .thenAnswer(
+              invocation -> {
+                String content = invocation.getArgument(2);
+                store(invocation.getArgument(1), content.getBytes(StandardCharsets.UTF_8));
+                return new PutObjectResult();
+              });
+      when(client.putObject(
+              anyString(), anyString(), any(InputStream.class), any(ObjectMetadata.class)))
+          .thenAnswer(
+              invocation -> {
+                InputStream content = invocation.getArgument(2);
+                store(invocation.getArgument(1), IOUtils.toByteArray(content));
+                return new PutObjectResult();
+              });
+      when(client.getObject(anyString(), anyString()))
+          .thenAnswer(
+              invocation -> {
+                S3Object object = new S3Object();
+                object.setObjectContent(
+                    new ByteArrayInputStream(contents.get(invocation.<String>getArgument(1))));
+                return object;
+              });
+      doAnswer(
+              invocation -> {
+                objects.remove(invocation.<String>getArgument(1));
+                return contents.remove(invocation.<String>getArgument(1));
+              })
+          .when(client)
+          .deleteObject(anyString(), anyString());
+      when(client.initiateMultipartUpload(any(InitiateMultipartUploadRequest.class)))
+          .thenAnswer(
+              invocation -> {
+                initiatedUploads.incrementAndGet();
+                String uploadId = UUID.randomUUID().toString();
+                uploads.put(uploadId, new ConcurrentHashMap<>());
+                InitiateMultipartUploadResult result = new InitiateMultipartUploadResult();
+                result.setUploadId(uploadId);
+                return result;
+              });
+      when(client.uploadPart(any(UploadPartRequest.class)))
+          .thenAnswer(invocation -> uploadPart(invocation.getArgument(0)));
+      when(client.completeMultipartUpload(any(CompleteMultipartUploadRequest.class)))
+          .thenAnswer(invocation -> complete(invocation.getArgument(0)));
+      doAnswer(
+              invocation -> {
+                AbortMultipartUploadRequest request = invocation.getArgument(0);
+                return uploads.remove(request.getUploadId());
+              })
+          .when(client)
+          .abortMultipartUpload(any(AbortMultipartUploadRequest.class));
+      when(client.listObjectsV2(any(ListObjectsV2Request.class)))
+          .thenAnswer(invocation -> list(invocation.getArgument(0)));
+    }
+
+    void put(String key, int size) {
+      store(key, new byte[size]);
+    }
+
+    private void store(String key, byte[] content) {
+      objects.put(key, (long) content.length);
+      contents.put(key, content);
+    }
+
+    private UploadPartResult uploadPart(UploadPartRequest request)
+        throws IOException, InterruptedException {
+      if (failParts.get()) {
+        throw new AmazonS3Exception("part " + request.getPartNumber() + " is lost");
+      }
+      maxConcurrentParts.accumulateAndGet(concurrentParts.incrementAndGet(), Math::max);
+      long size = 0;
+      try {
+        Thread.sleep(partLatencyMills);
+        byte[] buffer = new byte[64 * 1024];
+        InputStream in = request.getInputStream();
+        for (int count = in.read(buffer); count >= 0; count = in.read(buffer)) {
+          size += count;
+        }
+      } finally {
+        concurrentParts.decrementAndGet();
+      }
+      uploads.get(request.getUploadId()).put(request.getPartNumber(), size);
+      uploadedParts.incrementAndGet();
+      UploadPartResult result = new UploadPartResult();
+      result.setPartNumber(request.getPartNumber());
+      result.setETag("etag-" + request.getPartNumber());
+      return result;
+    }
+
+    private CompleteMultipartUploadResult complete(CompleteMultipartUploadRequest request) {
+      Map<Integer, Long> parts = uploads.remove(request.getUploadId());
+      long size = 0;
+      int partNumber = 1;
+      for (PartETag partETag : request.getPartETags()) {
+        assertEquals(partNumber++, partETag.getPartNumber());
+        size += parts.get(partETag.getPartNumber());
+      }
+      objects.put(request.getKey(), size);
+      return new CompleteMultipartUploadResult();
+    }
+
+    private ListObjectsV2Result list(ListObjectsV2Request request) {
+      String prefix = request.getPrefix() == null ? "" : request.getPrefix();
+      String delimiter = request.getDelimiter();
+      int maxKeys = request.getMaxKeys() == null ? 1000 : request.getMaxKeys();
+      String token = request.getContinuationToken();
+      NavigableMap<String, Long> tail =
+          token == null ? objects.tailMap(prefix, true) : objects.tailMap(token, false);
+      List<String> commonPrefixes = new ArrayList<>();
+      ListObjectsV2Result result = new ListObjectsV2Result();
+      String lastKey = null;
+      int count = 0;
+      for (Map.Entry<String, Long> entry : tail.entrySet()) {
+        String key = entry.getKey();
+        if (!key.startsWith(prefix)) {
+          break;
+        }
+        String rest = key.substring(prefix.length());
+        int index = delimiter == null ? -1 : rest.indexOf(delimiter);
+        if (index >= 0) {
+          String commonPrefix = prefix + rest.substring(0, index + delimiter.length());
+          if (!commonPrefixes.isEmpty()
+              && commonPrefixes.get(commonPrefixes.size() - 1).equals(commonPrefix)) {
+            continue;
+          }
+          if (count == maxKeys) {
+            result.setTruncated(true);
+            break;
+          }
+          commonPrefixes.add(commonPrefix);
+          // the next page starts behind every key of the common prefix
+          lastKey = commonPrefix + Character.MAX_VALUE;
+        } else {
+          if (count == maxKeys) {
+            result.setTruncated(true);
+            break;
+          }
+          S3ObjectSummary summary = new S3ObjectSummary();
+          summary.setBucketName(BUCKET);
+          summary.setKey(key);
+          summary.setSize(entry.getValue());
+          summary.setLastModified(new Date());
+          result.getObjectSummaries().add(summary);
+          lastKey = key;
+        }
+        count++;
+      }
+      result.setCommonPrefixes(commonPrefixes);
+      result.setKeyCount(count);
+      if (result.isTruncated()) {
+        result.setNextContinuationToken(lastKey);
+      }
+      return result;
+    }
+  }
+}
@@ -0,0 +1,83 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.linkis.storage.resultset.table;
+
+import org.apache.linkis.storage.domain.Column;
+import org.apache.linkis.storage.domain.DataType;
+import org.apache.linkis.storage.domain.Dolphin;
+
+import java.math.BigDecimal;
+import java.sql.Date;
+import java.util.Arrays;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+class TableResultSerializerTest {
+
+  @Test
+  void testTypedRecordRoundTrip() {
+    Column[] columns =
+        new Column[] {
+          new Column("name", DataType.StringType, ""),
+          new Column("age", DataType.IntType, ""),
+          new Column("score", DataType.DoubleType, ""),
+          new Column("amount", DataType.DecimalType, ""),
+          new Column("birthday", DataType.DateType, "")
+        };
+    TableMetaData metaData = new TableMetaData(columns);
+    TableRecord record =
+        new TableRecord(
+            new Object[] {
+              "peace", 18, 1.5d, new BigDecimal("1E+3"), Date.valueOf("2000-01-01")
+            });
+
+    TableResultSerializer serializer = new TableResultSerializer();
+    TableResultDeserializer deserializer = new TableResultDeserializer();
+    byte[] metaBytes = serializer.metaDataToBytes(metaData);
+    deserializer.createMetaData(Arrays.copyOfRange(metaBytes, Dolphin.INT_LEN, metaBytes.length));
+    byte[] recordBytes = serializer.recordToBytes(record);
+    Assertions.assertEquals(
+        recordBytes.length - Dolphin.INT_LEN,
+        Integer.parseInt(Dolphin.getString(recordBytes, 0, Dolphin.INT_LEN)));
+
+    TableRecord result =
+        deserializer.createRecord(
+            Arrays.copyOfRange(recordBytes, Dolphin.INT_LEN, recordBytes.length));
+    Assertions.assertEquals("peace", result.row[0]);
+    Assertions.assertEquals(18, result.row[1]);
+    Assertions.assertEquals(1.5d, result.row[2]);
+    Assertions.assertEquals("1000", ((BigDecimal) result.row[3]).toPlainString());
+    Assertions.assertEquals(Date.valueOf("2000-01-01"), result.row[4]);
+  }
+
+  @Test
+  void testNullValue() {
+    TableResultSerializer serializer = new TableResultSerializer();
+    TableResultDeserializer deserializer = new TableResultDeserializer();
+    TableMetaData metaData =
+        new TableMetaData(new Column[] {new Column("age", DataType.IntType, "")});
+    byte[] metaBytes = serializer.metaDataToBytes(metaData);
+    deserializer.createMetaData(Arrays.copyOfRange(metaBytes, Dolphin.INT_LEN, metaBytes.length));
+    byte[] recordBytes = serializer.recordToBytes(new TableRecord(new Object[] {null}));
+    TableRecord result =
+        deserializer.createRecord(
+            Arrays.copyOfRange(recordBytes, Dolphin.INT_LEN, recordBytes.length));
+    Assertions.assertNull(result.row[0]);
+  }
+}
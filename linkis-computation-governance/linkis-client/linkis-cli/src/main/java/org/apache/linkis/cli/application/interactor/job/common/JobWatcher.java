@@ -0,0 +1,75 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.linkis.cli.application.interactor.job.common;
+
+import org.apache.linkis.cli.application.operator.ujes.LinkisJobOper;
+import org.apache.linkis.cli.application.utils.CliUtils;
+import org.apache.linkis.ujes.client.response.JobWatchResult;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Waits for the next change of a job through the entrance watch api, instead of sleeping a fixed
+ * time between two queries. Falls back to fixed sleeps if the entrance does not support it.
+ */
+public class JobWatcher {
+  private static final Logger logger = LoggerFactory.getLogger(JobWatcher.class);
+
+  private LinkisJobOper oper;
+  private String user;
+  private String jobId;
+  private String execId;
+  private String events;
+
+  private JobWatchResult lastWatchResult;
+  private boolean watchSupported = true;
+
+  public JobWatcher(LinkisJobOper oper, String user, String jobId, String execId, String events) {
+    this.oper = oper;
+    this.user = user;
+    this.jobId = jobId;
+    this.execId = execId;
+    this.events = events;
+  }
+
+  /**
+   * Block until the watched events of the job changed, but not shorter than minIntervalMills, so
+   * that callers never query the server more often than with plain polling.
+   */
+  public void waitForChange(long minIntervalMills) {
+    long startTime = System.currentTimeMillis();
+    if (watchSupported) {
+      JobWatchResult watchResult = oper.watchJob(user, jobId, execId, lastWatchResult, events);
+      if (watchResult == null) {
+        logger.info("Job watch is not supported, fall back to polling. jobId={}", jobId);
+        watchSupported = false;
+      } else {
+        lastWatchResult = watchResult;
+      }
+    }
+    long left = minIntervalMills - (System.currentTimeMillis() - startTime);
+    if (left > 0) {
+      CliUtils.doSleepQuietly(left);
+    }
+  }
+
+  public boolean isWatchSupported() {
+    return watchSupported;
+  }
+}
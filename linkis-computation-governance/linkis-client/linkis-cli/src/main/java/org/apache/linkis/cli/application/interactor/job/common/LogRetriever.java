@@ -94,6 +94,9 @@ public class LogRetriever {
   }
 
   public void queryLogLoop(LogData data) {
+    JobWatcher logWatcher =
+        new JobWatcher(
+            linkisJobOperator, data.getUser(), data.getJobID(), data.getExecID(), "log,status");
     int curLogIdx;
     int nextLogIdx;
     boolean hasNext = true;
@@ -132,7 +135,9 @@ public class LogRetriever {
                   "Retrieving log, hasNext={0}, nextLogIdx={1}", hasNext, nextLogIdx);
           logger.info(msg);
         }
-        CliUtils.doSleepQuietly(CliConstants.JOB_QUERY_SLEEP_MILLS);
+        if (hasNext) {
+          logWatcher.waitForChange(CliConstants.JOB_QUERY_SLEEP_MILLS);
+        }
       }
     } catch (Exception e) {
       logger.error("Something goes wrong. Job Log may be incomplete", e);
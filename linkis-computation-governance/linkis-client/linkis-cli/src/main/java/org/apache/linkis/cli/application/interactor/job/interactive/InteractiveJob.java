@@ -27,6 +27,7 @@ import org.apache.linkis.cli.application.exception.LinkisClientRuntimeException;
 import org.apache.linkis.cli.application.exception.error.CommonErrMsg;
 import org.apache.linkis.cli.application.exception.error.ErrorLevel;
 import org.apache.linkis.cli.application.interactor.job.common.JobKiller;
+import org.apache.linkis.cli.application.interactor.job.common.JobWatcher;
 import org.apache.linkis.cli.application.interactor.job.common.LogRetriever;
 import org.apache.linkis.cli.application.interactor.job.common.ResultRetriever;
 import org.apache.linkis.cli.application.operator.OperManager;
@@ -214,6 +215,7 @@ public class InteractiveJob implements Job {
 
     LinkisOperResultAdapter jobInfoResult = oper.queryJobInfo(user, jobId);
     oper.queryJobStatus(user, jobId, execId);
+    JobWatcher statusWatcher = new JobWatcher(oper, user, jobId, execId, "status");
 
     while (!jobInfoResult.getJobStatus().isJobFinishedState()) {
       // query progress
@@ -245,7 +247,9 @@ public class InteractiveJob implements Job {
             CommonErrMsg.ExecutionErr,
             "Job is in abnormal status: " + CliUtils.GSON.toJson(jobInfoResult));
       }
-      CliUtils.doSleepQuietly(CliConstants.JOB_QUERY_SLEEP_MILLS);
+      if (!jobInfoResult.getJobStatus().isJobFinishedState()) {
+        statusWatcher.waitForChange(CliConstants.JOB_QUERY_SLEEP_MILLS);
+      }
     }
     return jobInfoResult;
   }
@@ -245,6 +245,34 @@ public class LinkisJobOper implements JobOper {
     return new UJESResultAdapter(jobStatusResult);
   }
 
+  /**
+   * Long-poll the entrance until the given events(such as "status" or "status,log") of the job
+   * changed.
+   *
+   * @return the watch result, or null if the entrance does not support job watch, callers should
+   *     then keep polling
+   */
+  public JobWatchResult watchJob(
+      String user, String taskID, String execID, JobWatchResult lastWatchResult, String events) {
+    if (user == null || taskID == null || execID == null) {
+      return null;
+    }
+    checkInit();
+    JobExecuteResult executeResult = new JobExecuteResult();
+    executeResult.setTaskID(taskID);
+    executeResult.setUser(user);
+    executeResult.setExecID(execID);
+    try {
+      JobWatchResult watchResult =
+          client.watch(executeResult, lastWatchResult, UJESConstants.JOB_WATCH_WAIT_MILLS, events);
+      logger.debug("job-watch: " + CliUtils.GSON.toJson(watchResult));
+      return watchResult;
+    } catch (Exception e) {
+      logger.debug("Watch job failed, will fall back to polling. taskID=" + taskID, e);
+      return null;
+    }
+  }
+
   private JobInfoResult queryJobInfoInternal(String user, String taskID)
       throws LinkisClientRuntimeException {
     checkInit();
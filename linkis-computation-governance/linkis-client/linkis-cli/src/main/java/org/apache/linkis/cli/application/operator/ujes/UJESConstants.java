@@ -27,6 +27,9 @@ public class UJESConstants {
   public static final Long DRIVER_QUERY_SLEEP_MILLS = 500l;
   public static final Integer DRIVER_REQUEST_MAX_RETRY_TIME = 3;
 
+  /** max time the entrance holds a job watch request, must be less than the read timeout */
+  public static final Long JOB_WATCH_WAIT_MILLS = 10000l;
+
   public static final String QUERY_STATUS_NAME = "status";
   public static final String QUERY_START_DATE_MILLS_NAME = "startDateMills";
   public static final String QUERY_END_DATE_MILLS_NAME = "endDateMills";
@@ -17,15 +17,22 @@
 
 package org.apache.linkis.computation.client.interactive
 
+import org.apache.linkis.common.utils.Utils
 import org.apache.linkis.computation.client.{LinkisJobBuilder, ResultSetIterable}
 import org.apache.linkis.computation.client.job.{
   StorableExistingLinkisJob,
   StorableLinkisJob,
   StorableSubmittableLinkisJob
 }
+import org.apache.linkis.protocol.engine.JobProgressInfo
 import org.apache.linkis.ujes.client.UJESClient
 import org.apache.linkis.ujes.client.request.JobSubmitAction
-import org.apache.linkis.ujes.client.response.{JobInfoResult, JobLogResult, JobProgressResult}
+import org.apache.linkis.ujes.client.response.{
+  JobInfoResult,
+  JobLogResult,
+  JobProgressResult,
+  JobWatchResult
+}
 
 import java.util
 
@@ -41,6 +48,10 @@ trait InteractiveJob extends StorableLinkisJob {
 
   protected var lastJobLogResult: JobLogResult = _
   protected var lastProgress: JobProgressResult = _
+  protected var lastWatchResult: JobWatchResult = _
+
+  private var lastProgressValue: Float = -1f
+  private var watchEnabled: Boolean = UJESClient.JOB_WATCH_ENABLED.getValue
 
   def existResultSets: Boolean = wrapperId {
     resultSetList = getJobInfoResult.getResultSetList(ujesClient)
@@ -65,20 +76,63 @@ trait InteractiveJob extends StorableLinkisJob {
   }
 
   override protected def getJobInfoResult: JobInfoResult = {
+    updateLogAndProgress()
+    super.getJobInfoResult
+  }
+
+  /**
+   * Fetch the new logs and progress of this job and notify the listeners. The entrance watch
+   * endpoint is used when it is available, it waits until the job changed and returns status,
+   * progress and logs at once; otherwise log and progress are polled separately.
+   *
+   * @return
+   *   false only if it is known that the status of the job has not changed since the last call
+   */
+  protected def updateLogAndProgress(): Boolean = synchronized {
+    if (watchEnabled && getJobSubmitResult.getExecID != null) {
+      val lastStatus = if (lastWatchResult == null) null else lastWatchResult.getJobStatus
+      val watchResult = Utils.tryCatch(
+        ujesClient.watch(
+          getJobSubmitResult,
+          lastWatchResult,
+          UJESClient.JOB_WATCH_WAIT_TIME.getValue
+        )
+      ) { t =>
+        logger.warn(s"Watch Job-$getId failed, fall back to polling log and progress.", t)
+        watchEnabled = false
+        null
+      }
+      if (watchResult != null) {
+        if (watchResult.getLog != null) logListeners.foreach(_.onLogUpdate(watchResult.getLog))
+        if (watchResult.getVersion > 0) {
+          onProgress(watchResult.getProgress, watchResult.getProgressInfo)
+        }
+        // keep the log position when the entrance has already released the job
+        if (watchResult.getFromLine <= 0 && lastWatchResult != null) {
+          watchResult.setFromLine(lastWatchResult.getFromLine)
+        }
+        lastWatchResult = watchResult
+        return watchResult.isCompleted || lastStatus != watchResult.getJobStatus
+      }
+    }
     lastJobLogResult =
-      if (lastJobLogResult == null) ujesClient.log(getJobSubmitResult, 0, 1)
-      else ujesClient.log(getJobSubmitResult, lastJobLogResult)
+      if (lastJobLogResult != null) ujesClient.log(getJobSubmitResult, lastJobLogResult)
+      else if (lastWatchResult != null) {
+        ujesClient.log(getJobSubmitResult, lastWatchResult.getFromLine, 0)
+      } else ujesClient.log(getJobSubmitResult, 0, 1)
     logListeners.foreach(_.onLogUpdate(lastJobLogResult.getLog))
     val progress = ujesClient.progress(getJobSubmitResult)
-    if (lastProgress == null || progress.getProgress > lastProgress.getProgress) {
-      lastProgress = progress
-      progressListeners.foreach(
-        _.onProgressUpdate(lastProgress.getProgress, lastProgress.getProgressInfo)
-      )
-    }
-    super.getJobInfoResult
+    if (progress.getProgress > lastProgressValue) lastProgress = progress
+    onProgress(progress.getProgress, progress.getProgressInfo)
+    true
   }
 
+  private def onProgress(progress: Float, progressInfo: Array[JobProgressInfo]): Unit =
+    if (progress > lastProgressValue) {
+      lastProgressValue = progress
+      progressListeners.foreach(_.onProgressUpdate(progress, progressInfo))
+    }
+
   def getLogListeners: ArrayBuffer[LogListener] = logListeners
 
   def getProgressListener: ArrayBuffer[ProgressListener] = progressListeners
@@ -93,20 +147,13 @@ class SubmittableInteractiveJob(ujesClient: UJESClient, jobSubmitAction: JobSubm
   private var retryNumber = 0
 
   private var finishedJobInfoResult: JobInfoResult = _
+  private var lastJobInfoResult: JobInfoResult = _
 
   override protected def getJobInfoResult: JobInfoResult = {
-    lastJobLogResult =
-      if (lastJobLogResult == null) ujesClient.log(getJobSubmitResult, 0, 1)
-      else ujesClient.log(getJobSubmitResult, lastJobLogResult)
-    getLogListeners.foreach(_.onLogUpdate(lastJobLogResult.getLog))
-    val progress = ujesClient.progress(getJobSubmitResult)
-    if (lastProgress == null || progress.getProgress > lastProgress.getProgress) {
-      lastProgress = progress
-      getProgressListener.foreach(
-        _.onProgressUpdate(lastProgress.getProgress, lastProgress.getProgressInfo)
-      )
-    }
+    val statusMayChanged = updateLogAndProgress()
     if (finishedJobInfoResult != null) return finishedJobInfoResult
+    // the watch says that only logs or progress changed, no need to ask the jobhistory again
+    if (!statusMayChanged && lastJobInfoResult != null) return lastJobInfoResult
     val startTime = System.currentTimeMillis
     val oldJobSubmitResult = getJobSubmitResult
     val jobInfoResult = wrapperId(ujesClient.getJobInfo(getJobSubmitResult))
@@ -125,6 +172,7 @@ class SubmittableInteractiveJob(ujesClient: UJESClient, jobSubmitAction: JobSubm
         logs.add(retrySucceedMsg)
         getLogListeners.foreach(_.onLogUpdate(logs))
         logger.info(retrySucceedMsg)
+        lastWatchResult = null
         return getJobInfoResult
       }
       getJobMetrics.setClientFinishedTime(System.currentTimeMillis)
@@ -132,6 +180,7 @@ class SubmittableInteractiveJob(ujesClient: UJESClient, jobSubmitAction: JobSubm
       logger.info(s"Job-$getId is completed with status " + finishedJobInfoResult.getJobStatus)
       getJobListeners.foreach(_.onJobFinished(this))
     } else if (jobInfoResult.isRunning) getJobListeners.foreach(_.onJobRunning(this))
+    lastJobInfoResult = jobInfoResult
     jobInfoResult
   }
 
@@ -17,6 +17,7 @@
 
 package org.apache.linkis.ujes.client
 
+import org.apache.linkis.common.conf.CommonVars
 import org.apache.linkis.httpclient.authentication.AuthenticationStrategy
 import org.apache.linkis.httpclient.dws.authentication.StaticAuthenticationStrategy
 import org.apache.linkis.httpclient.dws.config.{DWSClientConfig, DWSClientConfigBuilder}
@@ -69,6 +70,39 @@ abstract class UJESClient extends Closeable {
     executeUJESJob(jobLogAction).asInstanceOf[JobLogResult]
   }
 
+  /**
+   * Long-poll the status, progress and log delta of the job. The entrance answers as soon as the
+   * job changed after `lastWatchResult`, so callers can re-issue it in a loop instead of polling
+   * status, progress and log separately. Entrances without the watch endpoint make it throw, and
+   * callers should then fall back to polling.
+   */
+  def watch(
+      jobExecuteResult: JobExecuteResult,
+      lastWatchResult: JobWatchResult,
+      waitTime: Long
+  ): JobWatchResult = watch(jobExecuteResult, lastWatchResult, waitTime, null)
+
+  /**
+   * Same as [[watch]], but only wakes up on the given events, such as `status` or `status,log`.
+   */
+  def watch(
+      jobExecuteResult: JobExecuteResult,
+      lastWatchResult: JobWatchResult,
+      waitTime: Long,
+      events: String
+  ): JobWatchResult = {
+    val jobWatchAction = JobWatchAction
+      .builder()
+      .setExecId(jobExecuteResult.getExecID)
+      .setUser(jobExecuteResult.getUser)
+      .setTaskId(jobExecuteResult.getTaskID)
+      .setLastWatchResult(lastWatchResult)
+      .setWaitTime(waitTime)
+      .setEvents(events)
+      .build()
+    executeUJESJob(jobWatchAction).asInstanceOf[JobWatchResult]
+  }
+
   def list(jobListAction: JobListAction): JobListResult = {
     executeUJESJob(jobListAction).asInstanceOf[JobListResult]
   }
@@ -144,6 +178,12 @@ abstract class UJESClient extends Closeable {
 }
 
 object UJESClient {
+
+  val JOB_WATCH_ENABLED = CommonVars("linkis.client.job.watch.enable", true)
+
+  /** must be less than the read timeout of the client */
+  val JOB_WATCH_WAIT_TIME = CommonVars("linkis.client.job.watch.wait.time", 10000L)
+
   def apply(clientConfig: DWSClientConfig): UJESClient = new UJESClientImpl(clientConfig)
 
   def apply(serverUrl: String): UJESClient = apply(serverUrl, 30000, 10)
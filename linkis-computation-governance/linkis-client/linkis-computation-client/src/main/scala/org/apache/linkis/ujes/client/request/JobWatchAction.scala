@@ -0,0 +1,118 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.linkis.ujes.client.request
+
+import org.apache.linkis.httpclient.request.GetAction
+import org.apache.linkis.ujes.client.exception.UJESClientBuilderException
+import org.apache.linkis.ujes.client.response.JobWatchResult
+
+/**
+ * Long-poll the status, progress and log delta of a job, the entrance answers as soon as
+ * something changed after `version`, or when `waitTime` elapsed.
+ */
+class JobWatchAction private () extends GetAction with UJESJobAction {
+
+  private var execId: String = _
+
+  override def suffixURLs: Array[String] = Array("entrance", execId, "watch")
+
+}
+
+object JobWatchAction {
+  def builder(): Builder = new Builder
+
+  class Builder private[JobWatchAction] () {
+    private var user: String = _
+    private var execId: String = _
+    private var taskId: String = _
+    private var version: Long = 0L
+    private var fromLine: Int = _
+    private var size: Int = _
+    private var waitTime: Long = _
+    private var events: String = _
+
+    def setUser(user: String): Builder = {
+      this.user = user
+      this
+    }
+
+    def setExecId(execId: String): Builder = {
+      this.execId = execId
+      this
+    }
+
+    def setTaskId(taskId: String): Builder = {
+      this.taskId = taskId
+      this
+    }
+
+    def setVersion(version: Long): Builder = {
+      this.version = version
+      this
+    }
+
+    def setLastWatchResult(jobWatchResult: JobWatchResult): Builder = {
+      if (jobWatchResult != null) {
+        this.version = jobWatchResult.getVersion
+        this.fromLine = jobWatchResult.getFromLine
+      }
+      this
+    }
+
+    def setFromLine(fromLine: Int): Builder = {
+      this.fromLine = fromLine
+      this
+    }
+
+    def setSize(size: Int): Builder = {
+      this.size = size
+      this
+    }
+
+    def setWaitTime(waitTime: Long): Builder = {
+      this.waitTime = waitTime
+      this
+    }
+
+    /**
+     * Comma separated events to subscribe, such as `status` or `status,log`, default is
+     * `status,progress,log`.
+     */
+    def setEvents(events: String): Builder = {
+      this.events = events
+      this
+    }
+
+    def build(): JobWatchAction = {
+      val jobWatchAction = new JobWatchAction
+      if (execId == null) throw new UJESClientBuilderException("execId is needed!")
+      if (user == null) throw new UJESClientBuilderException("user is needed!")
+      jobWatchAction.execId = execId
+      jobWatchAction.setUser(user)
+      if (taskId != null) jobWatchAction.setParameter("taskID", taskId)
+      if (version > 0) jobWatchAction.setParameter("version", version)
+      if (fromLine > 0) jobWatchAction.setParameter("fromLine", fromLine)
+      if (size > 0) jobWatchAction.setParameter("size", size)
+      if (waitTime > 0) jobWatchAction.setParameter("waitTime", waitTime)
+      if (events != null) jobWatchAction.setParameter("events", events)
+      jobWatchAction
+    }
+
+  }
+
+}
@@ -34,6 +34,7 @@ object ResultSetAction {
     private var page: Int = _
     private var pageSize: Int = _
     private var charset: String = Configuration.BDP_ENCODING.getValue
+    private var contentFormat: String = _
 
     def setUser(user: String): Builder = {
       this.user = user
@@ -60,6 +61,15 @@ object ResultSetAction {
       this
     }
 
+    /**
+     * Ask for the compact page encoding(see ResultPageCodec), public services not supporting it
+     * return the json rows as before.
+     */
+    def setContentFormat(contentFormat: String): Builder = {
+      this.contentFormat = contentFormat
+      this
+    }
+
     def build(): ResultSetAction = {
       if (user == null) throw new UJESClientBuilderException("user is needed!")
       if (path == null) throw new UJESClientBuilderException("path is needed!")
@@ -68,6 +78,7 @@ object ResultSetAction {
       if (page > 0) resultSetAction.setParameter("page", page)
       if (pageSize > 0) resultSetAction.setParameter("pageSize", pageSize)
       resultSetAction.setParameter("charset", charset)
+      if (contentFormat != null) resultSetAction.setParameter("contentFormat", contentFormat)
       resultSetAction.setUser(user)
       resultSetAction
     }
@@ -17,10 +17,13 @@
 
 package org.apache.linkis.ujes.client.response
 
+import org.apache.linkis.common.io.resultset.ResultPageCodec
 import org.apache.linkis.httpclient.dws.annotation.DWSHttpMessageResult
 import org.apache.linkis.httpclient.dws.response.DWSResult
 import org.apache.linkis.ujes.client.request.UserAction
 
+import java.util
+
 import scala.beans.BeanProperty
 
 @DWSHttpMessageResult("/api/rest_j/v\\d+/filesystem/openFile")
@@ -44,4 +47,22 @@ class ResultSetResult extends DWSResult with UserAction {
   var totalPage: Int = _
 
   @BeanProperty var fileContent: Object = _
+
+  @BeanProperty var contentFormat: String = _
+
+  private var rows: util.List[util.List[String]] = _
+
+  /**
+   * Rows of this page, whatever the page is encoded in json or in the compact encoding.
+   */
+  def getRows: util.List[util.List[String]] = {
+    if (rows == null) rows = fileContent match {
+      case null => null
+      case content: String if ResultPageCodec.isCompact(contentFormat) =>
+        ResultPageCodec.decode(content)
+      case content => content.asInstanceOf[util.List[util.List[String]]]
+    }
+    rows
+  }
+
 }
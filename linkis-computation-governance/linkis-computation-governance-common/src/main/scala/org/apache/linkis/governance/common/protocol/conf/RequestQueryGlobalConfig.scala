@@ -48,6 +48,9 @@ case class RequestQueryEngineConfig(
     s"RequestQueryEngineConfig_${userCreatorLabel.getStringValue}_${engineTypeLabel.getStringValue}"
   }
 
+  override def cacheKeyFields: Array[String] =
+    Array(userCreatorLabel.getStringValue, engineTypeLabel.getStringValue, String.valueOf(filter))
+
 }
 
 case class RequestQueryEngineConfigWithGlobalConfig(
@@ -62,6 +65,9 @@ case class RequestQueryEngineConfigWithGlobalConfig(
     s"RequestQueryEngineConfigWithGlobalConfig_${userCreatorLabel.getStringValue}_${engineTypeLabel.getStringValue}"
   }
 
+  override def cacheKeyFields: Array[String] =
+    Array(userCreatorLabel.getStringValue, engineTypeLabel.getStringValue, String.valueOf(filter))
+
 }
 
 case class RequestQueryEngineTypeDefault(engineTypeLabel: EngineTypeLabel)
@@ -73,6 +79,8 @@ case class RequestQueryEngineTypeDefault(engineTypeLabel: EngineTypeLabel)
     s"RequestQueryEngineTypeDefault_${engineTypeLabel.getStringValue}"
   }
 
+  override def cacheKeyFields: Array[String] = Array(engineTypeLabel.getStringValue)
+
 }
 
 case class RequestConfigByLabel(labels: java.util.List[Label[_]], isMerge: Boolean = true)
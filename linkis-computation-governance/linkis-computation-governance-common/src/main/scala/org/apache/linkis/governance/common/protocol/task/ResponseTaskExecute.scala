@@ -88,3 +88,14 @@ case class ResponseTaskResultSet(execId: String, output: String, alias: String)
 case class ResponseTaskResultSize(execId: String, resultSize: Int)
     extends RetryableProtocol
     with RequestProtocol
+
+/**
+ * Events of a task sent by the engine conn in one message, in the order they happened. seq
+ * increases by one with every message of the task, so that a retried one can be dropped.
+ */
+case class ResponseTaskEvents(execId: String, seq: Long, events: util.List[RequestProtocol])
+    extends RetryableProtocol
+    with RequestProtocol {
+  override def toString: String =
+    s"execId: $execId, seq: $seq, events: ${if (events == null) 0 else events.size()}"
+}
@@ -17,7 +17,7 @@
 
 package org.apache.linkis.engineconn.computation.executor.conf
 
-import org.apache.linkis.common.conf.{ByteType, CommonVars}
+import org.apache.linkis.common.conf.{ByteType, CommonVars, TimeType}
 
 object ComputationExecutorConf {
 
@@ -46,6 +46,33 @@ object ComputationExecutorConf {
   val FUNCTION_LOAD_FAILED_IGNORE =
     CommonVars("wds.linkis.engineconn.function.load.ignore", true, "Function load failed ignore")
 
+  val UDF_LOAD_PARALLELISM =
+    CommonVars("linkis.engineconn.udf.load.parallelism", 5, "Max parallel downloads of UDF")
+
+  val UDF_LOAD_TIMEOUT = CommonVars(
+    "linkis.engineconn.udf.load.timeout",
+    new TimeType("5m"),
+    "Max time to wait for the parallel downloads of UDF"
+  )
+
+  val UDF_CACHE_ENABLED = CommonVars(
+    "linkis.engineconn.udf.cache.enabled",
+    true,
+    "Share the downloaded UDF resources with the engines on the same node"
+  )
+
+  val UDF_CACHE_DIR = CommonVars(
+    "linkis.engineconn.udf.cache.dir",
+    "",
+    "Node local dir of the UDF resource cache, default a dir of the user in java.io.tmpdir"
+  )
+
+  val UDF_LAZY_REGISTER_ENABLED = CommonVars(
+    "linkis.engineconn.udf.lazy.register.enabled",
+    false,
+    "Register UDF with name when it is referenced by the code for the first time"
+  )
+
   val TASK_IGNORE_UNCOMPLETED_STATUS =
     CommonVars(
       "wds.linkis.engineconn.task.ignore.uncompleted.status",
@@ -124,4 +151,22 @@ object ComputationExecutorConf {
   val ENGINE_SEND_LOG_TO_ENTRANCE_LIMIT_LENGTH =
     CommonVars("linkis.ec.send.log.entrance.limit.length", 2000)
 
+  val TASK_EVENT_BATCH_ENABLED = CommonVars(
+    "linkis.ec.send.entrance.batch.enabled",
+    false,
+    "Send the logs, progress and status of a task to entrance in batches"
+  )
+
+  val TASK_EVENT_BATCH_MAX_EVENTS =
+    CommonVars("linkis.ec.send.entrance.batch.max.events", 100, "Max events of a batch")
+
+  val TASK_EVENT_BATCH_MAX_LOG_SIZE =
+    CommonVars("linkis.ec.send.entrance.batch.max.log.size", 64 * 1024, "Max log chars of a batch")
+
+  val TASK_EVENT_BATCH_FLUSH_INTERVAL = CommonVars(
+    "linkis.ec.send.entrance.batch.flush.interval",
+    new TimeType("200ms"),
+    "Max time an event waits in the batch"
+  )
+
 }
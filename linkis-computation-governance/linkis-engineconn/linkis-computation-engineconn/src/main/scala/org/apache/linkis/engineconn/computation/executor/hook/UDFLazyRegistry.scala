@@ -0,0 +1,91 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.linkis.engineconn.computation.executor.hook
+
+import org.apache.linkis.common.utils.Logging
+import org.apache.linkis.engineconn.common.creation.EngineCreationContext
+import org.apache.linkis.engineconn.computation.executor.execute.EngineExecutionContext
+
+import org.apache.commons.lang3.StringUtils
+
+import java.util.concurrent.ConcurrentHashMap
+import java.util.regex.Pattern
+
+import scala.collection.JavaConverters.asScalaSetConverter
+
+/**
+ * UDFs whose registration is deferred until they are referenced by the code of a task for the
+ * first time, so that the engine does not download and register the ones never used.
+ */
+object UDFLazyRegistry extends Logging {
+
+  private class PendingUDF(val udfName: String, val register: () => Unit) {
+    val pattern: Pattern =
+      Pattern.compile("\\b" + Pattern.quote(udfName) + "\\b", Pattern.CASE_INSENSITIVE)
+    @volatile var registered = false
+  }
+
+  private val pendingUDFs = new ConcurrentHashMap[String, PendingUDF]()
+
+  def defer(key: String, udfName: String, register: () => Unit): Unit =
+    pendingUDFs.put(key, new PendingUDF(udfName, register))
+
+  def getPendingNum: Int = pendingUDFs.size()
+
+  /**
+   * Register the pending UDFs referenced by the code
+   * @return
+   *   number of UDFs registered
+   */
+  def registerReferenced(code: String): Int = {
+    if (pendingUDFs.isEmpty || StringUtils.isBlank(code)) return 0
+    var registeredNum = 0
+    pendingUDFs.entrySet().asScala.foreach { entry =>
+      val udf = entry.getValue
+      if (udf.pattern.matcher(code).find()) udf synchronized {
+        // Another task may be registering it, wait until it is done
+        if (!udf.registered) {
+          logger.info(s"Register udf ${udf.udfName} on its first reference.")
+          udf.register()
+          udf.registered = true
+          pendingUDFs.remove(entry.getKey, udf)
+          registeredNum += 1
+        }
+      }
+    }
+    registeredNum
+  }
+
+  def clear(): Unit = pendingUDFs.clear()
+
+}
+
+class UDFLazyRegisterHook extends ComputationExecutorHook with Logging {
+
+  override def getHookName(): String = "UDFLazyRegisterHook"
+
+  override def beforeExecutorExecute(
+      engineExecutionContext: EngineExecutionContext,
+      engineCreationContext: EngineCreationContext,
+      codeBeforeHook: String
+  ): String = {
+    if (UDFLazyRegistry.getPendingNum > 0) UDFLazyRegistry.registerReferenced(codeBeforeHook)
+    codeBeforeHook
+  }
+
+}
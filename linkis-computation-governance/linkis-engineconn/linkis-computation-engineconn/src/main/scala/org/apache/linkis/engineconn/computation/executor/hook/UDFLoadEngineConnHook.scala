@@ -17,8 +17,6 @@
 
 package org.apache.linkis.engineconn.computation.executor.hook
 
-import org.apache.linkis.bml.client.{BmlClient, BmlClientFactory}
-import org.apache.linkis.common.conf.Configuration
 import org.apache.linkis.common.utils.{Logging, Utils}
 import org.apache.linkis.engineconn.common.creation.EngineCreationContext
 import org.apache.linkis.engineconn.common.engineconn.EngineConn
@@ -38,7 +36,7 @@ import org.apache.linkis.udf.UDFClient
 import org.apache.linkis.udf.utils.ConstantVar
 import org.apache.linkis.udf.vo.UDFInfoVo
 
-import org.apache.commons.io.{FileUtils, IOUtils}
+import org.apache.commons.io.FileUtils
 import org.apache.commons.lang3.StringUtils
 
 import java.io.File
@@ -46,6 +44,7 @@ import java.nio.charset.StandardCharsets
 
 import scala.collection.JavaConverters.asScalaBufferConverter
 import scala.collection.mutable.ArrayBuffer
+import scala.reflect.ClassTag
 
 abstract class UDFLoad extends Logging {
 
@@ -53,17 +52,24 @@ abstract class UDFLoad extends Logging {
   protected val category: String
   protected val runType: RunType
 
-  private val bmlClient: BmlClient = BmlClientFactory.createBmlClient()
+  private lazy val udfMaterializer: UDFMaterializer = UDFMaterializer.getUDFMaterializer
 
   protected def getRealRunType(engineType: String): RunType = runType
 
   protected def constructCode(udfInfo: UDFInfoVo): String
 
-  protected def generateCode(): Array[String] = {
+  /**
+   * If constructCode reads the bml resources of UDFs, they are downloaded in parallel in advance
+   */
+  protected def readBmlResource: Boolean = true
+
+  protected def generateCode(): Array[String] = generateCode(getLoadUdfCode)
+
+  protected def generateCode(loadUdfCode: String): Array[String] = {
     val codeBuffer = new ArrayBuffer[String]
     val statementBuffer = new ArrayBuffer[String]
     var accept = true
-    getLoadUdfCode.split("\n").foreach {
+    loadUdfCode.split("\n").foreach {
       case "" =>
       case l if l.startsWith("%") =>
         if (acceptCodeType(l)) {
@@ -84,7 +90,16 @@ abstract class UDFLoad extends Logging {
     line.startsWith("%" + runType.toString)
   }
 
-  protected def getLoadUdfCode: String = {
+  protected def getLoadUdfCode: String = getLoadUdfCode(getUdfInfos)
+
+  protected def getLoadUdfCode(udfInfos: Array[UDFInfoVo]): String = {
+    if (readBmlResource) {
+      udfMaterializer.prefetch(udfInfos, ComputationExecutorConf.UDF_LOAD_TIMEOUT.getValue.toLong)
+    }
+    udfInfos.map(constructCode).mkString("\n")
+  }
+
+  protected def getUdfInfos: Array[UDFInfoVo] = {
     val engineCreationContext =
       EngineConnManager.getEngineConnManager.getEngineConn.getEngineCreationContext
     val user = engineCreationContext.getUser
@@ -109,10 +124,7 @@ abstract class UDFLoad extends Logging {
         s"udfName:${l.getUdfName}, bml_resource_id:${l.getBmlResourceId}, bml_id:${l.getId}\n"
       )
     }
-    udfInfos
-      .filter { info => StringUtils.isNotEmpty(info.getBmlResourceId) }
-      .map(constructCode)
-      .mkString("\n")
+    udfInfos.filter { info => StringUtils.isNotEmpty(info.getBmlResourceId) }
   }
 
   protected def readFile(path: String): String = {
@@ -126,34 +138,19 @@ abstract class UDFLoad extends Logging {
     }
   }
 
-  protected def readFile(user: String, resourceId: String, resourceVersion: String): String = {
-    logger.info("begin to download udf from bml.")
-    val downloadResponse = bmlClient.downloadResource(
-      if (user == null) Utils.getJvmUser else user,
-      resourceId,
-      resourceVersion
-    )
-    if (downloadResponse.isSuccess) {
-      Utils.tryFinally {
-        IOUtils.toString(downloadResponse.inputStream, Configuration.BDP_ENCODING.getValue)
-      } {
-        IOUtils.closeQuietly(downloadResponse.inputStream)
+  protected def readFile(user: String, resourceId: String, resourceVersion: String): String =
+    udfMaterializer.readResource(user, resourceId, resourceVersion)
+
+  private def tryLoadFunction[T: ClassTag](load: => Array[T]): Array[T] =
+    Utils.tryCatch(load) { t: Throwable =>
+      if (!ComputationExecutorConf.UDF_LOAD_FAILED_IGNORE.getValue) {
+        logger.error("Failed to load function, executor close ")
+        throw t
+      } else {
+        logger.error("Failed to load function", t)
+        Array.empty[T]
       }
-    } else {
-      logger.info("failed to download udf from bml.")
-      ""
     }
-  }
-
-  private def getFunctionCode: Array[String] = Utils.tryCatch(generateCode()) { t: Throwable =>
-    if (!ComputationExecutorConf.UDF_LOAD_FAILED_IGNORE.getValue) {
-      logger.error("Failed to load function, executor close ")
-      throw t
-    } else {
-      logger.error("Failed to load function", t)
-      Array.empty[String]
-    }
-  }
 
   private def executeFunctionCode(codes: Array[String], executor: ComputationExecutor): Unit = {
     if (null == codes || null == executor) {
@@ -175,29 +172,57 @@ abstract class UDFLoad extends Logging {
     }
   }
 
-  protected def loadFunctions(executor: Executor): Unit = {
-
-    val codes = getFunctionCode
+  private def executeFunctionCode(codes: Array[String], getExecutor: () => Executor): Unit =
     if (null != codes && codes.nonEmpty) {
-      executor match {
+      getExecutor() match {
         case computationExecutor: ComputationExecutor =>
           executeFunctionCode(codes, computationExecutor)
         case _ =>
       }
     }
+
+  /**
+   * Register the UDFs with name on their first reference, see [[UDFLazyRegisterHook]], the ones
+   * without name are registered at once.
+   */
+  private def deferFunctions(getExecutor: () => Executor): Unit = {
+    val (namedUdfInfos, unnamedUdfInfos) =
+      tryLoadFunction(getUdfInfos).partition(info => StringUtils.isNotBlank(info.getUdfName))
+    namedUdfInfos.foreach { udfInfo =>
+      UDFLazyRegistry.defer(
+        s"$category:$udfType:${udfInfo.getUdfName}",
+        udfInfo.getUdfName,
+        () =>
+          executeFunctionCode(
+            tryLoadFunction(generateCode(getLoadUdfCode(Array(udfInfo)))),
+            getExecutor
+          )
+      )
+    }
+    if (unnamedUdfInfos.nonEmpty) {
+      executeFunctionCode(
+        tryLoadFunction(generateCode(getLoadUdfCode(unnamedUdfInfos))),
+        getExecutor
+      )
+    }
+    logger.info(s"Deferred registration of ${namedUdfInfos.length} functions until referenced")
+  }
+
+  protected def loadFunctions(executor: Executor): Unit = {
+    if (ComputationExecutorConf.UDF_LAZY_REGISTER_ENABLED.getValue) {
+      deferFunctions(() => executor)
+    } else {
+      executeFunctionCode(tryLoadFunction(generateCode()), () => executor)
+    }
     logger.info(s"Successful to execute function code ${runType}, type : ${udfType}")
   }
 
   protected def loadUDF(labels: Array[Label[_]]): Unit = {
-
-    val codes = getFunctionCode
-    if (null != codes && codes.nonEmpty) {
-      val executor = ExecutorManager.getInstance.getExecutorByLabels(labels)
-      executor match {
-        case computationExecutor: ComputationExecutor =>
-          executeFunctionCode(codes, computationExecutor)
-        case _ =>
-      }
+    val getExecutor = () => ExecutorManager.getInstance.getExecutorByLabels(labels)
+    if (ComputationExecutorConf.UDF_LAZY_REGISTER_ENABLED.getValue) {
+      deferFunctions(getExecutor)
+    } else {
+      executeFunctionCode(tryLoadFunction(generateCode()), getExecutor)
     }
     logger.info(s"Successful to execute code ${runType}, type : ${udfType}")
   }
@@ -243,6 +268,8 @@ class JarUdfEngineHook extends UDFLoadEngineConnHook {
   override val category: String = ConstantVar.UDF
   override val runType = RunType.SQL
 
+  override protected def readBmlResource: Boolean = false
+
   override protected def constructCode(udfInfo: UDFInfoVo): String = {
     "%sql\n" + udfInfo.getRegisterFormat
   }
@@ -0,0 +1,239 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.linkis.engineconn.computation.executor.hook
+
+import org.apache.linkis.bml.client.{BmlClient, BmlClientFactory}
+import org.apache.linkis.common.conf.Configuration
+import org.apache.linkis.common.utils.{Logging, Utils}
+import org.apache.linkis.engineconn.computation.executor.conf.ComputationExecutorConf
+import org.apache.linkis.udf.vo.UDFInfoVo
+
+import org.apache.commons.io.{FileUtils, IOUtils}
+import org.apache.commons.lang3.StringUtils
+
+import java.io.File
+import java.nio.charset.StandardCharsets
+import java.nio.file.{Files, StandardCopyOption}
+import java.nio.file.attribute.PosixFilePermissions
+import java.util.concurrent.{ConcurrentHashMap, TimeUnit}
+import java.util.concurrent.atomic.AtomicLong
+
+import scala.collection.mutable
+import scala.concurrent.{Await, ExecutionContextExecutorService, Future}
+import scala.concurrent.duration.Duration
+
+trait UDFResourceDownloader {
+
+  /**
+   * Download the content of a bml resource
+   * @return
+   *   the content, null if failed
+   */
+  def download(user: String, resourceId: String, version: String): String
+
+}
+
+class BmlUDFResourceDownloader extends UDFResourceDownloader with Logging {
+
+  private lazy val bmlClient: BmlClient = BmlClientFactory.createBmlClient()
+
+  override def download(user: String, resourceId: String, version: String): String = {
+    logger.info(s"begin to download udf $resourceId($version) from bml.")
+    val downloadResponse = bmlClient.downloadResource(
+      if (user == null) Utils.getJvmUser else user,
+      resourceId,
+      version
+    )
+    if (downloadResponse.isSuccess) {
+      Utils.tryFinally {
+        IOUtils.toString(downloadResponse.inputStream, Configuration.BDP_ENCODING.getValue)
+      } {
+        IOUtils.closeQuietly(downloadResponse.inputStream)
+      }
+    } else {
+      logger.info(s"failed to download udf $resourceId($version) from bml.")
+      null
+    }
+  }
+
+}
+
+/**
+ * Materializes the content of UDF resources stored in bml. The resources are downloaded with a
+ * bounded parallelism, and kept in a node local dir keyed by resourceId and version, so that the
+ * engines on the same node download a version only once. The content of a bml resource version
+ * never changes, so the cached ones never expire.
+ *
+ * @param cacheDir
+ *   node local cache dir, null or blank means no cache shared with other engines
+ */
+class UDFMaterializer(parallelism: Int, cacheDir: String, downloader: UDFResourceDownloader)
+    extends Logging {
+
+  private val contents = new ConcurrentHashMap[String, String]()
+
+  private val downloadNum = new AtomicLong(0)
+
+  private val cacheHitNum = new AtomicLong(0)
+
+  private val cacheRoot: File = initCacheRoot()
+
+  private lazy val executionContext: ExecutionContextExecutorService =
+    Utils.newFixedExecutionContext(math.max(parallelism, 1), "UDF-Download-Thread-", true)
+
+  private def initCacheRoot(): File = if (StringUtils.isBlank(cacheDir)) null
+  else {
+    Utils.tryCatch {
+      val root = new File(cacheDir)
+      if (!root.exists() && root.mkdirs()) {
+        Utils.tryQuietly(
+          Files.setPosixFilePermissions(root.toPath, PosixFilePermissions.fromString("rwx------"))
+        )
+      }
+      // Never read the code from a dir that may be written by others
+      if (root.isDirectory && Files.getOwner(root.toPath).getName == Utils.getJvmUser) root
+      else {
+        logger.warn(s"UDF cache dir $cacheDir is not owned by ${Utils.getJvmUser}, ignore it.")
+        null
+      }
+    } { t: Throwable =>
+      logger.warn(s"Failed to init UDF cache dir $cacheDir, ignore it.", t)
+      null
+    }
+  }
+
+  def getDownloadNum: Long = downloadNum.get()
+
+  def getCacheHitNum: Long = cacheHitNum.get()
+
+  /**
+   * Download the bml resources of the UDFs in parallel, the ones not ready within the timeout are
+   * downloaded again when they are read.
+   */
+  def prefetch(udfInfos: Array[UDFInfoVo], timeoutMills: Long): Unit = {
+    val resources = new mutable.LinkedHashMap[String, UDFInfoVo]
+    udfInfos
+      .filter(info => StringUtils.isNotBlank(info.getBmlResourceId))
+      .foreach { info =>
+        val key = cacheKey(info.getBmlResourceId, info.getBmlResourceVersion)
+        if (!contents.containsKey(key) && !resources.contains(key)) resources.put(key, info)
+      }
+    if (resources.isEmpty) return
+    val startTime = System.currentTimeMillis
+    if (resources.size == 1 || parallelism <= 1) {
+      resources.values.foreach(info =>
+        readResource(info.getCreateUser, info.getBmlResourceId, info.getBmlResourceVersion)
+      )
+    } else {
+      implicit val ec: ExecutionContextExecutorService = executionContext
+      val futures = resources.values.toList.map { info =>
+        Future {
+          Utils.tryAndWarn(
+            readResource(info.getCreateUser, info.getBmlResourceId, info.getBmlResourceVersion)
+          )
+        }
+      }
+      Utils.tryCatch(
+        Await.ready(Future.sequence(futures), Duration(timeoutMills, TimeUnit.MILLISECONDS))
+      ) { t: Throwable =>
+        logger.warn(s"Not all of the ${resources.size} UDF resources are prefetched in time.", t)
+      }
+    }
+    logger.info(
+      s"Prefetched ${resources.size} UDF resources in ${System.currentTimeMillis - startTime}ms, " +
+        s"downloads: ${downloadNum.get()}, cache hits: ${cacheHitNum.get()}"
+    )
+  }
+
+  /**
+   * Read the content of a bml resource, from the memory, the node local cache or the bml in order.
+   * @return
+   *   the content, empty if failed to download
+   */
+  def readResource(user: String, resourceId: String, version: String): String = {
+    val key = cacheKey(resourceId, version)
+    var content = contents.get(key)
+    if (content == null) key.intern().synchronized {
+      content = contents.get(key)
+      if (content == null) {
+        content = readFromCacheDir(resourceId, version)
+        if (content != null) {
+          cacheHitNum.incrementAndGet()
+        } else {
+          downloadNum.incrementAndGet()
+          content = downloader.download(user, resourceId, version)
+          if (content != null) writeToCacheDir(resourceId, version, content)
+        }
+        if (content != null) contents.put(key, content)
+      }
+    }
+    if (content == null) "" else content
+  }
+
+  private def cacheKey(resourceId: String, version: String): String =
+    s"udf-resource:$resourceId:$version"
+
+  private def isSafeName(name: String): Boolean =
+    StringUtils.isNotBlank(name) && name.matches("[\\w.-]+") && !name.contains("..")
+
+  /** The latest version may change, so only the resources with a version are cached */
+  private def cacheFile(resourceId: String, version: String): File =
+    if (cacheRoot == null || !isSafeName(resourceId) || !isSafeName(version)) null
+    else new File(new File(cacheRoot, resourceId), version)
+
+  private def readFromCacheDir(resourceId: String, version: String): String = {
+    val file = cacheFile(resourceId, version)
+    if (file != null && file.isFile) {
+      Utils.tryAndWarn(FileUtils.readFileToString(file, StandardCharsets.UTF_8))
+    } else null
+  }
+
+  private def writeToCacheDir(resourceId: String, version: String, content: String): Unit = {
+    val file = cacheFile(resourceId, version)
+    if (file != null) Utils.tryAndWarn {
+      val dir = file.getParentFile
+      if (!dir.exists()) dir.mkdirs()
+      // Write to a temp file first, so that other engines never read a partial one
+      val tmpFile = File.createTempFile(version, ".tmp", dir)
+      Utils.tryFinally {
+        FileUtils.writeStringToFile(tmpFile, content, StandardCharsets.UTF_8)
+        Files.move(tmpFile.toPath, file.toPath, StandardCopyOption.ATOMIC_MOVE)
+      } {
+        FileUtils.deleteQuietly(tmpFile)
+      }
+    }
+  }
+
+}
+
+object UDFMaterializer {
+
+  private lazy val udfMaterializer = new UDFMaterializer(
+    ComputationExecutorConf.UDF_LOAD_PARALLELISM.getValue,
+    if (!ComputationExecutorConf.UDF_CACHE_ENABLED.getValue) null
+    else if (StringUtils.isNotBlank(ComputationExecutorConf.UDF_CACHE_DIR.getValue)) {
+      ComputationExecutorConf.UDF_CACHE_DIR.getValue
+    } else {
+      System.getProperty("java.io.tmpdir") + File.separator + "linkis-udf-cache-" + Utils.getJvmUser
+    },
+    new BmlUDFResourceDownloader
+  )
+
+  def getUDFMaterializer: UDFMaterializer = udfMaterializer
+
+}
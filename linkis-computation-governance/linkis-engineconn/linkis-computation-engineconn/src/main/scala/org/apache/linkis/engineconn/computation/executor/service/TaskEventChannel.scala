@@ -0,0 +1,168 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.linkis.engineconn.computation.executor.service
+
+import org.apache.linkis.common.utils.{Logging, Utils}
+import org.apache.linkis.governance.common.entity.ExecutionNodeStatus
+import org.apache.linkis.governance.common.protocol.task.{
+  ResponseTaskEvents,
+  ResponseTaskLog,
+  ResponseTaskStatus
+}
+import org.apache.linkis.manager.common.protocol.resource.ResponseTaskRunningInfo
+import org.apache.linkis.protocol.message.RequestProtocol
+
+import java.util
+import java.util.concurrent.{ConcurrentHashMap, ScheduledFuture, TimeUnit}
+import java.util.concurrent.atomic.AtomicLong
+
+import scala.collection.JavaConverters._
+
+/**
+ * Outbound channel of the events of a task to the entrance. The events are kept in the order they
+ * happened and sent in one [[ResponseTaskEvents]] once the batch is full, on the flush interval
+ * or at once when the task is completed. Consecutive logs are merged into one and only the latest
+ * progress is kept.
+ */
+class TaskEventChannel(
+    execId: String,
+    maxEvents: Int,
+    maxLogSize: Int,
+    send: ResponseTaskEvents => Unit
+) {
+
+  private var events = new util.ArrayList[RequestProtocol]()
+
+  private var logSize = 0
+
+  private val seq = new AtomicLong(0)
+
+  /** Held while a batch is taken and sent, so that the batches are sent in order */
+  private val flushLock = new Object
+
+  def getExecId: String = execId
+
+  def offer(event: RequestProtocol): Unit = {
+    val needFlush = synchronized {
+      event match {
+        case log: ResponseTaskLog =>
+          val last = if (events.isEmpty) null else events.get(events.size() - 1)
+          last match {
+            case lastLog: ResponseTaskLog =>
+              events.set(events.size() - 1, lastLog.copy(log = joinLogs(lastLog.log, log.log)))
+            case _ => events.add(log)
+          }
+          if (null != log.log) logSize += log.log.length
+        case progress: ResponseTaskRunningInfo =>
+          // A progress is a snapshot, the older one is useless
+          val iterator = events.iterator()
+          while (iterator.hasNext) {
+            if (iterator.next().isInstanceOf[ResponseTaskRunningInfo]) iterator.remove()
+          }
+          events.add(progress)
+        case _ => events.add(event)
+      }
+      events.size() >= maxEvents || logSize >= maxLogSize || TaskEventChannel.isTerminal(event)
+    }
+    if (needFlush) flush()
+  }
+
+  def flush(): Unit = flushLock synchronized {
+    val batch = synchronized {
+      if (events.isEmpty) null
+      else {
+        val batch = events
+        events = new util.ArrayList[RequestProtocol]()
+        logSize = 0
+        batch
+      }
+    }
+    if (null != batch) send(ResponseTaskEvents(execId, seq.incrementAndGet(), batch))
+  }
+
+  def isEmpty: Boolean = synchronized(events.isEmpty)
+
+  private def joinLogs(log: String, nextLog: String): String =
+    if (null == log || log.isEmpty) nextLog
+    else if (null == nextLog || nextLog.isEmpty) log
+    else if (log.endsWith("\n")) log + nextLog
+    else log + "\n" + nextLog
+
+}
+
+object TaskEventChannel {
+
+  def isTerminal(event: RequestProtocol): Boolean = event match {
+    case ResponseTaskStatus(_, status) => ExecutionNodeStatus.isCompleted(status)
+    case _ => false
+  }
+
+}
+
+/**
+ * Channels of the running tasks, the events waiting longer than the flush interval are sent by a
+ * scheduled flush.
+ */
+class TaskEventChannelManager(maxEvents: Int, maxLogSize: Int) extends Logging {
+
+  private val channels = new ConcurrentHashMap[String, TaskEventChannel]()
+
+  private var flushFuture: ScheduledFuture[_] = _
+
+  def getOrCreateChannel(execId: String, send: ResponseTaskEvents => Unit): TaskEventChannel = {
+    var channel = channels.get(execId)
+    if (null == channel) {
+      val newChannel = new TaskEventChannel(execId, maxEvents, maxLogSize, send)
+      channel = channels.putIfAbsent(execId, newChannel)
+      if (null == channel) channel = newChannel
+    }
+    channel
+  }
+
+  /** Flush the remaining events and drop the channel of a completed task */
+  def removeChannel(execId: String): Unit = {
+    val channel = channels.remove(execId)
+    if (null != channel) channel.flush()
+  }
+
+  def getChannelNum: Int = channels.size()
+
+  def flushAll(): Unit = channels.values().asScala.foreach { channel =>
+    if (!channel.isEmpty) {
+      Utils.tryAndWarnMsg(channel.flush())(s"Failed to send events of task ${channel.getExecId}")
+    }
+  }
+
+  def start(flushIntervalMills: Long): Unit = if (null == flushFuture) {
+    flushFuture = Utils.defaultScheduler.scheduleAtFixedRate(
+      new Runnable {
+        override def run(): Unit = flushAll()
+      },
+      flushIntervalMills,
+      flushIntervalMills,
+      TimeUnit.MILLISECONDS
+    )
+  }
+
+  def stop(): Unit = if (null != flushFuture) {
+    flushFuture.cancel(false)
+    flushFuture = null
+    flushAll()
+  }
+
+}
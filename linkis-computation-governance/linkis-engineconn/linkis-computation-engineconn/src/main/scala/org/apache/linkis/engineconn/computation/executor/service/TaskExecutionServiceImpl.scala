@@ -141,13 +141,44 @@ class TaskExecutionServiceImpl
       "TaskExecution-Thread-"
     )
 
+  private val taskEventChannelManager: TaskEventChannelManager =
+    if (ComputationExecutorConf.TASK_EVENT_BATCH_ENABLED.getValue) {
+      new TaskEventChannelManager(
+        ComputationExecutorConf.TASK_EVENT_BATCH_MAX_EVENTS.getValue,
+        ComputationExecutorConf.TASK_EVENT_BATCH_MAX_LOG_SIZE.getValue
+      )
+    } else null
+
   @PostConstruct
   def init(): Unit = {
     LogHelper.setLogListener(this)
     syncListenerBus.addListener(this)
+    if (null != taskEventChannelManager) {
+      taskEventChannelManager.start(
+        ComputationExecutorConf.TASK_EVENT_BATCH_FLUSH_INTERVAL.getValue.toLong
+      )
+    }
   }
 
+  /**
+   * Send the message to the entrance of the task, in the batch of the task when the batch is
+   * enabled.
+   */
   private def sendToEntrance(task: EngineConnTask, msg: RequestProtocol): Unit = {
+    if (
+        null != taskEventChannelManager && null != task && null != msg && null != task
+          .getCallbackServiceInstance()
+    ) {
+      taskEventChannelManager
+        .getOrCreateChannel(task.getTaskId, events => sendMessageToEntrance(task, events))
+        .offer(msg)
+      if (TaskEventChannel.isTerminal(msg)) taskEventChannelManager.removeChannel(task.getTaskId)
+    } else {
+      sendMessageToEntrance(task, msg)
+    }
+  }
+
+  private def sendMessageToEntrance(task: EngineConnTask, msg: RequestProtocol): Unit = {
     Utils.tryCatch {
       var sender: Sender = null
       if (null != task && null != task.getCallbackServiceInstance() && null != msg) {
@@ -747,6 +778,7 @@ class TaskExecutionServiceImpl
         executor.clearTaskCache(taskId)
         taskIdCache.invalidate(taskId)
       }
+      if (null != taskEventChannelManager) taskEventChannelManager.removeChannel(taskId)
     }
   }
 
@@ -0,0 +1,133 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.linkis.engineconn.computation.executor.hook
+
+import org.apache.linkis.udf.vo.UDFInfoVo
+
+import org.apache.commons.io.FileUtils
+
+import java.io.File
+import java.nio.file.Files
+import java.util.concurrent.{CountDownLatch, TimeUnit}
+import java.util.concurrent.atomic.AtomicInteger
+
+import org.junit.jupiter.api.{AfterEach, BeforeEach, Test}
+import org.junit.jupiter.api.Assertions.assertEquals
+
+class UDFMaterializerTest {
+
+  private var cacheDir: File = _
+
+  private val downloadNum = new AtomicInteger(0)
+
+  /** A fake bml client */
+  private val downloader = new UDFResourceDownloader {
+    override def download(user: String, resourceId: String, version: String): String = {
+      downloadNum.incrementAndGet()
+      s"def $resourceId(): return '$version'"
+    }
+  }
+
+  @BeforeEach
+  def before(): Unit = {
+    cacheDir = Files.createTempDirectory("linkis-udf-cache-test").toFile
+    downloadNum.set(0)
+  }
+
+  @AfterEach
+  def after(): Unit = FileUtils.deleteQuietly(cacheDir)
+
+  private def udfInfos(num: Int): Array[UDFInfoVo] = (1 to num).map { i =>
+    val udfInfo = new UDFInfoVo
+    udfInfo.setUdfName(s"udf_$i")
+    udfInfo.setCreateUser("hadoop")
+    udfInfo.setBmlResourceId(s"resource_$i")
+    udfInfo.setBmlResourceVersion("v000001")
+    udfInfo
+  }.toArray
+
+  @Test
+  def testParallelPrefetch(): Unit = {
+    val num = 20
+    val infos = udfInfos(num)
+    // Every download waits until all of them started, which only happens when they run in parallel
+    val started = new CountDownLatch(num)
+    val inParallelNum = new AtomicInteger(0)
+    val parallelDownloader = new UDFResourceDownloader {
+      override def download(user: String, resourceId: String, version: String): String = {
+        started.countDown()
+        if (started.await(10, TimeUnit.SECONDS)) inParallelNum.incrementAndGet()
+        downloader.download(user, resourceId, version)
+      }
+    }
+    val materializer = new UDFMaterializer(num, cacheDir.getPath, parallelDownloader)
+    materializer.prefetch(infos, 60000L)
+    assertEquals(num, inParallelNum.get())
+    assertEquals(num, downloadNum.get())
+    infos.foreach { info =>
+      assertEquals(
+        s"def ${info.getBmlResourceId}(): return 'v000001'",
+        materializer.readResource("hadoop", info.getBmlResourceId, info.getBmlResourceVersion)
+      )
+    }
+    assertEquals(num, downloadNum.get())
+  }
+
+  @Test
+  def testSharedByEngines(): Unit = {
+    val infos = udfInfos(5)
+    val firstEngine = new UDFMaterializer(5, cacheDir.getPath, downloader)
+    firstEngine.prefetch(infos, 60000L)
+    assertEquals(5, firstEngine.getDownloadNum)
+
+    // Another engine on the same node reuses the content downloaded by the first one
+    val secondEngine = new UDFMaterializer(5, cacheDir.getPath, downloader)
+    secondEngine.prefetch(infos, 60000L)
+    assertEquals(0, secondEngine.getDownloadNum)
+    assertEquals(5, secondEngine.getCacheHitNum)
+    assertEquals(5, downloadNum.get())
+    assertEquals(
+      "def resource_1(): return 'v000001'",
+      secondEngine.readResource("hadoop", "resource_1", "v000001")
+    )
+  }
+
+  @Test
+  def testWithoutVersionNotShared(): Unit = {
+    val firstEngine = new UDFMaterializer(2, cacheDir.getPath, downloader)
+    firstEngine.readResource("hadoop", "resource_1", null)
+    val secondEngine = new UDFMaterializer(2, cacheDir.getPath, downloader)
+    secondEngine.readResource("hadoop", "resource_1", null)
+    assertEquals(2, downloadNum.get())
+  }
+
+  @Test
+  def testLazyRegister(): Unit = {
+    val registered = new AtomicInteger(0)
+    UDFLazyRegistry.clear()
+    UDFLazyRegistry.defer("udf:1:my_upper", "my_upper", () => registered.incrementAndGet())
+    UDFLazyRegistry.defer("udf:1:my_lower", "my_lower", () => registered.incrementAndGet())
+    assertEquals(0, UDFLazyRegistry.registerReferenced("select my_upperx(name) from t"))
+    assertEquals(1, UDFLazyRegistry.registerReferenced("select MY_UPPER(name) from t"))
+    assertEquals(0, UDFLazyRegistry.registerReferenced("select my_upper(name) from t"))
+    assertEquals(1, registered.get())
+    assertEquals(1, UDFLazyRegistry.getPendingNum)
+    UDFLazyRegistry.clear()
+  }
+
+}
@@ -0,0 +1,201 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.linkis.engineconn.computation.executor.service
+
+import org.apache.linkis.common.utils.Logging
+import org.apache.linkis.governance.common.entity.ExecutionNodeStatus
+import org.apache.linkis.governance.common.protocol.task._
+import org.apache.linkis.manager.common.protocol.resource.ResponseTaskRunningInfo
+import org.apache.linkis.protocol.message.RequestProtocol
+
+import java.util
+import java.util.concurrent.{CountDownLatch, Executors, TimeUnit}
+
+import scala.collection.JavaConverters._
+import scala.collection.mutable.ArrayBuffer
+
+import org.junit.jupiter.api.Assertions.{assertEquals, assertTrue}
+import org.junit.jupiter.api.{Disabled, Test}
+
+class TaskEventChannelTest extends Logging {
+
+  private val execId = "task_1"
+
+  /** Latency of a rpc message to the entrance */
+  private val sendMills = 1L
+
+  private val sent = new ArrayBuffer[ResponseTaskEvents]
+
+  private def send(events: ResponseTaskEvents): Unit = sent synchronized {
+    Thread.sleep(sendMills)
+    sent += events
+  }
+
+  private def progress(value: Float): ResponseTaskRunningInfo =
+    new ResponseTaskRunningInfo(execId, value, null, null, null)
+
+  private def received: Seq[RequestProtocol] = sent.flatMap(_.events.asScala)
+
+  private def receivedLogs: String =
+    received.collect { case log: ResponseTaskLog => log.log }.mkString
+
+  @Test
+  def testOrderAndCompleteness(): Unit = {
+    val channel = new TaskEventChannel(execId, 10, 1024 * 1024, send)
+    channel.offer(ResponseTaskStatus(execId, ExecutionNodeStatus.Running))
+    channel.offer(ResponseTaskLog(execId, "line1\n"))
+    channel.offer(ResponseTaskLog(execId, "line2\n"))
+    channel.offer(progress(0.1f))
+    channel.offer(ResponseTaskLog(execId, "line3\n"))
+    channel.offer(progress(0.5f))
+    channel.offer(ResponseTaskResultSet(execId, "hdfs:///tmp/_0.dolphin", "alias"))
+    channel.offer(ResponseTaskResultSize(execId, 1))
+    channel.offer(ResponseTaskLog(execId, "line4"))
+    channel.offer(ResponseTaskLog(execId, "line5\n"))
+    // Nothing is sent before the batch is full or the task is completed
+    assertTrue(sent.isEmpty)
+    channel.offer(ResponseTaskStatus(execId, ExecutionNodeStatus.Succeed))
+    assertTrue(channel.isEmpty)
+
+    assertEquals(1, sent.size)
+    assertEquals("line1\nline2\nline3\nline4\nline5\n", receivedLogs)
+    val kinds = received.map {
+      case ResponseTaskStatus(_, status) => status.toString
+      case log: ResponseTaskLog => "log"
+      case info: ResponseTaskRunningInfo => "progress:" + info.getProgress
+      case _: ResponseTaskResultSet => "resultSet"
+      case _: ResponseTaskResultSize => "resultSize"
+      case other => other.toString
+    }
+    assertEquals(
+      Seq("Running", "log", "log", "progress:0.5", "resultSet", "resultSize", "log", "Succeed"),
+      kinds
+    )
+  }
+
+  @Test
+  def testFlushBySizeInOrder(): Unit = {
+    val channel = new TaskEventChannel(execId, 3, 10, send)
+    (1 to 100).foreach { i =>
+      channel.offer(ResponseTaskLog(execId, s"log$i\n"))
+      if (i % 7 == 0) channel.offer(ResponseTaskResultSize(execId, i))
+    }
+    channel.flush()
+    assertEquals((1 to 100).map(i => s"log$i\n").mkString, receivedLogs)
+    assertEquals(
+      (1 to 100).filter(_ % 7 == 0),
+      received.collect { case ResponseTaskResultSize(_, size) => size }
+    )
+    // seq increases one by one
+    assertEquals((1L to sent.size.toLong).toList, sent.map(_.seq).toList)
+  }
+
+  @Test
+  def testConcurrentOffers(): Unit = {
+    val channel = new TaskEventChannel(execId, 16, 1024, send)
+    val threads = 8
+    val perThread = 500
+    val pool = Executors.newFixedThreadPool(threads)
+    val latch = new CountDownLatch(threads)
+    (0 until threads).foreach { t =>
+      pool.execute(new Runnable {
+        override def run(): Unit = {
+          (0 until perThread).foreach(i => channel.offer(ResponseTaskResultSize(s"$t", i)))
+          latch.countDown()
+        }
+      })
+    }
+    assertTrue(latch.await(60, TimeUnit.SECONDS))
+    pool.shutdown()
+    channel.flush()
+    val sizes = received.collect { case r: ResponseTaskResultSize => r }
+    assertEquals(threads * perThread, sizes.size)
+    // Events of every producer keep their order
+    (0 until threads).foreach { t =>
+      assertEquals((0 until perThread).toList, sizes.filter(_.execId == s"$t").map(_.resultSize))
+    }
+    assertEquals((1L to sent.size.toLong).toList, sent.map(_.seq).toList)
+  }
+
+  @Test
+  def testFlushByInterval(): Unit = {
+    val manager = new TaskEventChannelManager(100, 1024 * 1024)
+    manager.start(50)
+    try {
+      manager.getOrCreateChannel(execId, send).offer(ResponseTaskLog(execId, "line1\n"))
+      val deadline = System.currentTimeMillis + 5000
+      while (sent.synchronized(sent.isEmpty) && System.currentTimeMillis < deadline) {
+        Thread.sleep(10)
+      }
+      assertEquals("line1\n", receivedLogs)
+      manager.removeChannel(execId)
+      assertEquals(0, manager.getChannelNum)
+    } finally {
+      manager.stop()
+    }
+  }
+
+  private def taskMessages: util.List[RequestProtocol] = {
+    val logs = 2000
+    val messages = new util.ArrayList[RequestProtocol]()
+    (1 to logs).foreach { i =>
+      messages.add(ResponseTaskLog(execId, s"stage ${i % 50} task $i finished\n"))
+      if (i % 20 == 0) messages.add(progress(i.toFloat / logs))
+    }
+    messages.add(ResponseTaskStatus(execId, ExecutionNodeStatus.Succeed))
+    messages
+  }
+
+  @Test
+  def testBatchedMessages(): Unit = {
+    val messages = taskMessages
+    val channel = new TaskEventChannel(execId, 100, 16 * 1024, send)
+    messages.asScala.foreach(channel.offer)
+    assertTrue(channel.isEmpty)
+    // far fewer rpc messages than events, with the logs complete and the status last
+    assertTrue(sent.size * 10 < messages.size)
+    assertEquals(
+      messages.asScala.collect { case log: ResponseTaskLog => log.log }.mkString,
+      receivedLogs
+    )
+    assertTrue(TaskEventChannel.isTerminal(received.last))
+  }
+
+  @Test
+  @Disabled("Benchmark, run it manually")
+  def testThroughput(): Unit = {
+    val messages = taskMessages
+
+    // One rpc message per event
+    var startTime = System.nanoTime()
+    messages.asScala.foreach(m => send(ResponseTaskEvents(execId, 0, util.Arrays.asList(m))))
+    val unbatchedMills = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startTime)
+    val unbatchedMessages = sent.size
+    sent.clear()
+
+    val channel = new TaskEventChannel(execId, 100, 16 * 1024, send)
+    startTime = System.nanoTime()
+    messages.asScala.foreach(channel.offer)
+    val batchedMills = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startTime)
+    logger.info(
+      s"${messages.size} events, unbatched: $unbatchedMessages messages in ${unbatchedMills}ms, " +
+        s"batched: ${sent.size} messages in ${batchedMills}ms"
+    )
+  }
+
+}
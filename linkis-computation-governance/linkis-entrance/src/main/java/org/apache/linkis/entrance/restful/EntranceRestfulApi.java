@@ -26,6 +26,7 @@ import org.apache.linkis.entrance.log.LogReader;
 import org.apache.linkis.entrance.utils.JobHistoryHelper;
 import org.apache.linkis.entrance.utils.RGBUtils;
 import org.apache.linkis.entrance.vo.YarnResourceWithStatusVo;
+import org.apache.linkis.entrance.watch.JobWatchManager;
 import org.apache.linkis.governance.common.entity.job.JobRequest;
 import org.apache.linkis.manager.common.protocol.resource.ResourceWithStatus;
 import org.apache.linkis.protocol.constants.TaskConstant;
@@ -499,6 +500,127 @@ public class EntranceRestfulApi implements EntranceRestfulRemote {
     return message;
   }
 
+  @ApiOperation(
+      value = "watch",
+      notes = "long-poll task status, progress and log delta",
+      response = Message.class)
+  @ApiImplicitParams({
+    @ApiImplicitParam(name = "id", required = true, dataType = "String", value = "execute id"),
+    @ApiImplicitParam(name = "taskID", required = false, dataType = "String", value = "task id"),
+    @ApiImplicitParam(
+        name = "version",
+        required = false,
+        dataType = "Long",
+        value = "the version returned by last watch"),
+    @ApiImplicitParam(name = "fromLine", required = false, dataType = "Integer", value = "from line"),
+    @ApiImplicitParam(name = "size", required = false, dataType = "Integer", value = "log size"),
+    @ApiImplicitParam(
+        name = "waitTime",
+        required = false,
+        dataType = "Long",
+        value = "max wait time in milliseconds"),
+    @ApiImplicitParam(
+        name = "events",
+        required = false,
+        dataType = "String",
+        value = "subscribed events, comma separated status,progress,log, default all")
+  })
+  @Override
+  @RequestMapping(path = "/{id}/watch", method = RequestMethod.GET)
+  public Message watch(
+      HttpServletRequest req,
+      @PathVariable("id") String id,
+      @RequestParam(value = "taskID", required = false) String taskID,
+      @RequestParam(value = "version", required = false) Long version,
+      @RequestParam(value = "fromLine", required = false) Integer fromLine,
+      @RequestParam(value = "size", required = false) Integer size,
+      @RequestParam(value = "waitTime", required = false) Long waitTime,
+      @RequestParam(value = "events", required = false) String events) {
+    Message message;
+    String realId = ZuulEntranceUtils.parseExecID(id)[3];
+    ModuleUserUtils.getOperationUser(req, "watch realId: " + realId);
+    if (!EntranceConfiguration.JOB_WATCH_ENABLED().getValue()) {
+      message = Message.error("Job watch is disabled in this entrance(此entrance未开启任务监听)");
+      message.setMethod("/api/entrance/" + id + "/watch");
+      return message;
+    }
+    if (StringUtils.isNotBlank(taskID) && !StringUtils.isNumeric(taskID)) {
+      message = Message.error("Illegal taskID: " + taskID + "(taskID必须为数字)");
+      message.setMethod("/api/entrance/" + id + "/watch");
+      return message;
+    }
+    Option<Job> job = Option.apply(null);
+    try {
+      job = entranceServer.getJob(realId);
+    } catch (Exception e) {
+      logger.warn("get job {} failed when watching it", realId, e);
+    }
+    if (job.isEmpty()) {
+      // The job has been completed and removed from this entrance, only the final status is left.
+      message = Message.ok();
+      message.setMethod("/api/entrance/" + id + "/watch");
+      message.data("execID", id).data("completed", true);
+      if (StringUtils.isNotBlank(taskID)) {
+        message.data("status", JobHistoryHelper.getStatusByTaskID(Long.parseLong(taskID)));
+      }
+      return message;
+    }
+    Job realJob = job.get();
+    if (realJob instanceof EntranceJob) {
+      ((EntranceJob) realJob).updateNewestAccessByClientTimestamp();
+    }
+    long sinceVersion = version == null ? 0L : version;
+    long maxWaitTime = waitTime == null ? 0L : waitTime;
+    int[] subscribedEvents = JobWatchManager.parseEvents(events);
+    long newVersion =
+        JobWatchManager.awaitChange(realJob, sinceVersion, maxWaitTime, subscribedEvents);
+
+    message = Message.ok();
+    message.setMethod("/api/entrance/" + id + "/watch");
+    message
+        .data("execID", id)
+        .data("version", newVersion)
+        .data("status", realJob.getState().toString())
+        .data("completed", realJob.isCompleted())
+        .data("progress", Math.abs(realJob.getProgress()));
+    if (realJob instanceof EntranceJob) {
+      JobProgressInfo[] jobProgressInfos = ((EntranceJob) realJob).getProgressInfo();
+      List<Map<String, Object>> list = new ArrayList<>();
+      if (jobProgressInfos != null) {
+        for (JobProgressInfo jobProgressInfo : jobProgressInfos) {
+          if ("true".equals(EntranceConfiguration.PROGRESS_PUSH().getValue())
+              || jobProgressInfo.totalTasks() > 0) {
+            setJobProgressInfos(list, jobProgressInfo);
+          }
+        }
+      }
+      message.data("progressInfo", list);
+    }
+
+    if (Arrays.stream(subscribedEvents).noneMatch(event -> event == JobWatchManager.LOG())) {
+      return message;
+    }
+    int realFromLine = fromLine == null ? 0 : Math.max(fromLine, 0);
+    int realSize = size == null ? 100 : (size >= 0 ? size : 10000);
+    String[] logs = new String[4];
+    int retFromLine = 0;
+    LogReader logReader = null;
+    try {
+      logReader = entranceServer.getEntranceContext().getOrCreateLogManager().getLogReader(realId);
+      retFromLine = logReader.readArray(logs, realFromLine, realSize);
+    } catch (Exception e) {
+      logger.debug("Failed to get log information for :{}", realJob.getId(), e);
+    } finally {
+      if (null != logReader && realJob.isCompleted()) {
+        IOUtils.closeQuietly(logReader);
+      }
+    }
+    message
+        .data("log", new ArrayList<>(Arrays.asList(logs)))
+        .data("fromLine", retFromLine + realFromLine);
+    return message;
+  }
+
   @ApiOperation(value = "killJobs", notes = "kill jobs", response = Message.class)
   @ApiImplicitParams({
     @ApiImplicitParam(name = "strongExecId", required = true, dataType = "String")
@@ -223,4 +223,22 @@ object EntranceConfiguration {
   val ENABLE_ENTRANCE_DIRTY_DATA_CLEAR =
     CommonVars("linkis.entrance.auto.clean.dirty.data.enable", false)
 
+  /**
+   * Long-poll watch of job status, progress and log, used by clients instead of periodic polling
+   * of status/progress/log
+   */
+  val JOB_WATCH_ENABLED = CommonVars[java.lang.Boolean]("linkis.entrance.job.watch.enable", true)
+
+  val JOB_WATCH_MAX_WAIT_TIME =
+    CommonVars("linkis.entrance.job.watch.max.wait", new TimeType("30s"))
+
+  val JOB_WATCH_COALESCE_TIME =
+    CommonVars("linkis.entrance.job.watch.coalesce", new TimeType("200ms"))
+
+  /**
+   * Every watcher holds a servlet thread while waiting, keep it well below the size of the servlet
+   * thread pool so that the other requests of the entrance are still served
+   */
+  val JOB_WATCH_MAX_WATCHERS = CommonVars("linkis.entrance.job.watch.max.watchers", 50)
+
 }
@@ -23,6 +23,7 @@ import org.apache.linkis.entrance.exception.{EntranceErrorCode, EntranceErrorExc
 import org.apache.linkis.entrance.job.EntranceExecuteRequest
 import org.apache.linkis.entrance.orchestrator.EntranceOrchestrationFactory
 import org.apache.linkis.entrance.utils.JobHistoryHelper
+import org.apache.linkis.entrance.watch.JobWatchManager
 import org.apache.linkis.governance.common.entity.ExecutionNodeStatus
 import org.apache.linkis.governance.common.protocol.task.ResponseTaskStatus
 import org.apache.linkis.governance.common.utils.LoggerUtils
@@ -97,6 +98,7 @@ class DefaultEntranceExecutor(id: Long)
         entranceJob.getProgressListener.foreach(
           _.onProgressUpdate(entranceJob, progressInfoEvent.progress, entranceJob.getProgressInfo)
         )
+        JobWatchManager.onProgressChanged(entranceJob.getId)
       }
     })
     progressProcessor
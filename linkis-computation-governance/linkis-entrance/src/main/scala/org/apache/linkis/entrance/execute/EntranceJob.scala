@@ -24,6 +24,7 @@ import org.apache.linkis.entrance.conf.EntranceConfiguration
 import org.apache.linkis.entrance.errorcode.EntranceErrorCodeSummary._
 import org.apache.linkis.entrance.event._
 import org.apache.linkis.entrance.exception.EntranceErrorException
+import org.apache.linkis.entrance.watch.JobWatchManager
 import org.apache.linkis.governance.common.entity.job.JobRequest
 import org.apache.linkis.governance.common.paser.CodeParser
 import org.apache.linkis.protocol.constants.TaskConstant
@@ -226,6 +227,8 @@ abstract class EntranceJob extends Job {
     }
     super.afterStateChanged(fromState, toState)
     entranceListenerBus.foreach(_.post(EntranceJobEvent(this.getId())))
+    if (SchedulerEventState.isCompleted(toState)) JobWatchManager.onJobCompleted(this.getId())
+    else JobWatchManager.onStatusChanged(this.getId())
   }
 
   override def onFailure(errorMsg: String, t: Throwable): Unit = {
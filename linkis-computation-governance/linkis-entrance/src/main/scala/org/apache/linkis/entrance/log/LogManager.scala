@@ -20,6 +20,7 @@ package org.apache.linkis.entrance.log
 import org.apache.linkis.common.utils.{Logging, Utils}
 import org.apache.linkis.entrance.EntranceContext
 import org.apache.linkis.entrance.job.EntranceExecutionJob
+import org.apache.linkis.entrance.watch.JobWatchManager
 import org.apache.linkis.scheduler.listener.LogListener
 import org.apache.linkis.scheduler.queue.Job
 
@@ -73,6 +74,7 @@ abstract class LogManager extends LogListener with Logging {
 
   override def onLogUpdate(job: Job, log: String): Unit = {
     dealLogEvent(job, log)
+    JobWatchManager.onLogChanged(job.getId)
   }
 
 }
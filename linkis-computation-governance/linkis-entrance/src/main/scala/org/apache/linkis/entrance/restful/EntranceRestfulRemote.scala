@@ -60,6 +60,18 @@ trait EntranceRestfulRemote {
   @RequestMapping(value = Array("/entrance/{id}/log"), method = Array(RequestMethod.GET))
   def log(req: HttpServletRequest, @PathVariable("id") id: String): Message
 
+  @RequestMapping(value = Array("/entrance/{id}/watch"), method = Array(RequestMethod.GET))
+  def watch(
+      req: HttpServletRequest,
+      @PathVariable("id") id: String,
+      @RequestParam(value = "taskID", required = false) taskID: String,
+      @RequestParam(value = "version", required = false) version: java.lang.Long,
+      @RequestParam(value = "fromLine", required = false) fromLine: Integer,
+      @RequestParam(value = "size", required = false) size: Integer,
+      @RequestParam(value = "waitTime", required = false) waitTime: java.lang.Long,
+      @RequestParam(value = "events", required = false) events: String
+  ): Message
+
   @RequestMapping(value = Array("/entrance/{id}/killJobs"), method = Array(RequestMethod.POST))
   def killJobs(
       req: HttpServletRequest,
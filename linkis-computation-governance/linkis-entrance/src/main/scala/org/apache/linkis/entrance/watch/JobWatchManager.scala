@@ -0,0 +1,163 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.linkis.entrance.watch
+
+import org.apache.linkis.common.utils.Logging
+import org.apache.linkis.entrance.conf.EntranceConfiguration
+import org.apache.linkis.scheduler.queue.Job
+
+import org.apache.commons.lang3.StringUtils
+
+import java.util.concurrent.ConcurrentHashMap
+import java.util.concurrent.atomic.{AtomicInteger, AtomicLong}
+
+/**
+ * Keeps change versions of status, progress and log for every watched job in this entrance, so
+ * that clients can long-poll `/entrance/{id}/watch` instead of polling status, progress and log on
+ * fixed sleeps. Versions come from one global sequence, so they stay monotonic even after the
+ * state of a completed job has been dropped.
+ */
+object JobWatchManager extends Logging {
+
+  val STATUS = 0
+  val PROGRESS = 1
+  val LOG = 2
+
+  private val ALL_EVENTS = Array(STATUS, PROGRESS, LOG)
+
+  private val EVENT_NAMES = Map("status" -> STATUS, "progress" -> PROGRESS, "log" -> LOG)
+
+  private val sequence = new AtomicLong(0L)
+
+  private val watchStates = new ConcurrentHashMap[String, JobWatchState]()
+
+  private val watchers = new AtomicInteger(0)
+
+  /** upper bound of a single wait, so that a missed completion never blocks the full timeout */
+  private val WAIT_SLICE_MILLS = 1000L
+
+  private class JobWatchState {
+    private val initVersion = sequence.get()
+    val versions: Array[Long] = Array(initVersion, initVersion, initVersion)
+
+    def getVersion(events: Array[Int]): Long = events.map(versions(_)).max
+  }
+
+  /**
+   * Parse the comma separated event names(status,progress,log) subscribed by the client, blank
+   * means all of them.
+   */
+  def parseEvents(events: String): Array[Int] =
+    if (StringUtils.isBlank(events)) ALL_EVENTS
+    else {
+      val parsed = events.split(",").map(_.trim.toLowerCase).flatMap(EVENT_NAMES.get).distinct
+      if (parsed.isEmpty) ALL_EVENTS else parsed
+    }
+
+  def getWatcherNum: Int = watchers.get()
+
+  private[watch] def isWatched(jobId: String): Boolean = watchStates.containsKey(jobId)
+
+  def onStatusChanged(jobId: String): Unit = onJobChanged(jobId, STATUS)
+
+  def onProgressChanged(jobId: String): Unit = onJobChanged(jobId, PROGRESS)
+
+  def onLogChanged(jobId: String): Unit = onJobChanged(jobId, LOG)
+
+  private def onJobChanged(jobId: String, event: Int): Unit = if (jobId != null) {
+    val state = watchStates.get(jobId)
+    if (state != null) state synchronized {
+      state.versions(event) = sequence.incrementAndGet()
+      state.notifyAll()
+    }
+  }
+
+  /**
+   * Called once the job is completed, wakes up all watchers and releases the state.
+   */
+  def onJobCompleted(jobId: String): Unit = if (jobId != null) {
+    val state = watchStates.remove(jobId)
+    if (state != null) state synchronized {
+      val version = sequence.incrementAndGet()
+      ALL_EVENTS.foreach(state.versions(_) = version)
+      state.notifyAll()
+    }
+  }
+
+  /**
+   * Block until one of the subscribed events of the job has a version newer than `sinceVersion`,
+   * the job is completed or `waitMills` elapsed. A watcher holds a servlet thread while waiting, so
+   * once the max number of watchers is reached, it returns at once and the caller behaves like a
+   * plain poll.
+   *
+   * @return
+   *   the newest version of the subscribed events
+   */
+  def awaitChange(job: Job, sinceVersion: Long, waitMills: Long, events: Array[Int]): Long =
+    awaitChange(job.getId, sinceVersion, waitMills, events, () => job.isCompleted)
+
+  private[watch] def awaitChange(
+      jobId: String,
+      sinceVersion: Long,
+      waitMills: Long,
+      events: Array[Int],
+      isCompleted: () => Boolean
+  ): Long = {
+    if (isCompleted()) return sequence.get()
+    var state = watchStates.get(jobId)
+    if (state == null) {
+      val newState = new JobWatchState
+      state = watchStates.putIfAbsent(jobId, newState)
+      if (state == null) state = newState
+      // The job may have been completed before the state was put, nothing would release it then
+      if (isCompleted()) {
+        watchStates.remove(jobId, state)
+        return sequence.get()
+      }
+    }
+    val maxWait = math.min(waitMills, EntranceConfiguration.JOB_WATCH_MAX_WAIT_TIME.getValue.toLong)
+    if (maxWait <= 0) return state.getVersion(events)
+    if (watchers.incrementAndGet() > EntranceConfiguration.JOB_WATCH_MAX_WATCHERS.getValue) {
+      watchers.decrementAndGet()
+      logger.debug(s"Too many watchers, job $jobId will be answered without waiting.")
+      return state.getVersion(events)
+    }
+    try {
+      val deadline = System.currentTimeMillis + maxWait
+      var changed = false
+      state synchronized {
+        var left = deadline - System.currentTimeMillis
+        while (state.getVersion(events) <= sinceVersion && left > 0 && !isCompleted()) {
+          state.wait(math.min(left, WAIT_SLICE_MILLS))
+          left = deadline - System.currentTimeMillis
+        }
+        changed = state.getVersion(events) > sinceVersion
+      }
+      // Give the job a short time to produce more changes, so that a burst of log lines is
+      // returned in one response instead of one response per line.
+      val coalesce = EntranceConfiguration.JOB_WATCH_COALESCE_TIME.getValue.toLong
+      if (changed && coalesce > 0 && !isCompleted()) {
+        Thread.sleep(math.min(coalesce, math.max(deadline - System.currentTimeMillis, 0L)))
+      }
+      state.getVersion(events)
+    } finally {
+      watchers.decrementAndGet()
+    }
+  }
+
+}
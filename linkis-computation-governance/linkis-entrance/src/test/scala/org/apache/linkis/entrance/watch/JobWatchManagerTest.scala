@@ -0,0 +1,144 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.linkis.entrance.watch
+
+import java.util.concurrent.{Callable, FutureTask, TimeUnit}
+import java.util.concurrent.atomic.{AtomicBoolean, AtomicInteger}
+
+import org.junit.jupiter.api.{Assertions, Test}
+
+class JobWatchManagerTest {
+
+  @Test
+  def testParseEvents(): Unit = {
+    Assertions.assertEquals(3, JobWatchManager.parseEvents(null).length)
+    Assertions.assertEquals(3, JobWatchManager.parseEvents("unknown").length)
+    Assertions.assertArrayEquals(
+      Array(JobWatchManager.STATUS, JobWatchManager.LOG),
+      JobWatchManager.parseEvents("status, LOG,status")
+    )
+  }
+
+  /** Waits for a change of the job in another thread, like a client of the watch request */
+  private def watchInBackground(
+      jobId: String,
+      version: Long,
+      events: Array[Int],
+      isCompleted: () => Boolean
+  ): FutureTask[Long] = {
+    val watcherNum = JobWatchManager.getWatcherNum
+    val watch = new FutureTask[Long](new Callable[Long] {
+      override def call(): Long =
+        JobWatchManager.awaitChange(jobId, version, 60000, events, isCompleted)
+    })
+    new Thread(watch).start()
+    var checks = 0
+    while (JobWatchManager.getWatcherNum == watcherNum && checks < 1000) {
+      Thread.sleep(10)
+      checks += 1
+    }
+    Assertions.assertEquals(watcherNum + 1, JobWatchManager.getWatcherNum)
+    watch
+  }
+
+  @Test
+  def testWakeUpOnSubscribedEvent(): Unit = {
+    val jobId = "watchJob-1"
+    val events = JobWatchManager.parseEvents("status")
+    val version = JobWatchManager.awaitChange(jobId, 0, 0, events, () => false)
+    // a log change is not subscribed
+    JobWatchManager.onLogChanged(jobId)
+    Assertions.assertEquals(
+      version,
+      JobWatchManager.awaitChange(jobId, version, 0, events, () => false)
+    )
+
+    val watch = watchInBackground(jobId, version, events, () => false)
+    JobWatchManager.onStatusChanged(jobId)
+    val newVersion = watch.get()
+    // woken up by the status change, a timeout would return the version it waited since
+    Assertions.assertTrue(newVersion > version)
+    Assertions.assertEquals(
+      newVersion,
+      JobWatchManager.awaitChange(jobId, newVersion, 0, events, () => false)
+    )
+    Assertions.assertEquals(0, JobWatchManager.getWatcherNum)
+    JobWatchManager.onJobCompleted(jobId)
+  }
+
+  @Test
+  def testWakeUpOnCompleted(): Unit = {
+    val jobId = "watchJob-2"
+    val completed = new AtomicBoolean(false)
+    val events = JobWatchManager.parseEvents(null)
+    val version = JobWatchManager.awaitChange(jobId, 0, 0, events, () => completed.get())
+    val watch = watchInBackground(jobId, version, events, () => completed.get())
+    completed.set(true)
+    JobWatchManager.onJobCompleted(jobId)
+    Assertions.assertTrue(watch.get() > version)
+    Assertions.assertFalse(JobWatchManager.isWatched(jobId))
+    Assertions.assertEquals(0, JobWatchManager.getWatcherNum)
+  }
+
+  @Test
+  def testNotWatchedOnceCompleted(): Unit = {
+    val jobId = "watchJob-4"
+    // completed right after the first check, before the state is put
+    val checks = new AtomicInteger(0)
+    val events = JobWatchManager.parseEvents(null)
+    JobWatchManager.awaitChange(jobId, 0, 5000, events, () => checks.incrementAndGet() > 1)
+    Assertions.assertFalse(JobWatchManager.isWatched(jobId))
+    Assertions.assertEquals(0, JobWatchManager.getWatcherNum)
+  }
+
+  /**
+   * A job running for 2 seconds changes its log 20 times and its status 3 times. Polling every
+   * 100ms costs a request per log change, while watching costs one request per status change.
+   */
+  @Test
+  def testWatchSavesRequests(): Unit = {
+    val jobId = "watchJob-3"
+    val completed = new AtomicBoolean(false)
+    val events = JobWatchManager.parseEvents("status")
+    var version = JobWatchManager.awaitChange(jobId, 0, 0, events, () => completed.get())
+    val logChanges = 20
+    val job = new Thread(new Runnable {
+      override def run(): Unit = {
+        (1 to logChanges).foreach { i =>
+          Thread.sleep(100)
+          JobWatchManager.onLogChanged(jobId)
+          if (i % 10 == 0) JobWatchManager.onStatusChanged(jobId)
+        }
+        completed.set(true)
+        JobWatchManager.onJobCompleted(jobId)
+      }
+    })
+    job.start()
+    val watchRequests = new AtomicInteger(0)
+    while (!completed.get()) {
+      watchRequests.incrementAndGet()
+      version = JobWatchManager.awaitChange(jobId, version, 10000, events, () => completed.get())
+    }
+    job.join(TimeUnit.SECONDS.toMillis(5))
+    Assertions.assertTrue(
+      watchRequests.get() <= 4 && watchRequests.get() < logChanges,
+      s"watch requests ${watchRequests.get()}, log changes $logChanges"
+    )
+  }
+
+}
@@ -58,6 +58,10 @@ public class UJESSQLDriver extends UJESSQLDriverMain implements Driver {
   static String ENABLE_DISCOVERY = "enableDiscovery";
   static String ENABLE_LOADBALANCER = "enableLoadBalancer";
   static String CREATOR = "creator";
+  static String FETCH_SIZE = "fetchSize";
+  static int DEFAULT_FETCH_SIZE = 5000;
+  static String PREFETCH = "prefetch";
+  static String RESULT_FORMAT = "resultFormat";
   static String TABLEAU = "tableau";
   static String VARIABLE_HEADER = "var:";
   static String PARAM_SPLIT = "&";
@@ -17,6 +17,7 @@
 
 package org.apache.linkis.ujes.jdbc
 
+import org.apache.linkis.common.io.resultset.ResultPageCodec
 import org.apache.linkis.common.utils.{Logging, Utils}
 import org.apache.linkis.manager.label.constant.LabelKeyConstant
 import org.apache.linkis.manager.label.entity.engine.{EngineType, EngineTypeLabel, RunType}
@@ -58,6 +59,15 @@ class LinkisSQLConnection(private[jdbc] val ujesClient: UJESClient, props: Prope
 
   private[jdbc] var tableauFlag = false
 
+  // rows of every result set page, overridden by Statement.setFetchSize
+  private[jdbc] var fetchSize = DEFAULT_FETCH_SIZE
+
+  // fetch the next page of result set in background while the current one is being read
+  private[jdbc] var prefetchEnabled = true
+
+  // compact page encoding of result set, falls back to json if the public service not support it
+  private[jdbc] var resultFormat = ResultPageCodec.COMPACT
+
   private[jdbc] val variableMap = {
     val params = props.getProperty(PARAMS)
     val map = new util.HashMap[String, AnyRef]
@@ -67,6 +77,12 @@ class LinkisSQLConnection(private[jdbc] val ujesClient: UJESClient, props: Prope
           map.put(k.substring(VARIABLE_HEADER.length), v)
         case Array(CREATOR, v) =>
           creator = v
+        case Array(FETCH_SIZE, v) if StringUtils.isNumeric(v) && v.toInt > 0 =>
+          fetchSize = v.toInt
+        case Array(PREFETCH, v) =>
+          prefetchEnabled = v.toBoolean
+        case Array(RESULT_FORMAT, v) =>
+          resultFormat = v
         case _ =>
       }
     }
@@ -19,8 +19,9 @@ package org.apache.linkis.ujes.jdbc
 
 import org.apache.linkis.common.utils.{Logging, Utils}
 import org.apache.linkis.governance.common.entity.ExecutionNodeStatus
+import org.apache.linkis.ujes.client.UJESClient
 import org.apache.linkis.ujes.client.request.OpenLogAction
-import org.apache.linkis.ujes.client.response.JobExecuteResult
+import org.apache.linkis.ujes.client.response.{JobExecuteResult, JobWatchResult}
 import org.apache.linkis.ujes.jdbc.hook.JDBCDriverPreExecutionHook
 
 import org.apache.commons.lang3.StringUtils
@@ -40,7 +41,7 @@ class LinkisSQLStatement(private[jdbc] val ujesSQLConnection: LinkisSQLConnectio
   private var resultSet: UJESSQLResultSet = _
   private var closed = false
   private var maxRows: Int = 0
-  private var fetchSize = 100
+  private var fetchSize = ujesSQLConnection.fetchSize
   private var queryTimeout = 0
 
   private var logPath: String = null
@@ -134,6 +135,7 @@ class LinkisSQLStatement(private[jdbc] val ujesSQLConnection: LinkisSQLConnectio
       logPath = jobInfo.getRequestPersistTask.getLogPath
       if (!ExecutionNodeStatus.isCompleted(ExecutionNodeStatus.valueOf(jobInfo.getJobStatus))) {
         Utils.tryThrow {
+          watchUntilCompleted(atMost)
           Utils.waitUntil(
             () => {
               jobInfo = ujesSQLConnection.ujesClient.getJobInfo(jobExecuteResult)
@@ -184,6 +186,31 @@ class LinkisSQLStatement(private[jdbc] val ujesSQLConnection: LinkisSQLConnectio
     }
   }
 
+  /**
+   * Long-poll the entrance until the job is completed, so that the job history is only polled
+   * once the job is done. Returns at once when the entrance does not support job watch, and the
+   * caller falls back to polling.
+   */
+  private def watchUntilCompleted(atMost: Duration): Unit = {
+    if (!UJESClient.JOB_WATCH_ENABLED.getValue || jobExecuteResult.getExecID == null) return
+    val deadline =
+      if (atMost.isFinite) System.currentTimeMillis + atMost.toMillis else Long.MaxValue
+    var watchResult: JobWatchResult = null
+    var watchEnabled = true
+    while (watchEnabled && !closed && (watchResult == null || !watchResult.isCompleted)) {
+      val left = deadline - System.currentTimeMillis
+      if (left <= 0) throw new TimeoutException(s"Wait for job completed timeout $atMost.")
+      val waitTime = math.min(left, UJESClient.JOB_WATCH_WAIT_TIME.getValue)
+      watchResult = Utils.tryCatch(
+        ujesSQLConnection.ujesClient.watch(jobExecuteResult, watchResult, waitTime, "status")
+      ) { t =>
+        logger.warn("Watch job failed, fall back to polling job info.", t)
+        watchEnabled = false
+        null
+      }
+    }
+  }
+
   def getJobExcuteResult: JobExecuteResult = jobExecuteResult
 
   override def getResultSet: UJESSQLResultSet = resultSet
@@ -202,7 +229,8 @@ class LinkisSQLStatement(private[jdbc] val ujesSQLConnection: LinkisSQLConnectio
 
   override def getFetchDirection: Int = throwWhenClosed(ResultSet.FETCH_FORWARD)
 
-  override def setFetchSize(rows: Int): Unit = this.fetchSize = rows
+  override def setFetchSize(rows: Int): Unit =
+    this.fetchSize = if (rows > 0) rows else ujesSQLConnection.fetchSize
 
   override def getFetchSize: Int = fetchSize
 
@@ -148,6 +148,10 @@ object UJESSQLDriverMain {
   val ENABLE_DISCOVERY = UJESSQLDriver.ENABLE_DISCOVERY
   val ENABLE_LOADBALANCER = UJESSQLDriver.ENABLE_LOADBALANCER
   val CREATOR = UJESSQLDriver.CREATOR
+  val FETCH_SIZE = UJESSQLDriver.FETCH_SIZE
+  val DEFAULT_FETCH_SIZE = UJESSQLDriver.DEFAULT_FETCH_SIZE
+  val PREFETCH = UJESSQLDriver.PREFETCH
+  val RESULT_FORMAT = UJESSQLDriver.RESULT_FORMAT
 
   val TABLEAU = UJESSQLDriver.TABLEAU
 
@@ -17,7 +17,7 @@
 
 package org.apache.linkis.ujes.jdbc
 
-import org.apache.linkis.common.utils.Logging
+import org.apache.linkis.common.utils.{Logging, Utils}
 import org.apache.linkis.ujes.client.request.ResultSetAction
 import org.apache.linkis.ujes.client.response.ResultSetResult
 
@@ -43,6 +43,7 @@ import java.sql.{
   Timestamp
 }
 import java.util.{Calendar, Locale}
+import java.util.concurrent.{Callable, Future, RejectedExecutionException}
 
 import org.joda.time.DateTimeZone
 import org.joda.time.format.{
@@ -62,17 +63,23 @@ class UJESSQLResultSet(
 
   private var currentRowCursor: Int = -1
 
-  // All data of table, where each element represents a row
-  private var resultSetRow: util.ArrayList[util.ArrayList[String]] = _
+  // All data of current page, where each element represents a row
+  private var resultSetRow: util.List[util.List[String]] = _
   private var resultSetResult: ResultSetResult = _
   private var resultSetMetaData: UJESSQLResultSetMetaData = new UJESSQLResultSetMetaData
-  private var fetchSizeNum: Int = _
-  private var currentRow: util.ArrayList[String] = _
+  private var fetchSizeNum: Int = fetchSize
+  private var currentRow: util.List[String] = _
+  // typed values of the current row, each cell is only evaluated once
+  private var currentValues: Array[AnyRef] = _
+  // lower case data types of the columns
+  private var columnTypes: Array[String] = _
   private var hasClosed: Boolean = false
   private var isCompleted: Boolean = false
   private var totalLine: Int = 0
   private var currentPage: Int = 1
-  private val pageSize: Int = 5000
+  // fixed once the first page is fetched, since pages are addressed by page number
+  private var pageSize: Int = _
+  private var nextPage: Future[ResultSetResult] = _
   private var path: String = _
   private var metaData: util.List[util.Map[String, String]] = _
   private val statement: LinkisSQLStatement = ujesStatement
@@ -108,13 +115,86 @@ class UJESSQLResultSet(
     }
   }
 
+  private[jdbc] def fetchPage(page: Int): ResultSetResult = {
+    val user = connection.getProps.getProperty("user")
+    val builder =
+      ResultSetAction.builder().setUser(user).setPath(path).setPage(page).setPageSize(pageSize)
+    if (StringUtils.isNotBlank(connection.resultFormat)) {
+      builder.setContentFormat(connection.resultFormat)
+    }
+    connection.ujesClient.resultSet(builder.build())
+  }
+
+  private def limitEnabled: Boolean = !UJESSQLDriverMain.LIMIT_ENABLED.equals("false")
+
+  /**
+   * The page size only decides how many rows are fetched per request. With the limit enabled a
+   * result set still returns up to DEFAULT_FETCH_SIZE rows, so it keeps paging while the pages are
+   * full and the limit is not reached.
+   */
+  private def hasMorePages: Boolean = {
+    val pageLine = resultSetResult.totalLine
+    if (limitEnabled) {
+      pageLine == pageSize && totalLine < UJESSQLDriverMain.DEFAULT_FETCH_SIZE
+    } else {
+      pageLine > 0 && pageLine <= pageSize
+    }
+  }
+
+  /** Drop the rows of the page beyond the limit, fetchedLine is the number of rows before it. */
+  private def limitRows(
+      rows: util.List[util.List[String]],
+      fetchedLine: Int
+  ): util.List[util.List[String]] = {
+    val leftLine = UJESSQLDriverMain.DEFAULT_FETCH_SIZE - fetchedLine
+    if (limitEnabled && rows != null && rows.size() > leftLine) {
+      rows.subList(0, math.max(leftLine, 0))
+    } else {
+      rows
+    }
+  }
+
+  /**
+   * Fetch the next page in background, so that the round trip overlaps with reading the current
+   * page. Only one page is fetched ahead to bound the memory.
+   */
+  private def prefetchNextPage(): Unit = if (connection.prefetchEnabled && hasMorePages) {
+    val page = currentPage + 1
+    nextPage = Utils.tryCatch {
+      UJESSQLResultSet.PREFETCH_EXECUTOR.submit(new Callable[ResultSetResult] {
+        override def call(): ResultSetResult = {
+          val result = fetchPage(page)
+          // decode the page in the prefetch thread as well
+          result.getRows
+          result
+        }
+      })
+    } {
+      case _: RejectedExecutionException =>
+        logger.info(s"Too many result sets are prefetching, page $page will be fetched later.")
+        null
+      case t: Throwable => throw t
+    }
+  }
+
+  private def takeNextPage(): ResultSetResult = {
+    val future = nextPage
+    nextPage = null
+    if (future == null) {
+      fetchPage(currentPage)
+    } else {
+      Utils.tryCatch(future.get()) { t =>
+        logger.warn(s"Prefetch page $currentPage of $path failed, fetch it again.", t)
+        fetchPage(currentPage)
+      }
+    }
+  }
+
   private def resultSetResultInit(): Unit = {
     if (path == null) path = getResultSetPath(resultSetList)
-    val user = connection.getProps.getProperty("user")
     if (StringUtils.isNotBlank(path)) {
-      val resultAction =
-        ResultSetAction.builder().setUser(user).setPageSize(pageSize).setPath(path).build()
-      resultSetResult = connection.ujesClient.resultSet(resultAction)
+      pageSize = if (fetchSizeNum > 0) fetchSizeNum else UJESSQLDriverMain.DEFAULT_FETCH_SIZE
+      resultSetResult = fetchPage(currentPage)
       totalLine = resultSetResult.totalLine
       logger.info(
         s"Currently page is $currentPage, and already fetched $totalLine lines of the resultset"
@@ -126,30 +206,20 @@ class UJESSQLResultSet(
    * currentRowCursor应被更新为0，而非-1，因为需要马上updateCurrentRow
    */
   private def updateResultSet(): Unit = {
-    if (path == null) path = getResultSetPath(resultSetList)
-    val user = connection.getProps.getProperty("user")
-    if (resultSetResult.totalLine > 0 && resultSetResult.totalLine <= pageSize) {
+    if (hasMorePages) {
       currentPage = currentPage + 1
-      resultSetResult = connection.ujesClient.resultSet(
-        ResultSetAction
-          .builder()
-          .setPath(path)
-          .setUser(user)
-          .setPage(currentPage)
-          .setPageSize(pageSize)
-          .build()
-      )
+      resultSetResult = takeNextPage()
       if (resultSetResult.totalLine == 0) {
         isCompleted = true
         return
       }
-      resultSetRow =
-        resultSetResult.getFileContent.asInstanceOf[util.ArrayList[util.ArrayList[String]]]
+      resultSetRow = limitRows(resultSetResult.getRows, totalLine)
       totalLine = totalLine + resultSetResult.totalLine
       currentRowCursor = 0
       logger.info(
         s"Currently page is $currentPage, and already fetched $totalLine lines of the resultset"
       )
+      prefetchNextPage()
     } else {
       isCompleted = true
     }
@@ -160,11 +230,17 @@ class UJESSQLResultSet(
       return
     }
     metaData = resultSetResult.getMetadata.asInstanceOf[util.List[util.Map[String, String]]]
+    columnTypes = new Array[String](metaData.size())
     for (cursor <- 1 to metaData.size()) {
       val col = metaData.get(cursor - 1)
       resultSetMetaData.setColumnNameProperties(cursor, col.get("columnName"))
-      resultSetMetaData.setDataTypeProperties(cursor, col.get("dataType"))
+      val dataType = col.get("dataType")
+      if (dataType == null) {
+        throw new LinkisSQLException(LinkisSQLErrorCode.METADATA_EMPTY)
+      }
+      resultSetMetaData.setDataTypeProperties(cursor, dataType)
       resultSetMetaData.setCommentPropreties(cursor, col.get("comment"))
+      columnTypes(cursor - 1) = dataType.toLowerCase(Locale.getDefault)
     }
   }
 
@@ -172,8 +248,8 @@ class UJESSQLResultSet(
     if (null == resultSetResult) {
       return
     }
-    resultSetRow =
-      resultSetResult.getFileContent.asInstanceOf[util.ArrayList[util.ArrayList[String]]]
+    resultSetRow = limitRows(resultSetResult.getRows, 0)
+    prefetchNextPage()
   }
 
   private def init(): Unit = {
@@ -187,13 +263,14 @@ class UJESSQLResultSet(
       case cursor if cursor < 0 || cursor > resultSetRow.size() - 1 => null
       case _ => resultSetRow.get(currentRowCursor)
     }
+    currentValues = null
   }
 
   override def next(): Boolean = {
     if (metaData == null) init()
     currentRowCursor += 1
     if (null == resultSetRow || currentRowCursor > resultSetRow.size() - 1) {
-      if (UJESSQLDriverMain.LIMIT_ENABLED.equals("false") && !isCompleted) {
+      if (!isCompleted) {
         updateResultSet()
         if (isCompleted) {
           return false
@@ -215,11 +292,17 @@ class UJESSQLResultSet(
 
   override def close(): Unit = {
     if (!isClosed) {
+      if (nextPage != null) {
+        nextPage.cancel(true)
+        nextPage = null
+      }
       resultSetResult = null
       metaData = null
       resultSetMetaData = null
       resultSetRow = null
       currentRow = null
+      currentValues = null
+      columnTypes = null
       totalLine = 0
       currentPage = 1
       currentRowCursor = -1
@@ -232,15 +315,19 @@ class UJESSQLResultSet(
     valueWasNull
   }
 
+  /**
+   * @param dataType
+   *   data type in lower case
+   */
   private def evaluate(dataType: String, value: String): Any = {
 
     if (value == null || value.equals("null") || value.equals("NULL") || value.equals("Null")) {
-      dataType.toLowerCase(Locale.getDefault) match {
+      dataType match {
         case "string" | "char" | "varchar" | "nvarchar" => value
         case _ => null
       }
     } else {
-      dataType.toLowerCase(Locale.getDefault) match {
+      dataType match {
         case null => throw new LinkisSQLException(LinkisSQLErrorCode.METADATA_EMPTY)
         case "string" => value.toString
         case "short" => value.toShort
@@ -268,6 +355,10 @@ class UJESSQLResultSet(
     }
   }
 
+  private def getColumnType(columnIndex: Int): String =
+    if (columnTypes != null && columnIndex <= columnTypes.length) columnTypes(columnIndex - 1)
+    else resultSetMetaData.getColumnTypeName(columnIndex).toLowerCase(Locale.getDefault)
+
   private def getColumnValue(columnIndex: Int): Any = {
     if (currentRow == null) {
       throw new LinkisSQLException(LinkisSQLErrorCode.RESULTSET_ROWERROR, "No row found.")
@@ -282,8 +373,16 @@ class UJESSQLResultSet(
         s" Invalid columnIndex: ${columnIndex}"
       )
     } else {
-      val dataType = resultSetMetaData.getColumnTypeName(columnIndex)
-      val evaluateValue = evaluate(dataType, currentRow.get(columnIndex - 1))
+      if (currentValues == null) {
+        currentValues = new Array[AnyRef](currentRow.size())
+        util.Arrays.fill(currentValues, UJESSQLResultSet.NOT_EVALUATED)
+      }
+      var evaluateValue = currentValues(columnIndex - 1)
+      if (evaluateValue eq UJESSQLResultSet.NOT_EVALUATED) {
+        evaluateValue = evaluate(getColumnType(columnIndex), currentRow.get(columnIndex - 1))
+          .asInstanceOf[AnyRef]
+        currentValues(columnIndex - 1) = evaluateValue
+      }
       valueWasNull = evaluateValue == null
       evaluateValue
     }
@@ -1238,3 +1337,12 @@ class UJESSQLResultSet(
   }
 
 }
+
+object UJESSQLResultSet {
+
+  private val NOT_EVALUATED = new Object
+
+  private val PREFETCH_EXECUTOR =
+    Utils.newCachedThreadPool(10, "Linkis-JDBC-ResultSet-Prefetch-Thread-", true)
+
+}
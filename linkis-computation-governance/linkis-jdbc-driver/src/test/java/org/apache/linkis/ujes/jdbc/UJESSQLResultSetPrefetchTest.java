@@ -0,0 +1,235 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.linkis.ujes.jdbc;
+
+import org.apache.linkis.common.io.resultset.ResultPageCodec;
+import org.apache.linkis.ujes.client.response.ResultSetResult;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Disabled;
+import org.junit.jupiter.api.Test;
+
+/** Reads result sets from a local stand-in of the openFile service, which answers pages slowly. */
+public class UJESSQLResultSetPrefetchTest {
+
+  private static final int TOTAL_ROWS = 10000;
+
+  private static final int FETCH_SIZE = 1000;
+
+  private static final long PAGE_LATENCY_MILLS = 50;
+
+  private static String limitEnabled;
+
+  @BeforeAll
+  public static void disableLimit() {
+    limitEnabled = UJESSQLDriverMain$.MODULE$.LIMIT_ENABLED();
+    UJESSQLDriverMain$.MODULE$.LIMIT_ENABLED_$eq("false");
+  }
+
+  @AfterAll
+  public static void restoreLimit() {
+    UJESSQLDriverMain$.MODULE$.LIMIT_ENABLED_$eq(limitEnabled);
+  }
+
+  private UJESSQLResultSet createResultSet(String params, AtomicInteger requests) {
+    return createResultSet(params, requests, FETCH_SIZE);
+  }
+
+  private UJESSQLResultSet createResultSet(String params, AtomicInteger requests, int fetchSize) {
+    Properties props = new Properties();
+    props.setProperty(UJESSQLDriver.USER, "hadoop");
+    props.setProperty(UJESSQLDriver.PARAMS, params);
+    LinkisSQLConnection connection = new LinkisSQLConnection(null, props);
+    LinkisSQLStatement statement = new LinkisSQLStatement(connection);
+    boolean compact = ResultPageCodec.isCompact(connection.resultFormat());
+    return new UJESSQLResultSet(
+        new String[] {"hdfs:///tmp/linkis/result/_0.dolphin"}, statement, 0, fetchSize) {
+      @Override
+      public ResultSetResult fetchPage(int page) {
+        requests.incrementAndGet();
+        try {
+          Thread.sleep(PAGE_LATENCY_MILLS);
+          return page(page, fetchSize, compact);
+        } catch (InterruptedException | IOException e) {
+          throw new RuntimeException(e);
+        }
+      }
+    };
+  }
+
+  private static ResultSetResult page(int page, int pageSize, boolean compact) throws IOException {
+    List<Map<String, String>> metadata = new ArrayList<>();
+    metadata.add(column("id", "int"));
+    metadata.add(column("name", "string"));
+    metadata.add(column("score", "double"));
+    List<String[]> rows = new ArrayList<>();
+    for (int i = (page - 1) * pageSize; i < Math.min(page * pageSize, TOTAL_ROWS); i++) {
+      rows.add(new String[] {String.valueOf(i), "name" + i, i % 7 == 0 ? "NULL" : i + ".5"});
+    }
+    ResultSetResult result = new ResultSetResult();
+    result.setMetadata(metadata);
+    result.setPage(page);
+    result.setTotalLine(rows.size());
+    if (compact) {
+      result.setFileContent(ResultPageCodec.encode(rows));
+      result.setContentFormat(ResultPageCodec.COMPACT);
+    } else {
+      List<List<String>> content = new ArrayList<>();
+      for (String[] row : rows) {
+        List<String> cells = new ArrayList<>();
+        for (String cell : row) {
+          cells.add(cell);
+        }
+        content.add(cells);
+      }
+      result.setFileContent(content);
+    }
+    return result;
+  }
+
+  private static Map<String, String> column(String name, String dataType) {
+    Map<String, String> column = new HashMap<>();
+    column.put("columnName", name);
+    column.put("dataType", dataType);
+    column.put("comment", "");
+    return column;
+  }
+
+  /** Reads all rows and spends as much time on every page as the server needs to answer it. */
+  private long readAll(UJESSQLResultSet resultSet) throws InterruptedException {
+    long start = System.currentTimeMillis();
+    Assertions.assertEquals(TOTAL_ROWS, readRows(resultSet));
+    return System.currentTimeMillis() - start;
+  }
+
+  private int readRows(UJESSQLResultSet resultSet) throws InterruptedException {
+    int rowNum = 0;
+    while (resultSet.next()) {
+      Assertions.assertEquals(rowNum, resultSet.getInt(1));
+      Assertions.assertEquals(rowNum, resultSet.getInt("id"));
+      Assertions.assertEquals("name" + rowNum, resultSet.getString(2));
+      resultSet.getObject(3);
+      Assertions.assertEquals(rowNum % 7 == 0, resultSet.wasNull());
+      rowNum++;
+      if (rowNum % FETCH_SIZE == 0) {
+        Thread.sleep(PAGE_LATENCY_MILLS);
+      }
+    }
+    resultSet.close();
+    return rowNum;
+  }
+
+  @Test
+  public void testFetchSize() {
+    AtomicInteger requests = new AtomicInteger();
+    UJESSQLResultSet resultSet = createResultSet("prefetch=false", requests);
+    Assertions.assertEquals(FETCH_SIZE, resultSet.getFetchSize());
+    while (resultSet.next()) {}
+    // one request per page and the last empty page
+    Assertions.assertEquals(TOTAL_ROWS / FETCH_SIZE + 1, requests.get());
+  }
+
+  @Test
+  public void testPagesWithinLimit() throws InterruptedException {
+    UJESSQLDriverMain$.MODULE$.LIMIT_ENABLED_$eq("true");
+    try {
+      // a small fetch size only makes smaller pages, the limit still returns the first 5000 rows
+      AtomicInteger requests = new AtomicInteger();
+      int limit = UJESSQLDriverMain$.MODULE$.DEFAULT_FETCH_SIZE();
+      Assertions.assertEquals(limit, readRows(createResultSet("prefetch=true", requests)));
+      Assertions.assertEquals(limit / FETCH_SIZE, requests.get());
+
+      // the page over the limit is cut
+      requests.set(0);
+      Assertions.assertEquals(limit, readRows(createResultSet("prefetch=false", requests, 3000)));
+      Assertions.assertEquals(2, requests.get());
+    } finally {
+      UJESSQLDriverMain$.MODULE$.LIMIT_ENABLED_$eq("false");
+    }
+  }
+
+  @Test
+  public void testPrefetchReadsAllRows() throws InterruptedException {
+    AtomicInteger serialRequests = new AtomicInteger();
+    readAll(createResultSet("prefetch=false&resultFormat=json", serialRequests));
+    AtomicInteger prefetchRequests = new AtomicInteger();
+    readAll(createResultSet("prefetch=true", prefetchRequests));
+    Assertions.assertEquals(serialRequests.get(), prefetchRequests.get());
+  }
+
+  @Test
+  public void testColumnWithoutDataType() {
+    Properties props = new Properties();
+    props.setProperty(UJESSQLDriver.USER, "hadoop");
+    props.setProperty(UJESSQLDriver.PARAMS, "prefetch=false&resultFormat=json");
+    LinkisSQLStatement statement = new LinkisSQLStatement(new LinkisSQLConnection(null, props));
+    UJESSQLResultSet resultSet =
+        new UJESSQLResultSet(
+            new String[] {"hdfs:///tmp/linkis/result/_0.dolphin"}, statement, 0, FETCH_SIZE) {
+          @Override
+          public ResultSetResult fetchPage(int page) {
+            try {
+              ResultSetResult result = page(page, FETCH_SIZE, false);
+              List<Map<String, String>> metadata = new ArrayList<>();
+              metadata.add(column("id", "int"));
+              metadata.add(column("name", null));
+              metadata.add(column("score", "double"));
+              result.setMetadata(metadata);
+              return result;
+            } catch (IOException e) {
+              throw new RuntimeException(e);
+            }
+          }
+        };
+    Assertions.assertThrows(LinkisSQLException.class, resultSet::next);
+  }
+
+  @Test
+  @Disabled("Benchmark, run it manually")
+  public void testPrefetchThroughput() throws InterruptedException {
+    AtomicInteger serialRequests = new AtomicInteger();
+    long serialTime = readAll(createResultSet("prefetch=false&resultFormat=json", serialRequests));
+    AtomicInteger prefetchRequests = new AtomicInteger();
+    long prefetchTime =
+        readAll(createResultSet("prefetch=true&resultFormat=json", prefetchRequests));
+    AtomicInteger compactRequests = new AtomicInteger();
+    long compactTime = readAll(createResultSet("prefetch=true", compactRequests));
+    System.out.println(
+        "read "
+            + TOTAL_ROWS
+            + " rows, serial: "
+            + serialTime
+            + "ms, prefetch: "
+            + prefetchTime
+            + "ms, prefetch with compact pages: "
+            + compactTime
+            + "ms");
+    Assertions.assertEquals(serialRequests.get(), prefetchRequests.get());
+    Assertions.assertEquals(serialRequests.get(), compactRequests.get());
+  }
+}
@@ -42,6 +42,13 @@ public class AMConfiguration {
   public static final CommonVars<Integer> ENGINE_REUSE_COUNT_LIMIT =
       CommonVars.apply("wds.linkis.manager.am.engine.reuse.count.limit", 2);
 
+  public static final CommonVars<Boolean> ENGINE_REUSE_LABEL_INDEX_ENABLED =
+      CommonVars.apply("linkis.manager.am.engine.reuse.label.index.enabled", false);
+
+  public static final CommonVars<TimeType> ENGINE_REUSE_LABEL_INDEX_EXPIRE_TIME =
+      CommonVars.apply(
+          "linkis.manager.am.engine.reuse.label.index.expire.time", new TimeType("10m"));
+
   public static final CommonVars<TimeType> NODE_STATUS_HEARTBEAT_TIME =
       CommonVars.apply("wds.linkis.manager.am.node.heartbeat", new TimeType("3m"));
 
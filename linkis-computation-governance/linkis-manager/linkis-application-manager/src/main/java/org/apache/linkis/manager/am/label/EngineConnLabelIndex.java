@@ -0,0 +1,394 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.linkis.manager.am.label;
+
+import org.apache.linkis.common.ServiceInstance;
+import org.apache.linkis.governance.common.conf.GovernanceCommonConf;
+import org.apache.linkis.manager.am.conf.AMConfiguration;
+import org.apache.linkis.manager.am.util.LinkisUtils;
+import org.apache.linkis.manager.common.entity.enumeration.NodeStatus;
+import org.apache.linkis.manager.common.entity.node.ScoreServiceInstance;
+import org.apache.linkis.manager.common.entity.persistence.PersistenceLabel;
+import org.apache.linkis.manager.common.utils.ManagerUtils;
+import org.apache.linkis.manager.label.entity.Feature;
+import org.apache.linkis.manager.label.entity.Label;
+import org.apache.linkis.manager.label.score.LabelScoreServiceInstance;
+import org.apache.linkis.manager.persistence.LabelManagerPersistence;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.annotation.PostConstruct;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Collectors;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * In-memory inverted index of label to the live EngineConns, which engine reuse asks for the
+ * candidate ECs before querying the label tables.
+ *
+ * <p>An EC is indexed with all of its labels once it is created by this manager, or when a DB query
+ * of a missed lookup returns it. Heartbeats and status callbacks only refresh the ECs already
+ * indexed and never read the DB. Once completed, only its status is kept, so that {@link #filter}
+ * drops it while its labels are still in the DB. It is dropped when its labels are changed. Entries
+ * without any update for linkis.manager.am.engine.reuse.label.index.expire.time are removed.
+ */
+@Component
+public class EngineConnLabelIndex {
+
+  private static final Logger logger = LoggerFactory.getLogger(EngineConnLabelIndex.class);
+
+  private static final long REPORT_INTERVAL_MILLS = TimeUnit.MINUTES.toMillis(10);
+
+  @Autowired private LabelManagerPersistence labelManagerPersistence;
+
+  private final boolean enabled;
+
+  private final long expireMills;
+
+  private final Map<ServiceInstance, IndexedEngineConn> engineConns = new ConcurrentHashMap<>();
+
+  private final Map<String, Set<ServiceInstance>> labelIndex = new ConcurrentHashMap<>();
+
+  private final LongAdder hitNum = new LongAdder();
+
+  private final LongAdder missNum = new LongAdder();
+
+  private final LongAdder lookupNanos = new LongAdder();
+
+  public EngineConnLabelIndex() {
+    this.enabled = AMConfiguration.ENGINE_REUSE_LABEL_INDEX_ENABLED.getValue();
+    this.expireMills = AMConfiguration.ENGINE_REUSE_LABEL_INDEX_EXPIRE_TIME.getValue().toLong();
+  }
+
+  EngineConnLabelIndex(
+      boolean enabled, long expireMills, LabelManagerPersistence labelManagerPersistence) {
+    this.enabled = enabled;
+    this.expireMills = expireMills;
+    this.labelManagerPersistence = labelManagerPersistence;
+  }
+
+  @PostConstruct
+  public void init() {
+    if (!enabled) {
+      return;
+    }
+    LinkisUtils.defaultScheduler.scheduleAtFixedRate(
+        () ->
+            logger.info(
+                "EngineConn label index: {} ECs, {} hits, {} misses, hit ratio {}, avg lookup {}us",
+                engineConns.size(),
+                getHitNum(),
+                getMissNum(),
+                String.format("%.3f", getHitRatio()),
+                String.format("%.1f", getAvgLookupMicros())),
+        REPORT_INTERVAL_MILLS,
+        REPORT_INTERVAL_MILLS,
+        TimeUnit.MILLISECONDS);
+    LinkisUtils.defaultScheduler.scheduleAtFixedRate(
+        this::removeExpired, expireMills, expireMills, TimeUnit.MILLISECONDS);
+  }
+
+  public boolean isEnabled() {
+    return enabled;
+  }
+
+  /**
+   * Find the ECs whose labels contain all the core labels of the request and whose core label keys
+   * are the same as the request, which is the rule of NodeLabelService.getScoredNodeMapsByLabels.
+   *
+   * @return the matched ECs and their labels, or null if nothing is matched in the index and the
+   *     caller has to query the DB
+   */
+  public Map<ScoreServiceInstance, List<Label<?>>> lookup(List<Label<?>> labels) {
+    if (!enabled || labels == null || labels.isEmpty()) {
+      return null;
+    }
+    long startTime = System.nanoTime();
+    List<Label<?>> necessaryLabels =
+        labels.stream().filter(l -> l.getFeature() == Feature.CORE).collect(Collectors.toList());
+    Map<ScoreServiceInstance, List<Label<?>>> matched = lookupByCoreLabels(necessaryLabels);
+    lookupNanos.add(System.nanoTime() - startTime);
+    if (matched.isEmpty()) {
+      missNum.increment();
+      return null;
+    }
+    hitNum.increment();
+    return matched;
+  }
+
+  /**
+   * Filter the candidate ECs read from the DB after a miss, the ECs reported as completed are
+   * dropped because their labels are only removed from the DB once they are stopped. The rest are
+   * indexed with their latest labels, so that the next lookup is answered by the index.
+   *
+   * @return the candidates from the DB which are not known to be completed
+   */
+  public Map<ScoreServiceInstance, List<Label<?>>> filter(
+      Map<ScoreServiceInstance, List<Label<?>>> fromDB) {
+    if (!enabled || fromDB == null) {
+      return fromDB;
+    }
+    Map<ScoreServiceInstance, List<Label<?>>> filtered = new HashMap<>();
+    for (Map.Entry<ScoreServiceInstance, List<Label<?>>> entry : fromDB.entrySet()) {
+      IndexedEngineConn engineConn = engineConns.get(entry.getKey().getServiceInstance());
+      if (engineConn == null || !engineConn.isCompleted()) {
+        filtered.put(entry.getKey(), entry.getValue());
+      }
+    }
+    index(filtered);
+    return filtered;
+  }
+
+  private Map<ScoreServiceInstance, List<Label<?>>> lookupByCoreLabels(
+      List<Label<?>> necessaryLabels) {
+    Map<ScoreServiceInstance, List<Label<?>>> matched = new HashMap<>();
+    // only core labels are answered here, the requests without them match any label in the DB
+    if (necessaryLabels.isEmpty()) {
+      return matched;
+    }
+    Set<String> necessaryKeys = new HashSet<>();
+    Set<String> necessaryLabelKeys = new HashSet<>();
+    Set<ServiceInstance> candidates = null;
+    for (Label<?> label : necessaryLabels) {
+      String key = indexKey(label);
+      Set<ServiceInstance> instances = labelIndex.get(key);
+      if (instances == null || instances.isEmpty()) {
+        return matched;
+      }
+      if (candidates == null || instances.size() < candidates.size()) {
+        candidates = instances;
+      }
+      necessaryKeys.add(key);
+      necessaryLabelKeys.add(label.getLabelKey());
+    }
+    long now = System.currentTimeMillis();
+    for (ServiceInstance instance : candidates) {
+      IndexedEngineConn engineConn = engineConns.get(instance);
+      if (engineConn == null
+          || now - engineConn.updateTime > expireMills
+          || engineConn.isCompleted()) {
+        continue;
+      }
+      if (engineConn.indexKeys.containsAll(necessaryKeys)
+          && engineConn.coreLabelKeys.equals(necessaryLabelKeys)) {
+        matched.put(new LabelScoreServiceInstance(instance), new ArrayList<>(engineConn.labels));
+      }
+    }
+    return matched;
+  }
+
+  /** Index the ECs found in the DB with their latest labels, which may be persistence labels. */
+  public void index(Map<ScoreServiceInstance, List<Label<?>>> instances) {
+    if (!enabled || instances == null) {
+      return;
+    }
+    instances.forEach(
+        (instance, labels) -> {
+          ServiceInstance serviceInstance = instance.getServiceInstance();
+          if (isEngineConn(serviceInstance) && labels != null && !labels.isEmpty()) {
+            IndexedEngineConn indexed = engineConns.get(serviceInstance);
+            if (indexed == null || !indexed.isCompleted()) {
+              index(serviceInstance, labels, indexed == null ? null : indexed.status);
+            }
+          }
+        });
+  }
+
+  /**
+   * Called once the labels of an EC created by this manager are persisted, it reads them back once
+   * because the EC instance label is added when its resource is requested.
+   */
+  public void onEngineConnCreated(ServiceInstance instance) {
+    if (!enabled || !isEngineConn(instance)) {
+      return;
+    }
+    LinkisUtils.tryAndWarn(
+        () -> {
+          List<PersistenceLabel> labels =
+              labelManagerPersistence.getLabelByServiceInstance(instance);
+          if (labels != null && !labels.isEmpty()) {
+            index(instance, new ArrayList<>(labels), NodeStatus.Starting);
+          }
+        },
+        logger);
+  }
+
+  /**
+   * Called by the heartbeats and status callbacks of nodes, it refreshes the ECs already indexed
+   * and drops the completed ones. The ECs not indexed yet are left to the next missed lookup.
+   */
+  public void onStatusChanged(ServiceInstance instance, NodeStatus status) {
+    if (!enabled || !isEngineConn(instance)) {
+      return;
+    }
+    if (status != null && NodeStatus.isCompleted(status)) {
+      markCompleted(instance, status);
+      return;
+    }
+    IndexedEngineConn engineConn = engineConns.get(instance);
+    if (engineConn == null || engineConn.isCompleted()) {
+      return;
+    }
+    if (status != null) {
+      engineConn.status = status;
+    }
+    engineConn.updateTime = System.currentTimeMillis();
+  }
+
+  /**
+   * Drop the EC because its labels are changed, it is dropped again after the current transaction
+   * is committed, so that a heartbeat in between does not index the labels before the change.
+   */
+  public void invalidate(ServiceInstance instance) {
+    if (!enabled || !isEngineConn(instance)) {
+      return;
+    }
+    remove(instance);
+    if (TransactionSynchronizationManager.isSynchronizationActive()) {
+      TransactionSynchronizationManager.registerSynchronization(
+          new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+              remove(instance);
+            }
+          });
+    }
+  }
+
+  /** Remove the ECs without any update for the expire time, including the completed ones. */
+  public void removeExpired() {
+    long now = System.currentTimeMillis();
+    engineConns.entrySet().stream()
+        .filter(entry -> now - entry.getValue().updateTime > expireMills)
+        .map(Map.Entry::getKey)
+        .collect(Collectors.toList())
+        .forEach(this::remove);
+  }
+
+  public long getHitNum() {
+    return hitNum.sum();
+  }
+
+  public long getMissNum() {
+    return missNum.sum();
+  }
+
+  public double getHitRatio() {
+    long total = getHitNum() + getMissNum();
+    return total == 0 ? 0 : (double) getHitNum() / total;
+  }
+
+  public double getAvgLookupMicros() {
+    long total = getHitNum() + getMissNum();
+    return total == 0 ? 0 : lookupNanos.sum() / 1000.0 / total;
+  }
+
+  public int getIndexedNum() {
+    return engineConns.size();
+  }
+
+  private synchronized void index(
+      ServiceInstance instance, List<Label<?>> labels, NodeStatus status) {
+    removeFromIndex(instance);
+    IndexedEngineConn engineConn = new IndexedEngineConn(labels, status);
+    engineConns.put(instance, engineConn);
+    engineConn.indexKeys.forEach(
+        key -> labelIndex.computeIfAbsent(key, k -> ConcurrentHashMap.newKeySet()).add(instance));
+  }
+
+  private synchronized void remove(ServiceInstance instance) {
+    removeFromIndex(instance);
+  }
+
+  private synchronized void markCompleted(ServiceInstance instance, NodeStatus status) {
+    removeFromIndex(instance);
+    engineConns.put(instance, new IndexedEngineConn(Collections.emptyList(), status));
+  }
+
+  private void removeFromIndex(ServiceInstance instance) {
+    IndexedEngineConn engineConn = engineConns.remove(instance);
+    if (engineConn == null) {
+      return;
+    }
+    for (String key : engineConn.indexKeys) {
+      Set<ServiceInstance> instances = labelIndex.get(key);
+      if (instances != null) {
+        instances.remove(instance);
+        if (instances.isEmpty()) {
+          labelIndex.remove(key);
+        }
+      }
+    }
+  }
+
+  private static boolean isEngineConn(ServiceInstance instance) {
+    return instance != null
+        && GovernanceCommonConf.ENGINE_CONN_SPRING_NAME()
+            .getValue()
+            .equals(instance.getApplicationName());
+  }
+
+  private static String indexKey(Label<?> label) {
+    return label.getLabelKey() + "=" + label.getStringValue();
+  }
+
+  private static class IndexedEngineConn {
+
+    private final List<Label<?>> labels;
+
+    private final Set<String> indexKeys;
+
+    private final Set<String> coreLabelKeys;
+
+    private volatile NodeStatus status;
+
+    private volatile long updateTime = System.currentTimeMillis();
+
+    IndexedEngineConn(List<Label<?>> labels, NodeStatus status) {
+      this.labels =
+          labels.stream()
+              .map(
+                  label ->
+                      label instanceof PersistenceLabel
+                          ? ManagerUtils.persistenceLabelToRealLabel(label)
+                          : label)
+              .collect(Collectors.toList());
+      this.indexKeys =
+          this.labels.stream().map(EngineConnLabelIndex::indexKey).collect(Collectors.toSet());
+      this.coreLabelKeys =
+          this.labels.stream()
+              .filter(label -> label.getFeature() == Feature.CORE)
+              .map(Label::getLabelKey)
+              .collect(Collectors.toSet());
+      this.status = status;
+    }
+
+    boolean isCompleted() {
+      return status != null && NodeStatus.isCompleted(status);
+    }
+  }
+}
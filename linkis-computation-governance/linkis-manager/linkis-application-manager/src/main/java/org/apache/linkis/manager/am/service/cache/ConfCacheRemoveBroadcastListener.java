@@ -45,16 +45,16 @@ public class ConfCacheRemoveBroadcastListener implements BroadcastListener {
       RemoveCacheConfRequest removeCacheConfRequest = (RemoveCacheConfRequest) protocol;
       if (removeCacheConfRequest.userCreatorLabel() != null) {
         if (removeCacheConfRequest.engineTypeLabel() != null) {
-          RequestQueryEngineConfig request =
-              new RequestQueryEngineConfig(
-                  removeCacheConfRequest.userCreatorLabel(),
-                  removeCacheConfRequest.engineTypeLabel(),
-                  null);
-          RequestQueryEngineConfigWithGlobalConfig globalRequest =
-              new RequestQueryEngineConfigWithGlobalConfig(
-                  removeCacheConfRequest.userCreatorLabel(), request.engineTypeLabel(), null);
-          cacheableRPCInterceptor.removeCache(request.toString());
-          cacheableRPCInterceptor.removeCache(globalRequest.toString());
+          // filter is part of the cache key, so drop the entries of all the filters
+          String[] keyFieldsPrefix =
+              new String[] {
+                removeCacheConfRequest.userCreatorLabel().getStringValue(),
+                removeCacheConfRequest.engineTypeLabel().getStringValue()
+              };
+          cacheableRPCInterceptor.removeCache(
+              RequestQueryEngineConfig.class.getName(), keyFieldsPrefix);
+          cacheableRPCInterceptor.removeCache(
+              RequestQueryEngineConfigWithGlobalConfig.class.getName(), keyFieldsPrefix);
           logger.info(
               String.format(
                   "success to clear cache about configuration of %s-%s",
@@ -63,7 +63,7 @@ public class ConfCacheRemoveBroadcastListener implements BroadcastListener {
         } else {
           RequestQueryGlobalConfig request =
               new RequestQueryGlobalConfig(removeCacheConfRequest.userCreatorLabel().getUser());
-          cacheableRPCInterceptor.removeCache(request.toString());
+          cacheableRPCInterceptor.removeCache(request);
           logger.info(
               String.format(
                   "success to clear cache about global configuration of %s",
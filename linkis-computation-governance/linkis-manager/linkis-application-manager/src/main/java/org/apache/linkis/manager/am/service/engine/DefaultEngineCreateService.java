@@ -26,6 +26,7 @@ import org.apache.linkis.governance.common.utils.JobUtils;
 import org.apache.linkis.manager.am.conf.AMConfiguration;
 import org.apache.linkis.manager.am.conf.EngineConnConfigurationService;
 import org.apache.linkis.manager.am.exception.AMErrorException;
+import org.apache.linkis.manager.am.label.EngineConnLabelIndex;
 import org.apache.linkis.manager.am.label.EngineReuseLabelChooser;
 import org.apache.linkis.manager.am.manager.EngineNodeManager;
 import org.apache.linkis.manager.am.selector.ECAvailableRule;
@@ -97,6 +98,7 @@ public class DefaultEngineCreateService extends AbstractEngineService
   @Autowired private NodeMetricManagerPersistence nodeMetricManagerPersistence;
   @Autowired private List<EngineReuseLabelChooser> engineReuseLabelChoosers;
   @Autowired private EngineStopService engineStopService;
+  @Autowired private EngineConnLabelIndex engineConnLabelIndex;
 
   @Receiver
   public EngineNode createEngine(EngineCreateRequest engineCreateRequest, Sender sender)
@@ -250,6 +252,7 @@ public class DefaultEngineCreateService extends AbstractEngineService
         engineNode.getServiceInstance(),
         labelFilter.choseEngineLabel(
             LabelUtils.distinctLabel(labelList, fromEMGetEngineLabels(emNode.getLabels()))));
+    engineConnLabelIndex.onEngineConnCreated(engineNode.getServiceInstance());
 
     if (System.currentTimeMillis() - startTime >= timeout
         && engineCreateRequest.isIgnoreTimeout()) {
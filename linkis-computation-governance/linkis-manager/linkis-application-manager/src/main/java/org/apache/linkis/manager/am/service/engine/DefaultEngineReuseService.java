@@ -22,6 +22,7 @@ import org.apache.linkis.governance.common.conf.GovernanceCommonConf;
 import org.apache.linkis.governance.common.utils.JobUtils;
 import org.apache.linkis.manager.am.conf.AMConfiguration;
 import org.apache.linkis.manager.am.exception.AMErrorException;
+import org.apache.linkis.manager.am.label.EngineConnLabelIndex;
 import org.apache.linkis.manager.am.label.EngineReuseLabelChooser;
 import org.apache.linkis.manager.am.selector.NodeSelector;
 import org.apache.linkis.manager.am.util.LinkisUtils;
@@ -77,6 +78,8 @@ public class DefaultEngineReuseService extends AbstractEngineService implements
 
   @Autowired private EngineStopService engineStopService;
 
+  @Autowired private EngineConnLabelIndex engineConnLabelIndex;
+
   /**
    * 1. Obtain the EC corresponding to all labels 2. Judging reuse exclusion tags and fixed engine
    * labels 3. Select the EC with the lowest load available 4. Lock the corresponding EC
@@ -132,8 +135,7 @@ public class DefaultEngineReuseService extends AbstractEngineService implements
       }
     }
 
-    Map<ScoreServiceInstance, List<Label<?>>> instances =
-        nodeLabelService.getScoredNodeMapsByLabels(filterLabelList);
+    Map<ScoreServiceInstance, List<Label<?>>> instances = getCandidateInstances(filterLabelList);
 
     if (instances != null && exclusionInstances.length > 0) {
       ScoreServiceInstance[] instancesKeys =
@@ -168,6 +170,12 @@ public class DefaultEngineReuseService extends AbstractEngineService implements
       throw new LinkisRetryException(
           AMConstant.ENGINE_ERROR_CODE, "No engine can be reused, cause from db is null");
     }
+    Arrays.stream(engineScoreList)
+        .filter(engineNode -> engineNode.getNodeStatus() != null)
+        .forEach(
+            engineNode ->
+                engineConnLabelIndex.onStatusChanged(
+                    engineNode.getServiceInstance(), engineNode.getNodeStatus()));
 
     List<EngineNode> engines = Lists.newArrayList();
     long timeout =
@@ -224,6 +232,18 @@ public class DefaultEngineReuseService extends AbstractEngineService implements
     return engine;
   }
 
+  /**
+   * Ask the label index for the candidate ECs, and only query the DB when nothing is indexed for
+   * the labels. The ECs read from the DB are indexed except the ones known to be completed.
+   */
+  private Map<ScoreServiceInstance, List<Label<?>>> getCandidateInstances(List<Label<?>> labels) {
+    Map<ScoreServiceInstance, List<Label<?>>> indexed = engineConnLabelIndex.lookup(labels);
+    if (indexed != null) {
+      return indexed;
+    }
+    return engineConnLabelIndex.filter(nodeLabelService.getScoredNodeMapsByLabels(labels));
+  }
+
   public boolean selectEngineToReuse(
       MutablePair<Integer, Integer> count2reuseLimit,
       List<EngineNode> engines,
@@ -19,6 +19,7 @@ package org.apache.linkis.manager.am.service.heartbeat;
 
 import org.apache.linkis.common.utils.Utils;
 import org.apache.linkis.manager.am.conf.ManagerMonitorConf;
+import org.apache.linkis.manager.am.label.EngineConnLabelIndex;
 import org.apache.linkis.manager.am.service.HeartbeatService;
 import org.apache.linkis.manager.common.conf.RMConfiguration;
 import org.apache.linkis.manager.common.entity.metrics.AMNodeMetrics;
@@ -49,6 +50,8 @@ public class AMHeartbeatService implements HeartbeatService {
 
   @Autowired private MetricsConverter metricsConverter;
 
+  @Autowired private EngineConnLabelIndex engineConnLabelIndex;
+
   @Autowired(required = false)
   private ManagerMonitor managerMonitor;
 
@@ -81,6 +84,8 @@ public class AMHeartbeatService implements HeartbeatService {
       nodeMetrics.setStatus(0);
     }
     nodeMetricManagerPersistence.addOrupdateNodeMetrics(nodeMetrics);
+    engineConnLabelIndex.onStatusChanged(
+        nodeHeartbeatMsg.getServiceInstance(), nodeHeartbeatMsg.getStatus());
     logger.info("Finished to deal nodeHeartbeatMsg {}", nodeHeartbeatMsg);
   }
 }
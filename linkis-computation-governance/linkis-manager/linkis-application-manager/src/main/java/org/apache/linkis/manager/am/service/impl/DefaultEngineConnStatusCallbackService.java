@@ -18,6 +18,7 @@
 package org.apache.linkis.manager.am.service.impl;
 
 import org.apache.linkis.manager.am.conf.AMConfiguration;
+import org.apache.linkis.manager.am.label.EngineConnLabelIndex;
 import org.apache.linkis.manager.am.service.EngineConnStatusCallbackService;
 import org.apache.linkis.manager.am.service.engine.EngineStopService;
 import org.apache.linkis.manager.am.utils.AMUtils;
@@ -55,6 +56,8 @@ public class DefaultEngineConnStatusCallbackService implements EngineConnStatusC
 
   @Autowired private EngineStopService engineStopService;
 
+  @Autowired private EngineConnLabelIndex engineConnLabelIndex;
+
   private static final String[] canRetryLogs =
       AMConfiguration.AM_CAN_RETRY_LOGS.getValue().split(";");
 
@@ -110,6 +113,9 @@ public class DefaultEngineConnStatusCallbackService implements EngineConnStatusC
     nodeMetrics.setStatus(metricsConverter.convertStatus(engineConnStatusCallbackToAM.getStatus()));
 
     nodeMetricManagerPersistence.addOrupdateNodeMetrics(nodeMetrics);
+    engineConnLabelIndex.onStatusChanged(
+        engineConnStatusCallbackToAM.getServiceInstance(),
+        engineConnStatusCallbackToAM.getStatus());
     logger.info("Finished to deal engineConnStatusCallbackToAM {}", engineConnStatusCallbackToAM);
   }
 
@@ -46,8 +46,11 @@ import org.springframework.stereotype.Component;
 
 import java.lang.reflect.UndeclaredThrowableException;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
-import java.util.stream.Collectors;
+import java.util.concurrent.Future;
+import java.util.function.Consumer;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -87,6 +90,34 @@ public class NodeHeartbeatMonitor implements ManagerMonitor {
   private final long ecmHeartBeatTime =
       ManagerMonitorConf.ECM_HEARTBEAT_MAX_UPDATE_TIME.getValue().toLong();
 
+  /** state of every node at its last check, used to skip the nodes not changed and not due */
+  private final Map<ServiceInstance, NodeHeartbeatState> heartbeatStates =
+      new ConcurrentHashMap<>();
+
+  private final NodeHeartbeatTickMetrics tickMetrics = new NodeHeartbeatTickMetrics();
+
+  // counters of the current tick, ticks never run concurrently
+  private int checkedNodeNum;
+
+  private int unhealthyNodeNum;
+
+  private static class NodeHeartbeatState {
+    private final NodeStatus status;
+    private final long updateTime;
+    private final long nextCheckTime;
+
+    NodeHeartbeatState(Node node, long nextCheckTime) {
+      this.status = node.getNodeStatus();
+      this.updateTime = node.getUpdateTime() == null ? -1 : node.getUpdateTime().getTime();
+      this.nextCheckTime = nextCheckTime;
+    }
+
+    boolean isChanged(Node node) {
+      long nodeUpdateTime = node.getUpdateTime() == null ? -1 : node.getUpdateTime().getTime();
+      return status != node.getNodeStatus() || updateTime != nodeUpdateTime;
+    }
+  }
+
   /**
    * 1. Scan all nodes regularly for three minutes to determine the update time of Metrics, 2. If
    * the update time exceeds a period of time and has not been updated, initiate a Metrics update
@@ -100,43 +131,30 @@ public class NodeHeartbeatMonitor implements ManagerMonitor {
     LinkisUtils.tryAndWarn(
         () -> {
           logger.info("Start to check the health of the node");
+          long startTime = System.currentTimeMillis();
           // 1.get nodes
           List<Node> nodes = nodeManagerPersistence.getAllNodes();
           List<NodeMetrics> metricList = nodeMetricManagerPersistence.getNodeMetrics(nodes);
-          if (null != metricList) {
-            for (Node node : nodes) {
-              for (NodeMetrics metrics : metricList) {
-                if (metrics
-                    .getServiceInstance()
-                    .toString()
-                    .equals(node.getServiceInstance().toString())) {
-                  node.setNodeStatus(NodeStatus.values()[metrics.getStatus()]);
-                  node.setUpdateTime(metrics.getUpdateTime());
-                  break;
-                }
-              }
-            }
-          }
-          // EngineConn remove
           List<Node> engineNodes = new ArrayList<>();
-          for (Node node : nodes) {
-            if (node.getServiceInstance().getApplicationName().equalsIgnoreCase(ecName)) {
-              engineNodes.add(node);
-            }
-          }
+          List<Node> ecmNodes = new ArrayList<>();
+          fillMetricsAndGroup(nodes, metricList, engineNodes, ecmNodes);
+          long loadTime = System.currentTimeMillis() - startTime;
+          checkedNodeNum = 0;
+          unhealthyNodeNum = 0;
+          // EngineConn remove
           LinkisUtils.tryAndWarn(
               () -> {
                 dealECNodes(engineNodes);
               },
               logger);
-
-          List<Node> ecmNodes = new ArrayList<>();
-          for (Node node : nodes) {
-            if (node.getServiceInstance().getApplicationName().equalsIgnoreCase(ecmName)) {
-              ecmNodes.add(node);
-            }
-          }
           dealECMNotExistsInRegistry(ecmNodes);
+          // drop the states of the nodes removed from persistence
+          if (heartbeatStates.size() > engineNodes.size() + ecmNodes.size()) {
+            Set<ServiceInstance> instances = new HashSet<>(engineNodes.size() + ecmNodes.size());
+            engineNodes.forEach(node -> instances.add(node.getServiceInstance()));
+            ecmNodes.forEach(node -> instances.add(node.getServiceInstance()));
+            heartbeatStates.keySet().retainAll(instances);
+          }
 
           /* val engineMetricList = nodeMetricManagerPersistence.getNodeMetrics(engineNodes)
           val healthyList = filterHealthyAndWarnList(engineMetricList)
@@ -148,11 +166,63 @@ public class NodeHeartbeatMonitor implements ManagerMonitor {
            dealStockAvailableList(stockAvailableList)
            val stockUnAvailableList = filterStockUnAvailableList(engineMetricList)
            dealStockUnAvailableList(stockUnAvailableList) */
-          logger.info("Finished to check the health of the node");
+          long tickTime = System.currentTimeMillis() - startTime;
+          tickMetrics.update(tickTime, nodes.size(), checkedNodeNum, unhealthyNodeNum);
+          logger.info(
+              "Finished to check the health of the node, nodes: {}, checked: {}, unhealthy: {}, load cost: {}ms, total cost: {}ms",
+              nodes.size(),
+              checkedNodeNum,
+              unhealthyNodeNum,
+              loadTime,
+              tickTime);
         },
         logger);
   }
 
+  /**
+   * Join the metrics to the nodes by service instance with a hash index, and split the nodes into
+   * EngineConns and ECMs.
+   */
+  void fillMetricsAndGroup(
+      List<Node> nodes, List<NodeMetrics> metricList, List<Node> engineNodes, List<Node> ecmNodes) {
+    if (null != metricList && !metricList.isEmpty()) {
+      Map<ServiceInstance, NodeMetrics> metricsIndex = new HashMap<>(metricList.size() * 2);
+      for (NodeMetrics metrics : metricList) {
+        metricsIndex.putIfAbsent(metrics.getServiceInstance(), metrics);
+      }
+      for (Node node : nodes) {
+        NodeMetrics metrics = metricsIndex.get(node.getServiceInstance());
+        if (metrics != null) {
+          if (metrics.getStatus() != null) {
+            node.setNodeStatus(NodeStatus.values()[metrics.getStatus()]);
+          }
+          node.setUpdateTime(metrics.getUpdateTime());
+        }
+      }
+    }
+    for (Node node : nodes) {
+      String applicationName = node.getServiceInstance().getApplicationName();
+      if (applicationName.equalsIgnoreCase(ecName)) {
+        engineNodes.add(node);
+      } else if (applicationName.equalsIgnoreCase(ecmName)) {
+        ecmNodes.add(node);
+      }
+    }
+  }
+
+  /**
+   * Whether the node has to be checked in this tick: its status or heartbeat changed since the last
+   * check, or the time it may become timeout is reached.
+   */
+  private boolean needCheck(Node node, long now) {
+    NodeHeartbeatState state = heartbeatStates.get(node.getServiceInstance());
+    return state == null || state.isChanged(node) || now >= state.nextCheckTime;
+  }
+
+  private void checked(Node node, long nextCheckTime) {
+    heartbeatStates.put(node.getServiceInstance(), new NodeHeartbeatState(node, nextCheckTime));
+  }
+
   /**
    * 1. When the engine starts, the status is empty, and it needs to judge whether the startup
    * timeout, if the startup timeout, kill directly 2. After the engine is in the state, it is
@@ -163,43 +233,56 @@ public class NodeHeartbeatMonitor implements ManagerMonitor {
    * @param engineNodes
    */
   private void dealECNodes(List<Node> engineNodes) {
-    List<ServiceInstance> existingEngineInstances =
-        Arrays.stream(Sender.getInstances(ecName)).collect(Collectors.toList());
+    Set<ServiceInstance> existingEngineInstances = null;
     Set<ServiceInstance> clearECSet = new HashSet<>();
-    engineNodes.forEach(
-        engineNode -> {
-          if (NodeStatus.isCompleted(engineNode.getNodeStatus())) {
-            logger.info(
-                "{} is completed {}, will be remove",
-                engineNode.getServiceInstance(),
-                engineNode.getNodeStatus());
-            clearECSet.add(engineNode.getServiceInstance());
-          } else {
-            boolean engineIsStarted =
-                (System.currentTimeMillis() - engineNode.getStartTime().getTime())
-                    > maxCreateInterval;
-            long updateTime =
-                engineNode.getUpdateTime() == null
-                    ? engineNode.getStartTime().getTime()
-                    : engineNode.getUpdateTime().getTime();
-
-            boolean updateOverdue = (System.currentTimeMillis() - updateTime) > maxUpdateInterval;
-
-            if (engineNode.getNodeStatus() == null) {
-              if (!existingEngineInstances.contains(engineNode.getServiceInstance())
-                  && engineIsStarted) {
-                logger.warn(
-                    "Failed to find instance {} from Service Registry prepare to kill, engineIsStarted",
-                    engineNode.getServiceInstance());
-                clearECSet.add(engineNode.getServiceInstance());
-              }
-            } else if (updateOverdue) {
-              logger.warn("{} heartbeat updateOverdue", engineNode.getServiceInstance());
+    long now = System.currentTimeMillis();
+    for (Node engineNode : engineNodes) {
+      if (!needCheck(engineNode, now)) {
+        continue;
+      }
+      checkedNodeNum++;
+      if (NodeStatus.isCompleted(engineNode.getNodeStatus())) {
+        logger.info(
+            "{} is completed {}, will be remove",
+            engineNode.getServiceInstance(),
+            engineNode.getNodeStatus());
+        clearECSet.add(engineNode.getServiceInstance());
+        checked(engineNode, now);
+      } else {
+        long startTime = engineNode.getStartTime().getTime();
+        boolean engineIsStarted = (now - startTime) > maxCreateInterval;
+        long updateTime =
+            engineNode.getUpdateTime() == null ? startTime : engineNode.getUpdateTime().getTime();
+
+        boolean updateOverdue = (now - updateTime) > maxUpdateInterval;
+
+        if (engineNode.getNodeStatus() == null) {
+          if (engineIsStarted) {
+            if (existingEngineInstances == null) {
+              existingEngineInstances = new HashSet<>(Arrays.asList(Sender.getInstances(ecName)));
+            }
+            if (!existingEngineInstances.contains(engineNode.getServiceInstance())) {
+              logger.warn(
+                  "Failed to find instance {} from Service Registry prepare to kill, engineIsStarted",
+                  engineNode.getServiceInstance());
               clearECSet.add(engineNode.getServiceInstance());
             }
+            // the engine may leave the Service Registry at any time
+            checked(engineNode, now);
+          } else {
+            checked(engineNode, startTime + maxCreateInterval + 1);
           }
-        });
-    clearECSet.forEach(this::clearEngineNode);
+        } else if (updateOverdue) {
+          logger.warn("{} heartbeat updateOverdue", engineNode.getServiceInstance());
+          clearECSet.add(engineNode.getServiceInstance());
+          checked(engineNode, now);
+        } else {
+          checked(engineNode, updateTime + maxUpdateInterval + 1);
+        }
+      }
+    }
+    unhealthyNodeNum += clearECSet.size();
+    runInParallel(clearECSet, this::clearEngineNode);
   }
 
   private void updateMetrics(Node node) {
@@ -211,37 +294,83 @@ public class NodeHeartbeatMonitor implements ManagerMonitor {
   }
 
   private void dealECMNotExistsInRegistry(List<Node> ecmNodes) {
-    List<ServiceInstance> existingECMInstances =
-        Arrays.stream(Sender.getInstances(ecName)).collect(Collectors.toList());
-    ecmNodes.forEach(
+    Set<ServiceInstance> existingECMInstances = null;
+    List<Node> overdueECMs = new ArrayList<>();
+    long now = System.currentTimeMillis();
+    for (Node ecm : ecmNodes) {
+      if (!needCheck(ecm, now)) {
+        continue;
+      }
+      checkedNodeNum++;
+      long updateTime =
+          ecm.getUpdateTime() == null
+              ? ecm.getStartTime().getTime()
+              : ecm.getUpdateTime().getTime();
+
+      boolean updateOverdue = (now - updateTime) > ecmHeartBeatTime;
+
+      if (updateOverdue) {
+        if (existingECMInstances == null) {
+          existingECMInstances = new HashSet<>(Arrays.asList(Sender.getInstances(ecmName)));
+        }
+        if (!existingECMInstances.contains(ecm.getServiceInstance())) {
+          overdueECMs.add(ecm);
+        }
+        checked(ecm, now);
+      } else {
+        checked(ecm, updateTime + ecmHeartBeatTime + 1);
+      }
+    }
+    unhealthyNodeNum += overdueECMs.size();
+    runInParallel(
+        overdueECMs,
         ecm -> {
-          long updateTime =
+          LinkisUtils.tryAndWarn(() -> updateMetrics(ecm), logger);
+          boolean isUpdateOverdue =
               ecm.getUpdateTime() == null
-                  ? ecm.getStartTime().getTime()
-                  : ecm.getUpdateTime().getTime();
-
-          boolean updateOverdue = (System.currentTimeMillis() - updateTime) > ecmHeartBeatTime;
-
-          if (!existingECMInstances.contains(ecm.getServiceInstance()) && updateOverdue) {
-            LinkisUtils.tryAndWarn(() -> updateMetrics(ecm), logger);
-            boolean isUpdateOverdue =
-                ecm.getUpdateTime() == null
-                    ? (System.currentTimeMillis() - ecm.getStartTime().getTime()) > ecmHeartBeatTime
-                    : (System.currentTimeMillis() - ecm.getUpdateTime().getTime())
-                        > ecmHeartBeatTime;
-            boolean isExistingECMInstances =
-                existingECMInstances.contains(ecm.getServiceInstance());
-            if (!isExistingECMInstances && isUpdateOverdue) {
-              logger.warn(
-                  "Failed to find ecm instance {} from Service Registry to kill",
-                  ecm.getServiceInstance());
-
-              triggerEMSuicide(ecm.getServiceInstance());
-            }
+                  ? (System.currentTimeMillis() - ecm.getStartTime().getTime()) > ecmHeartBeatTime
+                  : (System.currentTimeMillis() - ecm.getUpdateTime().getTime())
+                      > ecmHeartBeatTime;
+          if (isUpdateOverdue) {
+            logger.warn(
+                "Failed to find ecm instance {} from Service Registry to kill",
+                ecm.getServiceInstance());
+
+            triggerEMSuicide(ecm.getServiceInstance());
           }
         });
   }
 
+  /**
+   * The kill requests of different nodes are independent, so send them by the async pool and wait
+   * for all of them, so that the next tick never sees a node being killed.
+   */
+  private <T> void runInParallel(Collection<T> items, Consumer<T> action) {
+    if (items.isEmpty()) {
+      return;
+    }
+    List<Future<?>> futures = new ArrayList<>(items.size());
+    for (T item : items) {
+      futures.add(
+          fixedThreadPoll.submit(
+              () -> LinkisUtils.tryAndWarn(() -> action.accept(item), logger)));
+    }
+    for (Future<?> future : futures) {
+      try {
+        future.get();
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        return;
+      } catch (ExecutionException e) {
+        logger.warn("Failed to deal node", e.getCause());
+      }
+    }
+  }
+
+  public NodeHeartbeatTickMetrics getTickMetrics() {
+    return tickMetrics;
+  }
+
   /**
    * When the EM status is Healthy and WARN: 1. Determine the update time of Metrics. If it is not
    * reported for more than a certain period of time, initiate a Metrics update request. 2. If send
@@ -0,0 +1,95 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.linkis.manager.am.service.monitor;
+
+/** Cost and size statistics of the ticks of NodeHeartbeatMonitor. */
+public class NodeHeartbeatTickMetrics {
+
+  private volatile long tickCount;
+
+  private volatile long lastTickTime;
+
+  private volatile long maxTickTime;
+
+  private volatile long totalTickTime;
+
+  private volatile int lastNodeNum;
+
+  private volatile int lastCheckedNodeNum;
+
+  private volatile int lastUnhealthyNodeNum;
+
+  synchronized void update(long tickTime, int nodeNum, int checkedNodeNum, int unhealthyNodeNum) {
+    tickCount++;
+    lastTickTime = tickTime;
+    maxTickTime = Math.max(maxTickTime, tickTime);
+    totalTickTime += tickTime;
+    lastNodeNum = nodeNum;
+    lastCheckedNodeNum = checkedNodeNum;
+    lastUnhealthyNodeNum = unhealthyNodeNum;
+  }
+
+  public long getTickCount() {
+    return tickCount;
+  }
+
+  public long getLastTickTime() {
+    return lastTickTime;
+  }
+
+  public long getMaxTickTime() {
+    return maxTickTime;
+  }
+
+  public long getAvgTickTime() {
+    long count = tickCount;
+    return count == 0 ? 0 : totalTickTime / count;
+  }
+
+  public int getLastNodeNum() {
+    return lastNodeNum;
+  }
+
+  public int getLastCheckedNodeNum() {
+    return lastCheckedNodeNum;
+  }
+
+  public int getLastUnhealthyNodeNum() {
+    return lastUnhealthyNodeNum;
+  }
+
+  @Override
+  public String toString() {
+    return "NodeHeartbeatTickMetrics{"
+        + "tickCount="
+        + tickCount
+        + ", lastTickTime="
+        + lastTickTime
+        + ", maxTickTime="
+        + maxTickTime
+        + ", avgTickTime="
+        + getAvgTickTime()
+        + ", lastNodeNum="
+        + lastNodeNum
+        + ", lastCheckedNodeNum="
+        + lastCheckedNodeNum
+        + ", lastUnhealthyNodeNum="
+        + lastUnhealthyNodeNum
+        + '}';
+  }
+}
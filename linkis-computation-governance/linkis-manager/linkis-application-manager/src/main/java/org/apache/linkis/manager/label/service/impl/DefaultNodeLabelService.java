@@ -18,6 +18,7 @@
 package org.apache.linkis.manager.label.service.impl;
 
 import org.apache.linkis.common.ServiceInstance;
+import org.apache.linkis.manager.am.label.EngineConnLabelIndex;
 import org.apache.linkis.manager.common.entity.node.ScoreServiceInstance;
 import org.apache.linkis.manager.common.entity.persistence.PersistenceLabel;
 import org.apache.linkis.manager.common.utils.ManagerUtils;
@@ -58,6 +59,8 @@ public class DefaultNodeLabelService implements NodeLabelService {
 
   @Autowired private NodeLabelScorer nodeLabelScorer;
 
+  @Autowired private EngineConnLabelIndex engineConnLabelIndex;
+
   /**
    * Attach labels to node instance TODO 该方法需要优化,应该batch插入
    *
@@ -78,6 +81,7 @@ public class DefaultNodeLabelService implements NodeLabelService {
   @Transactional(rollbackFor = {Exception.class})
   @Override
   public void addLabelToNode(ServiceInstance instance, Label<?> label) {
+    engineConnLabelIndex.invalidate(instance);
     PersistenceLabel persistenceLabel = LabelManagerUtils.convertPersistenceLabel(label);
     // Try to add
     int labelId = tryToAddLabel(persistenceLabel);
@@ -94,6 +98,7 @@ public class DefaultNodeLabelService implements NodeLabelService {
   @Transactional(rollbackFor = {Exception.class})
   @Override
   public void updateLabelToNode(ServiceInstance instance, Label<?> label) {
+    engineConnLabelIndex.invalidate(instance);
     PersistenceLabel persistenceLabel = LabelManagerUtils.convertPersistenceLabel(label);
     // Try to add
     int labelId = tryToAddLabel(persistenceLabel);
@@ -124,6 +129,7 @@ public class DefaultNodeLabelService implements NodeLabelService {
 
   @Override
   public void updateLabelsToNode(ServiceInstance instance, List<Label<?>> labels) {
+    engineConnLabelIndex.invalidate(instance);
     List<String> newKeyList = labels.stream().map(Label::getLabelKey).collect(Collectors.toList());
     List<PersistenceLabel> nodeLabels = labelManagerPersistence.getLabelByServiceInstance(instance);
 
@@ -199,6 +205,8 @@ public class DefaultNodeLabelService implements NodeLabelService {
   @Override
   public void labelsFromInstanceToNewInstance(
       ServiceInstance oldServiceInstance, ServiceInstance newServiceInstance) {
+    engineConnLabelIndex.invalidate(oldServiceInstance);
+    engineConnLabelIndex.invalidate(newServiceInstance);
     List<PersistenceLabel> labels =
         labelManagerPersistence.getLabelByServiceInstance(newServiceInstance);
     List<String> newKeyList = labels.stream().map(Label::getLabelKey).collect(Collectors.toList());
@@ -243,6 +251,7 @@ public class DefaultNodeLabelService implements NodeLabelService {
   @Transactional(rollbackFor = {Exception.class})
   @Override
   public void removeLabelsFromNode(ServiceInstance instance, List<Label<?>> labels) {
+    engineConnLabelIndex.invalidate(instance);
     List<PersistenceLabel> labelList = labelManagerPersistence.getLabelByServiceInstance(instance);
     Map<String, PersistenceLabel> dbLabels =
         labelList.stream()
@@ -262,6 +271,7 @@ public class DefaultNodeLabelService implements NodeLabelService {
   @Transactional(rollbackFor = {Exception.class})
   @Override
   public void removeLabelsFromNode(ServiceInstance instance, boolean isEngine) {
+    engineConnLabelIndex.invalidate(instance);
     List<PersistenceLabel> labels = labelManagerPersistence.getLabelByServiceInstance(instance);
 
     List<PersistenceLabel> removeLabels =
@@ -0,0 +1,204 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.linkis.manager.rm.service;
+
+import org.apache.linkis.manager.common.conf.RMConfiguration;
+import org.apache.linkis.manager.common.entity.persistence.PersistenceResource;
+import org.apache.linkis.manager.common.entity.resource.NodeResource;
+import org.apache.linkis.manager.common.utils.ResourceUtils;
+import org.apache.linkis.manager.label.entity.CombinedLabel;
+import org.apache.linkis.manager.label.entity.Label;
+import org.apache.linkis.manager.label.entity.em.EMInstanceLabel;
+import org.apache.linkis.manager.label.service.ResourceLabelService;
+import org.apache.linkis.manager.persistence.ResourceManagerPersistence;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.Date;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Ledger of the resources of user(CombinedLabel) and ECM(EMInstanceLabel) labels, used when
+ * linkis.manager.rm.resource.ledger.enabled is true. The DB stays the only copy of the resources:
+ * the ledger caches the resource id of each label, so that a resource request reads and writes the
+ * resource row by its id instead of querying it through the label tables, and every change is
+ * written to the DB before the label lock is released. It works the same with any number of
+ * managers. The ledger also holds the local locks of labels, which let only one thread of this
+ * instance wait for the lock of a label in the lock table.
+ */
+@Component
+public class ResourceLedger {
+
+  private static final Logger logger = LoggerFactory.getLogger(ResourceLedger.class);
+
+  @Autowired private ResourceLabelService resourceLabelService;
+
+  @Autowired private ResourceManagerPersistence resourceManagerPersistence;
+
+  private final boolean enabled;
+
+  private final Map<String, LabelLock> locks = new ConcurrentHashMap<>();
+
+  private final Map<String, Integer> resourceIds = new ConcurrentHashMap<>();
+
+  public ResourceLedger() {
+    this.enabled = RMConfiguration.RESOURCE_LEDGER_ENABLED.getValue();
+  }
+
+  ResourceLedger(
+      boolean enabled,
+      ResourceLabelService resourceLabelService,
+      ResourceManagerPersistence resourceManagerPersistence) {
+    this.enabled = enabled;
+    this.resourceLabelService = resourceLabelService;
+    this.resourceManagerPersistence = resourceManagerPersistence;
+  }
+
+  public boolean isEnabled() {
+    return enabled;
+  }
+
+  /** Only the shared user and ECM resources are kept in the ledger, engine resources are not. */
+  public boolean accept(Label<?> label) {
+    return enabled && (label instanceof CombinedLabel || label instanceof EMInstanceLabel);
+  }
+
+  /**
+   * Lock the label in this instance, the lock is dropped once no thread holds or waits for it.
+   * Every successful call must be paired with {@link #unLock}.
+   */
+  public boolean tryLock(String lockObject, long timeout) {
+    LabelLock lock =
+        locks.compute(
+            lockObject,
+            (key, old) -> {
+              LabelLock labelLock = old == null ? new LabelLock() : old;
+              labelLock.users++;
+              return labelLock;
+            });
+    boolean locked;
+    try {
+      if (timeout > 0) {
+        locked = lock.lock.tryLock(timeout, TimeUnit.MILLISECONDS);
+      } else {
+        lock.lock.lockInterruptibly();
+        locked = true;
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      locked = false;
+    }
+    if (!locked) {
+      release(lockObject);
+    }
+    return locked;
+  }
+
+  public void unLock(String lockObject) {
+    LabelLock lock = locks.get(lockObject);
+    if (lock != null && lock.lock.isHeldByCurrentThread()) {
+      lock.lock.unlock();
+      release(lockObject);
+    }
+  }
+
+  private void release(String lockObject) {
+    locks.computeIfPresent(lockObject, (key, lock) -> --lock.users == 0 ? null : lock);
+  }
+
+  /**
+   * Read the resource of the label from the DB by its cached resource id, the first read of a label
+   * queries it through the label tables and caches its id.
+   */
+  public NodeResource getResource(Label<?> label) {
+    String key = label.getStringValue();
+    Integer resourceId = resourceIds.get(key);
+    if (resourceId != null) {
+      PersistenceResource resource = resourceManagerPersistence.getNodeResourceById(resourceId);
+      if (resource != null) {
+        return ResourceUtils.fromPersistenceResource(resource);
+      }
+      // removed by another manager
+      resourceIds.remove(key, resourceId);
+    }
+    NodeResource resource = resourceLabelService.getResourceByLabel(label);
+    if (resource != null && resource.getId() != null && resource.getId() > 0) {
+      resourceIds.put(key, resource.getId());
+    }
+    return resource;
+  }
+
+  /**
+   * Write the resource of the label to the DB by its cached resource id, the caller must hold the
+   * lock of the label.
+   *
+   * @return false if the resource id of the label is unknown or its row is gone, then the caller
+   *     persists it through the label tables
+   */
+  public boolean putResource(Label<?> label, NodeResource resource, String source) {
+    String key = label.getStringValue();
+    Integer resourceId = resourceIds.get(key);
+    if (resourceId == null) {
+      return false;
+    }
+    PersistenceResource persistenceResource = ResourceUtils.toPersistenceResource(resource);
+    persistenceResource.setUpdator(source);
+    persistenceResource.setUpdateTime(new Date());
+    if (resourceManagerPersistence.nodeResourceUpdateByResourceId(resourceId, persistenceResource)
+        > 0) {
+      return true;
+    }
+    logger.info("Resource {} of label {} is removed, will update it by label", resourceId, key);
+    resourceIds.remove(key, resourceId);
+    return false;
+  }
+
+  /** Drop the resource id of the label, e.g. before its resource is removed. */
+  public void invalidate(Label<?> label) {
+    resourceIds.remove(label.getStringValue());
+  }
+
+  /** Drop all resource ids, they are queried through the label tables again on the next access. */
+  public void rebuild() {
+    resourceIds.clear();
+    logger.info("Resource ledger is cleared, resource ids will be reloaded from DB");
+  }
+
+  int getLockNum() {
+    return locks.size();
+  }
+
+  int getResourceIdNum() {
+    return resourceIds.size();
+  }
+
+  private static class LabelLock {
+
+    private final ReentrantLock lock = new ReentrantLock();
+
+    /** threads holding or waiting for the lock, only changed inside the compute of the map */
+    private int users;
+  }
+}
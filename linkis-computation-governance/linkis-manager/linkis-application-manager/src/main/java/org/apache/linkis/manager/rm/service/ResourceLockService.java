@@ -41,10 +41,33 @@ public class ResourceLockService {
 
   @Autowired LockManagerPersistence lockManagerPersistence;
 
+  @Autowired ResourceLedger resourceLedger;
+
   public boolean tryLock(PersistenceLock persistenceLock, long timeout) {
     if (StringUtils.isBlank(persistenceLock.getLockObject())) {
       return true;
     }
+    if (!resourceLedger.isEnabled()) {
+      return tryLockInDB(persistenceLock, timeout);
+    }
+    // the local lock lets only one thread of this instance wait for the DB lock of a label,
+    // the DB lock still guards the label against the other instances
+    long startTime = System.currentTimeMillis();
+    if (!resourceLedger.tryLock(persistenceLock.getLockObject(), timeout)) {
+      return false;
+    }
+    long leftTimeout = timeout;
+    if (timeout > 0) {
+      leftTimeout = Math.max(1, timeout - (System.currentTimeMillis() - startTime));
+    }
+    boolean isLocked = tryLockInDB(persistenceLock, leftTimeout);
+    if (!isLocked) {
+      resourceLedger.unLock(persistenceLock.getLockObject());
+    }
+    return isLocked;
+  }
+
+  private boolean tryLockInDB(PersistenceLock persistenceLock, long timeout) {
     boolean isLocked =
         LinkisUtils.tryCatch(
             () -> {
@@ -65,6 +88,13 @@ public class ResourceLockService {
   }
 
   public void unLock(PersistenceLock persistenceLock) {
+    unLockInDB(persistenceLock);
+    if (resourceLedger.isEnabled() && StringUtils.isNotBlank(persistenceLock.getLockObject())) {
+      resourceLedger.unLock(persistenceLock.getLockObject());
+    }
+  }
+
+  private void unLockInDB(PersistenceLock persistenceLock) {
     LinkisUtils.tryCatch(
         () -> {
           lockManagerPersistence.unlock(persistenceLock);
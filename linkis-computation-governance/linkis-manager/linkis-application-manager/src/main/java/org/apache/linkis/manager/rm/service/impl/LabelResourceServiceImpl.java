@@ -28,6 +28,7 @@ import org.apache.linkis.manager.persistence.LabelManagerPersistence;
 import org.apache.linkis.manager.persistence.ResourceManagerPersistence;
 import org.apache.linkis.manager.rm.domain.RMLabelContainer;
 import org.apache.linkis.manager.rm.service.LabelResourceService;
+import org.apache.linkis.manager.rm.service.ResourceLedger;
 
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
@@ -49,16 +50,24 @@ public class LabelResourceServiceImpl extends LabelResourceService {
 
   @Autowired private ResourceLabelService resourceLabelService;
 
+  @Autowired private ResourceLedger resourceLedger;
+
   private final LabelBuilderFactory labelFactory =
       LabelBuilderFactoryContext.getLabelBuilderFactory();
 
   @Override
   public NodeResource getLabelResource(Label<?> label) {
+    if (resourceLedger.accept(label)) {
+      return resourceLedger.getResource(label);
+    }
     return resourceLabelService.getResourceByLabel(label);
   }
 
   @Override
   public void setLabelResource(Label<?> label, NodeResource nodeResource, String source) {
+    if (resourceLedger.accept(label) && resourceLedger.putResource(label, nodeResource, source)) {
+      return;
+    }
     resourceLabelService.setResourceToLabel(label, nodeResource, source);
   }
 
@@ -80,6 +89,9 @@ public class LabelResourceServiceImpl extends LabelResourceService {
 
   @Override
   public void removeResourceByLabel(Label<?> label) {
+    if (resourceLedger.accept(label)) {
+      resourceLedger.invalidate(label);
+    }
     resourceLabelService.removeResourceByLabel(label);
   }
 
@@ -34,6 +34,7 @@ import org.apache.linkis.manager.persistence.NodeManagerPersistence;
 import org.apache.linkis.manager.persistence.ResourceManagerPersistence;
 import org.apache.linkis.manager.rm.restful.vo.UserCreatorEngineType;
 import org.apache.linkis.manager.rm.service.LabelResourceService;
+import org.apache.linkis.manager.rm.service.ResourceLedger;
 import org.apache.linkis.manager.rm.utils.UserConfiguration;
 import org.apache.linkis.server.BDPJettyServerHelper;
 
@@ -63,6 +64,8 @@ public class UserResourceService {
 
   @Autowired private LabelManagerPersistence labelManagerPersistence;
 
+  @Autowired private ResourceLedger resourceLedger;
+
   private final Gson gson = BDPJettyServerHelper.gson();
 
   private final LabelBuilderFactory labelFactory =
@@ -109,6 +112,9 @@ public class UserResourceService {
       Label<?> combinedLabel = combinedLabelBuilder.build("", labelList);
       labelResourceService.setLabelResource(
           resourceLabel.get(0), labelResource, combinedLabel.getStringValue());
+      if (resourceLedger.isEnabled()) {
+        resourceLedger.rebuild();
+      }
     }
   }
 
@@ -124,5 +130,8 @@ public class UserResourceService {
     }
     resourceManagerPersistence.deleteResourceById(resourceIdList);
     resourceManagerPersistence.deleteResourceRelByResourceId(resourceIdList);
+    if (resourceLedger.isEnabled()) {
+      resourceLedger.rebuild();
+    }
   }
 }
@@ -0,0 +1,222 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.linkis.manager.am.label;
+
+import org.apache.linkis.common.ServiceInstance;
+import org.apache.linkis.manager.common.entity.enumeration.NodeStatus;
+import org.apache.linkis.manager.common.entity.node.ScoreServiceInstance;
+import org.apache.linkis.manager.common.entity.persistence.PersistenceLabel;
+import org.apache.linkis.manager.label.LabelManagerUtils;
+import org.apache.linkis.manager.label.builder.factory.LabelBuilderFactory;
+import org.apache.linkis.manager.label.builder.factory.LabelBuilderFactoryContext;
+import org.apache.linkis.manager.label.entity.Label;
+import org.apache.linkis.manager.label.entity.engine.EngineTypeLabel;
+import org.apache.linkis.manager.label.entity.engine.UserCreatorLabel;
+import org.apache.linkis.manager.label.entity.node.AliasServiceInstanceLabel;
+import org.apache.linkis.manager.label.score.LabelScoreServiceInstance;
+import org.apache.linkis.manager.persistence.LabelManagerPersistence;
+
+import java.util.*;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+@ExtendWith(MockitoExtension.class)
+public class EngineConnLabelIndexTest {
+
+  private static final String EC_NAME = "linkis-cg-engineconn";
+
+  private final LabelBuilderFactory labelFactory =
+      LabelBuilderFactoryContext.getLabelBuilderFactory();
+
+  @Mock private LabelManagerPersistence labelManagerPersistence;
+
+  private EngineConnLabelIndex index;
+
+  private final Map<ServiceInstance, List<PersistenceLabel>> dbLabels = new HashMap<>();
+
+  @BeforeEach
+  void setUp() {
+    index = new EngineConnLabelIndex(true, 60 * 1000L, labelManagerPersistence);
+    lenient()
+        .when(labelManagerPersistence.getLabelByServiceInstance(any()))
+        .thenAnswer(invocation -> dbLabels.get(invocation.<ServiceInstance>getArgument(0)));
+  }
+
+  @Test
+  void testLookupIndexedOnCreation() {
+    ServiceInstance hadoopSpark = engineConn("ec-1:1", "hadoop", "spark");
+    ServiceInstance hadoopHive = engineConn("ec-2:1", "hadoop", "hive");
+    ServiceInstance userSpark = engineConn("ec-3:1", "user", "spark");
+    Assertions.assertNull(index.lookup(requestLabels("hadoop", "spark")));
+
+    index.onEngineConnCreated(hadoopSpark);
+    index.onEngineConnCreated(hadoopHive);
+    index.onEngineConnCreated(userSpark);
+    index.onStatusChanged(hadoopSpark, NodeStatus.Unlock);
+    index.onStatusChanged(hadoopSpark, NodeStatus.Busy);
+    // the labels of an EC are loaded only when it is created
+    verify(labelManagerPersistence, times(1)).getLabelByServiceInstance(hadoopSpark);
+    Assertions.assertEquals(3, index.getIndexedNum());
+
+    Map<ScoreServiceInstance, List<Label<?>>> matched =
+        index.lookup(requestLabels("hadoop", "spark"));
+    Assertions.assertNotNull(matched);
+    Assertions.assertEquals(Collections.singleton(hadoopSpark), instancesOf(matched));
+    Assertions.assertEquals(3, matched.values().iterator().next().size());
+    Assertions.assertNull(index.lookup(requestLabels("other", "spark")));
+    Assertions.assertEquals(1, index.getHitNum());
+    Assertions.assertEquals(2, index.getMissNum());
+  }
+
+  @Test
+  void testHeartbeatsDoNotReadDB() {
+    ServiceInstance instance = engineConn("ec-1:1", "hadoop", "spark");
+    index.onStatusChanged(instance, NodeStatus.Unlock);
+    index.onStatusChanged(instance, NodeStatus.Busy);
+    verify(labelManagerPersistence, never()).getLabelByServiceInstance(any());
+    Assertions.assertEquals(0, index.getIndexedNum());
+    Assertions.assertNull(index.lookup(requestLabels("hadoop", "spark")));
+  }
+
+  @Test
+  void testCompletedAndChangedEngineConnsAreDropped() {
+    ServiceInstance first = engineConn("ec-1:1", "hadoop", "spark");
+    ServiceInstance second = engineConn("ec-2:1", "hadoop", "spark");
+    index.onEngineConnCreated(first);
+    index.onEngineConnCreated(second);
+    Assertions.assertEquals(2, index.lookup(requestLabels("hadoop", "spark")).size());
+
+    index.onStatusChanged(first, NodeStatus.ShuttingDown);
+    Assertions.assertEquals(1, index.lookup(requestLabels("hadoop", "spark")).size());
+    // a completed EC is not indexed again by a later heartbeat
+    index.onStatusChanged(first, NodeStatus.Unlock);
+    Assertions.assertEquals(1, index.lookup(requestLabels("hadoop", "spark")).size());
+
+    index.invalidate(second);
+    Assertions.assertNull(index.lookup(requestLabels("hadoop", "spark")));
+    Assertions.assertEquals(1, index.getIndexedNum());
+  }
+
+  @Test
+  void testFilterEngineConnsFromDB() {
+    ServiceInstance running = engineConn("ec-1:1", "hadoop", "spark");
+    ServiceInstance completed = engineConn("ec-2:1", "hadoop", "spark");
+    index.onStatusChanged(completed, NodeStatus.Failed);
+    Assertions.assertNull(index.lookup(requestLabels("hadoop", "spark")));
+
+    // the completed EC is dropped from the DB result and the rest is indexed
+    Map<ScoreServiceInstance, List<Label<?>>> filtered = index.filter(fromDB(running, completed));
+    Assertions.assertEquals(Collections.singleton(running), instancesOf(filtered));
+    Assertions.assertEquals(1, index.getMissNum());
+
+    // so the next lookup is answered by the index
+    Map<ScoreServiceInstance, List<Label<?>>> matched =
+        index.lookup(requestLabels("hadoop", "spark"));
+    Assertions.assertEquals(Collections.singleton(running), instancesOf(matched));
+    Assertions.assertEquals(1, index.getHitNum());
+    Assertions.assertEquals(0.5, index.getHitRatio(), 1e-6);
+  }
+
+  @Test
+  void testRemoveExpiredEngineConns() throws InterruptedException {
+    index = new EngineConnLabelIndex(true, 10L, labelManagerPersistence);
+    ServiceInstance running = engineConn("ec-1:1", "hadoop", "spark");
+    ServiceInstance completed = engineConn("ec-2:1", "hadoop", "spark");
+    index.onEngineConnCreated(running);
+    index.onStatusChanged(completed, NodeStatus.Success);
+    Assertions.assertEquals(2, index.getIndexedNum());
+
+    Thread.sleep(50);
+    index.removeExpired();
+    Assertions.assertEquals(0, index.getIndexedNum());
+    Assertions.assertNull(index.lookup(requestLabels("hadoop", "spark")));
+  }
+
+  @Test
+  void testIndexEngineConnsFromDB() {
+    ServiceInstance instance = engineConn("ec-1:1", "hadoop", "spark");
+    ServiceInstance manager = ServiceInstance.apply("linkis-cg-engineconnmanager", "ecm-1:1");
+    Map<ScoreServiceInstance, List<Label<?>>> fromDB = new HashMap<>();
+    fromDB.put(new LabelScoreServiceInstance(instance), new ArrayList<>(dbLabels.get(instance)));
+    fromDB.put(new LabelScoreServiceInstance(manager), new ArrayList<>(dbLabels.get(instance)));
+    index.index(fromDB);
+    Assertions.assertEquals(1, index.getIndexedNum());
+
+    // the core labels of the request and the EC must be the same
+    List<Label<?>> labels = requestLabels("hadoop", "spark");
+    Assertions.assertEquals(1, index.lookup(labels).size());
+    labels.remove(labels.size() - 1);
+    Assertions.assertNull(index.lookup(labels));
+
+    index.onStatusChanged(instance, NodeStatus.Idle);
+    verify(labelManagerPersistence, never()).getLabelByServiceInstance(instance);
+  }
+
+  private Map<ScoreServiceInstance, List<Label<?>>> fromDB(ServiceInstance... instances) {
+    Map<ScoreServiceInstance, List<Label<?>>> fromDB = new HashMap<>();
+    for (ServiceInstance instance : instances) {
+      fromDB.put(new LabelScoreServiceInstance(instance), new ArrayList<>(dbLabels.get(instance)));
+    }
+    return fromDB;
+  }
+
+  private Set<ServiceInstance> instancesOf(Map<ScoreServiceInstance, List<Label<?>>> instances) {
+    return instances.keySet().stream()
+        .map(ScoreServiceInstance::getServiceInstance)
+        .collect(Collectors.toSet());
+  }
+
+  private ServiceInstance engineConn(String instance, String user, String engineType) {
+    ServiceInstance serviceInstance = ServiceInstance.apply(EC_NAME, instance);
+    dbLabels.put(
+        serviceInstance,
+        requestLabels(user, engineType).stream()
+            .map(LabelManagerUtils::convertPersistenceLabel)
+            .collect(Collectors.toList()));
+    return serviceInstance;
+  }
+
+  private List<Label<?>> requestLabels(String user, String engineType) {
+    UserCreatorLabel userCreatorLabel = labelFactory.createLabel(UserCreatorLabel.class);
+    userCreatorLabel.setUser(user);
+    userCreatorLabel.setCreator("IDE");
+    EngineTypeLabel engineTypeLabel = labelFactory.createLabel(EngineTypeLabel.class);
+    engineTypeLabel.setEngineType(engineType);
+    engineTypeLabel.setVersion("1.0");
+    AliasServiceInstanceLabel aliasLabel =
+        labelFactory.createLabel(AliasServiceInstanceLabel.class);
+    aliasLabel.setAlias(EC_NAME);
+    List<Label<?>> labels = new ArrayList<>();
+    labels.add(userCreatorLabel);
+    labels.add(aliasLabel);
+    labels.add(engineTypeLabel);
+    return labels;
+  }
+}
@@ -0,0 +1,140 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.linkis.manager.am.service.monitor;
+
+import org.apache.linkis.common.ServiceInstance;
+import org.apache.linkis.governance.common.conf.GovernanceCommonConf;
+import org.apache.linkis.manager.am.service.em.EMUnregisterService;
+import org.apache.linkis.manager.am.service.engine.EngineStopService;
+import org.apache.linkis.manager.common.entity.enumeration.NodeStatus;
+import org.apache.linkis.manager.common.entity.metrics.NodeMetrics;
+import org.apache.linkis.manager.common.entity.node.AMEMNode;
+import org.apache.linkis.manager.common.entity.node.AMEngineNode;
+import org.apache.linkis.manager.common.entity.node.Node;
+import org.apache.linkis.manager.common.entity.persistence.PersistenceNodeMetrics;
+import org.apache.linkis.manager.persistence.NodeManagerPersistence;
+import org.apache.linkis.manager.persistence.NodeMetricManagerPersistence;
+import org.apache.linkis.rpc.Sender;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockedStatic;
+import org.mockito.Mockito;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+public class NodeHeartbeatMonitorTest {
+
+  private static final int EC_NUM = 9800;
+
+  private static final int ECM_NUM = 200;
+
+  @Mock private NodeManagerPersistence nodeManagerPersistence;
+
+  @Mock private NodeMetricManagerPersistence nodeMetricManagerPersistence;
+
+  @Mock private EngineStopService engineStopService;
+
+  @Mock private EMUnregisterService emUnregisterService;
+
+  @InjectMocks private NodeHeartbeatMonitor nodeHeartbeatMonitor;
+
+  /**
+   * Every 100 EngineConns there are one heartbeat overdue, one completed and one never reported
+   * and missing from the Service Registry, the others and all ECMs are healthy.
+   */
+  @Test
+  public void testTickWith10kNodes() {
+    long now = System.currentTimeMillis();
+    Date startTime = new Date(now - TimeUnit.DAYS.toMillis(1));
+    String ecName = GovernanceCommonConf.ENGINE_CONN_SPRING_NAME().getValue();
+    String ecmName = GovernanceCommonConf.ENGINE_CONN_MANAGER_SPRING_NAME().getValue();
+    List<Node> nodes = new ArrayList<>(EC_NUM + ECM_NUM);
+    List<NodeMetrics> metricList = new ArrayList<>(EC_NUM + ECM_NUM);
+    int unhealthyNum = 0;
+    for (int i = 0; i < EC_NUM; i++) {
+      AMEngineNode node = new AMEngineNode();
+      node.setServiceInstance(ServiceInstance.apply(ecName, "ec-" + i + ":9101"));
+      node.setStartTime(startTime);
+      nodes.add(node);
+      switch (i % 100) {
+        case 0:
+          metricList.add(metrics(node, NodeStatus.Running, startTime));
+          unhealthyNum++;
+          break;
+        case 1:
+          metricList.add(metrics(node, NodeStatus.Success, new Date(now)));
+          unhealthyNum++;
+          break;
+        case 2:
+          unhealthyNum++;
+          break;
+        default:
+          metricList.add(metrics(node, NodeStatus.Running, new Date(now)));
+      }
+    }
+    for (int i = 0; i < ECM_NUM; i++) {
+      AMEMNode node = new AMEMNode();
+      node.setServiceInstance(ServiceInstance.apply(ecmName, "ecm-" + i + ":9102"));
+      node.setStartTime(startTime);
+      nodes.add(node);
+      metricList.add(metrics(node, NodeStatus.Running, new Date(now)));
+    }
+    when(nodeManagerPersistence.getAllNodes()).thenReturn(nodes);
+    when(nodeMetricManagerPersistence.getNodeMetrics(nodes)).thenReturn(metricList);
+
+    try (MockedStatic<Sender> sender = Mockito.mockStatic(Sender.class)) {
+      sender
+          .when(() -> Sender.getInstances(anyString()))
+          .thenReturn(new ServiceInstance[] {ServiceInstance.apply(ecName, "ec-3:9101")});
+
+      nodeHeartbeatMonitor.run();
+      NodeHeartbeatTickMetrics tickMetrics = nodeHeartbeatMonitor.getTickMetrics();
+      Assertions.assertEquals(1, tickMetrics.getTickCount());
+      Assertions.assertEquals(EC_NUM + ECM_NUM, tickMetrics.getLastNodeNum());
+      Assertions.assertEquals(EC_NUM + ECM_NUM, tickMetrics.getLastCheckedNodeNum());
+      Assertions.assertEquals(unhealthyNum, tickMetrics.getLastUnhealthyNodeNum());
+
+      // nothing reported in between, only the unhealthy nodes not removed yet are checked again
+      nodeHeartbeatMonitor.run();
+      Assertions.assertEquals(2, tickMetrics.getTickCount());
+      Assertions.assertEquals(unhealthyNum, tickMetrics.getLastCheckedNodeNum());
+      Assertions.assertEquals(unhealthyNum, tickMetrics.getLastUnhealthyNodeNum());
+    }
+  }
+
+  private static NodeMetrics metrics(Node node, NodeStatus status, Date updateTime) {
+    PersistenceNodeMetrics metrics = new PersistenceNodeMetrics();
+    metrics.setServiceInstance(node.getServiceInstance());
+    metrics.setInstance(node.getServiceInstance().getInstance());
+    metrics.setStatus(status.ordinal());
+    metrics.setUpdateTime(updateTime);
+    return metrics;
+  }
+}
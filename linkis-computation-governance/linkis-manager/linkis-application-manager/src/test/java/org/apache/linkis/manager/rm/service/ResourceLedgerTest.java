@@ -0,0 +1,240 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.linkis.manager.rm.service;
+
+import org.apache.linkis.manager.common.entity.persistence.PersistenceResource;
+import org.apache.linkis.manager.common.entity.resource.CommonNodeResource;
+import org.apache.linkis.manager.common.entity.resource.LoadInstanceResource;
+import org.apache.linkis.manager.common.entity.resource.NodeResource;
+import org.apache.linkis.manager.common.entity.resource.Resource;
+import org.apache.linkis.manager.common.entity.resource.ResourceType;
+import org.apache.linkis.manager.common.utils.ResourceUtils;
+import org.apache.linkis.manager.label.builder.factory.LabelBuilderFactoryContext;
+import org.apache.linkis.manager.label.entity.em.EMInstanceLabel;
+import org.apache.linkis.manager.label.service.ResourceLabelService;
+import org.apache.linkis.manager.persistence.ResourceManagerPersistence;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+@ExtendWith(MockitoExtension.class)
+public class ResourceLedgerTest {
+
+  private static final int ECM_NUM = 8;
+
+  private static final int THREAD_NUM = 32;
+
+  private static final int REQUEST_PER_THREAD = 200;
+
+  @Mock private ResourceLabelService resourceLabelService;
+
+  @Mock private ResourceManagerPersistence resourceManagerPersistence;
+
+  private ResourceLedger resourceLedger;
+
+  private final List<EMInstanceLabel> labels = new ArrayList<>();
+
+  /** the resource table, by resource id */
+  private final Map<Integer, PersistenceResource> rows = new ConcurrentHashMap<>();
+
+  private final AtomicInteger labelQueries = new AtomicInteger();
+
+  @BeforeEach
+  void setUp() {
+    resourceLedger = new ResourceLedger(true, resourceLabelService, resourceManagerPersistence);
+    Map<String, Integer> resourceIds = new HashMap<>();
+    for (int i = 0; i < ECM_NUM; i++) {
+      EMInstanceLabel label =
+          LabelBuilderFactoryContext.getLabelBuilderFactory().createLabel(EMInstanceLabel.class);
+      label.setServiceName("linkis-cg-engineconnmanager");
+      label.setInstance("ecm-" + i + ":9102");
+      labels.add(label);
+      resourceIds.put(label.getStringValue(), i + 1);
+      rows.put(i + 1, newEcmResource(i + 1));
+    }
+    lenient()
+        .when(resourceLabelService.getResourceByLabel(any()))
+        .thenAnswer(
+            invocation -> {
+              labelQueries.incrementAndGet();
+              EMInstanceLabel label = invocation.getArgument(0);
+              return ResourceUtils.fromPersistenceResource(
+                  rows.get(resourceIds.get(label.getStringValue())));
+            });
+    lenient()
+        .when(resourceManagerPersistence.getNodeResourceById(any()))
+        .thenAnswer(invocation -> rows.get(invocation.<Integer>getArgument(0)));
+    lenient()
+        .when(resourceManagerPersistence.nodeResourceUpdateByResourceId(anyInt(), any()))
+        .thenAnswer(
+            invocation -> {
+              int id = invocation.getArgument(0);
+              PersistenceResource resource = invocation.getArgument(1);
+              resource.setId(id);
+              return rows.replace(id, resource) == null ? 0 : 1;
+            });
+  }
+
+  @Test
+  void testConcurrentRequestsUnderContention() throws Exception {
+    Resource requested = new LoadInstanceResource(1024, 1, 1);
+    ExecutorService executor = Executors.newFixedThreadPool(THREAD_NUM);
+    CountDownLatch start = new CountDownLatch(1);
+    List<Future<?>> futures = new ArrayList<>();
+    for (int t = 0; t < THREAD_NUM; t++) {
+      int seed = t;
+      futures.add(
+          executor.submit(
+              () -> {
+                start.await();
+                for (int i = 0; i < REQUEST_PER_THREAD; i++) {
+                  EMInstanceLabel label = labels.get((seed + i) % ECM_NUM);
+                  Assertions.assertTrue(resourceLedger.tryLock(label.getStringValue(), -1));
+                  try {
+                    NodeResource resource = resourceLedger.getResource(label);
+                    resource.setLockedResource(resource.getLockedResource().add(requested));
+                    resource.setLeftResource(resource.getLeftResource().minus(requested));
+                    Assertions.assertTrue(resourceLedger.putResource(label, resource, "test"));
+                  } finally {
+                    resourceLedger.unLock(label.getStringValue());
+                  }
+                }
+                return null;
+              }));
+    }
+    start.countDown();
+    for (Future<?> future : futures) {
+      future.get(60, TimeUnit.SECONDS);
+    }
+    executor.shutdown();
+    int requestNum = THREAD_NUM * REQUEST_PER_THREAD;
+    // the local locks are dropped once released
+    Assertions.assertEquals(0, resourceLedger.getLockNum());
+    // the label tables are only queried once per label, every change is written by resource id
+    Assertions.assertEquals(ECM_NUM, labelQueries.get());
+    Assertions.assertEquals(ECM_NUM, resourceLedger.getResourceIdNum());
+    verify(resourceManagerPersistence, times(requestNum))
+        .nodeResourceUpdateByResourceId(anyInt(), any());
+
+    long expectedInstances = (long) requestNum / ECM_NUM;
+    for (PersistenceResource resource : rows.values()) {
+      LoadInstanceResource locked =
+          (LoadInstanceResource)
+              ResourceUtils.deserializeResource(
+                  resource.getLockedResource(), ResourceType.LoadInstance);
+      Assertions.assertEquals(expectedInstances, locked.getInstances());
+    }
+  }
+
+  @Test
+  void testLocksAreDroppedWhenReleased() throws Exception {
+    String lockObject = labels.get(0).getStringValue();
+    Assertions.assertTrue(resourceLedger.tryLock(lockObject, -1));
+    // reentrant for the holder
+    Assertions.assertTrue(resourceLedger.tryLock(lockObject, 10));
+    resourceLedger.unLock(lockObject);
+    Assertions.assertEquals(1, resourceLedger.getLockNum());
+
+    ExecutorService executor = Executors.newSingleThreadExecutor();
+    Assertions.assertFalse(
+        executor.submit(() -> resourceLedger.tryLock(lockObject, 10)).get(10, TimeUnit.SECONDS));
+    // a thread not holding the lock cannot release it
+    executor.submit(() -> resourceLedger.unLock(lockObject)).get(10, TimeUnit.SECONDS);
+    executor.shutdown();
+    Assertions.assertEquals(1, resourceLedger.getLockNum());
+
+    resourceLedger.unLock(lockObject);
+    Assertions.assertEquals(0, resourceLedger.getLockNum());
+  }
+
+  @Test
+  void testChangesOfOtherManagersAreRead() {
+    EMInstanceLabel label = labels.get(0);
+    resourceLedger.getResource(label);
+    // another manager changes the row
+    NodeResource changed = ResourceUtils.fromPersistenceResource(rows.get(1));
+    changed.setUsedResource(new LoadInstanceResource(2048, 2, 2));
+    rows.put(1, ResourceUtils.toPersistenceResource(changed));
+
+    NodeResource resource = resourceLedger.getResource(label);
+    Assertions.assertEquals(2, ((LoadInstanceResource) resource.getUsedResource()).getInstances());
+    Assertions.assertEquals(1, labelQueries.get());
+  }
+
+  @Test
+  void testRemovedResourceIsQueriedByLabel() {
+    EMInstanceLabel label = labels.get(0);
+    NodeResource resource = resourceLedger.getResource(label);
+    rows.remove(1);
+
+    // the caller persists it through the label tables
+    Assertions.assertFalse(resourceLedger.putResource(label, resource, "test"));
+    Assertions.assertEquals(0, resourceLedger.getResourceIdNum());
+    Assertions.assertNull(resourceLedger.getResource(label));
+    Assertions.assertEquals(2, labelQueries.get());
+  }
+
+  @Test
+  void testInvalidateQueriesByLabelAgain() {
+    EMInstanceLabel label = labels.get(0);
+    NodeResource resource = resourceLedger.getResource(label);
+    resource.setUsedResource(new LoadInstanceResource(2048, 2, 2));
+    Assertions.assertTrue(resourceLedger.putResource(label, resource, "test"));
+    Assertions.assertEquals(1, labelQueries.get());
+
+    resourceLedger.invalidate(label);
+    Assertions.assertFalse(resourceLedger.putResource(label, resource, "test"));
+    resourceLedger.getResource(label);
+    Assertions.assertEquals(2, labelQueries.get());
+  }
+
+  private static PersistenceResource newEcmResource(int id) {
+    CommonNodeResource resource = new CommonNodeResource();
+    resource.setResourceType(ResourceType.LoadInstance);
+    resource.setMaxResource(new LoadInstanceResource(Long.MAX_VALUE / 2, 1000000, 1000000));
+    resource.setMinResource(Resource.initResource(ResourceType.LoadInstance));
+    resource.setUsedResource(Resource.initResource(ResourceType.LoadInstance));
+    resource.setLockedResource(Resource.initResource(ResourceType.LoadInstance));
+    resource.setLeftResource(resource.getMaxResource());
+    PersistenceResource persistenceResource = ResourceUtils.toPersistenceResource(resource);
+    persistenceResource.setId(id);
+    return persistenceResource;
+  }
+}
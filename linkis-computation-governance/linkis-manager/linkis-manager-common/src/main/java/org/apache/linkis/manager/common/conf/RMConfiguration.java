@@ -44,6 +44,9 @@ public class RMConfiguration {
   public static final CommonVars<TimeType> LOCK_RELEASE_CHECK_INTERVAL =
       CommonVars.apply("wds.linkis.manager.rm.lock.release.check.interval", new TimeType("5m"));
 
+  public static final CommonVars<Boolean> RESOURCE_LEDGER_ENABLED =
+      CommonVars.apply("linkis.manager.rm.resource.ledger.enabled", false);
+
   // Resource parameter(资源参数)
   public static final CommonVars<Integer> USER_AVAILABLE_CPU =
       CommonVars.apply("wds.linkis.rm.client.core.max", 10);
@@ -32,7 +32,7 @@ public interface ResourceManagerMapper {
       @Param("ticketId") String ticketId,
       @Param("persistenceResource") PersistenceResource persistenceResource);
 
-  void nodeResourceUpdateByResourceId(
+  int nodeResourceUpdateByResourceId(
       @Param("resourceId") int resourceId,
       @Param("persistenceResource") PersistenceResource persistenceResource);
 
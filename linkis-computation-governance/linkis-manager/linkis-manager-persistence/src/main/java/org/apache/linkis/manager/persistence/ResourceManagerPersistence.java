@@ -124,6 +124,15 @@ public interface ResourceManagerPersistence {
    */
   void nodeResourceUpdate(String ticketId, PersistenceResource persistenceResource);
 
+  /**
+   * 根据资源id更新资源，已知资源id时用这个，避免再通过标签查询资源
+   *
+   * @param resourceId
+   * @param persistenceResource
+   * @return 更新的行数，资源已被删除时为0
+   */
+  int nodeResourceUpdateByResourceId(int resourceId, PersistenceResource persistenceResource);
+
   List<PersistenceLabel> getLabelsByTicketId(String ticketId);
 
   void lockResource(List<Integer> labelIds, PersistenceResource persistenceResource);
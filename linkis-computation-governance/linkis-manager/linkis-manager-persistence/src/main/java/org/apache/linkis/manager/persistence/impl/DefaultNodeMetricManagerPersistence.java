@@ -32,7 +32,9 @@ import org.apache.linkis.manager.persistence.NodeMetricManagerPersistence;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Date;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -140,9 +142,11 @@ public class DefaultNodeMetricManagerPersistence implements NodeMetricManagerPer
     if (nodes == null || nodes.isEmpty()) return Collections.emptyList();
     List<NodeMetrics> nodeMetricsList = new ArrayList<>();
     List<String> instances = new ArrayList<>();
+    Map<String, List<Node>> instanceNodes = new HashMap<>(nodes.size() * 2);
     for (Node node : nodes) {
       String instance = node.getServiceInstance().getInstance();
       instances.add(instance);
+      instanceNodes.computeIfAbsent(instance, key -> new ArrayList<>(1)).add(node);
     }
 
     // 根据  id 查 metric 信息
@@ -150,11 +154,11 @@ public class DefaultNodeMetricManagerPersistence implements NodeMetricManagerPer
         nodeMetricManagerMapper.getNodeMetricsByInstances(instances);
 
     for (PersistenceNodeMetrics persistenceNodeMetric : persistenceNodeMetricsList) {
-      for (Node node : nodes) {
-        if (persistenceNodeMetric.getInstance().equals(node.getServiceInstance().getInstance())) {
-          persistenceNodeMetric.setServiceInstance(node.getServiceInstance());
-          nodeMetricsList.add(persistenceNodeMetric);
-        }
+      List<Node> matchedNodes = instanceNodes.get(persistenceNodeMetric.getInstance());
+      if (matchedNodes == null) continue;
+      for (Node node : matchedNodes) {
+        persistenceNodeMetric.setServiceInstance(node.getServiceInstance());
+        nodeMetricsList.add(persistenceNodeMetric);
       }
     }
 
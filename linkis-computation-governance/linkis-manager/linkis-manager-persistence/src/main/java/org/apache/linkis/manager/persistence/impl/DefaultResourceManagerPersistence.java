@@ -169,6 +169,12 @@ public class DefaultResourceManagerPersistence implements ResourceManagerPersist
     resourceManagerMapper.nodeResourceUpdate(ticketId, persistenceResource);
   }
 
+  @Override
+  public int nodeResourceUpdateByResourceId(
+      int resourceId, PersistenceResource persistenceResource) {
+    return resourceManagerMapper.nodeResourceUpdateByResourceId(resourceId, persistenceResource);
+  }
+
   @Override
   public List<PersistenceLabel> getLabelsByTicketId(String ticketId) {
     List<PersistenceLabel> persistenceLabelList =
@@ -135,7 +135,9 @@ DROP  TABLE IF EXISTS `linkis_ps_common_lock`;
 CREATE TABLE `linkis_ps_common_lock` (
   `id` int(11) NOT NULL AUTO_INCREMENT,
   `lock_object` varchar(255) COLLATE utf8_bin DEFAULT NULL,
+  `locker` varchar(255) COLLATE utf8_bin DEFAULT NULL COMMENT 'holder of the lock',
   `time_out` longtext COLLATE utf8_bin,
+  `expire_time` datetime DEFAULT NULL COMMENT 'end of the lease of the holder',
   `update_time` datetime DEFAULT CURRENT_TIMESTAMP,
   `create_time` datetime DEFAULT CURRENT_TIMESTAMP,
   PRIMARY KEY (`id`),
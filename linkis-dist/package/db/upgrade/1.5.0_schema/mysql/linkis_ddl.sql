@@ -15,4 +15,6 @@
  * limitations under the License.
  */
 
-ALTER TABLE `linkis_cg_manager_label` MODIFY COLUMN label_key varchar(50);
\ No newline at end of file
+ALTER TABLE `linkis_cg_manager_label` MODIFY COLUMN label_key varchar(50);
+ALTER TABLE `linkis_ps_common_lock` ADD COLUMN `locker` varchar(255) COLLATE utf8_bin DEFAULT NULL COMMENT 'holder of the lock' AFTER `lock_object`;
+ALTER TABLE `linkis_ps_common_lock` ADD COLUMN `expire_time` datetime DEFAULT NULL COMMENT 'end of the lease of the holder' AFTER `time_out`;
@@ -43,6 +43,16 @@ public class ElasticSearchConfiguration {
       CommonVars.apply("linkis.es.sql.format", "{\"query\": \"%s\"}");
   public static final String ES_HTTP_HEADER_PREFIX = "linkis.es.headers.";
 
+  // paged results
+  public static final CommonVars<Boolean> ES_SCROLL_ENABLED =
+      CommonVars.apply("linkis.es.scroll.enabled", true);
+  public static final CommonVars<String> ES_SCROLL_KEEPALIVE =
+      CommonVars.apply("linkis.es.scroll.keepalive", "1m");
+  public static final CommonVars<Integer> ES_SCROLL_PAGE_SIZE =
+      CommonVars.apply("linkis.es.scroll.page.size", 1000);
+  public static final CommonVars<Long> ES_MAX_RESULT_ROWS =
+      CommonVars.apply("linkis.es.max.result.rows", 1000000L);
+
   // entrance resource
   public static final CommonVars<Integer> ENTRANCE_MAX_JOB_INSTANCE =
       CommonVars.apply("linkis.es.max.job.instance", 100);
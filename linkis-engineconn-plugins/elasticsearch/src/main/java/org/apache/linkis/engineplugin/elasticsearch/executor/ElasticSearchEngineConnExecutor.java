@@ -125,11 +125,17 @@ public class ElasticSearchEngineConnExecutor extends ConcurrentComputationExecut
   public ExecuteResponse executeLine(EngineExecutionContext engineExecutorContext, String code) {
     String taskId = engineExecutorContext.getJobId().get();
     ElasticSearchExecutor elasticSearchExecutor = elasticSearchExecutorCache.getIfPresent(taskId);
-    ElasticSearchResponse elasticSearchResponse = elasticSearchExecutor.executeLine(code);
+    ElasticSearchResponse elasticSearchResponse =
+        elasticSearchExecutor.executeLine(
+            code, () -> engineExecutorContext.createResultSetWriter(ResultSetFactory.TABLE_TYPE));
 
     try {
 
-      if (elasticSearchResponse instanceof ElasticSearchTableResponse) {
+      if (elasticSearchResponse instanceof ElasticSearchStreamTableResponse) {
+        ElasticSearchStreamTableResponse streamResponse =
+            (ElasticSearchStreamTableResponse) elasticSearchResponse;
+        return new AliasOutputExecuteResponse(null, streamResponse.output());
+      } else if (elasticSearchResponse instanceof ElasticSearchTableResponse) {
         ElasticSearchTableResponse tableResponse =
             (ElasticSearchTableResponse) elasticSearchResponse;
         TableMetaData metaData = new TableMetaData(tableResponse.columns());
@@ -17,11 +17,24 @@
 
 package org.apache.linkis.engineplugin.elasticsearch.executor.client;
 
+import org.apache.linkis.common.io.MetaData;
+import org.apache.linkis.common.io.Record;
+import org.apache.linkis.common.io.resultset.ResultSetWriter;
+
+import java.util.function.Supplier;
+
 public interface ElasticSearchExecutor {
 
   void open() throws Exception;
 
   ElasticSearchResponse executeLine(String code);
 
+  /**
+   * Table results are written page by page into the writer given by writerSupplier, which is only
+   * asked for a writer once the response turns out to be a table.
+   */
+  ElasticSearchResponse executeLine(
+      String code, Supplier<ResultSetWriter<? extends MetaData, ? extends Record>> writerSupplier);
+
   void close();
 }
@@ -48,14 +48,24 @@ public class EsClientImpl extends EsClient {
   @Override
   public Cancellable execute(
       String code, Map<String, String> options, ResponseListener responseListener) {
-    Request request = createRequest(code, options);
-    return client.performRequestAsync(request, responseListener);
-  }
-
-  private Request createRequest(String code, Map<String, String> options) {
     String endpoint = ElasticSearchConfiguration.ES_HTTP_ENDPOINT.getValue(options);
     String method = ElasticSearchConfiguration.ES_HTTP_METHOD.getValue(options);
+    return execute(method, endpoint, code, options, responseListener);
+  }
+
+  @Override
+  public Cancellable execute(
+      String method,
+      String endpoint,
+      String code,
+      Map<String, String> options,
+      ResponseListener responseListener) {
+    Request request = createRequest(method, endpoint, code, options);
+    return client.performRequestAsync(request, responseListener);
+  }
 
+  private Request createRequest(
+      String method, String endpoint, String code, Map<String, String> options) {
     Request request = new Request(method, endpoint);
     request.setOptions(getRequestOptions(options));
     request.setJsonEntity(code);
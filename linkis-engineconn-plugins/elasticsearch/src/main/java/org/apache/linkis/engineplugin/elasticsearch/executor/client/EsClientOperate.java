@@ -26,5 +26,12 @@ public interface EsClientOperate {
 
   Cancellable execute(String code, Map<String, String> options, ResponseListener responseListener);
 
+  Cancellable execute(
+      String method,
+      String endpoint,
+      String code,
+      Map<String, String> options,
+      ResponseListener responseListener);
+
   void close();
 }
@@ -17,17 +17,37 @@
 
 package org.apache.linkis.engineplugin.elasticsearch.executor.client.impl;
 
+import org.apache.linkis.common.io.MetaData;
+import org.apache.linkis.common.io.Record;
+import org.apache.linkis.common.io.resultset.ResultSetWriter;
 import org.apache.linkis.engineplugin.elasticsearch.conf.ElasticSearchConfiguration;
+import org.apache.linkis.engineplugin.elasticsearch.errorcode.EasticsearchErrorCodeSummary;
+import org.apache.linkis.engineplugin.elasticsearch.exception.EsConvertResponseException;
 import org.apache.linkis.engineplugin.elasticsearch.executor.client.*;
 import org.apache.linkis.protocol.constants.TaskConstant;
+import org.apache.linkis.storage.domain.Column;
+import org.apache.linkis.storage.resultset.table.TableMetaData;
+import org.apache.linkis.storage.resultset.table.TableRecord;
 import org.apache.linkis.storage.utils.StorageUtils;
 
+import org.apache.commons.io.IOUtils;
 import org.apache.commons.lang.StringUtils;
+import org.apache.http.entity.ContentType;
+import org.apache.http.util.EntityUtils;
 
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
 import java.util.Locale;
 import java.util.Map;
 import java.util.concurrent.CountDownLatch;
+import java.util.function.Supplier;
 
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
 import org.elasticsearch.client.Cancellable;
 import org.elasticsearch.client.Response;
 import org.elasticsearch.client.ResponseListener;
@@ -38,10 +58,14 @@ public class ElasticSearchExecutorImpl implements ElasticSearchExecutor {
 
   private static final Logger logger = LoggerFactory.getLogger(ElasticSearchExecutorImpl.class);
 
+  private static final String SCROLL_ENDPOINT = "/_search/scroll";
+
   private EsClient client;
-  private Cancellable cancelable;
+  private volatile Cancellable cancelable;
+  private volatile boolean closed = false;
   private String user;
   private String runType;
+  private boolean sqlRunType = false;
   private Map<String, String> properties;
 
   public ElasticSearchExecutorImpl(String runType, Map<String, String> properties) {
@@ -61,6 +85,7 @@ public class ElasticSearchExecutorImpl implements ElasticSearchExecutor {
         properties.putIfAbsent(
             ElasticSearchConfiguration.ES_HTTP_ENDPOINT.key(),
             ElasticSearchConfiguration.ES_HTTP_SQL_ENDPOINT.getValue(properties));
+        sqlRunType = true;
         break;
       default:
         break;
@@ -103,6 +128,259 @@ public class ElasticSearchExecutorImpl implements ElasticSearchExecutor {
     return executeResponse[0];
   }
 
+  @Override
+  public ElasticSearchResponse executeLine(
+      String code, Supplier<ResultSetWriter<? extends MetaData, ? extends Record>> writerSupplier) {
+    String realCode = code.trim();
+    logger.info("es client begins to run {} code:\n {}", runType, realCode);
+    String method = ElasticSearchConfiguration.ES_HTTP_METHOD.getValue(properties);
+    String endpoint = ElasticSearchConfiguration.ES_HTTP_ENDPOINT.getValue(properties);
+    boolean paged = ElasticSearchConfiguration.ES_SCROLL_ENABLED.getValue(properties);
+    long limit = ElasticSearchConfiguration.ES_MAX_RESULT_ROWS.getValue(properties);
+
+    // a search asking for more hits than one page is turned into a scroll of pages
+    String body = realCode;
+    ObjectNode scrollBody = paged ? getScrollBody(realCode, endpoint) : null;
+    if (scrollBody != null) {
+      limit = Math.min(limit, scrollBody.get("size").asLong());
+      scrollBody.put("size", ElasticSearchConfiguration.ES_SCROLL_PAGE_SIZE.getValue(properties));
+      body = scrollBody.toString();
+      endpoint =
+          endpoint
+              + (endpoint.contains("?") ? "&" : "?")
+              + "scroll="
+              + ElasticSearchConfiguration.ES_SCROLL_KEEPALIVE.getValue(properties);
+    }
+
+    StreamingResponseParser parser = new StreamingResponseParser();
+    PagedTableWriter tableWriter = new PagedTableWriter(parser, writerSupplier, limit);
+    String scrollId = null;
+    String cursor = null;
+    try {
+      Response response = performRequest(method, endpoint, body);
+      byte[] content = readContent(response);
+      ContentType contentType = getContentType(response);
+      String mimeType = contentType.getMimeType().toLowerCase(Locale.getDefault());
+      StreamingResponseParser.Page page;
+      try {
+        page = parser.parse(content, mimeType, tableWriter);
+      } catch (IOException e) {
+        logger.warn("deserialize response content error", e);
+        page = null;
+      }
+      if (page != null) {
+        scrollId = page.getScrollId();
+        cursor = page.getCursor();
+      }
+      if (page == null || !page.isTable()) {
+        Charset charset =
+            contentType.getCharset() == null ? StandardCharsets.UTF_8 : contentType.getCharset();
+        return new ElasticSearchJsonResponse(new String(content, charset));
+      }
+      tableWriter.open();
+
+      // the next page is only requested once the rows of this one are in the writer
+      while (!closed && !tableWriter.isFull() && page.getRows() > 0) {
+        if (scrollBody != null && scrollId != null) {
+          ObjectNode scrollRequest = ResponseHandler$.MODULE$.jsonMapper().createObjectNode();
+          scrollRequest.put(
+              "scroll", ElasticSearchConfiguration.ES_SCROLL_KEEPALIVE.getValue(properties));
+          scrollRequest.put("scroll_id", scrollId);
+          response = performRequest("POST", SCROLL_ENDPOINT, scrollRequest.toString());
+        } else if (paged && sqlRunType && cursor != null) {
+          ObjectNode cursorRequest = ResponseHandler$.MODULE$.jsonMapper().createObjectNode();
+          cursorRequest.put("cursor", cursor);
+          response = performRequest("POST", endpoint, cursorRequest.toString());
+        } else {
+          break;
+        }
+        page = parser.parse(readContent(response), getMimeType(response), tableWriter);
+        if (page.getScrollId() != null) {
+          scrollId = page.getScrollId();
+        }
+        cursor = page.getCursor();
+      }
+      if (closed) {
+        return new ElasticSearchErrorResponse("EsEngineExecutor execute interrupted. ", null, null);
+      }
+      logger.info("es client fetched {} rows", tableWriter.getRows());
+      return new ElasticSearchStreamTableResponse(tableWriter.finish(), tableWriter.getRows());
+    } catch (Exception e) {
+      return new ElasticSearchErrorResponse("EsEngineExecutor execute fail. ", null, e);
+    } finally {
+      tableWriter.release();
+      if (scrollBody != null && scrollId != null) {
+        ObjectNode clearRequest = ResponseHandler$.MODULE$.jsonMapper().createObjectNode();
+        clearRequest.put("scroll_id", scrollId);
+        releaseQuietly("DELETE", SCROLL_ENDPOINT, clearRequest.toString());
+      }
+      if (sqlRunType && cursor != null) {
+        ObjectNode closeRequest = ResponseHandler$.MODULE$.jsonMapper().createObjectNode();
+        closeRequest.put("cursor", cursor);
+        releaseQuietly(
+            "POST",
+            StringUtils.substringBefore(endpoint, "?") + "/close",
+            closeRequest.toString());
+      }
+    }
+  }
+
+  private ObjectNode getScrollBody(String code, String endpoint) {
+    if (sqlRunType
+        || StringUtils.isBlank(code)
+        || endpoint.contains("scroll=")
+        || !StringUtils.substringBefore(endpoint, "?").endsWith("_search")) {
+      return null;
+    }
+    try {
+      JsonNode node = ResponseHandler$.MODULE$.jsonMapper().readTree(code);
+      // scroll does not support from and rejects empty pages
+      if (!(node instanceof ObjectNode)
+          || node.has("from")
+          || node.has("search_after")
+          || !node.path("size").isIntegralNumber()
+          || node.get("size").asLong()
+              <= ElasticSearchConfiguration.ES_SCROLL_PAGE_SIZE.getValue(properties)) {
+        return null;
+      }
+      return (ObjectNode) node;
+    } catch (IOException e) {
+      return null;
+    }
+  }
+
+  private Response performRequest(String method, String endpoint, String body) throws Exception {
+    CountDownLatch countDown = new CountDownLatch(1);
+    Response[] response = {null};
+    Exception[] failure = {null};
+    cancelable =
+        client.execute(
+            method,
+            endpoint,
+            body,
+            properties,
+            new ResponseListener() {
+              @Override
+              public void onSuccess(Response result) {
+                response[0] = result;
+                countDown.countDown();
+              }
+
+              @Override
+              public void onFailure(Exception exception) {
+                failure[0] = exception;
+                countDown.countDown();
+              }
+            });
+    countDown.await();
+    if (failure[0] != null) {
+      throw failure[0];
+    }
+    return response[0];
+  }
+
+  private void releaseQuietly(String method, String endpoint, String body) {
+    try {
+      performRequest(method, endpoint, body);
+    } catch (Exception e) {
+      logger.warn("es client failed to release {}", endpoint, e);
+    }
+  }
+
+  private static byte[] readContent(Response response) throws Exception {
+    int statusCode = response.getStatusLine().getStatusCode();
+    if (statusCode < 200 || statusCode >= 300) {
+      throw new EsConvertResponseException(
+          "EsEngineExecutor convert response fail. response code: " + statusCode);
+    }
+    byte[] content =
+        response.getEntity() == null ? null : EntityUtils.toByteArray(response.getEntity());
+    if (content == null || content.length == 0) {
+      throw new EsConvertResponseException(
+          EasticsearchErrorCodeSummary.RESPONSE_FAIL_IS_EMPTY.getErrorDesc());
+    }
+    return content;
+  }
+
+  private static ContentType getContentType(Response response) {
+    ContentType contentType = ContentType.get(response.getEntity());
+    return contentType == null ? ContentType.APPLICATION_JSON : contentType;
+  }
+
+  private static String getMimeType(Response response) {
+    return getContentType(response).getMimeType().toLowerCase(Locale.getDefault());
+  }
+
+  /**
+   * Rows of the first page are held until its columns are known, every later page goes straight
+   * to the writer with the same columns.
+   */
+  private static class PagedTableWriter implements StreamingResponseParser.RowConsumer {
+
+    private final StreamingResponseParser parser;
+    private final Supplier<ResultSetWriter<? extends MetaData, ? extends Record>> writerSupplier;
+    private final long limit;
+    private ResultSetWriter<? extends MetaData, ? extends Record> writer;
+    private List<Object[]> firstPage = new ArrayList<>();
+    private long rows = 0;
+
+    PagedTableWriter(
+        StreamingResponseParser parser,
+        Supplier<ResultSetWriter<? extends MetaData, ? extends Record>> writerSupplier,
+        long limit) {
+      this.parser = parser;
+      this.writerSupplier = writerSupplier;
+      this.limit = limit;
+    }
+
+    @Override
+    public boolean accept(Object[] row) throws IOException {
+      if (rows >= limit) {
+        return false;
+      }
+      rows++;
+      if (writer == null) {
+        firstPage.add(row);
+      } else {
+        writer.addRecord(new TableRecord(row));
+      }
+      return rows < limit;
+    }
+
+    void open() throws IOException {
+      Column[] columns = parser.getColumns();
+      parser.freezeColumns();
+      writer = writerSupplier.get();
+      writer.addMetaData(new TableMetaData(columns));
+      for (Object[] row : firstPage) {
+        Object[] values = row.length < columns.length ? Arrays.copyOf(row, columns.length) : row;
+        writer.addRecord(new TableRecord(values));
+      }
+      firstPage = null;
+    }
+
+    boolean isFull() {
+      return rows >= limit;
+    }
+
+    long getRows() {
+      return rows;
+    }
+
+    String finish() {
+      String output = writer.toString();
+      release();
+      return output;
+    }
+
+    void release() {
+      if (writer != null) {
+        IOUtils.closeQuietly(writer);
+        writer = null;
+      }
+    }
+  }
+
   // convert response to executeResponse
   private ElasticSearchResponse convertResponse(Response response) {
     try {
@@ -120,6 +398,7 @@ public class ElasticSearchExecutorImpl implements ElasticSearchExecutor {
 
   @Override
   public void close() {
+    closed = true;
     if (cancelable != null) {
       cancelable.cancel();
     }
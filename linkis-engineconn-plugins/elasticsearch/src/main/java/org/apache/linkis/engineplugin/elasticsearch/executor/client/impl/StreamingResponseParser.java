@@ -0,0 +1,249 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.linkis.engineplugin.elasticsearch.executor.client.impl;
+
+import org.apache.linkis.engineplugin.elasticsearch.executor.client.ResponseHandler$;
+import org.apache.linkis.storage.domain.Column;
+import org.apache.linkis.storage.domain.DataType;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.NullNode;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Token level reader of elasticsearch search and sql responses. Every hit or row is handed to the
+ * {@link RowConsumer} as soon as it is decoded, the response is never materialized as a tree. The
+ * column layout is kept across calls so that the pages of one scroll or cursor share it; once
+ * {@link #freezeColumns()} is called, fields that were not seen before are dropped.
+ */
+public class StreamingResponseParser {
+
+  private static final Logger logger = LoggerFactory.getLogger(StreamingResponseParser.class);
+
+  public interface RowConsumer {
+
+    /** @return false to skip the remaining rows of the page */
+    boolean accept(Object[] row) throws IOException;
+  }
+
+  public static class Page {
+    private boolean table = false;
+    private boolean stopped = false;
+    private long rows = 0;
+    private String scrollId;
+    private String cursor;
+
+    public boolean isTable() {
+      return table;
+    }
+
+    public boolean isStopped() {
+      return stopped;
+    }
+
+    public long getRows() {
+      return rows;
+    }
+
+    public String getScrollId() {
+      return scrollId;
+    }
+
+    public String getCursor() {
+      return cursor;
+    }
+  }
+
+  private final List<Column> columns = new ArrayList<>();
+  private final Map<String, Integer> columnIndex = new HashMap<>();
+  private boolean frozen = false;
+  private boolean droppedWarned = false;
+
+  public Page parse(byte[] content, String mimeType, RowConsumer consumer) throws IOException {
+    Page page = new Page();
+    try (JsonParser parser = getMapper(mimeType).getFactory().createParser(content)) {
+      if (parser.nextToken() != JsonToken.START_OBJECT) {
+        return page;
+      }
+      while (parser.nextToken() == JsonToken.FIELD_NAME) {
+        String name = parser.getCurrentName();
+        JsonToken token = parser.nextToken();
+        if ("_scroll_id".equals(name) && token == JsonToken.VALUE_STRING) {
+          page.scrollId = parser.getText();
+        } else if ("cursor".equals(name) && token == JsonToken.VALUE_STRING) {
+          page.cursor = parser.getText();
+        } else if ("hits".equals(name) && token == JsonToken.START_OBJECT) {
+          readHits(parser, page, consumer);
+        } else if ("columns".equals(name) && token == JsonToken.START_ARRAY) {
+          readSqlColumns(parser);
+        } else if ("rows".equals(name) && token == JsonToken.START_ARRAY) {
+          readSqlRows(parser, page, consumer);
+        } else {
+          parser.skipChildren();
+        }
+      }
+    }
+    return page;
+  }
+
+  public Column[] getColumns() {
+    return columns.toArray(new Column[0]);
+  }
+
+  public void freezeColumns() {
+    frozen = true;
+  }
+
+  private void readHits(JsonParser parser, Page page, RowConsumer consumer) throws IOException {
+    while (parser.nextToken() == JsonToken.FIELD_NAME) {
+      String name = parser.getCurrentName();
+      if (parser.nextToken() != JsonToken.START_ARRAY || !"hits".equals(name)) {
+        parser.skipChildren();
+        continue;
+      }
+      page.table = true;
+      if (columns.isEmpty()) {
+        addColumn("_index", DataType.StringType);
+        addColumn("_type", DataType.StringType);
+        addColumn("_id", DataType.StringType);
+        addColumn("_score", DataType.DoubleType);
+      }
+      while (parser.nextToken() != JsonToken.END_ARRAY) {
+        if (parser.getCurrentToken() == JsonToken.START_OBJECT && !page.stopped) {
+          emit(readHit(parser), page, consumer);
+        } else {
+          parser.skipChildren();
+        }
+      }
+    }
+  }
+
+  private Object[] readHit(JsonParser parser) throws IOException {
+    Object[] values = new Object[columns.size()];
+    while (parser.nextToken() == JsonToken.FIELD_NAME) {
+      String name = parser.getCurrentName();
+      JsonToken token = parser.nextToken();
+      if ("_source".equals(name.trim())) {
+        if (token != JsonToken.START_OBJECT) {
+          parser.skipChildren();
+          continue;
+        }
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+          String field = parser.getCurrentName();
+          parser.nextToken();
+          values = putValue(values, field, parser);
+        }
+      } else {
+        values = putValue(values, name, parser);
+      }
+    }
+    return values;
+  }
+
+  private Object[] putValue(Object[] values, String name, JsonParser parser) throws IOException {
+    Integer index = columnIndex.get(name);
+    if (index == null) {
+      if (frozen) {
+        if (!droppedWarned) {
+          logger.warn("field {} is not in the columns of the first page, it is dropped", name);
+          droppedWarned = true;
+        }
+        parser.skipChildren();
+        return values;
+      }
+      JsonNode node = readNode(parser);
+      index = addColumn(name, ResponseHandler$.MODULE$.getNodeDataType(node));
+      Object[] grown = Arrays.copyOf(values, columns.size());
+      grown[index] = ResponseHandler$.MODULE$.getNodeValue(node);
+      return grown;
+    }
+    values[index] = ResponseHandler$.MODULE$.getNodeValue(readNode(parser));
+    return values;
+  }
+
+  private void readSqlColumns(JsonParser parser) throws IOException {
+    JsonNode node = parser.readValueAsTree();
+    if (frozen || !columns.isEmpty()) {
+      return;
+    }
+    for (JsonNode column : node) {
+      String estype = column.get("type").asText().trim();
+      addColumn(
+          column.get("name").asText(), ResponseHandler$.MODULE$.getNodeTypeByEsType(estype));
+    }
+  }
+
+  private void readSqlRows(JsonParser parser, Page page, RowConsumer consumer)
+      throws IOException {
+    page.table = true;
+    while (parser.nextToken() != JsonToken.END_ARRAY) {
+      if (parser.getCurrentToken() != JsonToken.START_ARRAY || page.stopped) {
+        parser.skipChildren();
+        continue;
+      }
+      List<Object> values = new ArrayList<>(columns.size());
+      while (parser.nextToken() != JsonToken.END_ARRAY) {
+        values.add(ResponseHandler$.MODULE$.getNodeValue(readNode(parser)));
+      }
+      emit(values.toArray(), page, consumer);
+    }
+  }
+
+  private void emit(Object[] row, Page page, RowConsumer consumer) throws IOException {
+    page.rows++;
+    if (!consumer.accept(row)) {
+      page.stopped = true;
+    }
+  }
+
+  private int addColumn(String name, DataType dataType) {
+    columns.add(new Column(name, dataType, ""));
+    columnIndex.put(name, columns.size() - 1);
+    return columns.size() - 1;
+  }
+
+  private static JsonNode readNode(JsonParser parser) throws IOException {
+    if (parser.getCurrentToken() == JsonToken.VALUE_NULL) {
+      return NullNode.getInstance();
+    }
+    return parser.readValueAsTree();
+  }
+
+  private static ObjectMapper getMapper(String mimeType) {
+    if ("application/yaml".equals(mimeType)) {
+      return ResponseHandler$.MODULE$.yamlMapper();
+    } else if ("application/cbor".equals(mimeType)) {
+      return ResponseHandler$.MODULE$.cborMapper();
+    } else if ("application/smile".equals(mimeType)) {
+      return ResponseHandler$.MODULE$.smileMapper();
+    } else {
+      return ResponseHandler$.MODULE$.jsonMapper();
+    }
+  }
+}
@@ -27,5 +27,8 @@ case class ElasticSearchTableResponse(columns: Array[Column], records: Array[Tab
 
 case class ElasticSearchJsonResponse(value: String) extends ElasticSearchResponse
 
+case class ElasticSearchStreamTableResponse(output: String, rows: Long)
+    extends ElasticSearchResponse
+
 case class ElasticSearchErrorResponse(message: String, body: String = null, cause: Throwable = null)
     extends ElasticSearchResponse
@@ -0,0 +1,295 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.linkis.engineplugin.elasticsearch.executor.client.impl
+
+import org.apache.linkis.common.io.{FsPath, MetaData, Record}
+import org.apache.linkis.common.io.resultset.ResultSetWriter
+import org.apache.linkis.engineplugin.elasticsearch.conf.ElasticSearchConfiguration
+import org.apache.linkis.engineplugin.elasticsearch.executor.client.{
+  ElasticSearchResponse,
+  ElasticSearchStreamTableResponse
+}
+import org.apache.linkis.storage.domain.Column
+import org.apache.linkis.storage.resultset.table.{TableMetaData, TableRecord}
+
+import java.lang.management.ManagementFactory
+import java.net.InetSocketAddress
+import java.nio.charset.StandardCharsets
+import java.util
+import java.util.concurrent.atomic.AtomicInteger
+import java.util.function.Supplier
+
+import scala.collection.mutable.ArrayBuffer
+import scala.io.Source
+
+import com.sun.net.httpserver.{HttpExchange, HttpHandler, HttpServer}
+import org.junit.jupiter.api.{AfterEach, Assertions, BeforeEach, Disabled, Test}
+
+class TestElasticSearchExecutorImpl {
+
+  private var totalHits = 5000
+  private val pageSize = 1000
+
+  private var server: HttpServer = _
+  private val requests = new AtomicInteger()
+  private val paths = new ArrayBuffer[String]()
+
+  @BeforeEach
+  def startServer(): Unit = {
+    server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0)
+    server.createContext(
+      "/",
+      new HttpHandler {
+        override def handle(exchange: HttpExchange): Unit = {
+          val body = Source.fromInputStream(exchange.getRequestBody, "UTF-8").mkString
+          val path = exchange.getRequestURI.toString
+          requests.incrementAndGet()
+          paths.synchronized(paths += exchange.getRequestMethod + " " + path)
+          val content = respond(exchange.getRequestMethod, path, body)
+          exchange.getResponseHeaders.add("Content-Type", "application/json; charset=UTF-8")
+          exchange.sendResponseHeaders(200, content.length)
+          exchange.getResponseBody.write(content)
+          exchange.close()
+        }
+      }
+    )
+    server.start()
+  }
+
+  @AfterEach
+  def stopServer(): Unit = server.stop(0)
+
+  private def respond(method: String, path: String, body: String): Array[Byte] = {
+    val json = if (path.startsWith("/idx/_search")) {
+      val size = if (path.contains("scroll=")) pageSize else 2
+      searchPage(0, size, path.contains("scroll="))
+    } else if (path.startsWith("/_search/scroll")) {
+      if (method == "DELETE") {
+        "{\"succeeded\":true,\"num_freed\":1}"
+      } else {
+        searchPage(pageNumber(body, "scroll_id", "scroll-"), pageSize, true)
+      }
+    } else if (path.startsWith("/_sql/close")) {
+      "{\"succeeded\":true}"
+    } else if (path.startsWith("/_sql")) {
+      if (body.contains("\"cursor\"")) sqlPage(pageNumber(body, "cursor", "cursor-"))
+      else sqlPage(0)
+    } else {
+      "{\"acknowledged\":true}"
+    }
+    json.getBytes(StandardCharsets.UTF_8)
+  }
+
+  private def pageNumber(body: String, field: String, prefix: String): Int = {
+    val start = body.indexOf(prefix, body.indexOf(field)) + prefix.length
+    body.substring(start, body.indexOf('"', start)).toInt
+  }
+
+  private def searchPage(page: Int, size: Int, scroll: Boolean): String = {
+    val builder = new StringBuilder(size * 160)
+    if (scroll) builder.append("{\"_scroll_id\":\"scroll-").append(page + 1).append("\",")
+    else builder.append("{")
+    builder.append("\"took\":1,\"hits\":{\"total\":{\"value\":").append(totalHits)
+    builder.append(",\"relation\":\"eq\"},\"max_score\":1.0,\"hits\":[")
+    val from = page * size
+    val to = math.min(from + size, totalHits)
+    (from until to).foreach { i =>
+      if (i > from) builder.append(',')
+      builder.append("{\"_index\":\"idx\",\"_type\":\"_doc\",\"_id\":\"").append(i)
+      builder.append("\",\"_score\":1.0,\"_source\":{\"name\":\"user-").append(i)
+      builder.append("\",\"age\":").append(i % 100).append(",\"tags\":[\"a\",\"b\"]")
+      // a field that only appears from the second hit on
+      if (i % 2 == 1) builder.append(",\"city\":\"c").append(i).append('"')
+      builder.append("}}")
+    }
+    builder.append("]}}").toString
+  }
+
+  private def sqlPage(page: Int): String = {
+    val builder = new StringBuilder()
+    builder.append("{")
+    if (page == 0) {
+      builder.append("\"columns\":[{\"name\":\"name\",\"type\":\"keyword\"},")
+      builder.append("{\"name\":\"age\",\"type\":\"long\"}],")
+    }
+    builder.append("\"rows\":[[\"a").append(page).append("\",1],[\"b").append(page)
+    builder.append("\",2]]")
+    if (page < 2) builder.append(",\"cursor\":\"cursor-").append(page + 1).append('"')
+    builder.append("}").toString
+  }
+
+  private def newExecutor(
+      runType: String,
+      options: (String, String)*
+  ): ElasticSearchExecutorImpl = {
+    val properties = new util.HashMap[String, String]()
+    val port = server.getAddress.getPort
+    properties.put(ElasticSearchConfiguration.ES_CLUSTER.key, "127.0.0.1:" + port)
+    properties.put(ElasticSearchConfiguration.ES_DATASOURCE_NAME.key, "stream_test_" + port)
+    properties.put(ElasticSearchConfiguration.ES_HTTP_METHOD.key, "POST")
+    options.foreach { case (key, value) => properties.put(key, value) }
+    val executor = new ElasticSearchExecutorImpl(runType, properties)
+    executor.open()
+    executor
+  }
+
+  private def execute(
+      executor: ElasticSearchExecutorImpl,
+      code: String,
+      writer: CountingResultSetWriter
+  ): ElasticSearchResponse = {
+    executor.executeLine(
+      code,
+      new Supplier[ResultSetWriter[_ <: MetaData, _ <: Record]] {
+        override def get(): ResultSetWriter[_ <: MetaData, _ <: Record] = writer
+      }
+    )
+  }
+
+  @Test
+  def testSmallSearchIsOneRequest(): Unit = {
+    val executor = newExecutor(
+      "esjson",
+      ElasticSearchConfiguration.ES_HTTP_ENDPOINT.key -> "/idx/_search"
+    )
+    val writer = new CountingResultSetWriter
+    val response = execute(executor, "{\"size\": 2, \"query\": {\"match_all\": {}}}", writer)
+    Assertions.assertTrue(response.isInstanceOf[ElasticSearchStreamTableResponse])
+    Assertions.assertEquals(2, writer.rows)
+    Assertions.assertEquals(1, requests.get())
+    Assertions.assertFalse(paths.head.contains("scroll="))
+    val names = writer.columns.map(_.columnName).toList
+    val expected = List("_index", "_type", "_id", "_score", "name", "age", "tags", "city")
+    Assertions.assertEquals(expected, names)
+    // the first hit has no city and is padded to the width of the columns
+    Assertions.assertEquals(writer.columns.length, writer.firstRow.length)
+    Assertions.assertEquals("\"user-0\"", writer.firstRow(4))
+    Assertions.assertEquals(java.lang.Double.valueOf(0), writer.firstRow(5))
+    Assertions.assertNull(writer.firstRow(7))
+    Assertions.assertTrue(writer.closed)
+  }
+
+  @Test
+  def testSqlCursorPages(): Unit = {
+    val writer = new CountingResultSetWriter
+    execute(newExecutor("essql"), "{\"query\": \"select name, age from idx\"}", writer)
+    Assertions.assertEquals(6, writer.rows)
+    Assertions.assertEquals(List("name", "age"), writer.columns.map(_.columnName).toList)
+    Assertions.assertFalse(paths.exists(_.startsWith("POST /_sql/close")))
+
+    // stopping before the last page closes the cursor
+    paths.clear()
+    val limited = new CountingResultSetWriter
+    execute(
+      newExecutor("essql", ElasticSearchConfiguration.ES_MAX_RESULT_ROWS.key -> "3"),
+      "{\"query\": \"select name, age from idx\"}",
+      limited
+    )
+    Assertions.assertEquals(3, limited.rows)
+    Assertions.assertTrue(paths.contains("POST /_sql/close"))
+  }
+
+  private def scrollAll(writer: CountingResultSetWriter): ElasticSearchResponse = {
+    val executor = newExecutor(
+      "esjson",
+      ElasticSearchConfiguration.ES_HTTP_ENDPOINT.key -> "/idx/_search",
+      ElasticSearchConfiguration.ES_SCROLL_PAGE_SIZE.key -> pageSize.toString
+    )
+    execute(executor, "{\"size\": " + totalHits + ", \"query\": {\"match_all\": {}}}", writer)
+  }
+
+  @Test
+  def testScrollAllHits(): Unit = {
+    val writer = new CountingResultSetWriter
+    val response = scrollAll(writer)
+
+    Assertions.assertTrue(response.isInstanceOf[ElasticSearchStreamTableResponse])
+    Assertions.assertEquals(totalHits, writer.rows)
+    val streamResponse = response.asInstanceOf[ElasticSearchStreamTableResponse]
+    Assertions.assertEquals(totalHits.toLong, streamResponse.rows)
+    Assertions.assertTrue(paths.head.contains("scroll=1m"))
+    Assertions.assertTrue(paths.last.startsWith("DELETE /_search/scroll"))
+    // one request per page until the size of the query is reached, then the clear
+    Assertions.assertEquals(totalHits / pageSize + 1, requests.get())
+    // scroll pages keep the columns of the first page, city is already known there
+    Assertions.assertEquals(8, writer.columns.length)
+    Assertions.assertTrue(writer.closed)
+  }
+
+  @Test
+  @Disabled("Benchmark, run it manually")
+  def testScrollMillionHits(): Unit = {
+    totalHits = 1000000
+    val writer = new CountingResultSetWriter
+    val memory = ManagementFactory.getMemoryMXBean
+    System.gc()
+    val baseline = memory.getHeapMemoryUsage.getUsed
+    @volatile var peak = baseline
+    @volatile var sampling = true
+    val sampler = new Thread(new Runnable {
+      override def run(): Unit = while (sampling) {
+        peak = math.max(peak, memory.getHeapMemoryUsage.getUsed)
+        Thread.sleep(2)
+      }
+    })
+    sampler.setDaemon(true)
+    sampler.start()
+
+    val start = System.nanoTime()
+    scrollAll(writer)
+    val costMs = (System.nanoTime() - start) / 1000000
+    sampling = false
+    sampler.join()
+    // scalastyle:off println
+    println(
+      s"scrolled ${writer.rows} hits in ${costMs}ms, peak heap " +
+        s"${(peak - baseline) / 1024 / 1024}MB above a baseline of ${baseline / 1024 / 1024}MB"
+    )
+    // scalastyle:on println
+  }
+
+}
+
+class CountingResultSetWriter extends ResultSetWriter[MetaData, Record](null, 0, null) {
+
+  var columns: Array[Column] = _
+  var firstRow: Array[AnyRef] = _
+  var rows = 0L
+  var closed = false
+
+  override def addMetaData(metaData: MetaData): Unit =
+    columns = metaData.asInstanceOf[TableMetaData].columns
+
+  override def addRecord(record: Record): Unit = {
+    if (firstRow == null) firstRow = record.asInstanceOf[TableRecord].row
+    rows += 1
+  }
+
+  override def toString: String = "rows:" + rows
+
+  override def toFSPath: FsPath = null
+
+  override def addMetaDataAndRecordString(content: String): Unit = {}
+
+  override def addRecordString(content: String): Unit = {}
+
+  override def flush(): Unit = {}
+
+  override def close(): Unit = closed = true
+
+}
@@ -0,0 +1,119 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.linkis.engineplugin.hive.serde;
+
+import org.apache.commons.codec.binary.Base64;
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.hive.common.type.HiveDecimal;
+import org.apache.hadoop.hive.ql.exec.FetchFormatter;
+import org.apache.hadoop.hive.serde2.SerDeUtils;
+import org.apache.hadoop.hive.serde2.objectinspector.ObjectInspector;
+import org.apache.hadoop.hive.serde2.objectinspector.PrimitiveObjectInspector;
+import org.apache.hadoop.hive.serde2.objectinspector.StructField;
+import org.apache.hadoop.hive.serde2.objectinspector.StructObjectInspector;
+import org.apache.hadoop.hive.serde2.objectinspector.primitive.BinaryObjectInspector;
+import org.apache.hadoop.hive.serde2.objectinspector.primitive.HiveDecimalObjectInspector;
+import org.apache.hadoop.hive.serde2.typeinfo.DecimalTypeInfo;
+
+import java.math.RoundingMode;
+import java.util.List;
+import java.util.Properties;
+import java.util.function.Function;
+
+/**
+ * Formats the rows fetched by the hive driver as Object[] of typed values read by the
+ * ObjectInspectors, instead of the tab joined text of DelimitedJSONSerDe. Set as {@link
+ * SerDeUtils#LIST_SINK_OUTPUT_FORMATTER}, the values are written to the result set as they are, so
+ * tabs and newlines in the data no longer break the columns.
+ *
+ * <p>The values are rendered as DelimitedJSONSerDe renders them: decimals keep the scale of the
+ * column, binaries are encoded in base64 and complex types are written as json.
+ */
+public class TypedFetchFormatter implements FetchFormatter<Object[]> {
+
+  private ObjectInspector rowInspector;
+  private List<? extends StructField> fields;
+  private Function<Object, Object>[] converters;
+
+  @Override
+  public void initialize(Configuration hconf, Properties props) {}
+
+  @Override
+  public Object[] convert(Object row, ObjectInspector rowOI) {
+    if (rowOI != rowInspector) {
+      initConverters(rowOI);
+    }
+    StructObjectInspector structInspector = (StructObjectInspector) rowOI;
+    Object[] values = new Object[converters.length];
+    for (int i = 0; i < values.length; i++) {
+      Object data = structInspector.getStructFieldData(row, fields.get(i));
+      values[i] = data == null ? null : converters[i].apply(data);
+    }
+    return values;
+  }
+
+  @SuppressWarnings("unchecked")
+  private void initConverters(ObjectInspector rowOI) {
+    fields = ((StructObjectInspector) rowOI).getAllStructFieldRefs();
+    converters = new Function[fields.size()];
+    for (int i = 0; i < converters.length; i++) {
+      converters[i] = converter(fields.get(i).getFieldObjectInspector());
+    }
+    rowInspector = rowOI;
+  }
+
+  static Function<Object, Object> converter(ObjectInspector inspector) {
+    if (inspector.getCategory() != ObjectInspector.Category.PRIMITIVE) {
+      return data -> SerDeUtils.getJSONString(data, inspector);
+    }
+    PrimitiveObjectInspector primitiveInspector = (PrimitiveObjectInspector) inspector;
+    switch (primitiveInspector.getPrimitiveCategory()) {
+      case BOOLEAN:
+      case BYTE:
+      case SHORT:
+      case INT:
+      case LONG:
+      case FLOAT:
+      case DOUBLE:
+      case STRING:
+        return primitiveInspector::getPrimitiveJavaObject;
+      case DECIMAL:
+        int scale = ((DecimalTypeInfo) primitiveInspector.getTypeInfo()).scale();
+        return data -> {
+          HiveDecimal decimal =
+              ((HiveDecimalObjectInspector) primitiveInspector).getPrimitiveJavaObject(data);
+          return decimal == null
+              ? null
+              : decimal.bigDecimalValue().setScale(scale, RoundingMode.HALF_UP);
+        };
+      case BINARY:
+        return data ->
+            Base64.encodeBase64String(
+                ((BinaryObjectInspector) primitiveInspector).getPrimitiveJavaObject(data));
+      default:
+        // varchar, char, date, timestamp and intervals, rendered by their writables like the text
+        return data -> {
+          Object writable = primitiveInspector.getPrimitiveWritableObject(data);
+          return writable == null ? null : writable.toString();
+        };
+    }
+  }
+
+  @Override
+  public void close() {}
+}
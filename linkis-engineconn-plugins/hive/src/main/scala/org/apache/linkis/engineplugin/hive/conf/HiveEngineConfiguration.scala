@@ -34,6 +34,9 @@ object HiveEngineConfiguration {
     "org.apache.linkis.engineplugin.hive.serde.CustomerDelimitedJSONSerDe"
   ).getValue
 
+  val HIVE_TYPED_FETCH_ENABLED =
+    CommonVars[Boolean]("linkis.hive.typed.fetch.enabled", true).getValue
+
   val HIVE_AUX_JARS_PATH = CommonVars[String](
     "hive.aux.jars.path",
     CommonVars[String]("HIVE_AUX_JARS_PATH", "").getValue
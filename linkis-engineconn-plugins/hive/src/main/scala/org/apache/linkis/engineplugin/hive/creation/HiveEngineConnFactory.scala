@@ -33,6 +33,7 @@ import org.apache.linkis.engineplugin.hive.entity.{
 import org.apache.linkis.engineplugin.hive.errorcode.HiveErrorCodeSummary.CREATE_HIVE_EXECUTOR_ERROR
 import org.apache.linkis.engineplugin.hive.errorcode.HiveErrorCodeSummary.HIVE_EXEC_JAR_ERROR
 import org.apache.linkis.engineplugin.hive.exception.HiveSessionStartFailedException
+import org.apache.linkis.engineplugin.hive.serde.TypedFetchFormatter
 import org.apache.linkis.engineplugin.hive.executor.{
   HiveEngineConcurrentConnExecutor,
   HiveEngineConnExecutor
@@ -48,6 +49,7 @@ import org.apache.hadoop.fs.Path
 import org.apache.hadoop.hive.conf.HiveConf
 import org.apache.hadoop.hive.ql.Driver
 import org.apache.hadoop.hive.ql.session.SessionState
+import org.apache.hadoop.hive.serde2.SerDeUtils
 import org.apache.hadoop.security.UserGroupInformation
 
 import java.io.{ByteArrayOutputStream, PrintStream}
@@ -205,6 +207,8 @@ class HiveEngineConnFactory extends ComputationSingleExecutorEngineConnFactory w
         HiveEngineConfiguration.BASE64_SERDE_CLASS
       )
       hiveConf.set("enable_fetch_base64", "true")
+    } else if (HiveEngineConfiguration.HIVE_TYPED_FETCH_ENABLED) {
+      hiveConf.set(SerDeUtils.LIST_SINK_OUTPUT_FORMATTER, classOf[TypedFetchFormatter].getName)
     }
     // add hive.aux.jars.path to hive conf
     if (StringUtils.isNotBlank(HiveEngineConfiguration.HIVE_AUX_JARS_PATH)) {
@@ -321,30 +321,33 @@ class HiveEngineConcurrentConnExecutor(
     val resultSetWriter = engineExecutorContext.createResultSetWriter(ResultSetFactory.TABLE_TYPE)
     resultSetWriter.addMetaData(metaData)
     val colLength = metaData.columns.length
-    val result = new util.ArrayList[String]()
+    val result = new util.ArrayList[AnyRef]()
     var rows = 0
     while (driver.getResults(result)) {
-      val scalaResult: mutable.Buffer[String] = result.asScala
-      scalaResult foreach { s =>
-        val arr: Array[String] = s.split("\t")
-        val arrAny: ArrayBuffer[Any] = new ArrayBuffer[Any]()
-        if (arr.length > colLength) {
-          logger.error(
-            s"""There is a \t tab in the result of hive code query, hive cannot cut it, please use spark to execute(查询的结果中有\t制表符，hive不能进行切割,请使用spark执行)"""
-          )
-          throw new ErrorException(
-            60078,
-            """There is a \t tab in the result of your query, hive cannot cut it, please use spark to execute(您查询的结果中有\t制表符，hive不能进行切割,请使用spark执行)"""
-          )
-        }
-        if (arr.length == colLength) arr foreach arrAny.asJava.add
-        else if (arr.length == 0) for (i <- 1 to colLength) arrAny.asJava add ""
-        else {
-          val i = colLength - arr.length
-          arr foreach arrAny.asJava.add
-          for (i <- 1 to i) arrAny.asJava add ""
-        }
-        resultSetWriter.addRecord(new TableRecord(arrAny.toArray.asInstanceOf[Array[AnyRef]]))
+      val scalaResult: mutable.Buffer[AnyRef] = result.asScala
+      scalaResult foreach {
+        // typed rows of TypedFetchFormatter
+        case row: Array[AnyRef] => resultSetWriter.addRecord(new TableRecord(row))
+        case s =>
+          val arr: Array[String] = s.toString.split("\t")
+          val arrAny: ArrayBuffer[Any] = new ArrayBuffer[Any]()
+          if (arr.length > colLength) {
+            logger.error(
+              s"""There is a \t tab in the result of hive code query, hive cannot cut it, please use spark to execute(查询的结果中有\t制表符，hive不能进行切割,请使用spark执行)"""
+            )
+            throw new ErrorException(
+              60078,
+              """There is a \t tab in the result of your query, hive cannot cut it, please use spark to execute(您查询的结果中有\t制表符，hive不能进行切割,请使用spark执行)"""
+            )
+          }
+          if (arr.length == colLength) arr foreach arrAny.asJava.add
+          else if (arr.length == 0) for (i <- 1 to colLength) arrAny.asJava add ""
+          else {
+            val i = colLength - arr.length
+            arr foreach arrAny.asJava.add
+            for (i <- 1 to i) arrAny.asJava add ""
+          }
+          resultSetWriter.addRecord(new TableRecord(arrAny.toArray.asInstanceOf[Array[AnyRef]]))
       }
       rows += result.size
       result.clear()
@@ -317,30 +317,33 @@ class HiveEngineConnExecutor(
     val resultSetWriter = engineExecutorContext.createResultSetWriter(ResultSetFactory.TABLE_TYPE)
     resultSetWriter.addMetaData(metaData)
     val colLength = metaData.columns.length
-    val result = new util.ArrayList[String]()
+    val result = new util.ArrayList[AnyRef]()
     var rows = 0
     while (driver.getResults(result)) {
-      val scalaResult: mutable.Buffer[String] = result.asScala
-      scalaResult foreach { s =>
-        val arr: Array[String] = s.split("\t")
-        val arrAny: ArrayBuffer[Any] = new ArrayBuffer[Any]()
-        if (arr.length > colLength) {
-          logger.error(
-            s"""There is a \t tab in the result of hive code query, hive cannot cut it, please use spark to execute(查询的结果中有\t制表符，hive不能进行切割,请使用spark执行)"""
-          )
-          throw new ErrorException(
-            60078,
-            """There is a \t tab in the result of your query, hive cannot cut it, please use spark to execute(您查询的结果中有\t制表符，hive不能进行切割,请使用spark执行)"""
-          )
-        }
-        if (arr.length == colLength) arr foreach arrAny.asJava.add
-        else if (arr.length == 0) for (i <- 1 to colLength) arrAny.asJava add ""
-        else {
-          val i = colLength - arr.length
-          arr foreach arrAny.asJava.add
-          for (i <- 1 to i) arrAny.asJava add ""
-        }
-        resultSetWriter.addRecord(new TableRecord(arrAny.toArray.asInstanceOf[Array[AnyRef]]))
+      val scalaResult: mutable.Buffer[AnyRef] = result.asScala
+      scalaResult foreach {
+        // typed rows of TypedFetchFormatter
+        case row: Array[AnyRef] => resultSetWriter.addRecord(new TableRecord(row))
+        case s =>
+          val arr: Array[String] = s.toString.split("\t")
+          val arrAny: ArrayBuffer[Any] = new ArrayBuffer[Any]()
+          if (arr.length > colLength) {
+            logger.error(
+              s"""There is a \t tab in the result of hive code query, hive cannot cut it, please use spark to execute(查询的结果中有\t制表符，hive不能进行切割,请使用spark执行)"""
+            )
+            throw new ErrorException(
+              60078,
+              """There is a \t tab in the result of your query, hive cannot cut it, please use spark to execute(您查询的结果中有\t制表符，hive不能进行切割,请使用spark执行)"""
+            )
+          }
+          if (arr.length == colLength) arr foreach arrAny.asJava.add
+          else if (arr.length == 0) for (i <- 1 to colLength) arrAny.asJava add ""
+          else {
+            val i = colLength - arr.length
+            arr foreach arrAny.asJava.add
+            for (i <- 1 to i) arrAny.asJava add ""
+          }
+          resultSetWriter.addRecord(new TableRecord(arrAny.toArray.asInstanceOf[Array[AnyRef]]))
       }
       rows += result.size
       result.clear()
@@ -600,60 +603,64 @@ class HiveEngineConnExecutor(
 
 class HiveDriverProxy(driver: Any) extends Logging {
 
+  // Methods are looked up once per driver, getResults is called for every batch of rows
+  private val driverClass = driver.getClass
+  private lazy val compileMethod = driverClass.getMethod("compile", classOf[String])
+  private lazy val getPlanMethod = driverClass.getMethod("getPlan")
+  private lazy val getSchemaMethod = driverClass.getMethod("getSchema")
+  private lazy val runMethod = driverClass.getMethod("run")
+  private lazy val runCommandMethod = driverClass.getMethod("run", classOf[String])
+
+  private lazy val runCompiledMethod =
+    driverClass.getMethod("run", classOf[String], classOf[Boolean])
+
+  private lazy val setTryCountMethod = driverClass.getMethod("setTryCount", classOf[Int])
+  private lazy val getResultsMethod = driverClass.getMethod("getResults", classOf[util.List[_]])
+
   def getDriver(): Any = driver
 
   def compile(command: String): Int = {
-    driver.getClass
-      .getMethod("compile", classOf[String])
-      .invoke(driver, command.asInstanceOf[AnyRef])
-      .asInstanceOf[Int]
+    compileMethod.invoke(driver, command.asInstanceOf[AnyRef]).asInstanceOf[Int]
   }
 
   def getPlan(): QueryPlan = {
-    driver.getClass.getMethod("getPlan").invoke(driver).asInstanceOf[QueryPlan]
+    getPlanMethod.invoke(driver).asInstanceOf[QueryPlan]
   }
 
   def getSchema(): Schema = {
-    driver.getClass.getMethod("getSchema").invoke(driver).asInstanceOf[Schema]
+    getSchemaMethod.invoke(driver).asInstanceOf[Schema]
   }
 
   def run(): CommandProcessorResponse = {
-    driver.getClass.getMethod("run").invoke(driver).asInstanceOf[CommandProcessorResponse]
+    runMethod.invoke(driver).asInstanceOf[CommandProcessorResponse]
   }
 
   def run(command: String): CommandProcessorResponse = {
-    driver.getClass
-      .getMethod("run", classOf[String])
+    runCommandMethod
       .invoke(driver, command.asInstanceOf[AnyRef])
       .asInstanceOf[CommandProcessorResponse]
   }
 
   def run(command: String, alreadyCompiled: Boolean): CommandProcessorResponse = {
-    driver.getClass
-      .getMethod("run", classOf[String], classOf[Boolean])
+    runCompiledMethod
       .invoke(driver, command.asInstanceOf[AnyRef], alreadyCompiled.asInstanceOf[AnyRef])
       .asInstanceOf[CommandProcessorResponse]
   }
 
   def setTryCount(retry: Int): Unit = {
     if (HiveDriverProxy.HAS_COMMAND_NEED_RETRY_EXCEPTION) {
-      driver.getClass
-        .getMethod("setTryCount", classOf[Int])
-        .invoke(driver, retry.asInstanceOf[AnyRef])
+      setTryCountMethod.invoke(driver, retry.asInstanceOf[AnyRef])
     }
   }
 
   def getResults(res: util.List[_]): Boolean = {
-    driver.getClass
-      .getMethod("getResults", classOf[util.List[_]])
-      .invoke(driver, res.asInstanceOf[AnyRef])
-      .asInstanceOf[Boolean]
+    getResultsMethod.invoke(driver, res.asInstanceOf[AnyRef]).asInstanceOf[Boolean]
   }
 
   def close(): Unit = {
     logger.info("start to close driver")
-    driver.getClass.getMethod("close").invoke(driver)
-    driver.getClass.getMethod("destroy").invoke(driver)
+    driverClass.getMethod("close").invoke(driver)
+    driverClass.getMethod("destroy").invoke(driver)
     logger.info("Finished to close driver")
   }
 
@@ -0,0 +1,107 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.linkis.engineplugin.hive.serde;
+
+import org.apache.hadoop.hive.common.type.HiveDecimal;
+import org.apache.hadoop.hive.serde2.objectinspector.ObjectInspector;
+import org.apache.hadoop.hive.serde2.objectinspector.ObjectInspectorFactory;
+import org.apache.hadoop.hive.serde2.objectinspector.StructObjectInspector;
+import org.apache.hadoop.hive.serde2.objectinspector.primitive.PrimitiveObjectInspectorFactory;
+import org.apache.hadoop.hive.serde2.typeinfo.TypeInfoFactory;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Disabled;
+import org.junit.jupiter.api.Test;
+
+public class TypedFetchFormatterTest {
+
+  private final StructObjectInspector rowInspector =
+      ObjectInspectorFactory.getStandardStructObjectInspector(
+          Arrays.asList("id", "name", "score", "amount", "content", "tags"),
+          Arrays.<ObjectInspector>asList(
+              PrimitiveObjectInspectorFactory.javaLongObjectInspector,
+              PrimitiveObjectInspectorFactory.javaStringObjectInspector,
+              PrimitiveObjectInspectorFactory.javaDoubleObjectInspector,
+              PrimitiveObjectInspectorFactory.getPrimitiveJavaObjectInspector(
+                  TypeInfoFactory.getDecimalTypeInfo(10, 2)),
+              PrimitiveObjectInspectorFactory.javaByteArrayObjectInspector,
+              ObjectInspectorFactory.getStandardListObjectInspector(
+                  PrimitiveObjectInspectorFactory.javaStringObjectInspector)));
+
+  private List<Object> row(long id, String name) {
+    return Arrays.asList(
+        id,
+        name,
+        1.5d,
+        HiveDecimal.create("3.1"),
+        "hi".getBytes(StandardCharsets.UTF_8),
+        Arrays.asList("a", "b"));
+  }
+
+  @Test
+  void testConvertTabsAndNewlines() {
+    TypedFetchFormatter formatter = new TypedFetchFormatter();
+    Object[] values = formatter.convert(row(1L, "tab\there\nnew line"), rowInspector);
+    Assertions.assertArrayEquals(
+        new Object[] {
+          1L, "tab\there\nnew line", 1.5d, new BigDecimal("3.10"), "aGk=", "[\"a\",\"b\"]"
+        },
+        values);
+
+    Object[] nulls =
+        formatter.convert(Arrays.asList(null, null, null, null, null, null), rowInspector);
+    Assertions.assertArrayEquals(new Object[6], nulls);
+  }
+
+  @Test
+  void testSwitchRowInspector() {
+    TypedFetchFormatter formatter = new TypedFetchFormatter();
+    StructObjectInspector otherInspector =
+        ObjectInspectorFactory.getStandardStructObjectInspector(
+            Arrays.asList("flag", "day"),
+            Arrays.<ObjectInspector>asList(
+                PrimitiveObjectInspectorFactory.javaBooleanObjectInspector,
+                PrimitiveObjectInspectorFactory.javaIntObjectInspector));
+    Assertions.assertEquals(6, formatter.convert(row(1L, "a"), rowInspector).length);
+    Assertions.assertArrayEquals(
+        new Object[] {true, 7}, formatter.convert(Arrays.asList(true, 7), otherInspector));
+    Object[] values = formatter.convert(row(2L, "b"), rowInspector);
+    Assertions.assertEquals(2L, values[0]);
+    Assertions.assertEquals(new BigDecimal("3.10"), values[3]);
+  }
+
+  /** Prints the rows/sec of formatting rows */
+  @Test
+  @Disabled("Benchmark, run it manually")
+  void testFormatRowsPerSecond() {
+    TypedFetchFormatter formatter = new TypedFetchFormatter();
+    int rows = 1000000;
+    List<Object> row = row(1L, "name\twith tab");
+    long start = System.nanoTime();
+    for (int i = 0; i < rows; i++) {
+      Assertions.assertEquals(6, formatter.convert(row, rowInspector).length);
+    }
+    double seconds = (System.nanoTime() - start) / 1e9;
+    System.out.printf("Formatted %d rows in %.3fs, %.0f rows/s%n", rows, seconds, rows / seconds);
+  }
+}
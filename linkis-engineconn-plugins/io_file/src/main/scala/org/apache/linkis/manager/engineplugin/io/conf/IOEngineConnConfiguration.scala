@@ -37,4 +37,11 @@ object IOEngineConnConfiguration {
   val IO_FILE_CONCURRENT_LIMIT =
     CommonVars[Int]("wds.linkis.engineconn.io_file.concurrent.limit", 100)
 
+  val IO_CHUNK_SERVER_ENABLED = CommonVars[Boolean]("linkis.io.chunk.server.enabled", false)
+
+  /** 0 means a random port */
+  val IO_CHUNK_SERVER_PORT = CommonVars[Int]("linkis.io.chunk.server.port", 0)
+
+  val IO_CHUNK_SERVER_THREAD_MAX = CommonVars[Int]("linkis.io.chunk.server.thread.max", 50)
+
 }
@@ -32,10 +32,11 @@ import org.apache.linkis.manager.common.entity.resource.{
 import org.apache.linkis.manager.engineplugin.common.util.NodeResourceUtils
 import org.apache.linkis.manager.engineplugin.io.conf.IOEngineConnConfiguration
 import org.apache.linkis.manager.engineplugin.io.domain.FSInfo
-import org.apache.linkis.manager.engineplugin.io.service.FsProxyService
+import org.apache.linkis.manager.engineplugin.io.service.{FsProxyService, IOChunkServer}
 import org.apache.linkis.manager.engineplugin.io.utils.{IOHelp, ReflectionUtils}
 import org.apache.linkis.manager.label.entity.Label
 import org.apache.linkis.protocol.engine.JobProgressInfo
+import org.apache.linkis.rpc.Sender
 import org.apache.linkis.scheduler.executer.{
   AliasOutputExecuteResponse,
   ExecuteResponse,
@@ -78,10 +79,29 @@ class IoEngineConnExecutor(val id: Int, val outputLimit: Int = 10)
 
   private val namePrefix: String = "IoEngineConnExecutor_"
 
+  private var chunkServer: Option[IOChunkServer] = None
+
   override def init(): Unit = {
     super.init
     logger.info("Ready to start IoEngine!")
     cleanupThread.start()
+    if (IOEngineConnConfiguration.IO_CHUNK_SERVER_ENABLED.getValue) Utils.tryAndWarn {
+      val host = Utils.tryCatch(Sender.getThisServiceInstance.getInstance.split(":")(0)) { _ =>
+        Utils.getLocalHostname
+      }
+      val server = new IOChunkServer(
+        host,
+        IOEngineConnConfiguration.IO_CHUNK_SERVER_PORT.getValue,
+        (proxyUser, fsId) => getUserFS(proxyUser, fsId)
+      )
+      server.start()
+      chunkServer = Some(server)
+    }
+  }
+
+  override def close(): Unit = {
+    chunkServer.foreach(server => Utils.tryAndWarn(server.stop()))
+    super.close()
   }
 
   /*
@@ -132,6 +152,16 @@ class IoEngineConnExecutor(val id: Int, val outputLimit: Int = 10)
           StorageUtils.serializerStringToResult(fsId.toString)
         )
       case "close" => closeUserFS(method); SuccessExecuteResponse()
+      case "chunkEndpoint" =>
+        // Only sign the endpoint for an Fs inited by the proxy user
+        getUserFS(method)
+        val endpoint = chunkServer
+          .map(_.getEndpoint(method.getProxyUser, method.getId).toString)
+          .getOrElse("")
+        AliasOutputExecuteResponse(
+          method.getId.toString,
+          StorageUtils.serializerStringToResult(endpoint)
+        )
       case "read" =>
         val fs = getUserFS(method)
         AliasOutputExecuteResponse(method.getId.toString, IOHelp.read(fs, method))
@@ -279,24 +309,25 @@ class IoEngineConnExecutor(val id: Int, val outputLimit: Int = 10)
     }
   }
 
-  protected def getUserFS(methodEntity: MethodEntity): Fs = {
-    val fsType = methodEntity.getFsType
-    val proxyUser = methodEntity.getProxyUser
+  protected def getUserFS(methodEntity: MethodEntity): Fs =
+    getUserFS(methodEntity.getProxyUser, methodEntity.getId, methodEntity.getFsType)
+
+  protected def getUserFS(proxyUser: String, fsId: Long, fsType: String): Fs =
+    findUserFS(proxyUser, fsId, s"not exist storage $fsType, please init first.")
+
+  protected def getUserFS(proxyUser: String, fsId: Long): Fs =
+    findUserFS(proxyUser, fsId, s"not exist storage of fsId $fsId, please init first.")
+
+  private def findUserFS(proxyUser: String, fsId: Long, notInitMessage: => String): Fs = {
     if (!userFSInfos.containsKey(proxyUser)) {
-      throw new StorageErrorException(
-        StorageErrorCode.FS_NOT_INIT.getCode,
-        s"not exist storage $fsType, please init first."
-      )
+      throw new StorageErrorException(StorageErrorCode.FS_NOT_INIT.getCode, notInitMessage)
     }
     userFSInfos.get(proxyUser) synchronized {
       val userFsInfo = userFSInfos
         .get(proxyUser)
-        .find(fsInfo => fsInfo != null && fsInfo.id == methodEntity.getId)
+        .find(fsInfo => fsInfo != null && fsInfo.id == fsId)
         .getOrElse(
-          throw new StorageErrorException(
-            StorageErrorCode.FS_NOT_INIT.getCode,
-            s"not exist storage $fsType, please init first."
-          )
+          throw new StorageErrorException(StorageErrorCode.FS_NOT_INIT.getCode, notInitMessage)
         )
       userFsInfo.lastAccessTime = System.currentTimeMillis()
       userFsInfo.fs
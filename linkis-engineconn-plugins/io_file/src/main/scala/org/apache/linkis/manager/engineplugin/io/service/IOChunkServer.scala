@@ -0,0 +1,213 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.linkis.manager.engineplugin.io.service
+
+import org.apache.linkis.common.io.{Fs, FsPath}
+import org.apache.linkis.common.utils.{Logging, Utils}
+import org.apache.linkis.manager.engineplugin.io.conf.IOEngineConnConfiguration
+import org.apache.linkis.storage.domain.MethodEntitySerializer
+import org.apache.linkis.storage.io.chunk.IOChunkProtocol
+import org.apache.linkis.storage.utils.StorageConfiguration
+
+import org.apache.commons.io.IOUtils
+import org.apache.commons.lang3.exception.ExceptionUtils
+
+import java.io.{
+  BufferedInputStream,
+  BufferedOutputStream,
+  DataInputStream,
+  DataOutputStream,
+  EOFException,
+  IOException
+}
+import java.net.{InetAddress, ServerSocket, Socket}
+import java.nio.charset.StandardCharsets
+import java.security.{MessageDigest, SecureRandom}
+import java.util.Base64
+
+import javax.crypto.Mac
+import javax.crypto.spec.SecretKeySpec
+
+/**
+ * Serves the chunk channel of the io file client, see [[IOChunkProtocol]]. The token of an
+ * endpoint is signed for one proxy user and fsId, so a client that got it from the chunkEndpoint
+ * method of the executor can only access that Fs.
+ */
+class IOChunkServer(host: String, port: Int, getUserFS: (String, Long) => Fs) extends Logging {
+
+  private val secret = {
+    val bytes = new Array[Byte](32)
+    new SecureRandom().nextBytes(bytes)
+    new SecretKeySpec(bytes, IOChunkServer.TOKEN_ALGORITHM)
+  }
+
+  private val chunkSize = StorageConfiguration.IO_CHUNK_SIZE.getValue.toLong.toInt
+
+  private val socketTimeout: Int = StorageConfiguration.IO_CHUNK_SOCKET_TIMEOUT.getValue
+
+  private val handlerPool = Utils.newCachedThreadPool(
+    IOEngineConnConfiguration.IO_CHUNK_SERVER_THREAD_MAX.getValue,
+    "IO-Chunk-Handler-Thread-"
+  )
+
+  private var serverSocket: ServerSocket = _
+
+  @volatile private var running = false
+
+  def start(): Unit = {
+    serverSocket = new ServerSocket(port, IOChunkServer.BACKLOG, InetAddress.getByName(host))
+    running = true
+    val acceptor = new Thread("IO-Chunk-Server-Acceptor") {
+      setDaemon(true)
+
+      override def run(): Unit = while (running) accept()
+    }
+    acceptor.start()
+    logger.info(s"IO chunk server started at $host:$getPort.")
+  }
+
+  def getPort: Int = serverSocket.getLocalPort
+
+  def getEndpoint(proxyUser: String, fsId: Long): IOChunkProtocol.Endpoint =
+    new IOChunkProtocol.Endpoint(host, getPort, token(proxyUser, fsId))
+
+  private def token(proxyUser: String, fsId: Long): String = {
+    val mac = Mac.getInstance(IOChunkServer.TOKEN_ALGORITHM)
+    mac.init(secret)
+    val signed = mac.doFinal(s"$proxyUser\u0001$fsId".getBytes(StandardCharsets.UTF_8))
+    Base64.getUrlEncoder.withoutPadding().encodeToString(signed)
+  }
+
+  private def isTokenValid(header: IOChunkProtocol.Header): Boolean =
+    header.token != null && MessageDigest.isEqual(
+      token(header.proxyUser, header.fsId).getBytes(StandardCharsets.UTF_8),
+      header.token.getBytes(StandardCharsets.UTF_8)
+    )
+
+  def stop(): Unit = if (running) {
+    running = false
+    IOUtils.closeQuietly(serverSocket)
+    handlerPool.shutdownNow()
+    logger.info("IO chunk server stopped.")
+  }
+
+  private def accept(): Unit = Utils.tryCatch {
+    val socket = serverSocket.accept()
+    Utils.tryCatch {
+      handlerPool.execute(new Runnable {
+        override def run(): Unit = handle(socket)
+      })
+    } { t =>
+      logger.warn("Failed to serve a connection of the io chunk channel.", t)
+      IOUtils.closeQuietly(socket)
+    }
+  } { t =>
+    if (running) logger.warn("Failed to accept a connection of the io chunk channel.", t)
+  }
+
+  private def handle(socket: Socket): Unit = Utils.tryFinally {
+    socket.setTcpNoDelay(true)
+    socket.setSoTimeout(socketTimeout)
+    val in = new DataInputStream(new BufferedInputStream(socket.getInputStream, 64 * 1024))
+    val out = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream, 64 * 1024))
+    Utils.tryCatch {
+      val header = IOChunkProtocol.Header.read(in)
+      if (!isTokenValid(header)) throw new IOException("Illegal token of the io chunk channel.")
+      val fs = getUserFS(header.proxyUser, header.fsId)
+      val path = MethodEntitySerializer.deserializerToJavaObject(header.path, classOf[FsPath])
+      // Keep the Fs from being cleaned up as idle while streaming
+      var lastAccessTime = System.currentTimeMillis()
+      val keepAlive = () => {
+        val now = System.currentTimeMillis()
+        if (now - lastAccessTime > IOChunkServer.KEEP_ALIVE_INTERVAL) {
+          getUserFS(header.proxyUser, header.fsId)
+          lastAccessTime = now
+        }
+      }
+      header.op match {
+        case IOChunkProtocol.OP_READ => sendFile(fs, path, header.position, out, keepAlive)
+        case IOChunkProtocol.OP_WRITE =>
+          receiveFile(fs, path, header.overwrite, in, out, keepAlive)
+        case op => throw new IOException(s"Unknown operation $op of the io chunk channel.")
+      }
+    } { t =>
+      logger.warn(s"Failed to serve the io chunk channel of ${socket.getRemoteSocketAddress}.", t)
+      Utils.tryQuietly(IOChunkProtocol.writeError(out, ExceptionUtils.getRootCauseMessage(t)))
+    }
+  }(IOUtils.closeQuietly(socket))
+
+  private def sendFile(
+      fs: Fs,
+      path: FsPath,
+      position: Long,
+      out: DataOutputStream,
+      keepAlive: () => Unit
+  ): Unit = {
+    val inputStream = fs.read(path)
+    Utils.tryFinally {
+      if (position > 0) IOUtils.skip(inputStream, position)
+      val buffer = new Array[Byte](chunkSize)
+      var len = IOUtils.read(inputStream, buffer)
+      while (len > 0) {
+        IOChunkProtocol.writeChunk(out, buffer, 0, len)
+        keepAlive()
+        len = IOUtils.read(inputStream, buffer)
+      }
+      IOChunkProtocol.writeEnd(out)
+    }(IOUtils.closeQuietly(inputStream))
+  }
+
+  private def receiveFile(
+      fs: Fs,
+      path: FsPath,
+      overwrite: Boolean,
+      in: DataInputStream,
+      out: DataOutputStream,
+      keepAlive: () => Unit
+  ): Unit = {
+    val outputStream = fs.write(path, overwrite)
+    Utils.tryFinally {
+      val buffer = new Array[Byte](chunkSize)
+      var len = IOChunkProtocol.readChunkLength(in)
+      while (len != IOChunkProtocol.END) {
+        var left = len
+        while (left > 0) {
+          val read = in.read(buffer, 0, math.min(left, buffer.length))
+          if (read < 0) throw new EOFException("The io chunk channel is closed unexpectedly.")
+          outputStream.write(buffer, 0, read)
+          left -= read
+        }
+        keepAlive()
+        len = IOChunkProtocol.readChunkLength(in)
+      }
+    }(outputStream.close())
+    // Acknowledge once the file is closed
+    IOChunkProtocol.writeEnd(out)
+  }
+
+}
+
+object IOChunkServer {
+
+  private val TOKEN_ALGORITHM = "HmacSHA256"
+
+  private val BACKLOG = 50
+
+  private val KEEP_ALIVE_INTERVAL = 10 * 1000L
+
+}
@@ -0,0 +1,187 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.linkis.manager.engineplugin.io.service;
+
+import org.apache.linkis.common.io.Fs;
+import org.apache.linkis.common.io.FsPath;
+import org.apache.linkis.storage.domain.MethodEntitySerializer;
+import org.apache.linkis.storage.io.chunk.IOChunkInputStream;
+import org.apache.linkis.storage.io.chunk.IOChunkOutputStream;
+import org.apache.linkis.storage.io.chunk.IOChunkProtocol;
+
+import org.apache.commons.io.input.NullInputStream;
+import org.apache.commons.io.output.CountingOutputStream;
+import org.apache.commons.io.output.NullOutputStream;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+import scala.runtime.AbstractFunction2;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Disabled;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class IOChunkServerTest {
+
+  private static final int MB = 1024 * 1024;
+
+  private final Fs fs = mock(Fs.class);
+
+  private IOChunkServer server;
+
+  @BeforeEach
+  public void startServer() {
+    server =
+        new IOChunkServer(
+            "127.0.0.1",
+            0,
+            new AbstractFunction2<String, Object, Fs>() {
+              @Override
+              public Fs apply(String proxyUser, Object fsId) {
+                if ("hadoop".equals(proxyUser) || "spark".equals(proxyUser)) {
+                  return fs;
+                }
+                throw new IllegalArgumentException("not exist storage " + fsId);
+              }
+            });
+    server.start();
+  }
+
+  @AfterEach
+  public void stopServer() {
+    server.stop();
+  }
+
+  private IOChunkProtocol.Header header(String proxyUser) {
+    IOChunkProtocol.Header header = new IOChunkProtocol.Header();
+    header.proxyUser = proxyUser;
+    header.fsId = 1L;
+    header.path = MethodEntitySerializer.serializerJavaObject(new FsPath("file:///tmp/test"));
+    return header;
+  }
+
+  private long readFully(InputStream inputStream, ByteArrayOutputStream output)
+      throws IOException {
+    byte[] buffer = new byte[MB];
+    long size = 0;
+    int len = inputStream.read(buffer);
+    while (len > 0) {
+      size += len;
+      if (output != null) {
+        output.write(buffer, 0, len);
+      }
+      len = inputStream.read(buffer);
+    }
+    return size;
+  }
+
+  @Test
+  public void testReadAndWrite() throws IOException {
+    byte[] content = new byte[3 * MB + 17];
+    for (int i = 0; i < content.length; i++) {
+      content[i] = (byte) (i % 251);
+    }
+    ByteArrayOutputStream written = new ByteArrayOutputStream();
+    when(fs.write(any(FsPath.class), anyBoolean())).thenReturn(written);
+    try (IOChunkOutputStream output =
+        new IOChunkOutputStream(server.getEndpoint("hadoop", 1L), header("hadoop"), MB)) {
+      output.write(content, 0, 100);
+      output.write(content[100]);
+      output.write(content, 101, content.length - 101);
+    }
+    assertThat(written.toByteArray()).isEqualTo(content);
+
+    when(fs.read(any(FsPath.class))).thenReturn(new ByteArrayInputStream(content));
+    ByteArrayOutputStream read = new ByteArrayOutputStream();
+    try (IOChunkInputStream input =
+        new IOChunkInputStream(server.getEndpoint("hadoop", 1L), header("hadoop"))) {
+      read.write(input.read());
+      readFully(input, read);
+    }
+    assertThat(read.toByteArray()).isEqualTo(content);
+  }
+
+  @Test
+  public void testIllegalRequest() throws IOException {
+    when(fs.read(any(FsPath.class))).thenReturn(new ByteArrayInputStream(new byte[] {1}));
+    try (IOChunkInputStream input =
+        new IOChunkInputStream(server.getEndpoint("hadoop", 1L), header("spark"))) {
+      assertThatThrownBy(input::read).isInstanceOf(IOException.class);
+    }
+    IOChunkProtocol.Header otherFs = header("hadoop");
+    otherFs.fsId = 2L;
+    try (IOChunkInputStream input =
+        new IOChunkInputStream(server.getEndpoint("hadoop", 1L), otherFs)) {
+      assertThatThrownBy(input::read).isInstanceOf(IOException.class);
+    }
+    try (IOChunkInputStream input =
+        new IOChunkInputStream(server.getEndpoint("spark", 1L), header("spark"))) {
+      assertThat(input.read()).isEqualTo(1);
+    }
+    IOChunkProtocol.Endpoint endpoint = server.getEndpoint("hadoop", 1L);
+    IOChunkOutputStream output =
+        new IOChunkOutputStream(
+            new IOChunkProtocol.Endpoint(endpoint.host, endpoint.port, "illegal"),
+            header("hadoop"),
+            MB);
+    assertThatThrownBy(output::close).isInstanceOf(IOException.class);
+  }
+
+  /** 1 GB through the loopback, the throughput is printed for comparison with the job channel */
+  @Disabled("Benchmark, run it manually")
+  @Test
+  public void testThroughput() throws IOException {
+    long size = 1024L * MB;
+    when(fs.read(any(FsPath.class))).thenReturn(new NullInputStream(size, false, false));
+    long start = System.nanoTime();
+    long readSize;
+    try (IOChunkInputStream input =
+        new IOChunkInputStream(server.getEndpoint("hadoop", 1L), header("hadoop"))) {
+      readSize = readFully(input, null);
+    }
+    double readSeconds = (System.nanoTime() - start) / 1e9;
+    assertThat(readSize).isEqualTo(size);
+
+    CountingOutputStream counting = new CountingOutputStream(NullOutputStream.NULL_OUTPUT_STREAM);
+    when(fs.write(any(FsPath.class), anyBoolean())).thenReturn(counting);
+    byte[] buffer = new byte[MB];
+    start = System.nanoTime();
+    try (IOChunkOutputStream output =
+        new IOChunkOutputStream(server.getEndpoint("hadoop", 1L), header("hadoop"), MB)) {
+      for (long left = size; left > 0; left -= buffer.length) {
+        output.write(buffer, 0, (int) Math.min(left, buffer.length));
+      }
+    }
+    double writeSeconds = (System.nanoTime() - start) / 1e9;
+    assertThat(counting.getByteCount()).isEqualTo(size);
+    System.out.printf(
+        "1 GB through the io chunk channel, read: %.1f MB/s, write: %.1f MB/s%n",
+        1024 / readSeconds, 1024 / writeSeconds);
+  }
+}
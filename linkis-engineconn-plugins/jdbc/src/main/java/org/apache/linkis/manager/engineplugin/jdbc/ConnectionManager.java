@@ -18,22 +18,22 @@
 package org.apache.linkis.manager.engineplugin.jdbc;
 
 import org.apache.linkis.common.utils.SecurityUtils;
+import org.apache.linkis.common.utils.Utils;
 import org.apache.linkis.hadoop.common.utils.KerberosUtils;
+import org.apache.linkis.manager.engineplugin.jdbc.conf.JDBCConfiguration;
 import org.apache.linkis.manager.engineplugin.jdbc.constant.JDBCEngineConnConstant;
 import org.apache.linkis.manager.engineplugin.jdbc.exception.JDBCParamsIllegalException;
 import org.apache.linkis.manager.engineplugin.jdbc.utils.JdbcParamUtils;
 
-import org.apache.commons.dbcp.BasicDataSource;
 import org.apache.commons.lang3.StringUtils;
 import org.apache.hadoop.security.UserGroupInformation;
 
-import javax.sql.DataSource;
-
 import java.security.PrivilegedExceptionAction;
 import java.sql.*;
 import java.text.MessageFormat;
 import java.util.*;
 import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.Executors;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
@@ -48,7 +48,7 @@ import static org.apache.linkis.manager.engineplugin.jdbc.errorcode.JDBCErrorCod
 public class ConnectionManager {
   private static final Logger LOG = LoggerFactory.getLogger(ConnectionManager.class);
 
-  private final Map<String, DataSource> dataSourceFactories;
+  private final Map<String, DataSourcePool> dataSourcePools;
   private final JDBCDataSourceConfigurations jdbcDataSourceConfigurations;
 
   private static volatile ConnectionManager connectionManager;
@@ -57,7 +57,20 @@ public class ConnectionManager {
 
   private ConnectionManager() {
     jdbcDataSourceConfigurations = new JDBCDataSourceConfigurations();
-    dataSourceFactories = new HashMap<>();
+    dataSourcePools = new ConcurrentHashMap<>();
+    long evictInterval = JDBCConfiguration.JDBC_POOL_EVICT_INTERVAL().getValue().toLong();
+    Utils.defaultScheduler()
+        .scheduleWithFixedDelay(
+            () -> {
+              try {
+                evictIdlePools();
+              } catch (Throwable t) {
+                LOG.warn("Failed to evict idle datasource pools.", t);
+              }
+            },
+            evictInterval,
+            evictInterval,
+            TimeUnit.MILLISECONDS);
   }
 
   public static ConnectionManager getInstance() {
@@ -101,16 +114,82 @@ public class ConnectionManager {
     } catch (Exception e) {
       LOG.error("Error while closing...", e);
     }
-    for (DataSource dataSource : this.dataSourceFactories.values()) {
+    for (String identifier : dataSourcePools.keySet()) {
+      DataSourcePool pool = dataSourcePools.remove(identifier);
+      if (pool != null) {
+        try {
+          pool.close();
+        } catch (Exception e) {
+          LOG.error("Error while closing datasource...", e);
+        }
+      }
+    }
+  }
+
+  public DataSourcePool getDataSourcePool(String dataSourceIdentifier) {
+    return dataSourcePools.get(dataSourceIdentifier);
+  }
+
+  public Collection<DataSourcePool> getDataSourcePools() {
+    return Collections.unmodifiableCollection(dataSourcePools.values());
+  }
+
+  /** Close the pools idle longer than the idle timeout. */
+  public void evictIdlePools() {
+    long idleTimeout = JDBCConfiguration.JDBC_POOL_IDLE_TIMEOUT().getValue().toLong();
+    evictIdlePools(idleTimeout);
+  }
+
+  void evictIdlePools(long idleTimeoutMills) {
+    for (DataSourcePool pool : dataSourcePools.values()) {
+      if (pool.isIdle(idleTimeoutMills)) {
+        evictPool(pool, "it was idle for more than " + idleTimeoutMills + "ms");
+      } else if (LOG.isDebugEnabled()) {
+        LOG.debug("Datasource pool stats: {}", pool);
+      }
+    }
+  }
+
+  /**
+   * Close the least recently used idle pools when the number of pools is beyond the max, the ones
+   * having borrowed connections are never closed.
+   */
+  private void evictExcessPools() {
+    int maxNum = ((Number) JDBCConfiguration.JDBC_POOL_MAX_NUM().getValue()).intValue();
+    int excessNum = dataSourcePools.size() - maxNum;
+    if (excessNum <= 0) {
+      return;
+    }
+    List<DataSourcePool> idlePools = new ArrayList<>();
+    for (DataSourcePool pool : dataSourcePools.values()) {
+      if (pool.getActiveNum() == 0) {
+        idlePools.add(pool);
+      }
+    }
+    idlePools.sort(Comparator.comparingLong(DataSourcePool::getLastUsedTime));
+    for (int i = 0; i < excessNum && i < idlePools.size(); i++) {
+      evictPool(idlePools.get(i), "the number of pools is beyond " + maxNum);
+    }
+    if (excessNum > idlePools.size()) {
+      LOG.warn(
+          "The number of datasource pools {} is beyond {}, but all of them are in use.",
+          dataSourcePools.size(),
+          maxNum);
+    }
+  }
+
+  private void evictPool(DataSourcePool pool, String reason) {
+    if (dataSourcePools.remove(pool.getIdentifier(), pool)) {
+      LOG.info("Close datasource pool {}, since {}.", pool, reason);
       try {
-        ((BasicDataSource) dataSource).close();
-      } catch (SQLException e) {
-        LOG.error("Error while closing datasource...", e);
+        pool.close();
+      } catch (Exception e) {
+        LOG.warn("Error while closing datasource pool " + pool.getIdentifier(), e);
       }
     }
   }
 
-  protected DataSource buildDataSource(String dbUrl, Map<String, String> properties)
+  protected DruidDataSource buildDataSource(String dbUrl, Map<String, String> properties)
       throws JDBCParamsIllegalException {
 
     String driverClassName =
@@ -206,16 +285,31 @@ public class ConnectionManager {
   private Connection getConnectionFromDataSource(
       String dataSourceIdentifier, String url, Map<String, String> prop)
       throws SQLException, JDBCParamsIllegalException {
-    DataSource dataSource = dataSourceFactories.get(dataSourceIdentifier);
-    if (dataSource == null) {
-      synchronized (dataSourceFactories) {
-        if (dataSource == null) {
-          dataSource = buildDataSource(url, prop);
-          dataSourceFactories.put(dataSourceIdentifier, dataSource);
+    while (true) {
+      DataSourcePool pool = dataSourcePools.get(dataSourceIdentifier);
+      if (pool == null) {
+        // Druid initializes the pool on the first connection, a pool built by the loser of the
+        // race is closed without opening any connection
+        DataSourcePool newPool =
+            new DataSourcePool(dataSourceIdentifier, buildDataSource(url, prop));
+        pool = dataSourcePools.putIfAbsent(dataSourceIdentifier, newPool);
+        if (pool == null) {
+          pool = newPool;
+          evictExcessPools();
+        } else {
+          newPool.close();
+        }
+      }
+      try {
+        return pool.getConnection();
+      } catch (SQLException e) {
+        // The pool was evicted meanwhile, retry with a new one
+        if (!pool.isClosed()) {
+          throw e;
         }
+        LOG.info("Datasource pool {} was closed, try to rebuild it.", dataSourceIdentifier);
       }
     }
-    return dataSource.getConnection();
   }
 
   public Connection getConnection(String dataSourceIdentifier, Map<String, String> properties)
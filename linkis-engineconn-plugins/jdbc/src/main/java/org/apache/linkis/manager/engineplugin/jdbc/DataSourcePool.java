@@ -0,0 +1,140 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.linkis.manager.engineplugin.jdbc;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+import com.alibaba.druid.pool.DruidDataSource;
+
+/**
+ * A connection pool of one datasource and user registered in {@link ConnectionManager}, with the
+ * statistics of acquiring connections from it.
+ */
+public class DataSourcePool {
+
+  private final String identifier;
+  private final DruidDataSource dataSource;
+
+  private final LongAdder acquireNum = new LongAdder();
+  private final LongAdder acquireFailedNum = new LongAdder();
+  private final LongAdder acquireNanos = new LongAdder();
+  private final AtomicLong maxAcquireNanos = new AtomicLong(0L);
+
+  private volatile long lastUsedTime = System.currentTimeMillis();
+
+  public DataSourcePool(String identifier, DruidDataSource dataSource) {
+    this.identifier = identifier;
+    this.dataSource = dataSource;
+  }
+
+  public Connection getConnection() throws SQLException {
+    lastUsedTime = System.currentTimeMillis();
+    long startTime = System.nanoTime();
+    try {
+      Connection connection = dataSource.getConnection();
+      long costNanos = System.nanoTime() - startTime;
+      acquireNum.increment();
+      acquireNanos.add(costNanos);
+      maxAcquireNanos.accumulateAndGet(costNanos, Math::max);
+      return connection;
+    } catch (SQLException e) {
+      acquireFailedNum.increment();
+      throw e;
+    } finally {
+      lastUsedTime = System.currentTimeMillis();
+    }
+  }
+
+  /** No connection is borrowed and none was acquired within the idle timeout */
+  public boolean isIdle(long idleTimeoutMills) {
+    return dataSource.getActiveCount() == 0
+        && System.currentTimeMillis() - lastUsedTime >= idleTimeoutMills;
+  }
+
+  public boolean isClosed() {
+    return dataSource.isClosed();
+  }
+
+  public void close() {
+    dataSource.close();
+  }
+
+  public String getIdentifier() {
+    return identifier;
+  }
+
+  public DruidDataSource getDataSource() {
+    return dataSource;
+  }
+
+  public long getLastUsedTime() {
+    return lastUsedTime;
+  }
+
+  public int getActiveNum() {
+    return dataSource.getActiveCount();
+  }
+
+  public int getIdleNum() {
+    return dataSource.getPoolingCount();
+  }
+
+  public long getAcquireNum() {
+    return acquireNum.sum();
+  }
+
+  public long getAcquireFailedNum() {
+    return acquireFailedNum.sum();
+  }
+
+  public long getAvgAcquireMills() {
+    long num = acquireNum.sum();
+    return num == 0 ? 0L : TimeUnit.NANOSECONDS.toMillis(acquireNanos.sum() / num);
+  }
+
+  public long getMaxAcquireMills() {
+    return TimeUnit.NANOSECONDS.toMillis(maxAcquireNanos.get());
+  }
+
+  @Override
+  public String toString() {
+    return "DataSourcePool{"
+        + "identifier='"
+        + identifier
+        + '\''
+        + ", active="
+        + getActiveNum()
+        + ", idle="
+        + getIdleNum()
+        + ", maxActive="
+        + dataSource.getMaxActive()
+        + ", acquireNum="
+        + getAcquireNum()
+        + ", acquireFailedNum="
+        + getAcquireFailedNum()
+        + ", avgAcquireMills="
+        + getAvgAcquireMills()
+        + ", maxAcquireMills="
+        + getMaxAcquireMills()
+        + '}';
+  }
+}
@@ -17,7 +17,7 @@
 
 package org.apache.linkis.manager.engineplugin.jdbc.conf
 
-import org.apache.linkis.common.conf.{ByteType, CommonVars}
+import org.apache.linkis.common.conf.{ByteType, CommonVars, TimeType}
 
 object JDBCConfiguration {
 
@@ -31,4 +31,16 @@ object JDBCConfiguration {
   val JDBC_CONCURRENT_LIMIT = CommonVars[Int]("wds.linkis.engineconn.jdbc.concurrent.limit", 100)
 
   val JDBC_KERBEROS_ENABLE = CommonVars[Boolean]("wds.linkis.keytab.enable", false)
+
+  val JDBC_FETCH_SIZE = CommonVars[Int]("linkis.jdbc.fetch.size", 1000)
+
+  /** Read numeric columns with their typed getters, their text may differ from getString */
+  val JDBC_TYPED_READ_ENABLED = CommonVars[Boolean]("linkis.jdbc.typed.read.enabled", false)
+
+  /** Max number of datasource pools kept by the engine, the idle ones are evicted beyond it */
+  val JDBC_POOL_MAX_NUM = CommonVars[Int]("linkis.jdbc.pool.max.num", 50)
+
+  val JDBC_POOL_IDLE_TIMEOUT = CommonVars("linkis.jdbc.pool.idle.timeout", new TimeType("30m"))
+
+  val JDBC_POOL_EVICT_INTERVAL = CommonVars("linkis.jdbc.pool.evict.interval", new TimeType("1m"))
 }
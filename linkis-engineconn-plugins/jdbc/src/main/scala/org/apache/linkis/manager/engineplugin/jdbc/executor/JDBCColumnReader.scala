@@ -0,0 +1,146 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.linkis.manager.engineplugin.jdbc.executor
+
+import java.sql.{ResultSet, ResultSetMetaData, SQLException, Types}
+
+/**
+ * Reads a column of the current row with the getter picked from the column type once per result
+ * set, instead of calling `getObject` and `getString` for every cell. Numeric values keep their
+ * native form and are rendered by the client, dates and times still come from `getString` so that
+ * no time zone conversion of the driver is involved. A cell the typed getter cannot read, e.g. a
+ * NaN of a PostgreSQL numeric, falls back to `getString`.
+ */
+trait JDBCColumnReader {
+
+  def read(resultSet: ResultSet, index: Int): Any
+
+}
+
+object JDBCColumnReader {
+
+  private abstract class NullableReader extends JDBCColumnReader {
+
+    protected def readValue(resultSet: ResultSet, index: Int): Any
+
+    override def read(resultSet: ResultSet, index: Int): Any = {
+      val value = readValue(resultSet, index)
+      if (resultSet.wasNull()) null else value
+    }
+
+  }
+
+  private object BooleanReader extends NullableReader {
+    override protected def readValue(resultSet: ResultSet, index: Int): Any =
+      resultSet.getBoolean(index)
+  }
+
+  private object IntReader extends NullableReader {
+    override protected def readValue(resultSet: ResultSet, index: Int): Any =
+      resultSet.getInt(index)
+  }
+
+  private object LongReader extends NullableReader {
+    override protected def readValue(resultSet: ResultSet, index: Int): Any =
+      resultSet.getLong(index)
+  }
+
+  private object FloatReader extends NullableReader {
+    override protected def readValue(resultSet: ResultSet, index: Int): Any =
+      resultSet.getFloat(index)
+  }
+
+  private object DoubleReader extends NullableReader {
+    override protected def readValue(resultSet: ResultSet, index: Int): Any =
+      resultSet.getDouble(index)
+  }
+
+  private object DecimalReader extends JDBCColumnReader {
+    override def read(resultSet: ResultSet, index: Int): Any = resultSet.getBigDecimal(index)
+  }
+
+  private object StringReader extends JDBCColumnReader {
+    override def read(resultSet: ResultSet, index: Int): Any = resultSet.getString(index)
+  }
+
+  private object BinaryReader extends JDBCColumnReader {
+
+    override def read(resultSet: ResultSet, index: Int): Any = {
+      val bytes = resultSet.getBytes(index)
+      if (bytes == null) null else new String(bytes)
+    }
+
+  }
+
+  /** The way of reading cells before the typed readers, kept for the types not listed */
+  private object ObjectReader extends JDBCColumnReader {
+
+    override def read(resultSet: ResultSet, index: Int): Any = resultSet.getObject(index) match {
+      case bytes: Array[Byte] => new String(bytes)
+      case null => null
+      case _ => resultSet.getString(index)
+    }
+
+  }
+
+  /**
+   * @param signed
+   *   unsigned integers may be out of the range of the getter of their type
+   */
+  def apply(columnType: Int, signed: Boolean): JDBCColumnReader = columnType match {
+    case Types.BOOLEAN => BooleanReader
+    case Types.TINYINT | Types.SMALLINT => IntReader
+    case Types.INTEGER => if (signed) IntReader else LongReader
+    case Types.BIGINT => if (signed) LongReader else DecimalReader
+    case Types.REAL => FloatReader
+    case Types.FLOAT | Types.DOUBLE => DoubleReader
+    case Types.DECIMAL | Types.NUMERIC => DecimalReader
+    case Types.CHAR | Types.VARCHAR | Types.LONGVARCHAR | Types.NCHAR | Types.NVARCHAR |
+        Types.LONGNVARCHAR | Types.DATE | Types.TIME | Types.TIMESTAMP =>
+      StringReader
+    case Types.BINARY | Types.VARBINARY | Types.LONGVARBINARY => BinaryReader
+    case _ => ObjectReader
+  }
+
+  /**
+   * @param typed
+   *   false to read every column in the way before typed readers
+   */
+  def createReaders(metaData: ResultSetMetaData, typed: Boolean): Array[JDBCColumnReader] =
+    (1 to metaData.getColumnCount).map { i =>
+      if (typed) JDBCColumnReader(metaData.getColumnType(i), metaData.isSigned(i))
+      else ObjectReader
+    }.toArray
+
+  /** Read the current row into a new array */
+  def readRow(resultSet: ResultSet, readers: Array[JDBCColumnReader]): Array[Any] = {
+    val row = new Array[Any](readers.length)
+    var i = 0
+    while (i < readers.length) {
+      row(i) =
+        try {
+          readers(i).read(resultSet, i + 1)
+        } catch {
+          case _: SQLException => StringReader.read(resultSet, i + 1)
+        }
+      i += 1
+    }
+    row
+  }
+
+}
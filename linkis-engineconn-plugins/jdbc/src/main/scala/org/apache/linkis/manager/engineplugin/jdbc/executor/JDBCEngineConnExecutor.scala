@@ -134,7 +134,10 @@ class JDBCEngineConnExecutor(override val outputPrintLimit: Int, val id: Int)
     try {
       statement = connection.createStatement()
       statement.setQueryTimeout(JDBCConfiguration.JDBC_QUERY_TIMEOUT.getValue)
-      statement.setFetchSize(outputPrintLimit)
+      val fetchSize = JDBCConfiguration.JDBC_FETCH_SIZE.getValue
+      statement.setFetchSize(
+        if (fetchSize > 0) math.min(fetchSize, outputPrintLimit) else outputPrintLimit
+      )
       statement.setMaxRows(outputPrintLimit)
 
       val monitor = ProgressMonitor.attachMonitor(statement)
@@ -279,18 +282,12 @@ class JDBCEngineConnExecutor(override val outputPrintLimit: Int, val id: Int)
       val resultSetWriter =
         engineExecutorContext.createResultSetWriter(ResultSetFactory.TABLE_TYPE)
       resultSetWriter.addMetaData(metaData)
+      val readers =
+        JDBCColumnReader.createReaders(md, JDBCConfiguration.JDBC_TYPED_READ_ENABLED.getValue)
       var count = 0
       Utils.tryCatch({
         while (count < outputPrintLimit && resultSet.next()) {
-          val r: Array[Any] = columns.indices.map { i =>
-            val data = resultSet.getObject(i + 1) match {
-              case value: Array[Byte] =>
-                new String(resultSet.getObject(i + 1).asInstanceOf[Array[Byte]])
-              case value: Any => resultSet.getString(i + 1)
-              case _ => null
-            }
-            data
-          }.toArray
+          val r = JDBCColumnReader.readRow(resultSet, readers)
           resultSetWriter.addRecord(new TableRecord(r.asInstanceOf[Array[AnyRef]]))
           count += 1
         }
@@ -61,6 +61,43 @@ public class ConnectionManagerTest {
     conn.close();
   }
 
+  @Test
+  @DisplayName("testReusePoolAcrossTasks")
+  public void testReusePoolAcrossTasks() throws SQLException, JDBCParamsIllegalException {
+    Map<String, String> properties = new HashMap<>(8);
+    properties.put(JDBCEngineConnConstant.JDBC_URL, "jdbc:h2:mem:linkis_pool;MODE=MySQL");
+    properties.put(JDBCEngineConnConstant.JDBC_DRIVER, "org.h2.Driver");
+    properties.put(JDBCEngineConnConstant.JDBC_USERNAME, "user");
+    properties.put(JDBCEngineConnConstant.JDBC_PASSWORD, "password");
+    properties.put(JDBCEngineConnConstant.JDBC_AUTH_TYPE, "USERNAME");
+    properties.put(JDBCEngineConnConstant.JDBC_SCRIPTS_EXEC_USER, "leo_jie");
+    ConnectionManager connectionManager = ConnectionManager.getInstance();
+    for (int i = 0; i < 10; i++) {
+      try (Connection conn = connectionManager.getConnection("jdbc-pool", properties);
+          Statement statement = conn.createStatement()) {
+        statement.execute("select 1");
+      }
+    }
+    DataSourcePool pool = connectionManager.getDataSourcePool("jdbc-pool");
+    Assertions.assertNotNull(pool);
+    Assertions.assertEquals(10, pool.getAcquireNum());
+    Assertions.assertEquals(0, pool.getActiveNum());
+    // all the tasks share one physical connection
+    Assertions.assertEquals(1, pool.getDataSource().getCreateCount());
+
+    Connection borrowed = connectionManager.getConnection("jdbc-pool", properties);
+    connectionManager.evictIdlePools(0);
+    Assertions.assertSame(pool, connectionManager.getDataSourcePool("jdbc-pool"));
+    borrowed.close();
+    connectionManager.evictIdlePools(0);
+    Assertions.assertNull(connectionManager.getDataSourcePool("jdbc-pool"));
+    Assertions.assertTrue(pool.isClosed());
+
+    // a new pool is built after the eviction
+    connectionManager.getConnection("jdbc-pool", properties).close();
+    Assertions.assertNotSame(pool, connectionManager.getDataSourcePool("jdbc-pool"));
+  }
+
   @Test
   @DisplayName("testCreateJdbcConnAndExecSql")
   public void testJDBCPropertiesParserGetLong() {
@@ -0,0 +1,113 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.linkis.manager.engineplugin.jdbc.executor
+
+import java.sql.{Connection, DriverManager, ResultSet, ResultSetMetaData, SQLException, Types}
+
+import org.junit.jupiter.api.{AfterEach, Assertions, BeforeEach, Test}
+import org.mockito.Mockito
+
+class TestJDBCColumnReader {
+
+  private val columnNum = 20
+
+  private val rowNum = 1000
+
+  private var connection: Connection = _
+
+  @BeforeEach
+  def before(): Unit = {
+    Class.forName("org.h2.Driver")
+    connection = DriverManager.getConnection("jdbc:h2:mem:linkis_reader", "user", "password")
+    val statement = connection.createStatement()
+    val columns = (0 until columnNum)
+      .map { i =>
+        i % 4 match {
+          case 0 => s"c$i INT"
+          case 1 => s"c$i BIGINT"
+          case 2 => s"c$i DOUBLE"
+          case _ => s"c$i DECIMAL(20, 4)"
+        }
+      }
+      .mkString(", ")
+    statement.execute(s"CREATE TABLE wide_numeric (id INT, $columns)")
+    statement.execute(
+      s"INSERT INTO wide_numeric SELECT X, ${(0 until columnNum).map(_ => "X").mkString(", ")}" +
+        s" FROM SYSTEM_RANGE(1, $rowNum)"
+    )
+    statement.execute("INSERT INTO wide_numeric (id) VALUES (0)")
+    statement.close()
+  }
+
+  @AfterEach
+  def after(): Unit = {
+    val statement = connection.createStatement()
+    statement.execute("DROP TABLE wide_numeric")
+    statement.close()
+    connection.close()
+  }
+
+  @Test
+  def testTypedRead(): Unit = {
+    val typedRows = readAll(typed = true)
+    val objectRows = readAll(typed = false)
+    Assertions.assertEquals(rowNum + 1, typedRows.length)
+    typedRows.zip(objectRows).foreach { case (typed, obj) =>
+      typed.zip(obj).foreach {
+        case (null, o) => Assertions.assertNull(o)
+        case (t: java.math.BigDecimal, o) =>
+          Assertions.assertEquals(0, t.compareTo(new java.math.BigDecimal(o.toString)))
+        case (t, o) => Assertions.assertEquals(o.toString.toDouble, t.toString.toDouble)
+      }
+    }
+    Assertions.assertTrue(typedRows.head(1).isInstanceOf[Integer])
+    Assertions.assertTrue(typedRows.head(2).isInstanceOf[java.lang.Long])
+    Assertions.assertTrue(typedRows.head(3).isInstanceOf[java.lang.Double])
+  }
+
+  @Test
+  def testFallbackToString(): Unit = {
+    val metaData = Mockito.mock(classOf[ResultSetMetaData])
+    Mockito.when(metaData.getColumnCount).thenReturn(2)
+    Mockito.when(metaData.getColumnType(1)).thenReturn(Types.NUMERIC)
+    Mockito.when(metaData.getColumnType(2)).thenReturn(Types.INTEGER)
+    Mockito.when(metaData.isSigned(2)).thenReturn(true)
+    val resultSet = Mockito.mock(classOf[ResultSet])
+    // like PostgreSQL reading a NaN numeric
+    Mockito.when(resultSet.getBigDecimal(1)).thenThrow(new SQLException("Bad value for type"))
+    Mockito.when(resultSet.getString(1)).thenReturn("NaN")
+    Mockito.when(resultSet.getInt(2)).thenReturn(7)
+    val readers = JDBCColumnReader.createReaders(metaData, typed = true)
+    val row = JDBCColumnReader.readRow(resultSet, readers)
+    Assertions.assertEquals("NaN", row(0))
+    Assertions.assertEquals(7, row(1))
+  }
+
+  private def readAll(typed: Boolean): Array[Array[Any]] = {
+    val statement = connection.createStatement()
+    statement.setFetchSize(1000)
+    val resultSet = statement.executeQuery("SELECT * FROM wide_numeric ORDER BY id DESC")
+    val readers = JDBCColumnReader.createReaders(resultSet.getMetaData, typed)
+    val rows = new scala.collection.mutable.ArrayBuffer[Array[Any]]()
+    while (resultSet.next()) rows += JDBCColumnReader.readRow(resultSet, readers)
+    resultSet.close()
+    statement.close()
+    rows.toArray
+  }
+
+}
@@ -40,6 +40,9 @@ public class PythonEngineConfiguration {
   public static final CommonVars<TimeType> PYTHON_LANGUAGE_REPL_INIT_TIME =
       CommonVars.apply("wds.linkis.engine.python.language-repl.init.time", new TimeType("30s"));
 
+  public static final CommonVars<Boolean> PYTHON_SHOW_DF_BULK_ENABLED =
+      CommonVars.apply("linkis.python.show.df.bulk.enabled", false);
+
   private static String getPy4jHome() {
     String confDir = "/conf";
     if (null != PythonEngineConfiguration.class.getResource(confDir)) {
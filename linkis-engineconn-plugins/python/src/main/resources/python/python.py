@@ -124,6 +124,49 @@ def show_matplotlib(p=None,fmt="png", width="auto", height="auto",
   intp.showHTML(html.format(width=width, height=height, img=img_str))
   img.close()
 
+def _to_utf8(value):
+  text = value if isinstance(value, str) else str(value)
+  return text if isinstance(text, bytes) else text.encode('utf-8')
+
+def encode_dataframe(df):
+  """Encodes a pandas DataFrame column by column into one buffer, decoded by
+  PythonDataFrameReader. Numbers, booleans and timestamps are kept as native
+  values, other columns are sent as strings.
+  """
+  import struct
+  import numpy as np
+  buffer = bytearray()
+  rows = len(df)
+  buffer += struct.pack('>ii', rows, len(df.columns))
+  for name in df.columns:
+    column = df[name]
+    dtype = column.dtype
+    for text in (_to_utf8(name), _to_utf8(dtype)):
+      buffer += struct.pack('>i', len(text))
+      buffer += text
+    values = column.values
+    # extension dtypes of pandas (nullable, categorical, tz aware) are sent as strings
+    native = isinstance(dtype, np.dtype)
+    if native and (dtype.kind == 'i' or (dtype.kind == 'u' and dtype.itemsize < 8)):
+      buffer += b'\x01'
+      buffer += values.astype('>i8').tobytes()
+    elif native and dtype.kind == 'f':
+      buffer += b'\x02'
+      buffer += values.astype('>f8').tobytes()
+    elif native and dtype.kind == 'b':
+      buffer += b'\x03'
+      buffer += values.astype('>i1').tobytes()
+    elif native and dtype.kind == 'M':
+      # nanoseconds of the naive datetime, NaT is the min value of int64
+      buffer += b'\x04'
+      buffer += values.astype('datetime64[ns]').astype('>i8').tobytes()
+    else:
+      texts = [_to_utf8(value) for value in column.tolist()]
+      buffer += b'\x05'
+      buffer += np.array([len(text) for text in texts], dtype='>i4').tobytes()
+      buffer += b''.join(texts)
+  return buffer
+
 def printlog(obj):
     try:
         intp.printLog(obj)
@@ -152,6 +195,14 @@ class PythonContext(object):
   def show_dataframe(self, df, show_index=False, **kwargs):
     """Pretty prints DF using Table Display System
     """
+    if intp.isShowDFBulkEnabled():
+      try:
+        buffer = encode_dataframe(df.head(self.max_result))
+      except Exception as e:
+        print("Failed to encode the DataFrame, show it cell by cell: " + str(e))
+      else:
+        intp.showDFBuffer(buffer)
+        return
     limit = len(df) > self.max_result
     dt=df.dtypes
     dh=df.columns
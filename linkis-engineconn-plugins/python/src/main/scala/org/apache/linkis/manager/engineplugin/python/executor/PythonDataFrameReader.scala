@@ -0,0 +1,98 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.linkis.manager.engineplugin.python.executor
+
+import java.nio.{ByteBuffer, ByteOrder}
+import java.nio.charset.StandardCharsets
+import java.sql.Timestamp
+import java.time.{LocalDateTime, ZoneOffset}
+
+/**
+ * Decodes the buffer of a pandas DataFrame written by `encode_dataframe` in python.py. The
+ * buffer is big endian: rows and columns count, then for every column its name, dtype, encoding
+ * and all of its values.
+ */
+object PythonDataFrameReader {
+
+  val LONG_ENCODING: Byte = 1
+  val DOUBLE_ENCODING: Byte = 2
+  val BOOLEAN_ENCODING: Byte = 3
+  val DATETIME_ENCODING: Byte = 4
+  val STRING_ENCODING: Byte = 5
+
+  private val NANOS_PER_SECOND = 1000000000L
+
+  case class DataFrameColumn(name: String, dtype: String, values: Array[AnyRef])
+
+  case class DataFrame(rows: Int, columns: Array[DataFrameColumn]) {
+
+    def getRow(index: Int): Array[AnyRef] = columns.map(_.values(index))
+
+  }
+
+  def read(bytes: Array[Byte]): DataFrame = {
+    val buffer = ByteBuffer.wrap(bytes).order(ByteOrder.BIG_ENDIAN)
+    val rows = buffer.getInt
+    val columns = Array.fill(buffer.getInt) {
+      val name = readString(buffer, buffer.getInt)
+      val dtype = readString(buffer, buffer.getInt)
+      DataFrameColumn(name, dtype, readValues(buffer, buffer.get, rows))
+    }
+    DataFrame(rows, columns)
+  }
+
+  private def readString(buffer: ByteBuffer, length: Int): String = {
+    val value = new String(buffer.array, buffer.position, length, StandardCharsets.UTF_8)
+    buffer.position(buffer.position + length)
+    value
+  }
+
+  private def readValues(buffer: ByteBuffer, encoding: Byte, rows: Int): Array[AnyRef] = {
+    val values = new Array[AnyRef](rows)
+    encoding match {
+      case LONG_ENCODING =>
+        for (i <- 0 until rows) values(i) = java.lang.Long.valueOf(buffer.getLong)
+      case DOUBLE_ENCODING =>
+        for (i <- 0 until rows) values(i) = java.lang.Double.valueOf(buffer.getDouble)
+      case BOOLEAN_ENCODING =>
+        for (i <- 0 until rows) values(i) = java.lang.Boolean.valueOf(buffer.get != 0)
+      case DATETIME_ENCODING =>
+        for (i <- 0 until rows) values(i) = toTimestamp(buffer.getLong)
+      case STRING_ENCODING =>
+        val lengths = Array.fill(rows)(buffer.getInt)
+        for (i <- 0 until rows) values(i) = readString(buffer, lengths(i))
+      case _ =>
+        throw new IllegalArgumentException(s"Unknown encoding $encoding of the DataFrame.")
+    }
+    values
+  }
+
+  /**
+   * pandas keeps naive datetimes as nanoseconds since the epoch, NaT is the min value of long
+   */
+  private def toTimestamp(nanos: Long): Timestamp = if (nanos == Long.MinValue) null
+  else {
+    val dateTime = LocalDateTime.ofEpochSecond(
+      Math.floorDiv(nanos, NANOS_PER_SECOND),
+      Math.floorMod(nanos, NANOS_PER_SECOND).toInt,
+      ZoneOffset.UTC
+    )
+    Timestamp.valueOf(dateTime)
+  }
+
+}
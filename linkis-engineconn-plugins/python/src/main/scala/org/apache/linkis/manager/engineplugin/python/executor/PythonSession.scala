@@ -329,6 +329,29 @@ class PythonSession extends Logging {
     engineExecutionContext.sendResultSet(writer)
   }
 
+  def isShowDFBulkEnabled: Boolean = PythonEngineConfiguration.PYTHON_SHOW_DF_BULK_ENABLED.getValue
+
+  /**
+   * show table from the columnar buffer encoded by python, see PythonDataFrameReader
+   *
+   * @param buffer
+   */
+  def showDFBuffer(buffer: Array[Byte]): Unit = {
+    val startTime = System.currentTimeMillis()
+    val dataFrame = PythonDataFrameReader.read(buffer)
+    val writer = engineExecutionContext.createResultSetWriter(ResultSetFactory.TABLE_TYPE)
+    val columns = dataFrame.columns.map(col => new Column(col.name, changeDT(col.dtype), null))
+    writer.addMetaData(new TableMetaData(columns))
+    for (i <- 0 until dataFrame.rows) {
+      writer.addRecord(new TableRecord(dataFrame.getRow(i)))
+    }
+    logger.info(
+      s"Time taken: ${ByteTimeUtils.msDurationToString(System.currentTimeMillis() - startTime)}, " +
+        s"decoded ${dataFrame.rows} rows of DataFrame from ${buffer.length} bytes"
+    )
+    engineExecutionContext.sendResultSet(writer)
+  }
+
   def showHTML(htmlContent: Any): Unit = {
     val startTime = System.currentTimeMillis()
     val writer = engineExecutionContext.createResultSetWriter(ResultSetFactory.HTML_TYPE)
@@ -0,0 +1,167 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.linkis.manager.engineplugin.python.executor;
+
+import org.apache.linkis.common.io.resultset.ResultSet;
+import org.apache.linkis.common.io.resultset.ResultSetWriter;
+import org.apache.linkis.storage.domain.Column;
+import org.apache.linkis.storage.domain.DataType;
+import org.apache.linkis.storage.resultset.ResultSetFactory;
+import org.apache.linkis.storage.resultset.ResultSetWriterFactory;
+import org.apache.linkis.storage.resultset.table.TableMetaData;
+import org.apache.linkis.storage.resultset.table.TableRecord;
+
+import org.apache.commons.io.FileUtils;
+import org.apache.commons.io.IOUtils;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.sql.Timestamp;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Assumptions;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Disabled;
+import org.junit.jupiter.api.Test;
+
+/** Encodes DataFrames with the functions of python.py in a local CPython with pandas */
+public class TestPythonDataFrameReader {
+
+  private static final String ENCODE_SCRIPT =
+      String.join(
+          "\n",
+          "import ast, sys, time",
+          "import numpy as np",
+          "import pandas as pd",
+          "module = ast.parse(open(sys.argv[1]).read())",
+          "module.body = [node for node in module.body if isinstance(node, ast.FunctionDef)",
+          "               and node.name in ('_to_utf8', 'encode_dataframe')]",
+          "exec(compile(module, 'python.py', 'exec'))",
+          "cells = int(sys.argv[2])",
+          "if cells == 0:",
+          "  df = pd.DataFrame({'id': [1, -2, 3], 'score': [1.5, float('nan'), 0.0],",
+          "      'ok': [True, False, True], 'name': ['a', None, u'\\u4e2d\\u6587'],",
+          "      'at': pd.to_datetime(['2020-02-28 01:02:03.5', None, '1969-12-31'])})",
+          "else:",
+          "  rows = cells // 5",
+          "  df = pd.DataFrame({'id': np.arange(rows), 'score': np.random.rand(rows),",
+          "      'ok': np.arange(rows) % 2 == 0, 'name': ['name_%d' % i for i in range(rows)],",
+          "      'at': pd.date_range('2020-01-01', periods=rows, freq='s')})",
+          "start = time.time()",
+          "buffer = encode_dataframe(df)",
+          "sys.stdout.write(str(time.time() - start))",
+          "open(sys.argv[3], 'wb').write(buffer)");
+
+  private static File script;
+
+  @BeforeAll
+  public static void checkPandas() throws Exception {
+    Process process = new ProcessBuilder("python3", "-c", "import pandas").start();
+    Assumptions.assumeTrue(process.waitFor() == 0, "python3 with pandas is required");
+    script = File.createTempFile("encode_dataframe", ".py");
+    script.deleteOnExit();
+    FileUtils.writeStringToFile(script, ENCODE_SCRIPT, StandardCharsets.UTF_8);
+  }
+
+  /** Returns the seconds python takes to encode the DataFrame */
+  private double encode(int cells, File output) throws Exception {
+    String pythonFile = getClass().getResource("/python/python.py").getPath();
+    Process process =
+        new ProcessBuilder(
+                "python3",
+                script.getAbsolutePath(),
+                pythonFile,
+                String.valueOf(cells),
+                output.getAbsolutePath())
+            .redirectErrorStream(true)
+            .start();
+    String out = IOUtils.toString(process.getInputStream(), StandardCharsets.UTF_8);
+    Assertions.assertEquals(0, process.waitFor(), out);
+    return Double.parseDouble(out.trim());
+  }
+
+  private PythonDataFrameReader.DataFrame read(int cells) throws Exception {
+    File output = File.createTempFile("dataframe", ".bin");
+    try {
+      encode(cells, output);
+      return PythonDataFrameReader.read(Files.readAllBytes(output.toPath()));
+    } finally {
+      output.delete();
+    }
+  }
+
+  @Test
+  public void testRead() throws Exception {
+    PythonDataFrameReader.DataFrame dataFrame = read(0);
+    Assertions.assertEquals(3, dataFrame.rows());
+    Assertions.assertEquals(5, dataFrame.columns().length);
+    Assertions.assertEquals("id", dataFrame.columns()[0].name());
+    Assertions.assertEquals("int64", dataFrame.columns()[0].dtype());
+    Assertions.assertEquals("datetime64[ns]", dataFrame.columns()[4].dtype());
+    Assertions.assertArrayEquals(
+        new Object[] {1L, 1.5d, true, "a", Timestamp.valueOf("2020-02-28 01:02:03.5")},
+        dataFrame.getRow(0));
+    Object[] row = dataFrame.getRow(1);
+    Assertions.assertEquals(-2L, row[0]);
+    Assertions.assertTrue(Double.isNaN((Double) row[1]));
+    Assertions.assertEquals(false, row[2]);
+    Assertions.assertEquals("None", row[3]);
+    Assertions.assertNull(row[4]);
+    Assertions.assertArrayEquals(
+        new Object[] {3L, 0.0d, true, "中文", Timestamp.valueOf("1969-12-31 00:00:00")},
+        dataFrame.getRow(2));
+  }
+
+  /** Prints the time to show DataFrames of 10k, 100k and 1M cells */
+  @Test
+  @Disabled("Benchmark, run it manually")
+  @SuppressWarnings({"rawtypes", "unchecked"})
+  public void testShowTime() throws Exception {
+    ResultSet resultSet =
+        ResultSetFactory.getInstance().getResultSetByType(ResultSetFactory.TABLE_TYPE);
+    for (int cells : new int[] {10000, 100000, 1000000}) {
+      File output = File.createTempFile("dataframe", ".bin");
+      try {
+        double encodeSeconds = encode(cells, output);
+        long start = System.nanoTime();
+        byte[] buffer = Files.readAllBytes(output.toPath());
+        PythonDataFrameReader.DataFrame dataFrame = PythonDataFrameReader.read(buffer);
+        ResultSetWriter writer =
+            ResultSetWriterFactory.getResultSetWriter(resultSet, Long.MAX_VALUE, null);
+        PythonDataFrameReader.DataFrameColumn[] dfColumns = dataFrame.columns();
+        Column[] columns = new Column[dfColumns.length];
+        for (int i = 0; i < columns.length; i++) {
+          columns[i] = new Column(dfColumns[i].name(), DataType.StringType, null);
+        }
+        writer.addMetaData(new TableMetaData(columns));
+        for (int i = 0; i < dataFrame.rows(); i++) {
+          writer.addRecord(new TableRecord(dataFrame.getRow(i)));
+        }
+        writer.close();
+        double writeSeconds = (System.nanoTime() - start) / 1e9;
+        Assertions.assertEquals(cells / 5, dataFrame.rows());
+        System.out.printf(
+            "%d cells (%d bytes), python encode: %.3fs, decode and write: %.3fs%n",
+            cells, buffer.length, encodeSeconds, writeSeconds);
+      } finally {
+        output.delete();
+      }
+    }
+  }
+}
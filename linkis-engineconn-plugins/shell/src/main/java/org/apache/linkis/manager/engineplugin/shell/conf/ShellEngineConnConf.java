@@ -27,4 +27,27 @@ public class ShellEngineConnConf {
       CommonVars.apply("linkis.engineconn.shell.log.max.thread.size", 50).getValue();
   public static final int SHELL_ENGINECONN_OUTPUT_PRINT_LIMIT =
       CommonVars.apply("wds.linkis.engineconn.shell.output.print.limit", 1000).getValue();
+
+  public static final int SHELL_ENGINECONN_OUTPUT_BUFFER_SIZE =
+      CommonVars.apply("linkis.engineconn.shell.output.buffer.size", 65536).getValue();
+
+  /**
+   * Max length of the output lines coalesced into one log update, keep it within
+   * linkis.ec.send.log.entrance.limit.length or the update is truncated, 0 means unbounded
+   */
+  public static final int SHELL_ENGINECONN_OUTPUT_LOG_BATCH_LENGTH =
+      CommonVars.apply("linkis.engineconn.shell.output.log.batch.length", 2000).getValue();
+
+  /** Output lines of each stream echoed into the engine log, a negative value echoes all */
+  public static final long SHELL_ENGINECONN_OUTPUT_ECHO_LIMIT =
+      CommonVars.apply("linkis.engineconn.shell.output.echo.limit", 1000L).getValue();
+
+  /** Beyond the echo limit, echo one line out of every interval, 0 echoes none */
+  public static final long SHELL_ENGINECONN_OUTPUT_ECHO_SAMPLE_INTERVAL =
+      CommonVars.apply("linkis.engineconn.shell.output.echo.sample.interval", 0L).getValue();
+
+  /** Only the output lines containing it are matched against the yarn app id regex */
+  public static final String SHELL_ENGINECONN_YARN_APP_ID_CANDIDATE =
+      CommonVars.apply("linkis.engineconn.shell.yarn.app.id.candidate", "application_")
+          .getValue();
 }
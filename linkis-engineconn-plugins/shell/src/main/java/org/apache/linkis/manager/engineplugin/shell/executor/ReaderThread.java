@@ -19,14 +19,12 @@ package org.apache.linkis.manager.engineplugin.shell.executor;
 
 import org.apache.linkis.common.conf.CommonVars;
 import org.apache.linkis.engineconn.computation.executor.execute.EngineExecutionContext;
+import org.apache.linkis.manager.engineplugin.shell.conf.ShellEngineConnConf;
 
 import org.apache.commons.io.IOUtils;
-import org.apache.commons.lang3.StringUtils;
 
 import java.io.BufferedReader;
 import java.io.IOException;
-import java.util.ArrayList;
-import java.util.List;
 import java.util.concurrent.CountDownLatch;
 
 import org.slf4j.Logger;
@@ -41,10 +39,17 @@ public class ReaderThread extends Thread {
   private boolean isStdout;
   private final int logListCount =
       CommonVars.apply("wds.linkis.engineconn.log.list.count", 50).getValue();
+  private final int logBatchLength = ShellEngineConnConf.SHELL_ENGINECONN_OUTPUT_LOG_BATCH_LENGTH;
+  private final long echoLimit = ShellEngineConnConf.SHELL_ENGINECONN_OUTPUT_ECHO_LIMIT;
+  private final long echoSampleInterval =
+      ShellEngineConnConf.SHELL_ENGINECONN_OUTPUT_ECHO_SAMPLE_INTERVAL;
   private CountDownLatch counter;
 
   private boolean isReaderAlive = true;
 
+  private final StringBuilder logBatch = new StringBuilder();
+  private int logBatchLines = 0;
+
   public ReaderThread(
       EngineExecutionContext engineExecutionContext,
       BufferedReader inputReader,
@@ -65,7 +70,8 @@ public class ReaderThread extends Thread {
   @Override
   public void run() {
     String line = null;
-    List<String> logArray = new ArrayList<>();
+    long lineCount = 0;
+    long echoedCount = 0;
     while (true) {
       try {
         line = inputReader.readLine();
@@ -74,24 +80,58 @@ public class ReaderThread extends Thread {
         logger.warn("inputReader reading the input stream");
         break;
       }
-      logger.info("read logger line :{}", line);
-      logArray.add(line);
+      lineCount++;
+      if (isEchoed(lineCount)) {
+        logger.info("read logger line :{}", line);
+        echoedCount++;
+      }
       extractor.appendLineToExtractor(line);
       if (isStdout) {
         engineExecutionContext.appendTextResultSet(line);
       }
-      if (logArray.size() > logListCount) {
-        String linelist = StringUtils.join(logArray, "\n");
-        engineExecutionContext.appendStdout(linelist);
-        logArray.clear();
-      }
+      appendLog(line);
     }
-    if (logArray.size() > 0) {
-      String linelist = StringUtils.join(logArray, "\n");
-      engineExecutionContext.appendStdout(linelist);
-      logArray.clear();
+    flushLog();
+    if (echoedCount < lineCount) {
+      logger.info("read {} lines, {} of them echoed into the log", lineCount, echoedCount);
     }
     IOUtils.closeQuietly(inputReader);
     counter.countDown();
   }
+
+  /** The first lines up to the echo limit, then one out of every sample interval */
+  private boolean isEchoed(long lineCount) {
+    if (echoLimit < 0 || lineCount <= echoLimit) {
+      return true;
+    }
+    return echoSampleInterval > 0 && (lineCount - echoLimit) % echoSampleInterval == 0;
+  }
+
+  /**
+   * Coalesce the lines into one log update, bounded by the line count and by the length, a line
+   * longer than the length bound is sent on its own.
+   */
+  private void appendLog(String line) {
+    if (logBatchLines > 0
+        && logBatchLength > 0
+        && logBatch.length() + 1 + line.length() > logBatchLength) {
+      flushLog();
+    }
+    if (logBatchLines > 0) {
+      logBatch.append('\n');
+    }
+    logBatch.append(line);
+    logBatchLines++;
+    if (logBatchLines > logListCount) {
+      flushLog();
+    }
+  }
+
+  private void flushLog() {
+    if (logBatchLines > 0) {
+      engineExecutionContext.appendStdout(logBatch.toString());
+      logBatch.setLength(0);
+      logBatchLines = 0;
+    }
+  }
 }
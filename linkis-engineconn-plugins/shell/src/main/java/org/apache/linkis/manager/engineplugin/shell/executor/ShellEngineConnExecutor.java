@@ -171,8 +171,11 @@ public class ShellEngineConnExecutor extends ComputationExecutor {
       processBuilder.redirectErrorStream(false);
       extractor = new YarnAppIdExtractor();
       process = processBuilder.start();
-      bufferedReader = new BufferedReader(new InputStreamReader(process.getInputStream()));
-      errorsReader = new BufferedReader(new InputStreamReader(process.getErrorStream()));
+      int bufferSize = ShellEngineConnConf.SHELL_ENGINECONN_OUTPUT_BUFFER_SIZE;
+      bufferedReader =
+          new BufferedReader(new InputStreamReader(process.getInputStream()), bufferSize);
+      errorsReader =
+          new BufferedReader(new InputStreamReader(process.getErrorStream()), bufferSize);
 
       // add task id and task Info cache
       shellECTaskInfoCache.put(taskId, new ShellECTaskInfo(taskId, process, extractor));
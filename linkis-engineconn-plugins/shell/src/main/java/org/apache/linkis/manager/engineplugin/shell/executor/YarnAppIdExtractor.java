@@ -18,6 +18,7 @@
 package org.apache.linkis.manager.engineplugin.shell.executor;
 
 import org.apache.linkis.engineconn.common.conf.EngineConnConf;
+import org.apache.linkis.manager.engineplugin.shell.conf.ShellEngineConnConf;
 
 import org.apache.commons.lang3.StringUtils;
 
@@ -34,10 +35,16 @@ public class YarnAppIdExtractor {
       EngineConnConf.SPARK_ENGINE_CONN_YARN_APP_ID_PARSE_REGEX().getValue();
   private final Pattern pattern = Pattern.compile(regex);
 
+  private final String candidate = ShellEngineConnConf.SHELL_ENGINECONN_YARN_APP_ID_CANDIDATE;
+
   public void appendLineToExtractor(String content) {
     if (StringUtils.isBlank(content)) {
       return;
     }
+    // Skip the regex for the lines which cannot hold an app id
+    if (StringUtils.isNotEmpty(candidate) && !content.contains(candidate)) {
+      return;
+    }
     Matcher yarnAppIDMatcher = pattern.matcher(content);
     if (yarnAppIDMatcher.find()) {
       String yarnAppID = yarnAppIDMatcher.group(2);
@@ -0,0 +1,78 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.linkis.manager.engineplugin.shell.executor;
+
+import org.apache.linkis.engineconn.computation.executor.execute.EngineExecutionContext;
+import org.apache.linkis.manager.engineplugin.shell.conf.ShellEngineConnConf;
+
+import java.io.BufferedReader;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mockito;
+
+public class TestReaderThread {
+
+  private static final String APP_ID = "application_1672531200000_0001";
+
+  @Test
+  public void testCoalesceStdout() {
+    List<String> lines = new ArrayList<>();
+    for (int i = 0; i < 10000; i++) {
+      lines.add(i == 5000 ? "Submitted application " + APP_ID : "line " + i);
+    }
+    EngineExecutionContext engineExecutionContext = Mockito.mock(EngineExecutionContext.class);
+    YarnAppIdExtractor extractor = new YarnAppIdExtractor();
+    CountDownLatch counter = new CountDownLatch(1);
+    BufferedReader reader = new BufferedReader(new StringReader(String.join("\n", lines)));
+    new ReaderThread(engineExecutionContext, reader, extractor, true, counter).run();
+
+    Assertions.assertEquals(0, counter.getCount());
+    Mockito.verify(engineExecutionContext, Mockito.times(lines.size()))
+        .appendTextResultSet(Mockito.anyString());
+    ArgumentCaptor<String> logs = ArgumentCaptor.forClass(String.class);
+    Mockito.verify(engineExecutionContext, Mockito.atLeastOnce()).appendStdout(logs.capture());
+    for (String log : logs.getAllValues()) {
+      Assertions.assertTrue(
+          log.length() <= ShellEngineConnConf.SHELL_ENGINECONN_OUTPUT_LOG_BATCH_LENGTH);
+    }
+    Assertions.assertTrue(logs.getAllValues().size() < lines.size() / 10);
+    Assertions.assertEquals(String.join("\n", lines), String.join("\n", logs.getAllValues()));
+    Assertions.assertEquals(1, extractor.getExtractedYarnAppIds().size());
+    Assertions.assertEquals(APP_ID, extractor.getExtractedYarnAppIds().get(0));
+  }
+
+  @Test
+  public void testStderrNotInResultSet() {
+    EngineExecutionContext engineExecutionContext = Mockito.mock(EngineExecutionContext.class);
+    YarnAppIdExtractor extractor = new YarnAppIdExtractor();
+    CountDownLatch counter = new CountDownLatch(1);
+    BufferedReader reader = new BufferedReader(new StringReader("Submitting job\nerror"));
+    new ReaderThread(engineExecutionContext, reader, extractor, false, counter).run();
+
+    Mockito.verify(engineExecutionContext, Mockito.never())
+        .appendTextResultSet(Mockito.anyString());
+    Mockito.verify(engineExecutionContext).appendStdout("Submitting job\nerror");
+    Assertions.assertTrue(extractor.getExtractedYarnAppIds().isEmpty());
+  }
+}
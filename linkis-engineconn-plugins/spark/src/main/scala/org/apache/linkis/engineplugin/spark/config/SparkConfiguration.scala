@@ -144,6 +144,13 @@ object SparkConfiguration extends Logging {
   val SQL_EXTENSION_TIMEOUT = CommonVars("wds.linkis.dws.ujes.spark.extension.timeout", 3000L)
   val SPARK_NF_FRACTION_LENGTH = CommonVars[Int]("wds.linkis.engine.spark.fraction.length", 30)
   val SHOW_DF_MAX_RES = CommonVars("wds.linkis.show.df.max.res", Int.MaxValue)
+
+  /**
+   * Read the rows of showDF from the internal rows of the plan and write integral, boolean, date
+   * and timestamp values as is, only the other cells are formatted like hive does.
+   */
+  val SHOW_DF_TYPED_ENABLED = CommonVars("linkis.spark.show.df.typed.enabled", false)
+
   val MDQ_APPLICATION_NAME = CommonVars("wds.linkis.mdq.application.name", "linkis-ps-datasource")
   val DOLPHIN_LIMIT_LEN = CommonVars("wds.linkis.dolphin.limit.len", 5000)
 
@@ -33,6 +33,8 @@ import org.apache.commons.lang3.StringUtils
 import org.apache.spark.SparkContext
 import org.apache.spark.sql.DataFrame
 import org.apache.spark.sql.Row
+import org.apache.spark.sql.catalyst.{CatalystTypeConverters, InternalRow}
+import org.apache.spark.sql.catalyst.util.DateTimeUtils
 import org.apache.spark.sql.types.{BinaryType, DateType, DecimalType, TimestampType, _}
 import org.apache.spark.sql.types.{StructField, StructType}
 import org.apache.spark.sql.types.BooleanType
@@ -47,6 +49,7 @@ import org.apache.spark.sql.types.StringType
 import java.text.NumberFormat
 import java.util.Locale
 
+import scala.collection.JavaConverters._
 import scala.collection.mutable.ArrayBuffer
 
 object SQLSession extends Logging {
@@ -72,13 +75,6 @@ object SQLSession extends Logging {
     val startTime = System.currentTimeMillis()
     //    sc.setJobGroup(jobGroup, "Get IDE-SQL Results.", false)
 
-    val iterator = Utils.tryThrow(dataFrame.toLocalIterator) { t =>
-      throw new SparkEngineException(
-        DATAFRAME_EXCEPTION.getErrorCode,
-        DATAFRAME_EXCEPTION.getErrorDesc,
-        t
-      )
-    }
     // var columns: List[Attribute] = null
     // get field names
     // logger.info("SCHEMA BEGIN")
@@ -128,14 +124,21 @@ object SQLSession extends Logging {
         engineExecutionContext.createResultSetWriter(ResultSetFactory.TABLE_TYPE, alias)
       } else engineExecutionContext.createResultSetWriter(ResultSetFactory.TABLE_TYPE)
     writer.addMetaData(metaData)
+    val iterator = Utils.tryThrow {
+      if (SparkConfiguration.SHOW_DF_TYPED_ENABLED.getValue) {
+        typedRowIterator(dataFrame, columnsSet)
+      } else stringRowIterator(dataFrame, columnsSet)
+    } { t =>
+      throw new SparkEngineException(
+        DATAFRAME_EXCEPTION.getErrorCode,
+        DATAFRAME_EXCEPTION.getErrorDesc,
+        t
+      )
+    }
     var index = 0
     Utils.tryThrow({
       while (index < maxResult && iterator.hasNext) {
-        val row = iterator.next()
-        val r: Array[Any] = columns.indices.map { i =>
-          toHiveString((row(i), columnsSet.fields(i).dataType))
-        }.toArray
-        writer.addRecord(new TableRecord(r.asInstanceOf[Array[AnyRef]]))
+        writer.addRecord(new TableRecord(iterator.next().asInstanceOf[Array[AnyRef]]))
         index += 1
       }
     }) { t =>
@@ -155,18 +158,87 @@ object SQLSession extends Logging {
     engineExecutionContext.sendResultSet(writer)
   }
 
-  /** also see org.apache.spark.sql.execution.QueryExecution#toHiveString */
+  /**
+   * Rows of the DataFrame with every cell formatted like hive does, the compatible way of showDF.
+   */
+  private[executor] def stringRowIterator(
+      dataFrame: DataFrame,
+      schema: StructType
+  ): Iterator[Array[Any]] = {
+    val dataTypes = schema.fields.map(_.dataType)
+    dataFrame.toLocalIterator.asScala.map { row =>
+      val values = new Array[Any](dataTypes.length)
+      var i = 0
+      while (i < dataTypes.length) {
+        values(i) = toHiveString((row(i), dataTypes(i)))
+        i += 1
+      }
+      values
+    }
+  }
 
-  /** Formats a datum (based on the given data type) and returns the string representation. */
-  private def toHiveString(a: (Any, org.apache.spark.sql.types.DataType)): String = {
+  /**
+   * Rows of the DataFrame read from the internal rows of the executed plan, so that neither the
+   * conversion to external rows nor the hive formatting of most cells is paid. Integral, boolean,
+   * date and timestamp values are written as is, their text is the same as the hive formatting.
+   * Doubles, decimals and complex types are still formatted like hive does, so that the result set
+   * has the same text as [[stringRowIterator]].
+   */
+  private[executor] def typedRowIterator(
+      dataFrame: DataFrame,
+      schema: StructType
+  ): Iterator[Array[Any]] = {
+    val readers = schema.fields.map(field => typedReader(field.dataType))
+    dataFrame.queryExecution.executedPlan.executeToIterator().map { row =>
+      val values = new Array[Any](readers.length)
+      var i = 0
+      while (i < readers.length) {
+        values(i) = if (row.isNullAt(i)) null else readers(i)(row, i)
+        i += 1
+      }
+      values
+    }
+  }
 
-    def formatDecimal(d: java.math.BigDecimal): String = {
-      if (d.compareTo(java.math.BigDecimal.ZERO) == 0) {
-        java.math.BigDecimal.ZERO.toPlainString
-      } else {
-        d.stripTrailingZeros().toPlainString
+  private def typedReader(
+      dataType: org.apache.spark.sql.types.DataType
+  ): (InternalRow, Int) => Any = dataType match {
+    case BooleanType => (row: InternalRow, i: Int) => row.getBoolean(i)
+    case ByteType => (row: InternalRow, i: Int) => row.getByte(i)
+    case ShortType => (row: InternalRow, i: Int) => row.getShort(i)
+    case IntegerType => (row: InternalRow, i: Int) => row.getInt(i)
+    case LongType => (row: InternalRow, i: Int) => row.getLong(i)
+    case FloatType => (row: InternalRow, i: Int) => row.getFloat(i)
+    case DoubleType => (row: InternalRow, i: Int) => nf.format(row.getDouble(i))
+    case decimalType: DecimalType =>
+      (row: InternalRow, i: Int) =>
+        formatDecimal(row.getDecimal(i, decimalType.precision, decimalType.scale).toJavaBigDecimal)
+    case DateType => (row: InternalRow, i: Int) => DateTimeUtils.toJavaDate(row.getInt(i))
+    case TimestampType =>
+      (row: InternalRow, i: Int) => DateTimeUtils.toJavaTimestamp(row.getLong(i))
+    case StringType =>
+      (row: InternalRow, i: Int) => {
+        val str = row.getUTF8String(i).toString
+        if (str.indexOf('\n') < 0 && str.indexOf('\t') < 0) str
+        else str.replace('\n', ' ').replace('\t', ' ')
       }
+    case _ =>
+      val converter = CatalystTypeConverters.createToScalaConverter(dataType)
+      (row: InternalRow, i: Int) => toHiveString((converter(row.get(i, dataType)), dataType))
+  }
+
+  private def formatDecimal(d: java.math.BigDecimal): String = {
+    if (d.compareTo(java.math.BigDecimal.ZERO) == 0) {
+      java.math.BigDecimal.ZERO.toPlainString
+    } else {
+      d.stripTrailingZeros().toPlainString
     }
+  }
+
+  /** also see org.apache.spark.sql.execution.QueryExecution#toHiveString */
+
+  /** Formats a datum (based on the given data type) and returns the string representation. */
+  private def toHiveString(a: (Any, org.apache.spark.sql.types.DataType)): String = {
 
     /** Hive outputs fields of structs slightly differently than top level attributes. */
     def toHiveStructString(a: (Any, org.apache.spark.sql.types.DataType)): String = a match {
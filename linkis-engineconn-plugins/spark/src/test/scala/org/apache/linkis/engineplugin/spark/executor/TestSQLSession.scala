@@ -0,0 +1,73 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.linkis.engineplugin.spark.executor
+
+import org.apache.linkis.common.io.FsPath
+import org.apache.linkis.storage.domain.Dolphin
+
+import org.apache.spark.sql.{DataFrame, SparkSession}
+
+import org.junit.jupiter.api.{Assertions, Test}
+
+class TestSQLSession {
+
+  private def createDataFrame(sparkSession: SparkSession, num: Int): DataFrame =
+    sparkSession
+      .range(0, num)
+      .selectExpr(
+        "id",
+        "cast(id as int) as num",
+        "cast(id as double) * 1.5 as score",
+        "cast(id as decimal(20, 2)) as amount",
+        "date_add(to_date('2020-01-01'), cast(id % 365 as int)) as day",
+        "concat('name\\t', id) as name",
+        "cast(id as double) * 10000000000 as big_score",
+        "cast(id as decimal(20, 2)) / 2 as half_amount"
+      )
+
+  @Test
+  def testTypedRowIterator: Unit = {
+    if (!FsPath.WINDOWS) {
+      val sparkSession = SparkSession
+        .builder()
+        .master("local[1]")
+        .appName("testTypedRowIterator")
+        .getOrCreate()
+      val dataFrame = createDataFrame(sparkSession, 100)
+      val typedRows = SQLSession.typedRowIterator(dataFrame, dataFrame.schema).toArray
+      val stringRows = SQLSession.stringRowIterator(dataFrame, dataFrame.schema).toArray
+      Assertions.assertEquals(100, typedRows.length)
+      Assertions.assertEquals(stringRows.length, typedRows.length)
+      // the result set has the same text on both paths
+      typedRows.zip(stringRows).foreach { case (typed, string) =>
+        Assertions.assertEquals(string.length, typed.length)
+        typed.indices.foreach { i =>
+          Assertions.assertEquals(textOf(string(i)), textOf(typed(i)))
+        }
+      }
+      Assertions.assertEquals("10000000000", textOf(typedRows(1)(6)))
+      Assertions.assertEquals("1.5", textOf(typedRows(1)(2)))
+      Assertions.assertEquals("0.5", textOf(typedRows(1)(7)))
+    }
+  }
+
+  /** The text of a cell written by the result set serializer. */
+  private def textOf(value: Any): String =
+    if (value == null) null else new String(Dolphin.getBytes(value), Dolphin.CHAR_SET)
+
+}
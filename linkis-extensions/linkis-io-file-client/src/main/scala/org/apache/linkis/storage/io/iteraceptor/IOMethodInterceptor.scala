@@ -24,6 +24,11 @@ import org.apache.linkis.manager.label.entity.entrance.BindEngineLabel
 import org.apache.linkis.storage.domain.{FsPathListWithError, MethodEntity, MethodEntitySerializer}
 import org.apache.linkis.storage.errorcode.LinkisIoFileClientErrorCodeSummary._
 import org.apache.linkis.storage.exception.{FSNotInitException, StorageErrorException}
+import org.apache.linkis.storage.io.chunk.{
+  IOChunkInputStream,
+  IOChunkOutputStream,
+  IOChunkProtocol
+}
 import org.apache.linkis.storage.io.client.IOClient
 import org.apache.linkis.storage.io.utils.IOClientUtils
 import org.apache.linkis.storage.resultset.{
@@ -63,6 +68,10 @@ class IOMethodInterceptor(fsType: String) extends MethodInterceptor with Logging
   private val iOEngineExecutorMaxFreeTime = StorageConfiguration.IO_FS_EXPIRE_TIME.getValue
   private val fetchSize = StorageConfiguration.IO_PROXY_READ_FETCH_SIZE.getValue.toLong
   private val cacheSize = StorageConfiguration.IO_PROXY_WRITE_CACHE_SIZE.getValue.toLong.toInt
+  private val chunkSize = StorageConfiguration.IO_CHUNK_SIZE.getValue.toLong.toInt
+
+  private var chunkEndpoint: Option[IOChunkProtocol.Endpoint] = None
+  private var chunkEndpointFetched = false
 
   private var lastAccessTime = System.currentTimeMillis()
 
@@ -131,6 +140,8 @@ class IOMethodInterceptor(fsType: String) extends MethodInterceptor with Logging
     }
     if (id != -1) {
       inited = true
+      // The engine may have changed, so fetch the chunk endpoint again
+      chunkEndpointFetched = false
       bindEngineLabel.setIsJobGroupEnd("false")
       bindEngineLabel.setIsJobGroupHead("false")
     } else {
@@ -141,6 +152,47 @@ class IOMethodInterceptor(fsType: String) extends MethodInterceptor with Logging
     }
   }
 
+  /**
+   * Endpoint of the chunk channel of the bound engine, None if the engine does not support it
+   */
+  private def getChunkEndpoint: Option[IOChunkProtocol.Endpoint] = synchronized {
+    if (!chunkEndpointFetched && StorageConfiguration.IO_CHUNK_TRANSPORT_ENABLED.getValue) {
+      chunkEndpointFetched = true
+      chunkEndpoint = Utils.tryCatch {
+        val result = executeMethod("chunkEndpoint", Array.empty[AnyRef])
+        val endpoint = StorageUtils.deserializerResultToString(result)
+        if (StringUtils.isBlank(endpoint)) None
+        else Some(IOChunkProtocol.Endpoint.parse(endpoint))
+      } { t =>
+        logger.warn(s"$fsType storage($id) cannot use the chunk channel, ${t.getMessage}")
+        None
+      }
+    }
+    chunkEndpoint
+  }
+
+  private def chunkHeader(path: AnyRef): IOChunkProtocol.Header = {
+    val header = new IOChunkProtocol.Header
+    header.proxyUser = getProxyUser
+    header.fsId = id
+    header.path = MethodEntitySerializer.serializerJavaObject(path)
+    header
+  }
+
+  /**
+   * Open the stream through the chunk channel, falls back to the streams of jobs if the channel
+   * is not reachable
+   */
+  private def openChunkStream[T](open: IOChunkProtocol.Endpoint => T): Option[T] =
+    getChunkEndpoint.flatMap { endpoint =>
+      beforeOperation()
+      Utils.tryCatch(Option(open(endpoint))) { t =>
+        logger.warn(s"Failed to open the chunk channel $endpoint, use jobs instead.", t)
+        synchronized(chunkEndpoint = None)
+        None
+      }
+    }
+
   def beforeOperation(): Unit = {
     if (closed) {
       throw new StorageErrorException(
@@ -208,10 +260,15 @@ class IOMethodInterceptor(fsType: String) extends MethodInterceptor with Logging
         properties += StorageConfiguration.PROXY_USER.key -> args(0).asInstanceOf[String]; Unit
       case "read" =>
         if (!inited) throw new IllegalAccessException("storage has not been inited.")
-        new IOInputStream(args)
+        openChunkStream(endpoint => new IOChunkInputStream(endpoint, chunkHeader(args(0))))
+          .getOrElse(new IOInputStream(args))
       case "write" =>
         if (!inited) throw new IllegalAccessException("storage has not been inited.")
-        new IOOutputStream(args)
+        openChunkStream { endpoint =>
+          val header = chunkHeader(args(0))
+          header.overwrite = args(1).toString.toBoolean
+          new IOChunkOutputStream(endpoint, header, chunkSize)
+        }.getOrElse(new IOOutputStream(args))
       case "renameTo" =>
         if (!inited || args.length < 2) {
           throw new IllegalAccessException("storage has not been inited.")
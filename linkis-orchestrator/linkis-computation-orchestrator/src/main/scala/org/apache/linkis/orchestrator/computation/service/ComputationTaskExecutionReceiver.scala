@@ -36,12 +36,26 @@ import org.springframework.stereotype.Service
 
 import javax.annotation.PostConstruct
 
+import java.util.concurrent.{Callable, TimeUnit}
+import java.util.concurrent.atomic.AtomicLong
+
+import scala.collection.JavaConverters._
+
+import com.google.common.cache.{Cache, CacheBuilder}
+
 @Service
 class ComputationTaskExecutionReceiver extends TaskExecutionReceiver with Logging {
 
   private val codeExecTaskExecutorManager =
     CodeExecTaskExecutorManager.getCodeExecTaskExecutorManager
 
+  /** The last seq of events received of a task, to drop the retried ones */
+  private val taskEventsSeqCache: Cache[String, AtomicLong] = CacheBuilder
+    .newBuilder()
+    .expireAfterAccess(1, TimeUnit.HOURS)
+    .maximumSize(100000)
+    .build()
+
   @PostConstruct
   private def init(): Unit = {
     EngineConnMonitor.addEngineExecutorStatusMonitor(
@@ -187,4 +201,36 @@ class ComputationTaskExecutionReceiver extends TaskExecutionReceiver with Loggin
     OrchestratorLoggerUtils.removeJobIdMDC()
   }
 
+  @Receiver
+  override def taskEventsReceiver(taskEvents: ResponseTaskEvents, sender: Sender): Unit = {
+    val serviceInstance = RPCUtils.getServiceInstanceFromSender(sender)
+    val lastSeq = taskEventsSeqCache.get(
+      s"$serviceInstance-${taskEvents.execId}",
+      new Callable[AtomicLong] {
+        override def call(): AtomicLong = new AtomicLong(0)
+      }
+    )
+    lastSeq synchronized {
+      if (taskEvents.seq <= lastSeq.get()) {
+        logger.warn(s"from $serviceInstance received duplicated events($taskEvents), ignore it")
+      } else {
+        if (taskEvents.seq > lastSeq.get() + 1) {
+          logger.warn(s"from $serviceInstance received events($taskEvents) after ${lastSeq.get()}")
+        }
+        lastSeq.set(taskEvents.seq)
+        if (null != taskEvents.events) taskEvents.events.asScala.foreach {
+          case taskLog: ResponseTaskLog => taskLogReceiver(taskLog, sender)
+          case taskProgress: ResponseTaskRunningInfo => taskProgressReceiver(taskProgress, sender)
+          case taskStatus: ResponseTaskStatus => taskStatusReceiver(taskStatus, sender)
+          case taskResultSize: ResponseTaskResultSize =>
+            taskResultSizeReceiver(taskResultSize, sender)
+          case taskResultSet: ResponseTaskResultSet => taskResultSetReceiver(taskResultSet, sender)
+          case taskError: ResponseTaskError => taskErrorReceiver(taskError, sender)
+          case event =>
+            logger.warn(s"from $serviceInstance received unknown event $event of $taskEvents")
+        }
+      }
+    }
+  }
+
 }
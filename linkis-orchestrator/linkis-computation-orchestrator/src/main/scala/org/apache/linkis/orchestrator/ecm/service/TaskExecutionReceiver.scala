@@ -37,4 +37,9 @@ trait TaskExecutionReceiver {
   def taskResultSetReceiver(taskResultSet: ResponseTaskResultSet, sender: Sender): Unit
 
   def taskErrorReceiver(responseTaskError: ResponseTaskError, sender: Sender): Unit
+
+  /**
+   * Unpack the events sent in one message and deal with them in order by the receivers above
+   */
+  def taskEventsReceiver(taskEvents: ResponseTaskEvents, sender: Sender): Unit
 }
@@ -33,11 +33,6 @@ object OrchestratorConfiguration {
   val ORCHESTRATOR_LISTENER_ASYNC_CONSUMER_THREAD_MAX =
     CommonVars("wds.linkis.orchestrator.listener.async.consumer.thread.max", 5)
 
-  val ORCHESTRATOR_LISTENER_ASYNC_CONSUMER_THREAD_FREE_TIME_MAX = CommonVars(
-    "wds.linkis.orchestrator.listener.async.consumer.freetime.max",
-    new TimeType("5000ms")
-  )
-
   val ORCHESTRATOR_EXECUTOR_THREAD_MAX =
     CommonVars("wds.linkis.orchestrator.executor.thread.max", 20)
 
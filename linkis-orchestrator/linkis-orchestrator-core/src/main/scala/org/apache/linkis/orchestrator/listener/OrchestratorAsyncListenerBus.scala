@@ -17,19 +17,27 @@
 
 package org.apache.linkis.orchestrator.listener
 
-import org.apache.linkis.common.listener.ListenerEventBus
+import org.apache.linkis.common.listener.ShardedListenerEventBus
+import org.apache.linkis.orchestrator.listener.task.TaskInfoEvent
 
 /**
+ * The events of one exec task, such as its logs and progress, are dispatched in order by one shard
+ * of the bus, while the events of different tasks are dispatched in parallel.
  */
 class OrchestratorAsyncListenerBus(
     eventQueueCapacity: Int,
     name: String,
-    listenerConsumerThreadSize: Int,
-    listenerThreadMaxFreeTime: Long
-) extends ListenerEventBus[OrchestratorAsyncListener, OrchestratorAsyncEvent](
+    listenerConsumerThreadSize: Int
+) extends ShardedListenerEventBus[OrchestratorAsyncListener, OrchestratorAsyncEvent](
       eventQueueCapacity,
       name
-    )(listenerConsumerThreadSize, listenerThreadMaxFreeTime) {
+    )(listenerConsumerThreadSize) {
+
+  override protected def getEventKey(event: OrchestratorAsyncEvent): Any = event match {
+    case taskInfoEvent: TaskInfoEvent if taskInfoEvent.execTask != null =>
+      taskInfoEvent.execTask.getId
+    case _ => null
+  }
 
   /**
    * Post an event to the specified listener. `onPostEvent` is guaranteed to be called in the same
@@ -36,8 +36,7 @@ class OrchestratorListenerBusContextImpl extends OrchestratorListenerBusContext
     new OrchestratorAsyncListenerBus(
       OrchestratorConfiguration.ORCHESTRATOR_LISTENER_ASYNC_QUEUE_CAPACITY.getValue,
       "Orchestrator-Listener-Asyn-Thread",
-      OrchestratorConfiguration.ORCHESTRATOR_LISTENER_ASYNC_CONSUMER_THREAD_MAX.getValue,
-      OrchestratorConfiguration.ORCHESTRATOR_LISTENER_ASYNC_CONSUMER_THREAD_FREE_TIME_MAX.getValue.toLong
+      OrchestratorConfiguration.ORCHESTRATOR_LISTENER_ASYNC_CONSUMER_THREAD_MAX.getValue
     )
 
   private val orchestratorSyncListenerBus: OrchestratorSyncListenerBus =
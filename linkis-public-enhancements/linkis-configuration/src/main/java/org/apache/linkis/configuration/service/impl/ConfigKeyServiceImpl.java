@@ -17,6 +17,7 @@
 
 package org.apache.linkis.configuration.service.impl;
 
+import org.apache.linkis.configuration.cache.EffectiveConfigView;
 import org.apache.linkis.configuration.dao.ConfigMapper;
 import org.apache.linkis.configuration.dao.LabelMapper;
 import org.apache.linkis.configuration.entity.ConfigKey;
@@ -57,6 +58,8 @@ public class ConfigKeyServiceImpl implements ConfigKeyService {
 
   @Autowired private LabelMapper labelMapper;
 
+  @Autowired private EffectiveConfigView effectiveConfigView;
+
   private CombinedLabelBuilder combinedLabelBuilder = new CombinedLabelBuilder();
 
   @Override
@@ -108,6 +111,7 @@ public class ConfigKeyServiceImpl implements ConfigKeyService {
       configValue.setConfigLabelId(configLabel.getId());
     }
     configMapper.insertValue(configValue);
+    effectiveConfigView.invalidate(combinedLabel.getStringValue());
     logger.info(
         "succeed to save key: {} by label: {} value: {} ",
         configKeyValue.getKey(),
@@ -171,6 +175,7 @@ public class ConfigKeyServiceImpl implements ConfigKeyService {
     for (ConfigValue configValue : configValues) {
       configMapper.deleteConfigKeyValue(configValue);
     }
+    effectiveConfigView.invalidate(combinedLabel.getStringValue());
     logger.info("succeed to remove key: {} by label:{} ", key, combinedLabel.getStringValue());
     return configValues;
   }
@@ -0,0 +1,200 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.linkis.configuration.cache
+
+import org.apache.linkis.common.utils.{Logging, Utils}
+import org.apache.linkis.configuration.conf.Configuration
+import org.apache.linkis.configuration.dao.LabelMapper
+import org.apache.linkis.protocol.BroadcastProtocol
+import org.apache.linkis.rpc.{BroadcastListener, Sender}
+
+import org.apache.commons.lang3.StringUtils
+
+import org.springframework.beans.factory.annotation.Autowired
+import org.springframework.stereotype.Component
+import org.springframework.transaction.support.{
+  TransactionSynchronizationAdapter,
+  TransactionSynchronizationManager
+}
+
+import java.util
+import java.util.concurrent.TimeUnit
+import java.util.concurrent.atomic.AtomicLong
+
+import scala.collection.JavaConverters._
+
+import com.google.common.cache.{Cache, CacheBuilder, CacheStats}
+
+/**
+ * The merged configuration of a label combination, `labelValues` are the string values of the
+ * config labels it was merged from and `version` the view version it was loaded at.
+ */
+class EffectiveConfig(
+    val configs: util.Map[String, String],
+    val labelValues: Set[String],
+    val version: Long
+) {
+  @volatile private[cache] var stale = false
+}
+
+/**
+ * Materialized view of the effective configurations: the key/value map merged from the default,
+ * engine, creator and user configurations is computed once per label combination and served from
+ * memory until one of the labels it was merged from is written.
+ *
+ * Writes are only visible to the other instances once they receive the
+ * [[RemoveEffectiveConfigRequest]] broadcast, the expire time bounds the staleness if it is lost.
+ */
+@Component
+class EffectiveConfigView extends BroadcastListener with Logging {
+
+  @Autowired private var labelMapper: LabelMapper = _
+
+  private val version = new AtomicLong(0)
+
+  private val cache: Cache[String, EffectiveConfig] = CacheBuilder
+    .newBuilder()
+    .maximumSize(Configuration.EFFECTIVE_CONFIG_MAX_SIZE.getValue)
+    .expireAfterWrite(Configuration.EFFECTIVE_CONFIG_EXPIRE_TIME.getValue, TimeUnit.MILLISECONDS)
+    .recordStats()
+    .build()
+
+  /**
+   * The configurations served before their labels were written, kept until [[reload]] compares
+   * with them, so that a query reloading the entry in between does not hide the change.
+   */
+  private val servedBeforeWrite: Cache[String, util.Map[String, String]] = CacheBuilder
+    .newBuilder()
+    .maximumSize(Configuration.EFFECTIVE_CONFIG_MAX_SIZE.getValue)
+    .expireAfterWrite(Configuration.EFFECTIVE_CONFIG_EXPIRE_TIME.getValue, TimeUnit.MILLISECONDS)
+    .build()
+
+  def getVersion: Long = version.get()
+
+  def stats(): CacheStats = cache.stats()
+
+  /**
+   * Serve the effective configuration of `key`, `load` returns the merged configuration with the
+   * label values it was merged from and only runs on a miss.
+   */
+  def getOrLoad(
+      key: String,
+      load: => (util.Map[String, String], Set[String])
+  ): EffectiveConfig = {
+    val cached = cache.getIfPresent(key)
+    if (cached != null && !cached.stale) {
+      cached
+    } else {
+      put(key, load)
+    }
+  }
+
+  /**
+   * Load the effective configuration of `key` again, returns whether it differs from the one
+   * served before the last writes of its labels, or else from the one served now. A configuration
+   * never served counts as changed.
+   */
+  def reload(key: String, load: => (util.Map[String, String], Set[String])): Boolean = {
+    val previous = Option(servedBeforeWrite.asMap().remove(key))
+      .orElse(Option(cache.getIfPresent(key)).map(_.configs))
+    val current = put(key, load)
+    previous.isEmpty || !previous.get.equals(current.configs)
+  }
+
+  private def put(
+      key: String,
+      load: => (util.Map[String, String], Set[String])
+  ): EffectiveConfig = {
+    // Take the version before loading, a write invalidating meanwhile marks the loaded one stale
+    val stamp = version.get()
+    val (configs, labelValues) = load
+    val loaded = new EffectiveConfig(util.Collections.unmodifiableMap(configs), labelValues, stamp)
+    cache.put(key, loaded)
+    if (version.get() != stamp) loaded.stale = true
+    loaded
+  }
+
+  /**
+   * Drop the effective configurations merged from the config label, once the running transaction
+   * committed, and tell the other instances to do the same.
+   */
+  def invalidate(labelValue: String): Unit =
+    if (StringUtils.isNotBlank(labelValue)) invalidateAfterCommit(Array(labelValue))
+
+  /**
+   * Same as [[invalidate]] for the config labels of the ids, all of them are dropped when an id
+   * is unknown.
+   */
+  def invalidateLabelIds(labelIds: Iterable[Integer]): Unit = {
+    val labels = labelIds.toSet[Integer].map { labelId =>
+      if (labelId == null) null else labelMapper.getLabelById(labelId)
+    }
+    if (labels.contains(null)) {
+      invalidateAll()
+    } else {
+      invalidateAfterCommit(labels.map(_.getStringValue).filter(StringUtils.isNotBlank).toArray)
+    }
+  }
+
+  def invalidateAll(): Unit = invalidateAfterCommit(Array.empty)
+
+  private def invalidateAfterCommit(labelValues: Array[String]): Unit =
+    if (TransactionSynchronizationManager.isSynchronizationActive) {
+      TransactionSynchronizationManager.registerSynchronization(
+        new TransactionSynchronizationAdapter {
+          override def afterCommit(): Unit = invalidateAndBroadcast(labelValues)
+        }
+      )
+    } else {
+      invalidateAndBroadcast(labelValues)
+    }
+
+  private def invalidateAndBroadcast(labelValues: Array[String]): Unit = {
+    invalidateLocally(labelValues)
+    val serviceInstance = Sender.getThisServiceInstance
+    if (serviceInstance != null) {
+      Utils.tryAndWarn {
+        val request = RemoveEffectiveConfigRequest(labelValues)
+        Sender.getSender(serviceInstance.getApplicationName).send(request)
+        logger.info(s"Broadcast effective config invalidation of ${labelValues.mkString(",")}")
+      }
+    }
+  }
+
+  /**
+   * Stale configurations are kept to compare the reloaded ones with, and reloaded when served next.
+   */
+  private def invalidateLocally(labelValues: Array[String]): Unit = {
+    version.incrementAndGet()
+    cache.asMap().asScala.foreach { case (key, effectiveConfig) =>
+      if (labelValues.isEmpty || labelValues.exists(effectiveConfig.labelValues.contains)) {
+        if (!effectiveConfig.stale) {
+          servedBeforeWrite.asMap().putIfAbsent(key, effectiveConfig.configs)
+        }
+        effectiveConfig.stale = true
+      }
+    }
+  }
+
+  override def onBroadcastEvent(protocol: BroadcastProtocol, sender: Sender): Unit =
+    protocol match {
+      case RemoveEffectiveConfigRequest(labelValues) => invalidateLocally(labelValues)
+      case _ =>
+    }
+
+}
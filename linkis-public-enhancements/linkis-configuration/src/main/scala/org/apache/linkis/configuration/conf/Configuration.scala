@@ -46,4 +46,21 @@ object Configuration {
   val REMOVE_APPLICATION_CACHE =
     CommonVars.apply("linkis.configuration.remove.application.cache", "IDE").getValue
 
+  /**
+   * Services whose RPC cache of configuration is dropped once the configuration changed, besides
+   * the manager
+   */
+  val CACHE_INVALIDATE_APPLICATIONS =
+    CommonVars("linkis.configuration.cache.invalidate.applications", "linkis-cg-entrance")
+
+  /**
+   * Merged configuration of a label combination kept in memory, invalidated on writes and by
+   * broadcast from the other instances, the expire time bounds a lost broadcast
+   */
+  val EFFECTIVE_CONFIG_MAX_SIZE =
+    CommonVars("linkis.configuration.effective.config.max.size", 10000L)
+
+  val EFFECTIVE_CONFIG_EXPIRE_TIME =
+    CommonVars("linkis.configuration.effective.config.expire.time", 300000L)
+
 }
@@ -18,6 +18,7 @@
 package org.apache.linkis.configuration.service
 
 import org.apache.linkis.common.utils.{Logging, Utils}
+import org.apache.linkis.configuration.cache.EffectiveConfigView
 import org.apache.linkis.configuration.conf.Configuration
 import org.apache.linkis.configuration.dao.{ConfigMapper, LabelMapper}
 import org.apache.linkis.configuration.entity.{CategoryLabel, CategoryLabelVo, ConfigValue}
@@ -51,6 +52,9 @@ class CategoryService extends Logging {
   @Autowired
   private var labelMapper: LabelMapper = _
 
+  @Autowired
+  private var effectiveConfigView: EffectiveConfigView = _
+
   private val combinedLabelBuilder = new CombinedLabelBuilder
 
   def setCategoryVo(vo: CategoryLabelVo, categoryLabel: CategoryLabel): Unit = {
@@ -179,6 +183,7 @@ class CategoryService extends Logging {
           configValueList.add(configValue)
         })
         Utils.tryQuietly(configMapper.insertValueList(configValueList))
+        effectiveConfigView.invalidateLabelIds(Seq(labelId))
       }
     }
   }
@@ -270,6 +275,7 @@ class CategoryService extends Logging {
         case 1 => deleteAllNode(categoryId)
         case _ => deleteCurrentNode(categoryId)
       }
+      effectiveConfigView.invalidateAll()
     }
   }
 
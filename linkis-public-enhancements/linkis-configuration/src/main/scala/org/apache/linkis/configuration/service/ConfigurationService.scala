@@ -18,6 +18,7 @@
 package org.apache.linkis.configuration.service
 
 import org.apache.linkis.common.utils.Logging
+import org.apache.linkis.configuration.cache.EffectiveConfigView
 import org.apache.linkis.configuration.conf.Configuration
 import org.apache.linkis.configuration.dao.{ConfigMapper, LabelMapper}
 import org.apache.linkis.configuration.entity._
@@ -26,6 +27,9 @@ import org.apache.linkis.configuration.util.{LabelEntityParser, LabelParameterPa
 import org.apache.linkis.configuration.validate.ValidatorManager
 import org.apache.linkis.governance.common.protocol.conf.{
   RemoveCacheConfRequest,
+  RequestQueryEngineConfig,
+  RequestQueryEngineConfigWithGlobalConfig,
+  RequestQueryGlobalConfig,
   ResponseQueryConfig
 }
 import org.apache.linkis.manager.label.builder.CombinedLabelBuilder
@@ -34,6 +38,7 @@ import org.apache.linkis.manager.label.entity.{CombinedLabel, CombinedLabelImpl,
 import org.apache.linkis.manager.label.entity.engine.{EngineTypeLabel, UserCreatorLabel}
 import org.apache.linkis.manager.label.utils.{EngineTypeLabelCreator, LabelUtils}
 import org.apache.linkis.rpc.Sender
+import org.apache.linkis.rpc.interceptor.common.{CacheableRPCInterceptor, RemoveRPCCacheRequest}
 
 import org.apache.commons.lang3.StringUtils
 
@@ -57,6 +62,8 @@ class ConfigurationService extends Logging {
 
   @Autowired private var validatorManager: ValidatorManager = _
 
+  @Autowired private var effectiveConfigView: EffectiveConfigView = _
+
   private val combinedLabelBuilder: CombinedLabelBuilder = new CombinedLabelBuilder
 
   @Transactional
@@ -91,6 +98,7 @@ class ConfigurationService extends Logging {
       configMapper.insertValue(configValue)
       logger.info(s"Succeed to  create relation: key:${key.getKey},label:${label.getStringValue}")
     }
+    effectiveConfigView.invalidate(combinedLabel.getStringValue)
   }
 
   def insertCreator(creator: String): Unit = {
@@ -149,6 +157,9 @@ class ConfigurationService extends Logging {
     if (!CollectionUtils.isEmpty(updateList)) {
       configMapper.updateUserValueList(updateList)
     }
+    val labelIds = (Option(createList).map(_.asScala).getOrElse(Nil) ++
+      Option(updateList).map(_.asScala).getOrElse(Nil)).map(_.getConfigLabelId)
+    if (labelIds.nonEmpty) effectiveConfigView.invalidateLabelIds(labelIds)
   }
 
   def clearAMCacheConf(username: String, creator: String, engine: String, version: String): Unit = {
@@ -166,9 +177,70 @@ class ConfigurationService extends Logging {
         } else {
           null
         }
-      val request = RemoveCacheConfRequest(userCreatorLabel, engineTypeLabel)
-      logger.info(s"Broadcast cleanup message to manager $request")
-      sender.ask(request)
+      if (effectiveConfigChanged(userCreatorLabel, engineTypeLabel)) {
+        val request = RemoveCacheConfRequest(userCreatorLabel, engineTypeLabel)
+        logger.info(s"Broadcast cleanup message to manager $request")
+        sender.ask(request)
+        removeRPCCacheConf(userCreatorLabel, engineTypeLabel)
+      } else {
+        logger.info(
+          s"Effective configuration of ${userCreatorLabel.getStringValue} is unchanged, " +
+            "skip cleaning the cache of its consumers"
+        )
+      }
+    }
+  }
+
+  /**
+   * Load the effective configurations the consumers cache for the labels again, only a changed one
+   * is worth cleaning their cache.
+   */
+  private[service] def effectiveConfigChanged(
+      userCreatorLabel: UserCreatorLabel,
+      engineTypeLabel: EngineTypeLabel
+  ): Boolean = {
+    val globalLabelList = LabelEntityParser.generateUserCreatorEngineTypeLabelList(
+      userCreatorLabel.getUser,
+      "*",
+      "*",
+      "*"
+    )
+    var changed = reloadEffectiveConfig(globalLabelList)
+    if (engineTypeLabel != null) {
+      val labelList = new util.ArrayList[Label[_]]
+      labelList.add(userCreatorLabel)
+      labelList.add(engineTypeLabel)
+      changed = reloadEffectiveConfig(labelList) || changed
+    }
+    changed
+  }
+
+  private def reloadEffectiveConfig(labelList: util.List[Label[_]]): Boolean =
+    effectiveConfigView.reload(effectiveConfigKey(labelList), loadEffectiveConfig(labelList))
+
+  /**
+   * Let the other services caching the configuration drop their stale RPC cache entries
+   */
+  private def removeRPCCacheConf(
+      userCreatorLabel: UserCreatorLabel,
+      engineTypeLabel: EngineTypeLabel
+  ): Unit = {
+    val applicationNames = Configuration.CACHE_INVALIDATE_APPLICATIONS.getValue.split(",")
+    if (engineTypeLabel != null) {
+      val keyFieldsPrefix = Array(userCreatorLabel.getStringValue, engineTypeLabel.getStringValue)
+      Array(classOf[RequestQueryEngineConfig], classOf[RequestQueryEngineConfigWithGlobalConfig])
+        .foreach { protocolClass =>
+          CacheableRPCInterceptor.broadcastRemoveCache(
+            applicationNames,
+            RemoveRPCCacheRequest(protocolClass.getName, keyFieldsPrefix)
+          )
+        }
+    } else {
+      val protocolClass = classOf[RequestQueryGlobalConfig].getName
+      CacheableRPCInterceptor.broadcastRemoveCache(
+        applicationNames,
+        RemoveRPCCacheRequest(protocolClass, Array(userCreatorLabel.getUser))
+      )
     }
   }
 
@@ -187,6 +259,9 @@ class ConfigurationService extends Logging {
         configValue.setConfigValue(setting.getConfigValue)
       }
       configValue.setId(setting.getValueId)
+      configValue.setConfigLabelId(
+        if (setting.getConfigLabelId != null) setting.getConfigLabelId else userLabelId
+      )
       updateList.add(configValue)
     } else {
       if (!StringUtils.isEmpty(setting.getConfigValue)) {
@@ -488,6 +563,7 @@ class ConfigurationService extends Logging {
         )
       }
     })
+    effectiveConfigView.invalidate(combinedLabel.getStringValue)
     logger.info(
       s"User configuration data integrity check completed!(用户配置数据完整性检查完毕！): label标签为：${combinedLabel.getStringValue}"
     )
@@ -499,12 +575,33 @@ class ConfigurationService extends Logging {
       filter: String = null
   ): ResponseQueryConfig = {
     LabelParameterParser.labelCheck(labelList)
+    val effectiveConfig =
+      effectiveConfigView.getOrLoad(effectiveConfigKey(labelList), loadEffectiveConfig(labelList))
+    val config = new ResponseQueryConfig
+    // The callers modify the map, so hand out a copy of the served one
+    config.setKeyAndValue(getMap(effectiveConfig.configs, null, filter))
+    config
+  }
+
+  private def effectiveConfigKey(labelList: util.List[Label[_]]): String =
+    combinedLabelBuilder.build("", labelList).getStringValue
+
+  /**
+   * Merge the effective configuration of the labels, with the string values of the config labels
+   * it depends on.
+   */
+  private def loadEffectiveConfig(
+      labelList: util.List[Label[_]]
+  ): (util.Map[String, String], Set[String]) = {
     val allGolbalUserConfig = getConfigMapByLabels(labelList)
     val defaultLabel = LabelParameterParser.changeUserToDefault(labelList)
     val allGolbalDefaultConfig = getConfigMapByLabels(defaultLabel)
-    val config = new ResponseQueryConfig
-    config.setKeyAndValue(getMap(allGolbalDefaultConfig, allGolbalUserConfig, filter))
-    config
+    val labelValues = Seq(
+      labelList,
+      LabelParameterParser.changeUserToDefault(labelList, false),
+      defaultLabel
+    ).map(effectiveConfigKey).toSet
+    (getMap(allGolbalDefaultConfig, allGolbalUserConfig), labelValues)
   }
 
   def queryDefaultEngineConfig(engineTypeLabel: EngineTypeLabel): ResponseQueryConfig = {
@@ -571,8 +668,8 @@ class ConfigurationService extends Logging {
         }
       }
     } else {
-      map.putAll(all)
-      map.putAll(user)
+      if (null != all) map.putAll(all)
+      if (null != user) map.putAll(user)
     }
     // user conf reset default value
     map
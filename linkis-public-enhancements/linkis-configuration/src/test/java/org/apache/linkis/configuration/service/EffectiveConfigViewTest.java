@@ -0,0 +1,177 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.linkis.configuration.service;
+
+import org.apache.linkis.configuration.Scan;
+import org.apache.linkis.configuration.cache.EffectiveConfigView;
+import org.apache.linkis.configuration.dao.ConfigMapper;
+import org.apache.linkis.configuration.dao.LabelMapper;
+import org.apache.linkis.configuration.entity.ConfigValue;
+import org.apache.linkis.manager.label.builder.factory.LabelBuilderFactoryContext;
+import org.apache.linkis.manager.label.entity.engine.UserCreatorLabel;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.AdditionalAnswers;
+import org.mockito.Mockito;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/** Not transactional, so that the writes commit and invalidate the view right away. */
+@SpringBootTest(classes = Scan.class)
+public class EffectiveConfigViewTest {
+
+  private static final String QUEUE_KEY = "wds.linkis.rm.yarnqueue";
+
+  @Autowired private ConfigMapper configMapper;
+
+  @Autowired private LabelMapper labelMapper;
+
+  private ConfigMapper countedConfigMapper;
+
+  private LabelMapper countedLabelMapper;
+
+  private ConfigurationService configurationService;
+
+  @BeforeEach
+  void before() {
+    countedConfigMapper =
+        Mockito.mock(ConfigMapper.class, AdditionalAnswers.delegatesTo(configMapper));
+    countedLabelMapper =
+        Mockito.mock(LabelMapper.class, AdditionalAnswers.delegatesTo(labelMapper));
+    EffectiveConfigView effectiveConfigView = new EffectiveConfigView();
+    ReflectionTestUtils.setField(effectiveConfigView, "labelMapper", countedLabelMapper);
+    configurationService = new ConfigurationService();
+    ReflectionTestUtils.setField(configurationService, "configMapper", countedConfigMapper);
+    ReflectionTestUtils.setField(configurationService, "labelMapper", countedLabelMapper);
+    ReflectionTestUtils.setField(
+        configurationService, "effectiveConfigView", effectiveConfigView);
+  }
+
+  @Test
+  void testServeFromMemory() {
+    Map<String, String> first = configurationService.queryGlobalConfig("hadoop").getKeyAndValue();
+    assertEquals("1", first.get(QUEUE_KEY));
+    first.put(QUEUE_KEY, "modified");
+
+    Mockito.clearInvocations(countedConfigMapper, countedLabelMapper);
+    Map<String, String> second = configurationService.queryGlobalConfig("hadoop").getKeyAndValue();
+    assertEquals("1", second.get(QUEUE_KEY));
+    Mockito.verifyNoInteractions(countedConfigMapper, countedLabelMapper);
+  }
+
+  @Test
+  void testInvalidateOnUpdate() {
+    assertEquals("1", globalQueue());
+    try {
+      updateQueue("2");
+      assertEquals("2", globalQueue());
+    } finally {
+      updateQueue("1");
+    }
+    assertEquals("1", globalQueue());
+  }
+
+  @Test
+  void testEffectiveConfigChanged() {
+    UserCreatorLabel userCreatorLabel =
+        LabelBuilderFactoryContext.getLabelBuilderFactory().createLabel(UserCreatorLabel.class);
+    userCreatorLabel.setUser("hadoop");
+    userCreatorLabel.setCreator("IDE");
+    configurationService.queryGlobalConfig("hadoop");
+    assertFalse(configurationService.effectiveConfigChanged(userCreatorLabel, null));
+    try {
+      updateQueue("2");
+      assertTrue(configurationService.effectiveConfigChanged(userCreatorLabel, null));
+      assertFalse(configurationService.effectiveConfigChanged(userCreatorLabel, null));
+    } finally {
+      updateQueue("1");
+    }
+  }
+
+  @Test
+  void testEffectiveConfigChangedAfterQueryReloaded() {
+    UserCreatorLabel userCreatorLabel =
+        LabelBuilderFactoryContext.getLabelBuilderFactory().createLabel(UserCreatorLabel.class);
+    userCreatorLabel.setUser("hadoop");
+    userCreatorLabel.setCreator("IDE");
+    assertEquals("1", globalQueue());
+    try {
+      updateQueue("2");
+      // a query between the write and the cache cleaning reloads the view first
+      assertEquals("2", globalQueue());
+      assertTrue(configurationService.effectiveConfigChanged(userCreatorLabel, null));
+      assertFalse(configurationService.effectiveConfigChanged(userCreatorLabel, null));
+    } finally {
+      updateQueue("1");
+    }
+  }
+
+  @Test
+  void testLabelQueriesPerLookup() {
+    int lookups = 100;
+    configurationService.queryGlobalConfig("user0");
+    long queriesPerLookup = labelQueries();
+    assertTrue(queriesPerLookup > 0);
+
+    // Each cold lookup queries the labels once, the warm ones none of them
+    Mockito.clearInvocations(countedLabelMapper);
+    for (int i = 1; i <= lookups; i++) {
+      configurationService.queryGlobalConfig("user" + i);
+    }
+    assertEquals(lookups * queriesPerLookup, labelQueries());
+
+    Mockito.clearInvocations(countedLabelMapper);
+    for (int i = 1; i <= lookups; i++) {
+      configurationService.queryGlobalConfig("user" + i);
+    }
+    Mockito.verify(countedLabelMapper, Mockito.never())
+        .getLabelByKeyValue(Mockito.anyString(), Mockito.anyString());
+  }
+
+  private long labelQueries() {
+    return Mockito.mockingDetails(countedLabelMapper).getInvocations().stream()
+        .filter(invocation -> "getLabelByKeyValue".equals(invocation.getMethod().getName()))
+        .count();
+  }
+
+  private String globalQueue() {
+    return configurationService.queryGlobalConfig("hadoop").getKeyAndValue().get(QUEUE_KEY);
+  }
+
+  private void updateQueue(String value) {
+    ConfigValue configValue = new ConfigValue();
+    configValue.setId(1L);
+    configValue.setConfigValue(value);
+    configValue.setConfigLabelId(1);
+    List<ConfigValue> updateList = new ArrayList<>();
+    updateList.add(configValue);
+    configurationService.updateUserValue(Collections.emptyList(), updateList);
+  }
+}
@@ -29,6 +29,7 @@ import org.apache.linkis.cs.common.utils.CSCommonUtils;
 import org.apache.linkis.cs.exception.ContextSearchFailedException;
 import org.apache.linkis.cs.server.enumeration.ServiceType;
 import org.apache.linkis.cs.server.service.ContextService;
+import org.apache.linkis.cs.server.util.CsUtils;
 import org.apache.linkis.server.Message;
 import org.apache.linkis.server.utils.ModuleUserUtils;
 
@@ -48,6 +49,7 @@ import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
 import java.util.Date;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 
@@ -99,6 +101,52 @@ public class ContextRestfulApi implements CsRestfulParent {
     return generateMessage(res, "contextValue");
   }
 
+  @ApiOperation(
+      value = "getContextValues",
+      notes = "get the values of several context keys, keys without value are left out",
+      response = Message.class)
+  @ApiImplicitParams({
+    @ApiImplicitParam(name = "contextKeys", required = true, dataType = "List"),
+    @ApiImplicitParam(name = "contextID", required = true, dataType = "String")
+  })
+  @ApiOperationSupport(ignoreParameters = {"jsonNode"})
+  @RequestMapping(path = "getContextValues", method = RequestMethod.POST)
+  public Message getContextValues(HttpServletRequest req, @RequestBody JsonNode jsonNode)
+      throws CSErrorException {
+    ContextID contextID = getContextIDFromJsonNode(jsonNode);
+    if (StringUtils.isEmpty(contextID.getContextId())) {
+      throw new CSErrorException(
+          PARAMS_CANNOT_EMPTY.getErrorCode(),
+          MessageFormat.format(PARAMS_CANNOT_EMPTY.getErrorDesc(), "ContextID"));
+    }
+    JsonNode keysNode = jsonNode.get(ContextHTTPConstant.CONTEXT_KEYS_STR);
+    if (null == keysNode || !keysNode.isArray() || keysNode.size() == 0) {
+      throw new CSErrorException(
+          PARAMS_CANNOT_EMPTY.getErrorCode(),
+          MessageFormat.format(
+              PARAMS_CANNOT_EMPTY.getErrorDesc(), ContextHTTPConstant.CONTEXT_KEYS_STR));
+    }
+    if (keysNode.size() > CSCommonUtils.CONTEXT_MAX_PAGE_SIZE) {
+      throw new CSErrorException(
+          97000,
+          "contextKeys size : "
+              + keysNode.size()
+              + " is over max page size : "
+              + CSCommonUtils.CONTEXT_MAX_PAGE_SIZE);
+    }
+    ModuleUserUtils.getOperationUser(
+        req, "getContextValues,contextID:" + contextID.getContextId());
+    Map<String, String> values = new HashMap<>(keysNode.size());
+    for (JsonNode keyNode : keysNode) {
+      ContextKey contextKey = (ContextKey) CsUtils.SERIALIZE.deserialize(keyNode.textValue());
+      ContextValue contextValue = contextService.getContextValue(contextID, contextKey);
+      if (null != contextValue) {
+        values.put(contextKey.getKey(), CsUtils.serialize(contextValue));
+      }
+    }
+    return Message.ok().data(ContextHTTPConstant.CONTEXT_VALUES_STR, values);
+  }
+
   @ApiOperation(
       value = "searchContextValue",
       notes = "search context value",
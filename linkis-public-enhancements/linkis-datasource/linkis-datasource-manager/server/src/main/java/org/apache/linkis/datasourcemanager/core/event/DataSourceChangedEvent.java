@@ -0,0 +1,57 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.linkis.datasourcemanager.core.event;
+
+import org.springframework.context.ApplicationEvent;
+
+/**
+ * Published after the connect information of data sources is changed, such as a new published
+ * version, an update or a removal. A null data source id means that any data source may be
+ * affected(e.g. the environment is changed), a null name means the name is unknown.
+ */
+public class DataSourceChangedEvent extends ApplicationEvent {
+
+  private final Long dataSourceId;
+
+  private final String dataSourceName;
+
+  public DataSourceChangedEvent(Object source, Long dataSourceId, String dataSourceName) {
+    super(source);
+    this.dataSourceId = dataSourceId;
+    this.dataSourceName = dataSourceName;
+  }
+
+  public Long getDataSourceId() {
+    return dataSourceId;
+  }
+
+  public String getDataSourceName() {
+    return dataSourceName;
+  }
+
+  @Override
+  public String toString() {
+    return "DataSourceChangedEvent{"
+        + "dataSourceId="
+        + dataSourceId
+        + ", dataSourceName='"
+        + dataSourceName
+        + '\''
+        + '}';
+  }
+}
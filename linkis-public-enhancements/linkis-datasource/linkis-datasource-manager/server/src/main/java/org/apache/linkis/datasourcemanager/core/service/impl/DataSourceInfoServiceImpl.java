@@ -25,6 +25,7 @@ import org.apache.linkis.datasourcemanager.common.domain.DatasourceVersion;
 import org.apache.linkis.datasourcemanager.common.exception.JsonErrorException;
 import org.apache.linkis.datasourcemanager.common.util.json.Json;
 import org.apache.linkis.datasourcemanager.core.dao.*;
+import org.apache.linkis.datasourcemanager.core.event.DataSourceChangedEvent;
 import org.apache.linkis.datasourcemanager.core.formdata.FormStreamContent;
 import org.apache.linkis.datasourcemanager.core.service.BmlAppService;
 import org.apache.linkis.datasourcemanager.core.service.DataSourceInfoService;
@@ -37,6 +38,7 @@ import org.apache.commons.collections.CollectionUtils;
 import org.apache.commons.lang3.StringUtils;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -68,6 +70,8 @@ public class DataSourceInfoServiceImpl implements DataSourceInfoService {
 
   @Autowired private List<DataSourceParamsHook> dataSourceParamsHooks = new ArrayList<>();
 
+  @Autowired private ApplicationEventPublisher eventPublisher;
+
   @Override
   @Transactional(rollbackFor = Exception.class)
   public void saveDataSourceInfo(DataSource dataSource) throws ErrorException {
@@ -253,6 +257,7 @@ public class DataSourceInfoServiceImpl implements DataSourceInfoService {
         // delete parameter version
         int versionNum = dataSourceVersionDao.removeFromDataSourceId(dataSourceId);
         // TODO throws Exception
+        publishChanged(dataSourceId, dataSourceName(dataSource));
         return dataSourceId;
       }
     }
@@ -263,6 +268,8 @@ public class DataSourceInfoServiceImpl implements DataSourceInfoService {
   @Transactional(rollbackFor = Exception.class)
   public void updateDataSourceInfo(DataSource updatedOne) {
     dataSourceDao.updateOne(updatedOne);
+    // The name may be changed, so entries by any name are affected
+    publishChanged(updatedOne.getId(), null);
   }
 
   @Override
@@ -351,6 +358,7 @@ public class DataSourceInfoServiceImpl implements DataSourceInfoService {
                 }
               }
             });
+        publishChanged(null, null);
         return envId;
       }
     }
@@ -371,6 +379,7 @@ public class DataSourceInfoServiceImpl implements DataSourceInfoService {
           // Update environment into database
           dataSourceEnvDao.updateOne(updatedOne);
         });
+    publishChanged(null, null);
   }
 
   @Transactional(rollbackFor = Exception.class)
@@ -390,6 +399,7 @@ public class DataSourceInfoServiceImpl implements DataSourceInfoService {
             dataSourceEnvDao.updateOne(updatedOne);
           });
     }
+    publishChanged(null, null);
   }
 
   @Override
@@ -413,6 +423,7 @@ public class DataSourceInfoServiceImpl implements DataSourceInfoService {
       // First to delete record in db
       int affect = dataSourceDao.expireOne(dataSourceId);
       if (affect > 0) {
+        publishChanged(dataSourceId, dataSourceName(dataSource));
         return dataSourceId;
       }
     }
@@ -432,7 +443,11 @@ public class DataSourceInfoServiceImpl implements DataSourceInfoService {
       // can't publish a version that does not exist
       return 0;
     }
-    return dataSourceDao.setPublishedVersionId(dataSourceId, versionId);
+    int affect = dataSourceDao.setPublishedVersionId(dataSourceId, versionId);
+    if (affect > 0) {
+      publishChanged(dataSourceId, dataSourceName(dataSourceDao.selectOne(dataSourceId)));
+    }
+    return affect;
   }
 
   /**
@@ -487,10 +502,26 @@ public class DataSourceInfoServiceImpl implements DataSourceInfoService {
 
     // 4. update version id for dataSourceDao
     dataSourceDao.updateVersionId(datasourceId, newVersionId);
+    publishChanged(datasourceId, null);
 
     return newVersionId;
   }
 
+  private String dataSourceName(DataSource dataSource) {
+    return null != dataSource ? dataSource.getDataSourceName() : null;
+  }
+
+  /**
+   * Notify the consumers of connect information(e.g. the cache of metadata query) that the data
+   * source is changed, the listeners are expected to act after the transaction is committed
+   *
+   * @param dataSourceId data source id, null means all the data sources
+   * @param dataSourceName data source name, null means unknown
+   */
+  private void publishChanged(Long dataSourceId, String dataSourceName) {
+    eventPublisher.publishEvent(new DataSourceChangedEvent(this, dataSourceId, dataSourceName));
+  }
+
   /**
    * get datasource version list
    *
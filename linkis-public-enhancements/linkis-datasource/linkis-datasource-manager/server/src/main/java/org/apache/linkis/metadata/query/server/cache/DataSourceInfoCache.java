@@ -0,0 +1,283 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.linkis.metadata.query.server.cache;
+
+import org.apache.linkis.common.exception.ErrorException;
+import org.apache.linkis.common.utils.Utils;
+import org.apache.linkis.datasourcemanager.common.protocol.DsInfoResponse;
+import org.apache.linkis.datasourcemanager.core.event.DataSourceChangedEvent;
+import org.apache.linkis.metadata.query.common.cache.CacheConfiguration;
+
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import javax.annotation.PreDestroy;
+
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Cache of the data source information(type and connect parameters) asked from the data source
+ * manager, so that the metadata queries on the same data source do not send a rpc request every
+ * time. An entry is refreshed asynchronously once it is older than the refresh time and is dropped
+ * once it is older than the expire time.
+ *
+ * <p>The entries are invalidated by {@link DataSourceChangedEvent} after the change is committed.
+ * Every invalidation increases the change version, and a load started before the change never
+ * stores its (maybe stale) result.
+ */
+@Component
+public class DataSourceInfoCache {
+
+  private static final Logger logger = LoggerFactory.getLogger(DataSourceInfoCache.class);
+
+  private static final String ID_KEY_PREFIX = "id:";
+
+  private static final String NAME_KEY_PREFIX = "name:";
+
+  /** Load the data source information, usually by rpc */
+  @FunctionalInterface
+  public interface Loader {
+    DsInfoResponse load() throws ErrorException;
+  }
+
+  private static class CacheEntry {
+    private final DsInfoResponse response;
+    private final long loadTime;
+    private final AtomicBoolean refreshing = new AtomicBoolean(false);
+
+    private CacheEntry(DsInfoResponse response, long loadTime) {
+      this.response = response;
+      this.loadTime = loadTime;
+    }
+  }
+
+  private final boolean enabled;
+
+  private final long maxSize;
+
+  private final long expireMills;
+
+  private final long refreshMills;
+
+  private final ExecutorService refreshExecutor;
+
+  private final Map<String, CacheEntry> entries = new ConcurrentHashMap<>();
+
+  private final AtomicLong changeVersion = new AtomicLong(0L);
+
+  private final LongAdder hitCount = new LongAdder();
+
+  private final LongAdder missCount = new LongAdder();
+
+  private final LongAdder refreshCount = new LongAdder();
+
+  public DataSourceInfoCache() {
+    this(
+        CacheConfiguration.DS_INFO_CACHE_ENABLED.getValue(),
+        CacheConfiguration.DS_INFO_CACHE_MAX_SIZE.getValue(),
+        CacheConfiguration.DS_INFO_CACHE_EXPIRE_TIME.getValue() * 1000L,
+        CacheConfiguration.DS_INFO_CACHE_REFRESH_TIME.getValue() * 1000L,
+        Utils.newCachedThreadPool(2, "DataSource-Info-Refresh-Thread-", true));
+  }
+
+  DataSourceInfoCache(
+      boolean enabled,
+      long maxSize,
+      long expireMills,
+      long refreshMills,
+      ExecutorService refreshExecutor) {
+    this.enabled = enabled && maxSize > 0 && expireMills > 0;
+    this.maxSize = maxSize;
+    this.expireMills = expireMills;
+    this.refreshMills = refreshMills > 0 ? Math.min(refreshMills, expireMills) : expireMills;
+    this.refreshExecutor = refreshExecutor;
+  }
+
+  public static String idKey(String dataSourceId, String system) {
+    return ID_KEY_PREFIX + dataSourceId + ":" + system;
+  }
+
+  public static String nameKey(String dataSourceName, String envId, String system) {
+    return NAME_KEY_PREFIX + dataSourceName + ":" + envId + ":" + system;
+  }
+
+  /**
+   * Get the data source information of the key, the loader is only invoked on a miss. The returned
+   * response owns a copy of the parameters, callers are free to modify it.
+   */
+  public DsInfoResponse get(String key, Loader loader) throws ErrorException {
+    if (!enabled) {
+      return loader.load();
+    }
+    CacheEntry entry = entries.get(key);
+    if (null != entry) {
+      long age = System.currentTimeMillis() - entry.loadTime;
+      if (age < expireMills) {
+        hitCount.increment();
+        if (age >= refreshMills) {
+          refreshAsync(key, entry, loader);
+        }
+        return copy(entry.response);
+      }
+      entries.remove(key, entry);
+    }
+    missCount.increment();
+    DsInfoResponse response = load(key, loader);
+    return null != response ? copy(response) : null;
+  }
+
+  private DsInfoResponse load(String key, Loader loader) throws ErrorException {
+    long version = changeVersion.get();
+    DsInfoResponse response = loader.load();
+    if (isCacheable(response) && version == changeVersion.get()) {
+      CacheEntry entry = new CacheEntry(response, System.currentTimeMillis());
+      if (entries.size() >= maxSize && !entries.containsKey(key)) {
+        evict();
+      }
+      entries.put(key, entry);
+      // The data source may be changed between the check and the put
+      if (version != changeVersion.get()) {
+        entries.remove(key, entry);
+      }
+    }
+    return response;
+  }
+
+  private void refreshAsync(String key, CacheEntry entry, Loader loader) {
+    if (!entry.refreshing.compareAndSet(false, true)) {
+      return;
+    }
+    try {
+      refreshExecutor.execute(
+          () -> {
+            try {
+              refreshCount.increment();
+              DsInfoResponse response = load(key, loader);
+              if (!isCacheable(response)) {
+                // Not published any more or removed, let the next call ask again
+                entries.remove(key, entry);
+              }
+            } catch (Throwable t) {
+              // Keep serving the old one until it is expired
+              logger.warn("Failed to refresh the data source info of {}", key, t);
+              entry.refreshing.set(false);
+            }
+          });
+    } catch (RejectedExecutionException e) {
+      entry.refreshing.set(false);
+    }
+  }
+
+  /** Remove the expired entries first, then the oldest one if the cache is still full */
+  private void evict() {
+    long now = System.currentTimeMillis();
+    entries.values().removeIf(entry -> now - entry.loadTime >= expireMills);
+    if (entries.size() < maxSize) {
+      return;
+    }
+    String oldestKey = null;
+    long oldestTime = Long.MAX_VALUE;
+    for (Map.Entry<String, CacheEntry> entry : entries.entrySet()) {
+      if (entry.getValue().loadTime < oldestTime) {
+        oldestTime = entry.getValue().loadTime;
+        oldestKey = entry.getKey();
+      }
+    }
+    if (null != oldestKey) {
+      entries.remove(oldestKey);
+    }
+  }
+
+  /**
+   * Invalidate the entries of the data source, the entries of all the data sources are
+   * invalidated if the id is null. Entries by name are all invalidated if the name is unknown.
+   */
+  public void invalidate(Long dataSourceId, String dataSourceName) {
+    changeVersion.incrementAndGet();
+    if (null == dataSourceId) {
+      entries.clear();
+      return;
+    }
+    String idPrefix = ID_KEY_PREFIX + dataSourceId + ":";
+    String namePrefix = null != dataSourceName ? NAME_KEY_PREFIX + dataSourceName + ":" : null;
+    Iterator<String> iterator = entries.keySet().iterator();
+    while (iterator.hasNext()) {
+      String key = iterator.next();
+      if (key.startsWith(idPrefix)
+          || (key.startsWith(NAME_KEY_PREFIX)
+              && (null == namePrefix || key.startsWith(namePrefix)))) {
+        iterator.remove();
+      }
+    }
+  }
+
+  @TransactionalEventListener(fallbackExecution = true)
+  public void onDataSourceChanged(DataSourceChangedEvent event) {
+    logger.debug("Invalidate the cached data source info by {}", event);
+    invalidate(event.getDataSourceId(), event.getDataSourceName());
+  }
+
+  public int size() {
+    return entries.size();
+  }
+
+  public long getHitCount() {
+    return hitCount.sum();
+  }
+
+  public long getMissCount() {
+    return missCount.sum();
+  }
+
+  public long getRefreshCount() {
+    return refreshCount.sum();
+  }
+
+  @PreDestroy
+  public void close() {
+    refreshExecutor.shutdownNow();
+  }
+
+  private static boolean isCacheable(DsInfoResponse response) {
+    return null != response
+        && Boolean.TRUE.equals(response.getStatus())
+        && Objects.nonNull(response.getParams())
+        && !response.getParams().isEmpty();
+  }
+
+  private static DsInfoResponse copy(DsInfoResponse response) {
+    return new DsInfoResponse(
+        response.getStatus(),
+        response.getDsType(),
+        null != response.getParams() ? new HashMap<>(response.getParams()) : null,
+        response.getCreator(),
+        response.getErrorMsg());
+  }
+}
@@ -35,6 +35,7 @@ import org.apache.linkis.metadata.query.common.exception.MetaMethodInvokeExcepti
 import org.apache.linkis.metadata.query.common.exception.MetaRuntimeException;
 import org.apache.linkis.metadata.query.common.service.GenerateSqlTemplate;
 import org.apache.linkis.metadata.query.common.service.MetadataConnection;
+import org.apache.linkis.metadata.query.server.cache.DataSourceInfoCache;
 import org.apache.linkis.metadata.query.server.loader.MetaClassLoaderManager;
 import org.apache.linkis.metadata.query.server.service.MetadataQueryService;
 import org.apache.linkis.rpc.Sender;
@@ -43,6 +44,7 @@ import org.apache.commons.collections.CollectionUtils;
 import org.apache.commons.lang3.StringUtils;
 import org.apache.http.HttpHost;
 
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
 import javax.annotation.PostConstruct;
@@ -68,6 +70,9 @@ import static org.apache.linkis.metadata.query.common.errorcode.LinkisMetadataQu
 public class MetadataQueryServiceImpl implements MetadataQueryService {
   private Sender dataSourceRpcSender;
   private MetaClassLoaderManager metaClassLoaderManager;
+
+  @Autowired private DataSourceInfoCache dataSourceInfoCache;
+
   private static final Logger logger = LoggerFactory.getLogger(MetadataQueryServiceImpl.class);
 
   @PostConstruct
@@ -728,31 +733,12 @@ public class MetadataQueryServiceImpl implements MetadataQueryService {
   @Deprecated
   public DsInfoResponse reqToGetDataSourceInfo(String dataSourceId, String system, String userName)
           throws ErrorException {
-    Object rpcResult = null;
-    try {
-      rpcResult = dataSourceRpcSender.ask(new DsInfoQueryRequest(dataSourceId, null, system));
-    } catch (Exception e) {
-      throw new ErrorException(-1, "Remote Service Error[远端服务出错, 联系运维处理]");
-    }
-    if (rpcResult instanceof DsInfoResponse) {
-      DsInfoResponse response = (DsInfoResponse) rpcResult;
-      if (!response.getStatus()) {
-        throw new ErrorException(
-                -1, "Error in Data Source Manager Server[数据源服务出错]: " + response.getErrorMsg());
-      }
-      boolean hasPermission =
-              (AuthContext.isAdministrator(userName)
-                      || (StringUtils.isNotBlank(response.getCreator())
-                      && userName.equals(response.getCreator())));
-      if (!hasPermission) {
-        throw new ErrorException(-1, "Don't have query permission for data source [没有数据源的查询权限]");
-      } else if (response.getParams().isEmpty()) {
-        throw new ErrorException(-1, "Have you published the data source? [数据源未发布或者参数为空]");
-      }
-      return response;
-    } else {
-      throw new ErrorException(-1, "Remote Service Error[远端服务出错, 联系运维处理]");
-    }
+    DsInfoResponse response =
+            dataSourceInfoCache.get(
+                    DataSourceInfoCache.idKey(dataSourceId, system),
+                    () -> askDataSourceInfo(new DsInfoQueryRequest(dataSourceId, null, system)));
+    checkDataSourceInfo(response, userName, true);
+    return response;
   }
 
   /**
@@ -780,16 +766,31 @@ public class MetadataQueryServiceImpl implements MetadataQueryService {
    */
   public DsInfoResponse queryDataSourceInfoByNameAndEnvId(
           String dataSourceName, String system, String userName, String envId) throws ErrorException {
+    DsInfoResponse response = reqGetDefaultDataSource(dataSourceName);
+    boolean useDefault = Objects.nonNull(response);
+    if (!useDefault) {
+      response =
+              dataSourceInfoCache.get(
+                      DataSourceInfoCache.nameKey(dataSourceName, envId, system),
+                      () ->
+                              askDataSourceInfo(
+                                      new DsInfoQueryRequest(null, dataSourceName, system, envId)));
+    }
+    checkDataSourceInfo(response, userName, !useDefault);
+    return response;
+  }
+
+  /**
+   * Ask the data source manager for the data source information
+   *
+   * @param request query request
+   * @return response with the right status
+   * @throws ErrorException
+   */
+  private DsInfoResponse askDataSourceInfo(DsInfoQueryRequest request) throws ErrorException {
     Object rpcResult = null;
-    boolean useDefault = false;
     try {
-      rpcResult = reqGetDefaultDataSource(dataSourceName);
-      if (Objects.isNull(rpcResult)) {
-        rpcResult =
-                dataSourceRpcSender.ask(new DsInfoQueryRequest(null, dataSourceName, system, envId));
-      } else {
-        useDefault = true;
-      }
+      rpcResult = dataSourceRpcSender.ask(request);
     } catch (Exception e) {
       throw new ErrorException(-1, "Remote Service Error[远端服务出错, 联系运维处理]");
     }
@@ -799,21 +800,34 @@ public class MetadataQueryServiceImpl implements MetadataQueryService {
         throw new ErrorException(
                 -1, "Error in Data Source Manager Server[数据源服务出错]: " + response.getErrorMsg());
       }
-      boolean hasPermission =
-              (AuthContext.isAdministrator(userName)
-                      || (StringUtils.isNotBlank(response.getCreator())
-                      && userName.equals(response.getCreator())));
-      if (!hasPermission) {
-        throw new ErrorException(-1, "Don't have query permission for data source [没有数据源的查询权限]");
-      } else if (!useDefault && response.getParams().isEmpty()) {
-        throw new ErrorException(-1, "Have you published the data source? [数据源未发布或者参数为空]");
-      }
       return response;
     } else {
       throw new ErrorException(-1, "Remote Service Error[远端服务出错, 联系运维处理]");
     }
   }
 
+  /**
+   * Check the permission of user and parameters of the data source information, the check is done
+   * for every call as the information may come from cache
+   *
+   * @param response data source information
+   * @param userName user name
+   * @param requireParams if the parameters cannot be empty
+   * @throws ErrorException
+   */
+  private void checkDataSourceInfo(DsInfoResponse response, String userName, boolean requireParams)
+          throws ErrorException {
+    boolean hasPermission =
+            (AuthContext.isAdministrator(userName)
+                    || (StringUtils.isNotBlank(response.getCreator())
+                    && userName.equals(response.getCreator())));
+    if (!hasPermission) {
+      throw new ErrorException(-1, "Don't have query permission for data source [没有数据源的查询权限]");
+    } else if (requireParams && response.getParams().isEmpty()) {
+      throw new ErrorException(-1, "Have you published the data source? [数据源未发布或者参数为空]");
+    }
+  }
+
   /**
    * Request to get default data source
    *
@@ -25,11 +25,14 @@ import org.apache.linkis.datasourcemanager.core.dao.DataSourceDao;
 import org.apache.linkis.datasourcemanager.core.dao.DataSourceEnvDao;
 import org.apache.linkis.datasourcemanager.core.dao.DataSourceParamKeyDao;
 import org.apache.linkis.datasourcemanager.core.dao.DataSourceVersionDao;
+import org.apache.linkis.datasourcemanager.core.event.DataSourceChangedEvent;
 import org.apache.linkis.datasourcemanager.core.service.impl.DataSourceInfoServiceImpl;
 import org.apache.linkis.datasourcemanager.core.vo.DataSourceVo;
 
 import org.apache.commons.collections.CollectionUtils;
 
+import org.springframework.context.ApplicationEventPublisher;
+
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Date;
@@ -40,6 +43,7 @@ import java.util.Map;
 import com.github.pagehelper.PageInfo;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.Mockito;
@@ -65,6 +69,8 @@ public class DataSourceInfoServiceTest {
 
   @Mock DataSourceParamKeyDao dataSourceParamKeyDao;
 
+  @Mock ApplicationEventPublisher eventPublisher;
+
   private DataSource buildDataSource() {
     DataSource dataSource = new DataSource();
     dataSource.setId(1l);
@@ -335,6 +341,11 @@ public class DataSourceInfoServiceTest {
     Mockito.when(dataSourceDao.expireOne(dataSource.getId())).thenReturn(1);
     Long res = dataSourceInfoService.expireDataSource(dataSource.getId());
     assertTrue(res == 1);
+    ArgumentCaptor<DataSourceChangedEvent> captor =
+        ArgumentCaptor.forClass(DataSourceChangedEvent.class);
+    Mockito.verify(eventPublisher).publishEvent(captor.capture());
+    assertEquals(dataSource.getId(), captor.getValue().getDataSourceId());
+    assertEquals(dataSource.getDataSourceName(), captor.getValue().getDataSourceName());
   }
 
   @Test
@@ -0,0 +1,211 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.linkis.metadata.query.server.cache;
+
+import org.apache.linkis.datasourcemanager.common.protocol.DsInfoResponse;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+public class DataSourceInfoCacheTest {
+
+  private static final Logger logger = LoggerFactory.getLogger(DataSourceInfoCacheTest.class);
+
+  private final ExecutorService executor = Executors.newSingleThreadExecutor();
+
+  private final AtomicInteger rpcCount = new AtomicInteger(0);
+
+  @AfterEach
+  public void close() {
+    executor.shutdownNow();
+  }
+
+  private DsInfoResponse askByRpc(String host) {
+    rpcCount.incrementAndGet();
+    try {
+      // Latency of a rpc request to the data source manager
+      Thread.sleep(1);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+    Map<String, Object> params = new HashMap<>();
+    params.put("host", host);
+    return new DsInfoResponse(true, "mysql", params, "hadoop", "");
+  }
+
+  @Test
+  @DisplayName("repeatedCallsWithoutRpcTest")
+  public void repeatedCallsWithoutRpcTest() throws Exception {
+    int calls = 2000;
+    DataSourceInfoCache disabled = new DataSourceInfoCache(false, 1000, 60000, 50000, executor);
+    long start = System.nanoTime();
+    for (int i = 0; i < calls; i++) {
+      disabled.get(DataSourceInfoCache.idKey("1", "test"), () -> askByRpc("127.0.0.1"));
+    }
+    long uncachedNanos = System.nanoTime() - start;
+    Assertions.assertEquals(calls, rpcCount.get());
+
+    rpcCount.set(0);
+    DataSourceInfoCache cache = new DataSourceInfoCache(true, 1000, 60000, 50000, executor);
+    start = System.nanoTime();
+    for (int i = 0; i < calls; i++) {
+      DsInfoResponse response =
+          cache.get(DataSourceInfoCache.idKey("1", "test"), () -> askByRpc("127.0.0.1"));
+      Assertions.assertEquals("127.0.0.1", response.getParams().get("host"));
+    }
+    long cachedNanos = System.nanoTime() - start;
+    logger.info(
+        "{} calls on the same data source, uncached: {}ms, cached: {}ms",
+        calls,
+        TimeUnit.NANOSECONDS.toMillis(uncachedNanos),
+        TimeUnit.NANOSECONDS.toMillis(cachedNanos));
+    Assertions.assertEquals(1, rpcCount.get());
+    Assertions.assertEquals(calls - 1, cache.getHitCount());
+    Assertions.assertEquals(1, cache.getMissCount());
+    Assertions.assertTrue(cachedNanos < uncachedNanos);
+  }
+
+  @Test
+  @DisplayName("copyOnReadTest")
+  public void copyOnReadTest() throws Exception {
+    DataSourceInfoCache cache = new DataSourceInfoCache(true, 1000, 60000, 50000, executor);
+    String key = DataSourceInfoCache.idKey("1", "test");
+    cache.get(key, () -> askByRpc("127.0.0.1")).getParams().put("host", "modified");
+    Assertions.assertEquals(
+        "127.0.0.1", cache.get(key, () -> askByRpc("x")).getParams().get("host"));
+  }
+
+  @Test
+  @DisplayName("notPublishedNotCachedTest")
+  public void notPublishedNotCachedTest() throws Exception {
+    DataSourceInfoCache cache = new DataSourceInfoCache(true, 1000, 60000, 50000, executor);
+    for (int i = 0; i < 3; i++) {
+      cache.get(
+          DataSourceInfoCache.idKey("1", "test"),
+          () -> {
+            rpcCount.incrementAndGet();
+            return new DsInfoResponse(true, "mysql", new HashMap<>(), "hadoop", "");
+          });
+    }
+    Assertions.assertEquals(3, rpcCount.get());
+    Assertions.assertEquals(0, cache.size());
+  }
+
+  @Test
+  @DisplayName("invalidateTest")
+  public void invalidateTest() throws Exception {
+    DataSourceInfoCache cache = new DataSourceInfoCache(true, 1000, 60000, 50000, executor);
+    String idKey = DataSourceInfoCache.idKey("1", "test");
+    String nameKey = DataSourceInfoCache.nameKey("mysql_ds", null, "test");
+    String otherKey = DataSourceInfoCache.nameKey("other_ds", null, "test");
+    cache.get(idKey, () -> askByRpc("127.0.0.1"));
+    cache.get(nameKey, () -> askByRpc("127.0.0.1"));
+    cache.get(otherKey, () -> askByRpc("127.0.0.2"));
+    Assertions.assertEquals(3, cache.size());
+
+    cache.invalidate(1L, "mysql_ds");
+    Assertions.assertEquals(1, cache.size());
+    Assertions.assertEquals(
+        "127.0.0.3", cache.get(idKey, () -> askByRpc("127.0.0.3")).getParams().get("host"));
+
+    // Unknown name invalidates all the entries by name
+    cache.invalidate(1L, null);
+    Assertions.assertEquals(0, cache.size());
+
+    cache.get(idKey, () -> askByRpc("127.0.0.1"));
+    cache.invalidate(null, null);
+    Assertions.assertEquals(0, cache.size());
+  }
+
+  @Test
+  @DisplayName("staleLoadNotCachedTest")
+  public void staleLoadNotCachedTest() throws Exception {
+    DataSourceInfoCache cache = new DataSourceInfoCache(true, 1000, 60000, 50000, executor);
+    String key = DataSourceInfoCache.idKey("1", "test");
+    // The data source is changed while the old one is being loaded
+    DsInfoResponse response =
+        cache.get(
+            key,
+            () -> {
+              DsInfoResponse old = askByRpc("127.0.0.1");
+              cache.invalidate(1L, null);
+              return old;
+            });
+    Assertions.assertEquals("127.0.0.1", response.getParams().get("host"));
+    Assertions.assertEquals(0, cache.size());
+    Assertions.assertEquals(
+        "127.0.0.2", cache.get(key, () -> askByRpc("127.0.0.2")).getParams().get("host"));
+  }
+
+  @Test
+  @DisplayName("asyncRefreshTest")
+  public void asyncRefreshTest() throws Exception {
+    DataSourceInfoCache cache = new DataSourceInfoCache(true, 1000, 60000, 50, executor);
+    String key = DataSourceInfoCache.idKey("1", "test");
+    cache.get(key, () -> askByRpc("127.0.0.1"));
+    Thread.sleep(100);
+
+    CountDownLatch refreshed = new CountDownLatch(1);
+    DsInfoResponse response =
+        cache.get(
+            key,
+            () -> {
+              DsInfoResponse newOne = askByRpc("127.0.0.2");
+              refreshed.countDown();
+              return newOne;
+            });
+    // The old one is served while refreshing
+    Assertions.assertEquals("127.0.0.1", response.getParams().get("host"));
+    Assertions.assertTrue(refreshed.await(5, TimeUnit.SECONDS));
+    Assertions.assertEquals(1, cache.getRefreshCount());
+
+    long deadline = System.currentTimeMillis() + 5000;
+    String host = null;
+    while (System.currentTimeMillis() < deadline) {
+      host = (String) cache.get(key, () -> askByRpc("x")).getParams().get("host");
+      if ("127.0.0.2".equals(host)) {
+        break;
+      }
+      Thread.sleep(10);
+    }
+    Assertions.assertEquals("127.0.0.2", host);
+    Assertions.assertEquals(2, rpcCount.get());
+  }
+
+  @Test
+  @DisplayName("maxSizeTest")
+  public void maxSizeTest() throws Exception {
+    DataSourceInfoCache cache = new DataSourceInfoCache(true, 2, 60000, 50000, executor);
+    for (int i = 0; i < 5; i++) {
+      cache.get(DataSourceInfoCache.idKey(String.valueOf(i), "test"), () -> askByRpc("127.0.0.1"));
+    }
+    Assertions.assertEquals(2, cache.size());
+  }
+}
@@ -57,6 +57,17 @@ public interface ContextClient extends Closeable {
 
   ContextValue getContextValue(ContextID contextID, ContextKey contextKey) throws ErrorException;
 
+  /**
+   * 一次获取同一个contextID下多个contextKey的值
+   *
+   * @param contextID contextID
+   * @param contextKeys 要获取的contextKey
+   * @return 以key为键的value, 没有值的key不会出现在结果中
+   * @throws ErrorException 可能捕获的异常
+   */
+  Map<String, ContextValue> getContextValues(ContextID contextID, List<ContextKey> contextKeys)
+      throws ErrorException;
+
   void update(ContextID contextID, ContextKey contextKey, ContextValue contextValue)
       throws ErrorException;
 
@@ -0,0 +1,121 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.linkis.cs.client.http;
+
+import org.apache.linkis.cs.common.entity.source.ContextID;
+import org.apache.linkis.cs.common.entity.source.ContextKey;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheStats;
+
+/**
+ * Near cache of serialized context values keyed by contextID and key.
+ *
+ * <p>A read that misses takes a {@link #stamp(String)} before going to the server and hands it
+ * back to {@link #put(String, String, long)}, the value is dropped if the key was invalidated in
+ * between, so an in flight read can never put back a value older than a finished write. Stamps
+ * are kept per stripe of keys, a collision only costs a missed cache fill.
+ */
+public class ContextValueCache {
+
+  private static final int STRIPES = 1024;
+
+  private static final char SEPARATOR = '\u0001';
+
+  private final Cache<String, String> cache;
+
+  private final AtomicLongArray versions = new AtomicLongArray(STRIPES);
+
+  private final AtomicLong generation = new AtomicLong();
+
+  public ContextValueCache(long ttlMills, long maxSize) {
+    this.cache =
+        CacheBuilder.newBuilder()
+            .expireAfterWrite(ttlMills, TimeUnit.MILLISECONDS)
+            .maximumSize(maxSize)
+            .recordStats()
+            .build();
+  }
+
+  /** @return the cache key, or null if the contextID has no id yet and can not be cached */
+  public static String cacheKey(ContextID contextID, ContextKey contextKey) {
+    if (null == contextID
+        || null == contextID.getContextId()
+        || null == contextKey
+        || null == contextKey.getKey()) {
+      return null;
+    }
+    return contextID.getContextId() + SEPARATOR + contextKey.getKey();
+  }
+
+  public String get(String cacheKey) {
+    return cache.getIfPresent(cacheKey);
+  }
+
+  public long stamp(String cacheKey) {
+    // both counters only grow, so their sum changes whenever one of them does
+    return versions.get(stripe(cacheKey)) + generation.get();
+  }
+
+  public void put(String cacheKey, String contextValueStr, long stamp) {
+    if (null == contextValueStr) {
+      return;
+    }
+    cache.put(cacheKey, contextValueStr);
+    // checked after the put, invalidations bump the version before removing the entry
+    if (stamp(cacheKey) != stamp) {
+      cache.invalidate(cacheKey);
+    }
+  }
+
+  public void invalidate(ContextID contextID, ContextKey contextKey) {
+    String cacheKey = cacheKey(contextID, contextKey);
+    if (null != cacheKey) {
+      versions.incrementAndGet(stripe(cacheKey));
+      cache.invalidate(cacheKey);
+    }
+  }
+
+  public void invalidateContext(ContextID contextID) {
+    if (null == contextID || null == contextID.getContextId()) {
+      invalidateAll();
+      return;
+    }
+    String prefix = contextID.getContextId() + SEPARATOR;
+    generation.incrementAndGet();
+    cache.asMap().keySet().removeIf(key -> key.startsWith(prefix));
+  }
+
+  public void invalidateAll() {
+    generation.incrementAndGet();
+    cache.invalidateAll();
+  }
+
+  public CacheStats stats() {
+    return cache.stats();
+  }
+
+  private static int stripe(String cacheKey) {
+    return (cacheKey.hashCode() & Integer.MAX_VALUE) % STRIPES;
+  }
+}
@@ -71,8 +71,15 @@ public class HttpContextClient extends AbstractContextClient {
 
   private HeartBeater heartBeater;
 
+  private ContextValueCache contextValueCache;
+
   private HttpContextClient() {}
 
+  HttpContextClient(DWSHttpClient dwsHttpClient, ContextValueCache contextValueCache) {
+    this.dwsHttpClient = dwsHttpClient;
+    this.contextValueCache = contextValueCache;
+  }
+
   private HttpContextClient(ContextClientConfig contextClientConfig) {
     // 初始化dwsHttpClient
     this.contextClientConfig = contextClientConfig;
@@ -84,8 +91,14 @@ public class HttpContextClient extends AbstractContextClient {
       dwsClientConfig.setDWSVersion(linkis_version);
       dwsHttpClient = new DWSHttpClient(dwsClientConfig, name);
     }
+    if ((Boolean) ContextClientConf.CS_CLIENT_CACHE_ENABLED().getValue()) {
+      this.contextValueCache =
+          new ContextValueCache(
+              (Long) ContextClientConf.CS_CLIENT_CACHE_TTL_MILLS().getValue(),
+              (Long) ContextClientConf.CS_CLIENT_CACHE_MAX_SIZE().getValue());
+    }
     if ("true".equals(ContextClientConf.HEART_BEAT_ENABLED().getValue())) {
-      this.heartBeater = new HttpHeartBeater(contextClientConfig);
+      this.heartBeater = new HttpHeartBeater(contextClientConfig, contextValueCache);
       heartBeater.start();
     }
   }
@@ -208,6 +221,134 @@ public class HttpContextClient extends AbstractContextClient {
   @Override
   public ContextValue getContextValue(ContextID contextID, ContextKey contextKey)
       throws ErrorException {
+    String cacheKey =
+        null == contextValueCache ? null : ContextValueCache.cacheKey(contextID, contextKey);
+    if (null == cacheKey) {
+      return deserializeContextValue(getContextValueStr(contextID, contextKey));
+    }
+    String contextValueStr = contextValueCache.get(cacheKey);
+    if (null == contextValueStr) {
+      long stamp = contextValueCache.stamp(cacheKey);
+      contextValueStr = getContextValueStr(contextID, contextKey);
+      contextValueCache.put(cacheKey, contextValueStr, stamp);
+    }
+    return deserializeContextValue(contextValueStr);
+  }
+
+  /**
+   * Get the values of several keys of one context, values found in the near cache are not
+   * requested again and the rest is fetched in batches.
+   *
+   * @return values by key name, keys without value are left out
+   */
+  @Override
+  public Map<String, ContextValue> getContextValues(
+      ContextID contextID, List<ContextKey> contextKeys) throws ErrorException {
+    Map<String, ContextValue> contextValues = new LinkedHashMap<>();
+    if (null == contextKeys || contextKeys.isEmpty()) {
+      return contextValues;
+    }
+    Map<String, String> contextValueStrs = new HashMap<>();
+    List<ContextKey> missedKeys = new ArrayList<>();
+    Map<String, Long> stamps = new HashMap<>();
+    for (ContextKey contextKey : contextKeys) {
+      String cacheKey =
+          null == contextValueCache ? null : ContextValueCache.cacheKey(contextID, contextKey);
+      String contextValueStr = null == cacheKey ? null : contextValueCache.get(cacheKey);
+      if (null != contextValueStr) {
+        contextValueStrs.put(contextKey.getKey(), contextValueStr);
+      } else if (!stamps.containsKey(contextKey.getKey())) {
+        stamps.put(contextKey.getKey(), null == cacheKey ? 0L : contextValueCache.stamp(cacheKey));
+        missedKeys.add(contextKey);
+      }
+    }
+    for (int from = 0; from < missedKeys.size(); from += CSCommonUtils.CONTEXT_MAX_PAGE_SIZE) {
+      List<ContextKey> batch =
+          missedKeys.subList(
+              from, Math.min(from + CSCommonUtils.CONTEXT_MAX_PAGE_SIZE, missedKeys.size()));
+      Map<String, String> fetched = getContextValueStrs(contextID, batch);
+      for (ContextKey contextKey : batch) {
+        String contextValueStr = fetched.get(contextKey.getKey());
+        String cacheKey =
+            null == contextValueCache ? null : ContextValueCache.cacheKey(contextID, contextKey);
+        if (null != cacheKey) {
+          contextValueCache.put(cacheKey, contextValueStr, stamps.get(contextKey.getKey()));
+        }
+        if (null != contextValueStr) {
+          contextValueStrs.put(contextKey.getKey(), contextValueStr);
+        }
+      }
+    }
+    for (ContextKey contextKey : contextKeys) {
+      String contextValueStr = contextValueStrs.get(contextKey.getKey());
+      if (null != contextValueStr) {
+        contextValues.put(contextKey.getKey(), deserializeContextValue(contextValueStr));
+      }
+    }
+    return contextValues;
+  }
+
+  /** Every call gets its own instance, the cache only keeps the serialized value. */
+  private ContextValue deserializeContextValue(String contextValueStr) throws ErrorException {
+    return null == contextValueStr
+        ? null
+        : SerializeHelper.deserializeContextValue(contextValueStr);
+  }
+
+  @SuppressWarnings("unchecked")
+  private Map<String, String> getContextValueStrs(ContextID contextID, List<ContextKey> contextKeys)
+      throws ErrorException {
+    String contextIDStr = SerializeHelper.serializeContextID(contextID);
+    List<String> contextKeyStrs = new ArrayList<>(contextKeys.size());
+    for (ContextKey contextKey : contextKeys) {
+      contextKeyStrs.add(SerializeHelper.serializeContextKey(contextKey));
+    }
+    ContextGetValuesAction action = new ContextGetValuesAction();
+    action.addHeader(ContextHTTPConstant.CONTEXT_ID_STR, contextIDStr);
+    action.getRequestPayloads().put(ContextHTTPConstant.CONTEXT_ID_STR, contextIDStr);
+    action.getRequestPayloads().put(ContextHTTPConstant.CONTEXT_KEYS_STR, contextKeyStrs);
+    Result result = null;
+    try {
+      result = dwsHttpClient.execute(action);
+    } catch (Exception e) {
+      LOGGER.error("get context values id: {} failed", contextIDStr, e);
+      ExceptionHelper.throwErrorException(
+          GET_CONTEXT_VALUE_FAILED.getErrorCode(), GET_CONTEXT_VALUE_FAILED.getErrorDesc(), e);
+    }
+    if (result instanceof ContextGetValuesResult) {
+      ContextGetValuesResult contextGetValuesResult = (ContextGetValuesResult) result;
+      int status = contextGetValuesResult.getStatus();
+      if (status != 0) {
+        String errMsg = contextGetValuesResult.getMessage();
+        LOGGER.error("get context values id: {} failed, msg is {}", contextIDStr, errMsg);
+        throw new ErrorException(80014, "get context values failed" + errMsg);
+      }
+      Map<String, Object> map = contextGetValuesResult.getData();
+      Object values = null == map ? null : map.get(ContextHTTPConstant.CONTEXT_VALUES_STR);
+      if (!(values instanceof Map)) {
+        return new HashMap<>();
+      }
+      Map<String, String> contextValueStrs = new HashMap<>();
+      ((Map<String, Object>) values)
+          .forEach(
+              (key, value) -> {
+                if (null != value) {
+                  contextValueStrs.put(key, value.toString());
+                }
+              });
+      return contextValueStrs;
+    } else if (result != null) {
+      LOGGER.error(
+          "result is not a correct type, result type is {}", result.getClass().getSimpleName());
+      throw new ErrorException(80015, "result is not a correct type");
+    } else {
+      LOGGER.error("result is null");
+      throw new ErrorException(80015, "result is null");
+    }
+  }
+
+  private String getContextValueStr(ContextID contextID, ContextKey contextKey)
+      throws ErrorException {
     String contextIDStr = SerializeHelper.serializeContextID(contextID);
     String contextKeyStr = SerializeHelper.serializeContextKey(contextKey);
     ContextGetValueAction contextGetValueAction = new ContextGetValueAction();
@@ -242,8 +383,7 @@ public class HttpContextClient extends AbstractContextClient {
         if (null == map || null == map.get("contextValue")) {
           return null;
         }
-        String contextValueStr = map.get("contextValue").toString();
-        return SerializeHelper.deserializeContextValue(contextValueStr);
+        return map.get("contextValue").toString();
       }
     } else if (result != null) {
       LOGGER.error(
@@ -273,6 +413,8 @@ public class HttpContextClient extends AbstractContextClient {
       LOGGER.error("update context failed", e);
       ExceptionHelper.throwErrorException(
           UPDATE_CONTEXT_FAILED.getErrorCode(), UPDATE_CONTEXT_FAILED.getErrorDesc(), e);
+    } finally {
+      invalidateCache(contextID, contextKey);
     }
     if (result instanceof ContextSetKeyValueResult) {
       ContextSetKeyValueResult contextSetKeyValueResult = (ContextSetKeyValueResult) result;
@@ -311,6 +453,8 @@ public class HttpContextClient extends AbstractContextClient {
       LOGGER.error("reset contextID {}, contextKey {}  failed", contextIdStr, contextKeyStr, e);
       ExceptionHelper.throwErrorException(
           RESET_CONTEXT_FAILED.getErrorCode(), RESET_CONTEXT_FAILED.getErrorDesc(), e);
+    } finally {
+      invalidateCache(contextID, contextKey);
     }
     if (result instanceof ContextResetResult) {
       ContextResetResult contextResetResult = (ContextResetResult) result;
@@ -350,6 +494,8 @@ public class HttpContextClient extends AbstractContextClient {
       LOGGER.error("reset contextID {} failed", contextIdStr, e);
       ExceptionHelper.throwErrorException(
           RESET_CONTEXT_FAILED.getErrorCode(), RESET_CONTEXT_FAILED.getErrorDesc(), e);
+    } finally {
+      invalidateCache(contextID);
     }
     if (result instanceof ContextResetIDResult) {
       ContextResetIDResult contextResetResult = (ContextResetIDResult) result;
@@ -392,6 +538,8 @@ public class HttpContextClient extends AbstractContextClient {
       LOGGER.error("remove context id {} context key {} failed", contextIdStr, contextIdStr, e);
       ExceptionHelper.throwErrorException(
           REMOVE_CONTEXT_FAILED.getErrorCode(), REMOVE_CONTEXT_FAILED.getErrorDesc(), e);
+    } finally {
+      invalidateCache(contextID, contextKey);
     }
     if (result instanceof ContextRemoveResult) {
       ContextRemoveResult contextRemoveResult = (ContextRemoveResult) result;
@@ -429,6 +577,8 @@ public class HttpContextClient extends AbstractContextClient {
       LOGGER.error("set value failed", e);
       ExceptionHelper.throwErrorException(
           UPDATE_CONTEXT_FAILED.getErrorCode(), REMOVE_CONTEXT_FAILED.getErrorDesc(), e);
+    } finally {
+      invalidateCache(contextID, contextKeyValue.getContextKey());
     }
     if (result instanceof ContextSetKeyValueResult) {
       ContextSetKeyValueResult contextSetKeyValueResult = (ContextSetKeyValueResult) result;
@@ -710,7 +860,11 @@ public class HttpContextClient extends AbstractContextClient {
             .with(ContextHTTPConstant.CONTEXT_KEY_PREFIX_STR, keyPrefix)
             .addHeader(ContextHTTPConstant.CONTEXT_ID_STR, contextIDStr)
             .build();
-    checkDWSResult(execute(action));
+    try {
+      checkDWSResult(execute(action));
+    } finally {
+      invalidateCache(contextID);
+    }
   }
 
   @Override
@@ -724,7 +878,11 @@ public class HttpContextClient extends AbstractContextClient {
             .with(ContextHTTPConstant.CONTEXT_KEY_STR, key)
             .addHeader(ContextHTTPConstant.CONTEXT_ID_STR, contextIDStr)
             .build();
-    checkDWSResult(execute(action));
+    try {
+      checkDWSResult(execute(action));
+    } finally {
+      invalidateCache(contextID);
+    }
   }
 
   @Override
@@ -737,7 +895,11 @@ public class HttpContextClient extends AbstractContextClient {
             .with(ContextHTTPConstant.CONTEXT_KEY_PREFIX_STR, keyPrefix)
             .addHeader(ContextHTTPConstant.CONTEXT_ID_STR, contextIDStr)
             .build();
-    checkDWSResult(execute(action));
+    try {
+      checkDWSResult(execute(action));
+    } finally {
+      invalidateCache(contextID);
+    }
   }
 
   @Override
@@ -820,6 +982,8 @@ public class HttpContextClient extends AbstractContextClient {
       LOGGER.error("batchClearContextByHAID failed, {}", e.getMessage(), e);
       ExceptionHelper.throwErrorException(
           CLEAR_CONTEXT_HAID_FAILED.getErrorCode(), CLEAR_CONTEXT_HAID_FAILED.getErrorDesc(), e);
+    } finally {
+      invalidateAllCache();
     }
     if (result instanceof ContextClearByIDResult) {
       ContextClearByIDResult contextClearByIDResult = (ContextClearByIDResult) result;
@@ -870,6 +1034,8 @@ public class HttpContextClient extends AbstractContextClient {
       LOGGER.error("batchClearContextByTime failed, {}", e.getMessage(), e);
       ExceptionHelper.throwErrorException(
           CLEAR_CONTEXT_HAID_FAILED.getErrorCode(), CLEAR_CONTEXT_HAID_FAILED.getErrorDesc(), e);
+    } finally {
+      invalidateAllCache();
     }
     if (result instanceof ContextClearByTimeResult) {
       ContextClearByTimeResult contextClearByTimeResult = (ContextClearByTimeResult) result;
@@ -885,6 +1051,24 @@ public class HttpContextClient extends AbstractContextClient {
     }
   }
 
+  private void invalidateCache(ContextID contextID, ContextKey contextKey) {
+    if (null != contextValueCache) {
+      contextValueCache.invalidate(contextID, contextKey);
+    }
+  }
+
+  private void invalidateCache(ContextID contextID) {
+    if (null != contextValueCache) {
+      contextValueCache.invalidateContext(contextID);
+    }
+  }
+
+  private void invalidateAllCache() {
+    if (null != contextValueCache) {
+      contextValueCache.invalidateAll();
+    }
+  }
+
   private Result execute(Action action) throws ErrorException {
     try {
       return dwsHttpClient.execute(action);
@@ -915,6 +1099,7 @@ public class HttpContextClient extends AbstractContextClient {
   public void close() throws IOException {
     try {
       LOGGER.info("client close");
+      invalidateAllCache();
       if (null != this.dwsHttpClient) {
         this.dwsHttpClient.close();
         this.heartBeater.close();
@@ -66,7 +66,15 @@ public class HttpHeartBeater implements HeartBeater {
 
   private DWSHttpClient dwsHttpClient;
 
+  private ContextValueCache contextValueCache;
+
   public HttpHeartBeater(ContextClientConfig contextClientConfig) {
+    this(contextClientConfig, null);
+  }
+
+  public HttpHeartBeater(
+      ContextClientConfig contextClientConfig, ContextValueCache contextValueCache) {
+    this.contextValueCache = contextValueCache;
     if (contextClientConfig instanceof HttpContextClientConfig) {
       HttpContextClientConfig httpContextClientConfig =
           (HttpContextClientConfig) contextClientConfig;
@@ -120,6 +128,9 @@ public class HttpHeartBeater implements HeartBeater {
   public void dealCallBack(List<ContextKeyValueBean> kvs) {
     for (ContextKeyValueBean kv : kvs) {
       // todo 先忽略掉contextIDEvent
+      if (null != contextValueCache) {
+        contextValueCache.invalidate(kv.getCsID(), kv.getCsKey());
+      }
       ContextKeyValue contextKeyValue = new CommonContextKeyValue();
       contextKeyValue.setContextKey(kv.getCsKey());
       contextKeyValue.setContextValue(kv.getCsValue());
@@ -29,7 +29,11 @@ public class ContextClientListenerManager {
     if (contextClientListenerBus == null) {
       synchronized (ContextClientListenerManager.class) {
         if (contextClientListenerBus == null) {
-          contextClientListenerBus = new ContextClientListenerBus<ContextClientListener, Event>();
+          ContextClientListenerBus<ContextClientListener, Event> listenerBus =
+              new ContextClientListenerBus<ContextClientListener, Event>();
+          // post fails on a bus that was never started
+          listenerBus.start();
+          contextClientListenerBus = listenerBus;
         }
       }
     }
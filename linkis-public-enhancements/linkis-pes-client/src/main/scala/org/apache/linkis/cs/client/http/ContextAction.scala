@@ -47,6 +47,10 @@ case class ContextGetValueAction() extends ContextPostAction {
   override def getURL: String = ContextServerHttpConf.getContextValueURL
 }
 
+case class ContextGetValuesAction() extends ContextPostAction {
+  override def getURL: String = ContextServerHttpConf.getContextValuesURL
+}
+
 case class ContextUpdateAction() extends ContextPostAction {
 
   override def getURL: String = ContextServerHttpConf.updateContextURL
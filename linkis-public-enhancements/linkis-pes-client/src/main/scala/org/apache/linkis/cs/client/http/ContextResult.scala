@@ -85,6 +85,9 @@ class ContextSearchResult extends ContextResult {}
 @DWSHttpMessageResult("/api/rest_j/v\\d+/contextservice/getContextValue")
 class ContextGetValueResult extends ContextResult {}
 
+@DWSHttpMessageResult("/api/rest_j/v\\d+/contextservice/getContextValues")
+class ContextGetValuesResult extends ContextResult {}
+
 // TODO: 用来匹配所有的void 不需要处理返回值的result
 @DWSHttpMessageResult(
   "/api/rest_j/v\\d+/contextservice/(createHistory|removeHistory|removeAllValueByKeyPrefix|removeAllValueByKeyPrefixAndContextType)"
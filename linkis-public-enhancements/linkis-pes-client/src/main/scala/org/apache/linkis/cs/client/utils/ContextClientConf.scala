@@ -37,6 +37,15 @@ object ContextClientConf {
   val HEART_BEAT_ENABLED: CommonVars[String] =
     CommonVars[String]("wds.linkis.cs.heartbeat.enabled", "true")
 
+  val CS_CLIENT_CACHE_ENABLED: CommonVars[Boolean] =
+    CommonVars[Boolean]("wds.linkis.cs.client.cache.enabled", true)
+
+  val CS_CLIENT_CACHE_TTL_MILLS: CommonVars[Long] =
+    CommonVars[Long]("wds.linkis.cs.client.cache.ttl.mills", 10 * 1000L)
+
+  val CS_CLIENT_CACHE_MAX_SIZE: CommonVars[Long] =
+    CommonVars[Long]("wds.linkis.cs.client.cache.max.size", 10000L)
+
   val CS_CONNECTION_TIMEOUT: CommonVars[Int] =
     CommonVars[Int]("wds.linkis.cs.connection.timeout", 3 * 60 * 1000)
 
@@ -51,6 +51,8 @@ object ContextServerHttpConf {
 
   val getContextValueURL: String = urlPrefix + "/getContextValue"
 
+  val getContextValuesURL: String = urlPrefix + "/getContextValues"
+
   val createContextHistory: String = urlPrefix + "/createHistory"
 
   val removeContextHistory: String = urlPrefix + "/removeHistory"
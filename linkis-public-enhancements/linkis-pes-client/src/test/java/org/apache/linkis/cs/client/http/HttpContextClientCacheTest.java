@@ -0,0 +1,291 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.linkis.cs.client.http;
+
+import org.apache.linkis.cs.client.builder.ContextClientConfig;
+import org.apache.linkis.cs.client.utils.SerializeHelper;
+import org.apache.linkis.cs.common.entity.enumeration.ContextScope;
+import org.apache.linkis.cs.common.entity.enumeration.ContextType;
+import org.apache.linkis.cs.common.entity.object.LinkisVariable;
+import org.apache.linkis.cs.common.entity.source.CommonContextKey;
+import org.apache.linkis.cs.common.entity.source.CommonContextValue;
+import org.apache.linkis.cs.common.entity.source.ContextID;
+import org.apache.linkis.cs.common.entity.source.ContextKey;
+import org.apache.linkis.cs.common.entity.source.ContextKeyValue;
+import org.apache.linkis.cs.common.entity.source.ContextValue;
+import org.apache.linkis.cs.common.entity.source.LinkisHAWorkFlowContextID;
+import org.apache.linkis.cs.common.protocol.ContextHTTPConstant;
+import org.apache.linkis.cs.listener.callback.imp.ContextKeyValueBean;
+import org.apache.linkis.httpclient.dws.DWSHttpClient;
+import org.apache.linkis.httpclient.dws.response.DWSResult;
+import org.apache.linkis.httpclient.request.Action;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReference;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+
+import static org.mockito.ArgumentMatchers.any;
+
+/**
+ * The context service is played by an in memory map behind a mocked {@link DWSHttpClient}, so the
+ * client runs its real request building, result parsing and caching.
+ */
+public class HttpContextClientCacheTest {
+
+  private static final ObjectMapper JSON = new ObjectMapper();
+
+  private final Map<String, String> serverValues = new ConcurrentHashMap<>();
+
+  private final AtomicInteger singleGets = new AtomicInteger();
+
+  private final AtomicInteger batchGets = new AtomicInteger();
+
+  private final AtomicInteger lastBatchSize = new AtomicInteger();
+
+  private volatile boolean slowReads = false;
+
+  private ContextValueCache cache;
+
+  private HttpContextClient client;
+
+  private ContextID contextID;
+
+  @BeforeEach
+  public void before() throws Exception {
+    DWSHttpClient dwsHttpClient = Mockito.mock(DWSHttpClient.class);
+    Mockito.when(dwsHttpClient.execute(any(Action.class)))
+        .thenAnswer(invocation -> serve(invocation.getArgument(0)));
+    cache = new ContextValueCache(60 * 1000L, 10000L);
+    client = new HttpContextClient(dwsHttpClient, cache);
+    LinkisHAWorkFlowContextID haContextID = new LinkisHAWorkFlowContextID();
+    haContextID.setContextId("8-8--cs_1_devcs_2_dev10493");
+    contextID = haContextID;
+  }
+
+  @Test
+  @DisplayName("repeatedReadsHitCacheTest")
+  public void repeatedReadsHitCacheTest() throws Exception {
+    for (int i = 0; i < 10; i++) {
+      serverValues.put("key" + i, serializedValue("v" + i));
+    }
+    for (int round = 0; round < 100; round++) {
+      for (int i = 0; i < 10; i++) {
+        Assertions.assertEquals("v" + i, valueOf(client.getContextValue(contextID, key(i))));
+      }
+    }
+    Assertions.assertEquals(10, singleGets.get());
+    Assertions.assertTrue(cache.stats().hitRate() >= 0.99);
+    Assertions.assertNull(client.getContextValue(contextID, key(99)));
+  }
+
+  @Test
+  @DisplayName("batchGetFetchesOnlyMissesTest")
+  public void batchGetFetchesOnlyMissesTest() throws Exception {
+    List<ContextKey> keys = new ArrayList<>();
+    for (int i = 0; i < 20; i++) {
+      serverValues.put("key" + i, serializedValue("v" + i));
+      keys.add(key(i));
+    }
+    keys.add(key(99));
+    for (int i = 0; i < 5; i++) {
+      client.getContextValue(contextID, key(i));
+    }
+
+    Map<String, ContextValue> values = client.getContextValues(contextID, keys);
+    Assertions.assertEquals(20, values.size());
+    Assertions.assertEquals("v7", valueOf(values.get("key7")));
+    Assertions.assertFalse(values.containsKey("key99"));
+    Assertions.assertEquals(1, batchGets.get());
+    Assertions.assertEquals(16, lastBatchSize.get());
+
+    client.getContextValues(contextID, keys.subList(0, 20));
+    Assertions.assertEquals(1, batchGets.get());
+    Assertions.assertEquals(5, singleGets.get());
+  }
+
+  @Test
+  @DisplayName("localWriteAndCallbackInvalidateTest")
+  public void localWriteAndCallbackInvalidateTest() throws Exception {
+    serverValues.put("key1", serializedValue("v1"));
+    Assertions.assertEquals("v1", valueOf(client.getContextValue(contextID, key(1))));
+
+    client.update(contextID, key(1), value("v2"));
+    Assertions.assertEquals("v2", valueOf(client.getContextValue(contextID, key(1))));
+
+    // written by another client, only the heartbeat callback tells about it
+    serverValues.put("key1", serializedValue("v3"));
+    Assertions.assertEquals("v2", valueOf(client.getContextValue(contextID, key(1))));
+    ContextKeyValueBean bean = new ContextKeyValueBean();
+    bean.setCsID(contextID);
+    bean.setCsKey(key(1));
+    bean.setCsValue(value("v3"));
+    new HttpHeartBeater(new ContextClientConfig() {}, cache)
+        .dealCallBack(Collections.singletonList(bean));
+    Assertions.assertEquals("v3", valueOf(client.getContextValue(contextID, key(1))));
+
+    serverValues.put("key1", serializedValue("v4"));
+    client.removeAllValueByKeyPrefix(contextID, "key");
+    Assertions.assertEquals("v4", valueOf(client.getContextValue(contextID, key(1))));
+  }
+
+  @Test
+  @DisplayName("concurrentUpdatesNeverReadStaleTest")
+  public void concurrentUpdatesNeverReadStaleTest() throws Exception {
+    int keyCount = 8;
+    int writes = 200;
+    AtomicLongArray committed = new AtomicLongArray(keyCount);
+    for (int i = 0; i < keyCount; i++) {
+      serverValues.put("key" + i, serializedValue("0"));
+    }
+    // reads linger after taking the value, the window where a late reader could cache it
+    slowReads = true;
+    ExecutorService executor = Executors.newFixedThreadPool(12);
+    CountDownLatch writersDone = new CountDownLatch(keyCount);
+    AtomicReference<Throwable> failure = new AtomicReference<>();
+    for (int i = 0; i < keyCount; i++) {
+      int k = i;
+      executor.submit(
+          () -> {
+            try {
+              for (int v = 1; v <= writes; v++) {
+                client.update(contextID, key(k), value(String.valueOf(v)));
+                committed.set(k, v);
+              }
+            } catch (Throwable t) {
+              failure.compareAndSet(null, t);
+            } finally {
+              writersDone.countDown();
+            }
+          });
+    }
+    for (int r = 0; r < 4; r++) {
+      executor.submit(
+          () -> {
+            try {
+              while (writersDone.getCount() > 0) {
+                int k = ThreadLocalRandom.current().nextInt(keyCount);
+                long floor = committed.get(k);
+                long read = Long.parseLong(valueOf(client.getContextValue(contextID, key(k))));
+                if (read < floor) {
+                  throw new AssertionError("key" + k + " read " + read + " after " + floor);
+                }
+              }
+            } catch (Throwable t) {
+              failure.compareAndSet(null, t);
+            }
+          });
+    }
+    executor.shutdown();
+    Assertions.assertTrue(executor.awaitTermination(2, TimeUnit.MINUTES));
+    Assertions.assertNull(failure.get());
+    for (int i = 0; i < keyCount; i++) {
+      Assertions.assertEquals(
+          String.valueOf(writes), valueOf(client.getContextValue(contextID, key(i))));
+    }
+  }
+
+  @SuppressWarnings("unchecked")
+  private DWSResult serve(Action action) throws Exception {
+    Map<String, Object> payloads = ((ContextPostAction) action).getRequestPayloads();
+    Map<String, Object> data = new HashMap<>();
+    DWSResult result;
+    if (action instanceof ContextGetValueAction) {
+      singleGets.incrementAndGet();
+      ContextKey contextKey =
+          SerializeHelper.deserializeContextKey(
+              (String) payloads.get(ContextHTTPConstant.CONTEXT_KEY_STR));
+      data.put("contextValue", serverValues.get(contextKey.getKey()));
+      if (slowReads) {
+        Thread.sleep(ThreadLocalRandom.current().nextInt(3));
+      }
+      result = new ContextGetValueResult();
+    } else if (action instanceof ContextGetValuesAction) {
+      batchGets.incrementAndGet();
+      List<String> contextKeyStrs =
+          (List<String>) payloads.get(ContextHTTPConstant.CONTEXT_KEYS_STR);
+      lastBatchSize.set(contextKeyStrs.size());
+      Map<String, String> values = new HashMap<>();
+      for (String contextKeyStr : contextKeyStrs) {
+        String key = SerializeHelper.deserializeContextKey(contextKeyStr).getKey();
+        if (serverValues.containsKey(key)) {
+          values.put(key, serverValues.get(key));
+        }
+      }
+      data.put(ContextHTTPConstant.CONTEXT_VALUES_STR, values);
+      result = new ContextGetValuesResult();
+    } else if (action instanceof ContextSetKeyValueAction) {
+      ContextKeyValue contextKeyValue =
+          SerializeHelper.deserializeContextKeyValue((String) payloads.get("contextKeyValue"));
+      serverValues.put(
+          contextKeyValue.getContextKey().getKey(),
+          SerializeHelper.serializeContextValue(contextKeyValue.getContextValue()));
+      result = new ContextSetKeyValueResult();
+    } else {
+      result = new VoidResult();
+    }
+    Map<String, Object> body = new HashMap<>();
+    body.put("status", 0);
+    body.put("message", "");
+    body.put("data", data);
+    result.set(JSON.writeValueAsString(body), 200, action.getURL(), "application/json");
+    return result;
+  }
+
+  private static ContextKey key(int i) {
+    ContextKey contextKey = new CommonContextKey();
+    contextKey.setKey("key" + i);
+    contextKey.setContextScope(ContextScope.PUBLIC);
+    contextKey.setContextType(ContextType.OBJECT);
+    return contextKey;
+  }
+
+  private static ContextValue value(String v) {
+    LinkisVariable variable = new LinkisVariable();
+    variable.setKey("var");
+    variable.setValue(v);
+    ContextValue contextValue = new CommonContextValue();
+    contextValue.setValue(variable);
+    return contextValue;
+  }
+
+  private static String serializedValue(String v) throws Exception {
+    return SerializeHelper.serializeContextValue(value(v));
+  }
+
+  private static String valueOf(ContextValue contextValue) {
+    return ((LinkisVariable) contextValue.getValue()).getValue();
+  }
+}
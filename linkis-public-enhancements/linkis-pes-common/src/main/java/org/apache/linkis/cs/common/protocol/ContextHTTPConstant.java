@@ -23,6 +23,10 @@ public interface ContextHTTPConstant {
 
   String CONTEXT_VALUE_STR = "contextValue";
 
+  String CONTEXT_KEYS_STR = "contextKeys";
+
+  String CONTEXT_VALUES_STR = "contextValues";
+
   String CONTEXT_ID_STR = "contextID";
 
   String CONTEXT_KEY_TYPE_STR = "contextKeyType";
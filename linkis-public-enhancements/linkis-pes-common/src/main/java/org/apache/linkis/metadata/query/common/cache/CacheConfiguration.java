@@ -27,6 +27,20 @@ public class CacheConfiguration {
   public static CommonVars<Long> CACHE_EXPIRE_TIME =
       CommonVars.apply("wds.linkis.server.mdm.service.cache.expire", 600L);
 
+  public static final CommonVars<Boolean> DS_INFO_CACHE_ENABLED =
+      CommonVars.apply("linkis.server.mdm.service.ds-info.cache.enabled", true);
+
+  public static final CommonVars<Long> DS_INFO_CACHE_MAX_SIZE =
+      CommonVars.apply("linkis.server.mdm.service.ds-info.cache.max-size", 1000L);
+
+  /** Seconds after which a cached data source info can not be used any more */
+  public static final CommonVars<Long> DS_INFO_CACHE_EXPIRE_TIME =
+      CommonVars.apply("linkis.server.mdm.service.ds-info.cache.expire", 300L);
+
+  /** Seconds after which a cached data source info is refreshed asynchronously when it is hit */
+  public static final CommonVars<Long> DS_INFO_CACHE_REFRESH_TIME =
+      CommonVars.apply("linkis.server.mdm.service.ds-info.cache.refresh", 240L);
+
   /** Make a pool for each cache element */
   public static final CommonVars<Integer> CACHE_IN_POOL_SIZE =
       CommonVars.apply("wds.linkis.server.mdm.service.cache.in-pool.size", 5);
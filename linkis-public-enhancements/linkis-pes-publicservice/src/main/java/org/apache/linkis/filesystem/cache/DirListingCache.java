@@ -0,0 +1,112 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.linkis.filesystem.cache;
+
+import org.apache.linkis.common.io.FsPath;
+import org.apache.linkis.filesystem.entity.DirListing;
+
+import java.io.IOException;
+import java.util.Objects;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.util.concurrent.UncheckedExecutionException;
+
+/**
+ * Directory listings of the workspace kept for a short time per user, so that paging through a
+ * large directory or expanding it again does not list it on the file system every time. The
+ * workspace drops the listings touched by its own changes, changes made elsewhere show up once a
+ * listing expires.
+ */
+public class DirListingCache {
+
+  private final Cache<Key, DirListing> cache;
+
+  public DirListingCache(long ttlMills, long maxChildren) {
+    this.cache =
+        ttlMills > 0
+            ? CacheBuilder.newBuilder()
+                .expireAfterWrite(ttlMills, TimeUnit.MILLISECONDS)
+                .maximumWeight(maxChildren)
+                .weigher((Key key, DirListing listing) -> listing.size() + 1)
+                .build()
+            : null;
+  }
+
+  public DirListing get(String user, FsPath path, Callable<DirListing> loader) throws Exception {
+    if (cache == null) {
+      return loader.call();
+    }
+    try {
+      return cache.get(new Key(user, path.getSchemaPath()), loader);
+    } catch (ExecutionException | UncheckedExecutionException e) {
+      Throwable cause = e.getCause();
+      throw cause instanceof Exception ? (Exception) cause : new IOException(cause);
+    }
+  }
+
+  /** Drops the listings of path, of its parent and of every directory below path, for all users. */
+  public void invalidate(FsPath path) {
+    if (cache == null) {
+      return;
+    }
+    String changed = path.getSchemaPath();
+    FsPath parent = path.getParent();
+    String parentPath = parent == null ? null : parent.getSchemaPath();
+    String below = changed.endsWith(FsPath.SEPARATOR) ? changed : changed + FsPath.SEPARATOR;
+    cache
+        .asMap()
+        .keySet()
+        .removeIf(
+            key ->
+                key.path.equals(changed)
+                    || key.path.equals(parentPath)
+                    || key.path.startsWith(below));
+  }
+
+  private static class Key {
+
+    private final String user;
+    private final String path;
+
+    private Key(String user, String path) {
+      this.user = user;
+      this.path = path;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (this == o) {
+        return true;
+      }
+      if (o == null || getClass() != o.getClass()) {
+        return false;
+      }
+      Key key = (Key) o;
+      return user.equals(key.user) && path.equals(key.path);
+    }
+
+    @Override
+    public int hashCode() {
+      return Objects.hash(user, path);
+    }
+  }
+}
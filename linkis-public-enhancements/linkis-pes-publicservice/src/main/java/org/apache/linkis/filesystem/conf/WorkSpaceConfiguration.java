@@ -68,6 +68,17 @@ public class WorkSpaceConfiguration {
   public static final CommonVars<Integer> FILESYSTEM_LIMIT_COLUMN_LENGTH =
       CommonVars$.MODULE$.apply("linkis.filesystem.limit.column.length", 2000);
 
+  /** how long a directory listing is reused for the same user, 0 turns the cache off */
+  public static final CommonVars<Long> FILESYSTEM_LIST_CACHE_MILLS =
+      CommonVars$.MODULE$.apply("linkis.filesystem.list.cache.mills", 10000L);
+
+  /** children of all cached directory listings together */
+  public static final CommonVars<Long> FILESYSTEM_LIST_CACHE_MAX_CHILDREN =
+      CommonVars$.MODULE$.apply("linkis.filesystem.list.cache.max.children", 1000000L);
+
+  public static final CommonVars<Integer> FILESYSTEM_LIST_PAGE_SIZE_MAX =
+      CommonVars$.MODULE$.apply("linkis.filesystem.list.page.size.max", 5000);
+
   public static final ExecutorService executorService =
       new ThreadPoolExecutor(
           FILESYSTEM_FS_THREAD_NUM.getValue(),
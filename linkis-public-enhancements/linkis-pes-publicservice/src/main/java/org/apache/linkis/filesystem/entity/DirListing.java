@@ -0,0 +1,219 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.linkis.filesystem.entity;
+
+import org.apache.linkis.common.io.FsPath;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * The children of a directory as they were listed at one moment. Sorted views are built on first
+ * use and kept with the listing, pages are cut from them after a cursor that holds the sort key of
+ * the last child of the previous page, so paging goes on where it stopped even if that child is
+ * gone by then.
+ */
+public class DirListing {
+
+  public static final String SORT_BY_NAME = "name";
+  public static final String SORT_BY_MODIFY_TIME = "modifytime";
+  public static final String SORT_BY_SIZE = "size";
+
+  private static final String CURSOR_SEPARATOR = "\n";
+
+  private final List<Child> children;
+
+  private final Map<String, List<Child>> sortedViews = new ConcurrentHashMap<>();
+
+  public DirListing(List<FsPath> paths) {
+    List<Child> list = new ArrayList<>(paths.size());
+    for (FsPath path : paths) {
+      list.add(
+          new Child(
+              path,
+              new File(path.getPath()).getName(),
+              path.getModification_time(),
+              path.getLength()));
+    }
+    this.children = Collections.unmodifiableList(list);
+  }
+
+  public int size() {
+    return children.size();
+  }
+
+  /** All children in the order the file system listed them. */
+  public List<FsPath> getChildren() {
+    List<FsPath> paths = new ArrayList<>(children.size());
+    children.forEach(child -> paths.add(child.path));
+    return paths;
+  }
+
+  /**
+   * Children sorted by sortBy whose name starts with namePrefix, at most pageSize of them after
+   * cursor. A null cursor starts at the first child.
+   *
+   * @throws IllegalArgumentException if sortBy or cursor is not valid
+   */
+  public Page page(String sortBy, boolean desc, String namePrefix, String cursor, int pageSize) {
+    String viewKey = sortBy + (desc ? " desc" : " asc");
+    Comparator<Child> comparator = comparator(sortBy, desc);
+    List<Child> sorted =
+        sortedViews.computeIfAbsent(
+            viewKey,
+            key -> {
+              List<Child> list = new ArrayList<>(children);
+              list.sort(comparator);
+              return list;
+            });
+    int start = 0;
+    if (cursor != null) {
+      Child last = decodeCursor(viewKey, cursor);
+      // the first child behind the cursor
+      int low = 0;
+      int high = sorted.size();
+      while (low < high) {
+        int mid = (low + high) >>> 1;
+        if (comparator.compare(sorted.get(mid), last) <= 0) {
+          low = mid + 1;
+        } else {
+          high = mid;
+        }
+      }
+      start = low;
+    }
+    List<FsPath> paths = new ArrayList<>(Math.min(pageSize, sorted.size() - start));
+    Child lastOfPage = null;
+    boolean more = false;
+    for (int i = start; i < sorted.size(); i++) {
+      Child child = sorted.get(i);
+      if (namePrefix != null && !child.name.startsWith(namePrefix)) {
+        continue;
+      }
+      if (paths.size() == pageSize) {
+        more = true;
+        break;
+      }
+      paths.add(child.path);
+      lastOfPage = child;
+    }
+    long total = children.size();
+    if (namePrefix != null) {
+      total = children.stream().filter(child -> child.name.startsWith(namePrefix)).count();
+    }
+    return new Page(paths, more ? encodeCursor(viewKey, lastOfPage) : null, total);
+  }
+
+  private static Comparator<Child> comparator(String sortBy, boolean desc) {
+    Comparator<Child> comparator;
+    if (SORT_BY_NAME.equals(sortBy)) {
+      comparator = Comparator.comparing(child -> child.name);
+    } else if (SORT_BY_MODIFY_TIME.equals(sortBy)) {
+      comparator =
+          Comparator.<Child>comparingLong(child -> child.modificationTime)
+              .thenComparing(child -> child.name);
+    } else if (SORT_BY_SIZE.equals(sortBy)) {
+      comparator =
+          Comparator.<Child>comparingLong(child -> child.length).thenComparing(child -> child.name);
+    } else {
+      throw new IllegalArgumentException("Unsupported sort of directory listing: " + sortBy);
+    }
+    return desc ? comparator.reversed() : comparator;
+  }
+
+  private static String encodeCursor(String viewKey, Child child) {
+    String cursor =
+        String.join(
+            CURSOR_SEPARATOR,
+            viewKey,
+            String.valueOf(child.modificationTime),
+            String.valueOf(child.length),
+            child.name);
+    return Base64.getUrlEncoder()
+        .withoutPadding()
+        .encodeToString(cursor.getBytes(StandardCharsets.UTF_8));
+  }
+
+  private static Child decodeCursor(String viewKey, String cursor) {
+    String[] parts;
+    try {
+      parts =
+          new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8)
+              .split(CURSOR_SEPARATOR, 4);
+    } catch (IllegalArgumentException e) {
+      throw new IllegalArgumentException("Cursor is not encoded by a listing: " + cursor, e);
+    }
+    if (parts.length != 4 || !viewKey.equals(parts[0])) {
+      throw new IllegalArgumentException("Cursor is not of a listing sorted by " + viewKey);
+    }
+    try {
+      return new Child(null, parts[3], Long.parseLong(parts[1]), Long.parseLong(parts[2]));
+    } catch (NumberFormatException e) {
+      throw new IllegalArgumentException("Cursor is not encoded by a listing: " + cursor, e);
+    }
+  }
+
+  private static class Child {
+
+    private final FsPath path;
+    private final String name;
+    private final long modificationTime;
+    private final long length;
+
+    private Child(FsPath path, String name, long modificationTime, long length) {
+      this.path = path;
+      this.name = name;
+      this.modificationTime = modificationTime;
+      this.length = length;
+    }
+  }
+
+  public static class Page {
+
+    private final List<FsPath> children;
+    private final String nextCursor;
+    private final long total;
+
+    public Page(List<FsPath> children, String nextCursor, long total) {
+      this.children = children;
+      this.nextCursor = nextCursor;
+      this.total = total;
+    }
+
+    public List<FsPath> getChildren() {
+      return children;
+    }
+
+    /** null on the last page */
+    public String getNextCursor() {
+      return nextCursor;
+    }
+
+    /** children whose name matches the prefix, on all pages */
+    public long getTotal() {
+      return total;
+    }
+  }
+}
@@ -71,6 +71,7 @@ public class WorkspaceExceptionManager {
           put("80029", "Empty dir(空目录)!");
           put("80030", "Creating user path: {0} failed(创建用户路径:{0}失败)");
           put("80031", "User: {0} not initialized(用户:{0}未初始化)");
+          put("80032", "Invalid parameter of the directory listing:{0}(目录列表的参数无效:{0})");
         }
       };
 
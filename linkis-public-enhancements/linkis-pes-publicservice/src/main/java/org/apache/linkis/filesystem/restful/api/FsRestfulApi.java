@@ -20,8 +20,11 @@ package org.apache.linkis.filesystem.restful.api;
 import org.apache.linkis.common.conf.Configuration;
 import org.apache.linkis.common.io.FsPath;
 import org.apache.linkis.common.io.FsWriter;
+import org.apache.linkis.common.io.resultset.ResultPageCodec;
+import org.apache.linkis.filesystem.cache.DirListingCache;
 import org.apache.linkis.filesystem.conf.WorkSpaceConfiguration;
 import org.apache.linkis.filesystem.entity.DirFileTree;
+import org.apache.linkis.filesystem.entity.DirListing;
 import org.apache.linkis.filesystem.entity.LogLevel;
 import org.apache.linkis.filesystem.exception.WorkSpaceException;
 import org.apache.linkis.filesystem.exception.WorkspaceExceptionManager;
@@ -81,6 +84,12 @@ public class FsRestfulApi {
 
   private final Logger LOGGER = LoggerFactory.getLogger(getClass());
 
+  private static final DirListing MISSING_DIR = new DirListing(Collections.emptyList());
+
+  private final DirListingCache dirListingCache =
+      new DirListingCache(
+          FILESYSTEM_LIST_CACHE_MILLS.getValue(), FILESYSTEM_LIST_CACHE_MAX_CHILDREN.getValue());
+
   /**
    * check 权限
    *
@@ -183,7 +192,11 @@ public class FsRestfulApi {
     if (fileSystem.exists(fsPath)) {
       throw WorkspaceExceptionManager.createException(80005, path);
     }
-    fileSystem.mkdirs(fsPath);
+    try {
+      fileSystem.mkdirs(fsPath);
+    } finally {
+      dirListingCache.invalidate(fsPath);
+    }
     return Message.ok();
   }
 
@@ -209,7 +222,11 @@ public class FsRestfulApi {
     if (fileSystem.exists(fsPath)) {
       throw WorkspaceExceptionManager.createException(80006, path);
     }
-    fileSystem.createNewFile(fsPath);
+    try {
+      fileSystem.createNewFile(fsPath);
+    } finally {
+      dirListingCache.invalidate(fsPath);
+    }
     return Message.ok();
   }
 
@@ -250,7 +267,12 @@ public class FsRestfulApi {
     if (fileSystem.exists(fsPathNew)) {
       throw WorkspaceExceptionManager.createException(80007, newDest);
     }
-    fileSystem.renameTo(fsPathOld, fsPathNew);
+    try {
+      fileSystem.renameTo(fsPathOld, fsPathNew);
+    } finally {
+      dirListingCache.invalidate(fsPathOld);
+      dirListingCache.invalidate(fsPathNew);
+    }
     return Message.ok();
   }
 
@@ -293,7 +315,12 @@ public class FsRestfulApi {
     if (!fileSystem.exists(flieOldPath)) {
       throw WorkspaceExceptionManager.createException(80013, filePath);
     }
-    fileSystem.renameTo(flieOldPath, flieNewPath);
+    try {
+      fileSystem.renameTo(flieOldPath, flieNewPath);
+    } finally {
+      dirListingCache.invalidate(flieOldPath);
+      dirListingCache.invalidate(flieNewPath);
+    }
     return Message.ok();
   }
 
@@ -319,15 +346,19 @@ public class FsRestfulApi {
     }
     FsPath fsPath = new FsPath(path);
     FileSystem fileSystem = fsService.getFileSystem(userName, fsPath);
-    for (MultipartFile p : files) {
-      String fileName = p.getOriginalFilename();
-      WorkspaceUtil.charCheckFileName(fileName);
-      FsPath fsPathNew = new FsPath(fsPath.getPath() + "/" + fileName);
-      fileSystem.createNewFile(fsPathNew);
-      try (InputStream is = p.getInputStream();
-          OutputStream outputStream = fileSystem.write(fsPathNew, true)) {
-        IOUtils.copy(is, outputStream);
+    try {
+      for (MultipartFile p : files) {
+        String fileName = p.getOriginalFilename();
+        WorkspaceUtil.charCheckFileName(fileName);
+        FsPath fsPathNew = new FsPath(fsPath.getPath() + "/" + fileName);
+        fileSystem.createNewFile(fsPathNew);
+        try (InputStream is = p.getInputStream();
+            OutputStream outputStream = fileSystem.write(fsPathNew, true)) {
+          IOUtils.copy(is, outputStream);
+        }
       }
+    } finally {
+      dirListingCache.invalidate(fsPath);
     }
     return Message.ok();
   }
@@ -357,18 +388,55 @@ public class FsRestfulApi {
     if (!fileSystem.canWrite(fsPath.getParent()) || !fileSystem.canExecute(fsPath.getParent())) {
       throw WorkspaceExceptionManager.createException(80009);
     }
-    deleteAllFiles(fileSystem, fsPath);
+    try {
+      deleteAllFiles(fileSystem, fsPath);
+    } finally {
+      dirListingCache.invalidate(fsPath);
+    }
     return Message.ok();
   }
 
   @ApiOperation(value = "getDirFileTrees", notes = "get dir file trees", response = Message.class)
   @ApiImplicitParams({
-    @ApiImplicitParam(name = "path", required = false, dataType = "String", value = "path")
+    @ApiImplicitParam(name = "path", required = false, dataType = "String", value = "path"),
+    @ApiImplicitParam(
+        name = "pageSize",
+        required = false,
+        dataType = "Integer",
+        value = "children per page, all children are returned without paging parameters"),
+    @ApiImplicitParam(
+        name = "cursor",
+        required = false,
+        dataType = "String",
+        value = "nextCursor of the previous page"),
+    @ApiImplicitParam(
+        name = "sortBy",
+        required = false,
+        dataType = "String",
+        value = "name, modifytime or size",
+        defaultValue = "name"),
+    @ApiImplicitParam(
+        name = "order",
+        required = false,
+        dataType = "String",
+        value = "asc or desc",
+        defaultValue = "asc"),
+    @ApiImplicitParam(
+        name = "namePrefix",
+        required = false,
+        dataType = "String",
+        value = "only children whose name starts with it")
   })
   @ApiOperationSupport(ignoreParameters = {"json"})
   @RequestMapping(path = "/getDirFileTrees", method = RequestMethod.GET)
   public Message getDirFileTrees(
-      HttpServletRequest req, @RequestParam(value = "path", required = false) String path)
+      HttpServletRequest req,
+      @RequestParam(value = "path", required = false) String path,
+      @RequestParam(value = "pageSize", required = false) Integer pageSize,
+      @RequestParam(value = "cursor", required = false) String cursor,
+      @RequestParam(value = "sortBy", required = false) String sortBy,
+      @RequestParam(value = "order", required = false) String order,
+      @RequestParam(value = "namePrefix", required = false) String namePrefix)
       throws IOException, WorkSpaceException {
 
     if (StringUtils.isEmpty(path)) {
@@ -380,37 +448,85 @@ public class FsRestfulApi {
     }
     FsPath fsPath = new FsPath(path);
     FileSystem fileSystem = fsService.getFileSystem(userName, fsPath);
-    if (!fileSystem.exists(fsPath)) {
+    DirListing dirListing = listDir(userName, fileSystem, fsPath);
+    if (dirListing == MISSING_DIR) {
       return Message.ok().data("dirFileTrees", null);
     }
+    Message message = Message.ok();
+    List<FsPath> children;
+    if (pageSize == null
+        && cursor == null
+        && sortBy == null
+        && order == null
+        && namePrefix == null) {
+      children = dirListing.getChildren();
+    } else {
+      int maxPageSize = FILESYSTEM_LIST_PAGE_SIZE_MAX.getValue();
+      DirListing.Page page;
+      try {
+        page =
+            dirListing.page(
+                StringUtils.isEmpty(sortBy) ? DirListing.SORT_BY_NAME : sortBy,
+                "desc".equalsIgnoreCase(order),
+                StringUtils.isEmpty(namePrefix) ? null : namePrefix,
+                StringUtils.isEmpty(cursor) ? null : cursor,
+                pageSize == null || pageSize <= 0 ? maxPageSize : Math.min(pageSize, maxPageSize));
+      } catch (IllegalArgumentException e) {
+        throw WorkspaceExceptionManager.createException(80032, e.getMessage());
+      }
+      children = page.getChildren();
+      message.data("nextCursor", page.getNextCursor()).data("total", page.getTotal());
+    }
     DirFileTree dirFileTree = new DirFileTree();
     dirFileTree.setPath(fsPath.getSchemaPath());
-    // if(!isInUserWorkspace(path,userName)) throw new WorkSpaceException("The user does not
-    // have permission to view the contents of the directory");
-    if (!fileSystem.canExecute(fsPath) || !fileSystem.canRead(fsPath)) {
-      throw WorkspaceExceptionManager.createException(80010, userName, path);
-    }
     dirFileTree.setName(new File(path).getName());
-    dirFileTree.setChildren(new ArrayList<>());
-    FsPathListWithError fsPathListWithError = fileSystem.listPathWithError(fsPath);
-    if (fsPathListWithError != null) {
-      for (FsPath children : fsPathListWithError.getFsPaths()) {
-        DirFileTree dirFileTreeChildren = new DirFileTree();
-        dirFileTreeChildren.setName(new File(children.getPath()).getName());
-        dirFileTreeChildren.setPath(children.getSchemaPath());
-        dirFileTreeChildren.setProperties(new HashMap<>());
-        dirFileTreeChildren.setParentPath(fsPath.getSchemaPath());
-        if (!children.isdir()) {
-          dirFileTreeChildren.setIsLeaf(true);
-          dirFileTreeChildren.getProperties().put("size", String.valueOf(children.getLength()));
-          dirFileTreeChildren
-              .getProperties()
-              .put("modifytime", String.valueOf(children.getModification_time()));
-        }
-        dirFileTree.getChildren().add(dirFileTreeChildren);
+    dirFileTree.setChildren(new ArrayList<>(children.size()));
+    for (FsPath child : children) {
+      DirFileTree dirFileTreeChildren = new DirFileTree();
+      dirFileTreeChildren.setName(new File(child.getPath()).getName());
+      dirFileTreeChildren.setPath(child.getSchemaPath());
+      dirFileTreeChildren.setProperties(new HashMap<>());
+      dirFileTreeChildren.setParentPath(fsPath.getSchemaPath());
+      if (!child.isdir()) {
+        dirFileTreeChildren.setIsLeaf(true);
+        dirFileTreeChildren.getProperties().put("size", String.valueOf(child.getLength()));
+        dirFileTreeChildren
+            .getProperties()
+            .put("modifytime", String.valueOf(child.getModification_time()));
       }
+      dirFileTree.getChildren().add(dirFileTreeChildren);
+    }
+    return message.data("dirFileTrees", dirFileTree);
+  }
+
+  /**
+   * The listing of a directory the user may read, from the cache when it was listed shortly before.
+   * MISSING_DIR stands for a directory that does not exist.
+   */
+  private DirListing listDir(String userName, FileSystem fileSystem, FsPath fsPath)
+      throws IOException, WorkSpaceException {
+    try {
+      return dirListingCache.get(
+          userName,
+          fsPath,
+          () -> {
+            if (!fileSystem.exists(fsPath)) {
+              return MISSING_DIR;
+            }
+            if (!fileSystem.canReadAndExecute(fsPath)) {
+              throw WorkspaceExceptionManager.createException(80010, userName, fsPath.getPath());
+            }
+            FsPathListWithError fsPathListWithError = fileSystem.listPathWithError(fsPath);
+            return new DirListing(
+                fsPathListWithError == null
+                    ? Collections.emptyList()
+                    : fsPathListWithError.getFsPaths());
+          });
+    } catch (IOException | WorkSpaceException e) {
+      throw e;
+    } catch (Exception e) {
+      throw new IOException(e);
     }
-    return Message.ok().data("dirFileTrees", dirFileTree);
   }
 
   @ApiOperation(value = "download", notes = "download", response = Message.class)
@@ -552,7 +668,12 @@ public class FsRestfulApi {
         name = "charset",
         required = true,
         dataType = "String",
-        defaultValue = "utf-8")
+        defaultValue = "utf-8"),
+    @ApiImplicitParam(
+        name = "contentFormat",
+        required = false,
+        dataType = "String",
+        value = "compact for the compact page encoding of resultset")
   })
   @RequestMapping(path = "/openFile", method = RequestMethod.GET)
   public Message openFile(
@@ -562,7 +683,8 @@ public class FsRestfulApi {
       @RequestParam(value = "pageSize", defaultValue = "5000") Integer pageSize,
       @RequestParam(value = "charset", defaultValue = "utf-8") String charset,
       @RequestParam(value = "limitBytes", defaultValue = "0") Long limitBytes,
-      @RequestParam(value = "limitColumnLength", defaultValue = "0") Integer limitColumnLength)
+      @RequestParam(value = "limitColumnLength", defaultValue = "0") Integer limitColumnLength,
+      @RequestParam(value = "contentFormat", required = false) String contentFormat)
       throws IOException, WorkSpaceException {
 
     Message message = Message.ok();
@@ -595,7 +717,14 @@ public class FsRestfulApi {
       }
       Pair<Object, List<String[]>> result = fileSource.collect()[0];
       IOUtils.closeQuietly(fileSource);
-      message.data("metadata", result.getFirst()).data("fileContent", result.getSecond());
+      message.data("metadata", result.getFirst());
+      if (ResultPageCodec.isCompact(contentFormat) && FileSource.isResultSet(fsPath.getPath())) {
+        message
+            .data("fileContent", ResultPageCodec.encode(result.getSecond()))
+            .data("contentFormat", ResultPageCodec.COMPACT);
+      } else {
+        message.data("fileContent", result.getSecond());
+      }
       message.data("type", fileSource.getFileSplits()[0].getType());
       message.data("totalLine", fileSource.getTotalLine());
       return message.data("page", page).data("totalPage", 0);
@@ -656,6 +785,9 @@ public class FsRestfulApi {
         scriptFsWriter.addRecord(new ScriptRecord(split[i]));
       }
       return Message.ok();
+    } finally {
+      // the size and modify time shown in the listing change once the writer is closed
+      dirListingCache.invalidate(fsPath);
     }
   }
 
@@ -17,6 +17,12 @@
 
 package org.apache.linkis.variable.util;
 
+import org.apache.linkis.common.conf.CommonVars;
+
 public class Constants {
   public static final String GOLBAL_CONFIG_NAME = "全局变量";
+
+  /** Services whose RPC cache of global variables is dropped once the variables changed */
+  public static final CommonVars<String> CACHE_INVALIDATE_APPLICATIONS =
+      CommonVars.apply("linkis.variable.cache.invalidate.applications", "linkis-cg-entrance");
 }
@@ -18,17 +18,23 @@
 package org.apache.linkis.variable.service
 
 import org.apache.linkis.common.utils.Logging
-import org.apache.linkis.protocol.variable.ResponseQueryVariable
+import org.apache.linkis.protocol.variable.{RequestQueryGlobalVariable, ResponseQueryVariable}
+import org.apache.linkis.rpc.interceptor.common.{CacheableRPCInterceptor, RemoveRPCCacheRequest}
 import org.apache.linkis.server.BDPJettyServerHelper
 import org.apache.linkis.variable.dao.VarMapper
 import org.apache.linkis.variable.entity.{VarKey, VarKeyUser, VarKeyValueVO}
 import org.apache.linkis.variable.exception.VariableException
+import org.apache.linkis.variable.util.Constants
 
 import org.apache.commons.lang3.StringUtils
 
 import org.springframework.beans.factory.annotation.Autowired
 import org.springframework.stereotype.Service
 import org.springframework.transaction.annotation.Transactional
+import org.springframework.transaction.support.{
+  TransactionSynchronization,
+  TransactionSynchronizationManager
+}
 
 import java.util
 
@@ -129,7 +135,25 @@ class VariableServiceImpl extends VariableService with Logging {
         if (flag) removeGlobalVariable(f.getKeyID)
       }
     }
+    removeRPCCacheVariable(userName)
+  }
 
+  /**
+   * Let the services caching the global variables of the user drop them once the change is
+   * committed
+   */
+  private def removeRPCCacheVariable(userName: String): Unit = {
+    val request =
+      RemoveRPCCacheRequest(classOf[RequestQueryGlobalVariable].getName, Array(userName))
+    val applicationNames = Constants.CACHE_INVALIDATE_APPLICATIONS.getValue.split(",")
+    if (TransactionSynchronizationManager.isSynchronizationActive) {
+      TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization {
+        override def afterCommit(): Unit =
+          CacheableRPCInterceptor.broadcastRemoveCache(applicationNames, request)
+      })
+    } else {
+      CacheableRPCInterceptor.broadcastRemoveCache(applicationNames, request)
+    }
   }
 
 }
@@ -35,10 +35,18 @@ import org.springframework.http.MediaType;
 import org.springframework.test.context.junit.jupiter.SpringExtension;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+
+import org.apache.commons.io.FileUtils;
 
 import java.nio.file.Files;
+import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.nio.file.attribute.PosixFileAttributes;
+import java.util.HashSet;
+import java.util.Set;
+
+import com.fasterxml.jackson.databind.JsonNode;
 
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
@@ -49,7 +57,9 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
@@ -101,6 +111,107 @@ public class FsRestfulApiTest {
     }
   }
 
+  @Test
+  @DisplayName("getDirFileTreesPageTest")
+  public void getDirFileTreesPageTest() throws Exception {
+    if (FsPath.WINDOWS) {
+      return;
+    }
+    Path dir = Files.createTempDirectory("linkis_dir_listing");
+    try {
+      int files = 2000;
+      for (int i = 0; i < files; i++) {
+        Files.createFile(dir.resolve(String.format("file_%05d.sql", i)));
+      }
+      for (int i = 0; i < 10; i++) {
+        Files.createDirectory(dir.resolve("dir_" + i));
+      }
+      FileSystem fs = new LocalFileSystem();
+      fs.setUser(System.getProperty("user.name"));
+      Mockito.when(fsService.getFileSystem(Mockito.anyString(), Mockito.any(FsPath.class)))
+          .thenReturn(fs);
+      String path = dir.toString();
+
+      MvcResult full =
+          mockMvc
+              .perform(get("/filesystem/getDirFileTrees").param("path", path))
+              .andExpect(status().isOk())
+              .andReturn();
+      int fullBytes = full.getResponse().getContentAsByteArray().length;
+      assertEquals(files + 10, readData(full).get("dirFileTrees").get("children").size());
+
+      Set<String> names = new HashSet<>();
+      String lastName = "";
+      String cursor = null;
+      int pages = 0;
+      int maxPageBytes = 0;
+      do {
+        MockHttpServletRequestBuilder request =
+            get("/filesystem/getDirFileTrees").param("path", path).param("pageSize", "100");
+        if (cursor != null) {
+          request.param("cursor", cursor);
+        }
+        MvcResult page = mockMvc.perform(request).andExpect(status().isOk()).andReturn();
+        maxPageBytes = Math.max(maxPageBytes, page.getResponse().getContentAsByteArray().length);
+        JsonNode data = readData(page);
+        assertEquals(files + 10, data.get("total").asLong());
+        for (JsonNode child : data.get("dirFileTrees").get("children")) {
+          String name = child.get("name").asText();
+          assertTrue(name.compareTo(lastName) > 0);
+          assertTrue(names.add(name));
+          lastName = name;
+        }
+        JsonNode nextCursor = data.get("nextCursor");
+        cursor = nextCursor == null || nextCursor.isNull() ? null : nextCursor.asText();
+        pages++;
+      } while (cursor != null);
+      assertEquals(files + 10, names.size());
+      assertEquals(21, pages);
+      assertTrue(maxPageBytes * 10 < fullBytes);
+
+      MvcResult filtered =
+          mockMvc
+              .perform(
+                  get("/filesystem/getDirFileTrees")
+                      .param("path", path)
+                      .param("namePrefix", "file_0001")
+                      .param("sortBy", "name")
+                      .param("order", "desc"))
+              .andExpect(status().isOk())
+              .andReturn();
+      JsonNode filteredData = readData(filtered);
+      assertEquals(10, filteredData.get("total").asLong());
+      assertEquals(
+          "file_00019.sql",
+          filteredData.get("dirFileTrees").get("children").get(0).get("name").asText());
+
+      // the listing is cached, creating a file through the workspace drops it
+      mockMvc
+          .perform(
+              post("/filesystem/createNewFile")
+                  .contentType(MediaType.APPLICATION_JSON)
+                  .content("{\"path\":\"" + dir.resolve("new_script.sql") + "\"}"))
+          .andExpect(status().isOk());
+      MvcResult created =
+          mockMvc
+              .perform(
+                  get("/filesystem/getDirFileTrees")
+                      .param("path", path)
+                      .param("namePrefix", "new_"))
+              .andExpect(status().isOk())
+              .andReturn();
+      assertEquals(1, readData(created).get("total").asLong());
+    } finally {
+      FileUtils.deleteDirectory(dir.toFile());
+    }
+  }
+
+  private static JsonNode readData(MvcResult mvcResult) throws Exception {
+    return JsonUtils.jackson()
+        .readTree(mvcResult.getResponse().getContentAsString())
+        .get("data");
+  }
+
   @Test
   @DisplayName("isExistTest")
   public void isExistTest() throws Exception {
@@ -21,18 +21,23 @@ import org.apache.linkis.publicservice.common.lock.dao.CommonLockMapper;
 import org.apache.linkis.publicservice.common.lock.service.CommonLockService;
 import org.apache.linkis.publicservice.common.lock.service.impl.DefaultCommonLockService;
 
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.transaction.PlatformTransactionManager;
 
 @Configuration
 public class CommonLockSpringConfiguration {
 
   @Bean
   @ConditionalOnMissingBean
-  public CommonLockService getDefaultLockManagerPersistence(CommonLockMapper commonLockMapper) {
+  public CommonLockService getDefaultLockManagerPersistence(
+      CommonLockMapper commonLockMapper,
+      ObjectProvider<PlatformTransactionManager> transactionManager) {
     DefaultCommonLockService defaultCommonLockService = new DefaultCommonLockService();
     defaultCommonLockService.setLockManagerMapper(commonLockMapper);
+    transactionManager.ifAvailable(defaultCommonLockService::setTransactionManager);
     return defaultCommonLockService;
   }
 }
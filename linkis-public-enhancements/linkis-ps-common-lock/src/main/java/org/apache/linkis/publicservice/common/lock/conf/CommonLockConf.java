@@ -0,0 +1,32 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.linkis.publicservice.common.lock.conf;
+
+import org.apache.linkis.common.conf.CommonVars;
+import org.apache.linkis.common.conf.CommonVars$;
+
+public class CommonLockConf {
+
+  /** a lock whose holder stopped renewing it is taken over after this time */
+  public static final CommonVars<Long> LOCK_LEASE_MILLS =
+      CommonVars$.MODULE$.apply("linkis.common.lock.lease.mills", 30000L);
+
+  /** how often a waiter checks the database for a lock held by another instance */
+  public static final CommonVars<Long> LOCK_POLL_INTERVAL_MILLS =
+      CommonVars$.MODULE$.apply("linkis.common.lock.poll.interval.mills", 200L);
+}
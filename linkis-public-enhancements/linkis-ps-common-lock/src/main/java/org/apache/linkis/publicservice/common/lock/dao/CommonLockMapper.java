@@ -21,6 +21,7 @@ import org.apache.linkis.publicservice.common.lock.entity.CommonLock;
 
 import org.apache.ibatis.annotations.*;
 
+import java.util.Date;
 import java.util.List;
 
 @Mapper
@@ -30,5 +31,19 @@ public interface CommonLockMapper {
 
   void unlock(@Param("jsonObject") String jsonObject);
 
+  void acquire(CommonLock commonLock);
+
+  int renew(
+      @Param("lockObject") String lockObject,
+      @Param("locker") String locker,
+      @Param("expireTime") Date expireTime);
+
+  int release(@Param("lockObject") String lockObject, @Param("locker") String locker);
+
+  int reclaimExpired(
+      @Param("lockObject") String lockObject, @Param("staleBefore") Date staleBefore);
+
+  Date getDatabaseTime();
+
   List<CommonLock> getAll();
 }
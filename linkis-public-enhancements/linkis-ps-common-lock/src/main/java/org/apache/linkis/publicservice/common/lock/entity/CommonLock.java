@@ -23,6 +23,8 @@ public class CommonLock {
   private int id;
   private String lockObject;
   private Long timeOut;
+  private String locker;
+  private Date expireTime;
 
   private Date updateTime;
   private Date createTime;
@@ -53,6 +55,22 @@ public class CommonLock {
     this.timeOut = timeOut;
   }
 
+  public String getLocker() {
+    return locker;
+  }
+
+  public void setLocker(String locker) {
+    this.locker = locker;
+  }
+
+  public Date getExpireTime() {
+    return expireTime;
+  }
+
+  public void setExpireTime(Date expireTime) {
+    this.expireTime = expireTime;
+  }
+
   public Date getUpdateTime() {
     return updateTime;
   }
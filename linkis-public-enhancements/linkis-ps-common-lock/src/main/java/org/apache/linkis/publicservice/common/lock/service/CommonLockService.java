@@ -22,8 +22,20 @@ import org.apache.linkis.publicservice.common.lock.entity.CommonLock;
 import java.util.List;
 
 public interface CommonLockService {
+
+  /**
+   * Waits up to timeOut milliseconds for the lock. Once locked, the id of commonLock is its fencing
+   * token, it grows with every lock of the same lock object.
+   */
   Boolean lock(CommonLock commonLock, Long timeOut);
 
+  /**
+   * Whether commonLock is still held. A lock whose lease could not be renewed in time may have been
+   * taken over by another holder, check this before writing what the lock guards.
+   */
+  boolean isHeld(CommonLock commonLock);
+
+  /** Releases a lock, pass the same commonLock that was given to lock. */
   void unlock(CommonLock commonLock);
 
   List<CommonLock> getAll();
@@ -17,23 +17,71 @@
 
 package org.apache.linkis.publicservice.common.lock.service.impl;
 
+import org.apache.linkis.common.utils.Utils;
+import org.apache.linkis.publicservice.common.lock.conf.CommonLockConf;
 import org.apache.linkis.publicservice.common.lock.dao.CommonLockMapper;
 import org.apache.linkis.publicservice.common.lock.entity.CommonLock;
 import org.apache.linkis.publicservice.common.lock.service.CommonLockService;
 
 import org.springframework.dao.DataAccessException;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.lang.management.ManagementFactory;
+import java.util.Date;
 import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+/**
+ * Locks backed by rows of linkis_ps_common_lock. A row is a lease: it names its holder and expires
+ * unless the holder renews it, so the lock of an instance that died is taken over once its lease
+ * runs out. Threads of the same instance wait for each other in memory and get the lock handed
+ * over on unlock, only the first of them polls the database while another instance holds it.
+ */
 public class DefaultCommonLockService implements CommonLockService {
 
   private static final Logger logger = LoggerFactory.getLogger(DefaultCommonLockService.class);
 
+  private static final String INSTANCE = ManagementFactory.getRuntimeMXBean().getName();
+
   private CommonLockMapper commonLockMapper;
 
+  private TransactionTemplate transactionTemplate;
+
+  private final long leaseMills;
+
+  private final long pollIntervalMills;
+
+  private final Map<String, Semaphore> localQueues = new ConcurrentHashMap<>();
+
+  private final Map<String, Lease> heldLocks = new ConcurrentHashMap<>();
+
+  private ScheduledFuture<?> renewFuture;
+
+  public DefaultCommonLockService() {
+    this(
+        CommonLockConf.LOCK_LEASE_MILLS.getValue(),
+        CommonLockConf.LOCK_POLL_INTERVAL_MILLS.getValue());
+  }
+
+  public DefaultCommonLockService(long leaseMills, long pollIntervalMills) {
+    this.leaseMills = leaseMills;
+    this.pollIntervalMills = pollIntervalMills;
+  }
+
   public CommonLockMapper getLockManagerMapper() {
     return commonLockMapper;
   }
@@ -42,38 +90,222 @@ public class DefaultCommonLockService implements CommonLockService {
     this.commonLockMapper = commonLockMapper;
   }
 
+  /**
+   * Lock rows are written in transactions of their own, a lock taken inside the transaction of the
+   * caller would stay invisible to other instances until that transaction ends. An unlock inside
+   * the transaction of the caller is delayed until it completes, so that the next holder sees what
+   * the caller wrote under the lock.
+   */
+  public void setTransactionManager(PlatformTransactionManager transactionManager) {
+    this.transactionTemplate = new TransactionTemplate(transactionManager);
+    this.transactionTemplate.setPropagationBehavior(
+        TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+  }
+
   @Override
   public Boolean lock(CommonLock commonLock, Long timeOut) {
-    long startTime = System.currentTimeMillis();
-    Boolean isLocked = tryLock(commonLock, timeOut);
-    while (!isLocked && System.currentTimeMillis() - startTime < timeOut) {
+    long deadline = System.currentTimeMillis() + timeOut;
+    String lockObject = commonLock.getLockObject();
+    commonLock.setLocker(INSTANCE + ":" + Thread.currentThread().getId() + ":" + UUID.randomUUID());
+    commonLock.setTimeOut(timeOut);
+    Semaphore localQueue = localQueues.computeIfAbsent(lockObject, key -> new Semaphore(1, true));
+    try {
+      if (!localQueue.tryAcquire(
+          Math.max(0, deadline - System.currentTimeMillis()), TimeUnit.MILLISECONDS)) {
+        logger.warn("Failed to obtain lock:" + lockObject + ", it is held in this instance");
+        return false;
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      logger.warn("lock waiting interrupted", e);
+      return false;
+    }
+    boolean isLocked = false;
+    try {
+      isLocked = lockOrWait(commonLock, deadline);
+    } finally {
+      if (!isLocked) {
+        localQueue.release();
+      }
+    }
+    return isLocked;
+  }
+
+  private boolean lockOrWait(CommonLock commonLock, long deadline) {
+    String lockObject = commonLock.getLockObject();
+    while (true) {
+      if (tryLock(commonLock, getDatabaseTime())) {
+        heldLocks.put(lockObject, new Lease(commonLock));
+        startRenewal();
+        return true;
+      }
+      if (reclaimExpired(lockObject, getDatabaseTime()) > 0) {
+        logger.info("Took over the expired lock:" + lockObject);
+        continue;
+      }
+      long remaining = deadline - System.currentTimeMillis();
+      if (remaining <= 0) {
+        logger.warn("Failed to obtain lock:" + lockObject);
+        return false;
+      }
       try {
-        Thread.sleep(1000); // TODO
-        isLocked = tryLock(commonLock, timeOut);
+        Thread.sleep(Math.min(pollIntervalMills, remaining));
       } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
         logger.warn("lock waiting interrupted", e);
+        return false;
       }
     }
-    return isLocked;
   }
 
-  private boolean tryLock(CommonLock commonLock, Long timeOut) {
+  private long getDatabaseTime() {
+    return execute(() -> commonLockMapper.getDatabaseTime()).getTime();
+  }
+
+  private boolean tryLock(CommonLock commonLock, long databaseTime) {
+    commonLock.setExpireTime(new Date(databaseTime + leaseMills));
     try {
-      commonLockMapper.lock(commonLock.getLockObject(), timeOut);
+      execute(
+          () -> {
+            commonLockMapper.acquire(commonLock);
+            return null;
+          });
       return true;
-    } catch (DataAccessException e) {
-      logger.warn("Failed to obtain lock:" + commonLock.getLockObject());
+    } catch (DuplicateKeyException e) {
+      logger.debug("Lock " + commonLock.getLockObject() + " is held by others", e);
       return false;
     }
   }
 
+  private int reclaimExpired(String lockObject, long databaseTime) {
+    try {
+      return execute(
+          () -> commonLockMapper.reclaimExpired(lockObject, new Date(databaseTime - leaseMills)));
+    } catch (DataAccessException e) {
+      logger.warn("Failed to take over the expired lock:" + lockObject, e);
+      return 0;
+    }
+  }
+
+  private synchronized void startRenewal() {
+    if (renewFuture == null) {
+      long interval = Math.max(1, leaseMills / 3);
+      renewFuture =
+          Utils.defaultScheduler()
+              .scheduleWithFixedDelay(
+                  this::renewLeases, interval, interval, TimeUnit.MILLISECONDS);
+    }
+  }
+
+  private void renewLeases() {
+    if (heldLocks.isEmpty()) {
+      return;
+    }
+    long databaseTime;
+    try {
+      databaseTime = getDatabaseTime();
+    } catch (Exception e) {
+      logger.warn("Failed to renew the leases of locks", e);
+      return;
+    }
+    for (Lease lease : heldLocks.values()) {
+      if (lease.lost) {
+        continue;
+      }
+      CommonLock commonLock = lease.commonLock;
+      Date expireTime = new Date(databaseTime + leaseMills);
+      try {
+        int renewed =
+            execute(
+                () ->
+                    commonLockMapper.renew(
+                        commonLock.getLockObject(), commonLock.getLocker(), expireTime));
+        if (renewed == 0) {
+          lease.lost = true;
+          logger.warn(
+              "The lease of lock " + commonLock.getLockObject() + " expired and was taken over");
+        } else {
+          commonLock.setExpireTime(expireTime);
+        }
+      } catch (Exception e) {
+        logger.warn("Failed to renew the lease of lock " + commonLock.getLockObject(), e);
+      }
+    }
+  }
+
+  @Override
+  public boolean isHeld(CommonLock commonLock) {
+    Lease lease = heldLocks.get(commonLock.getLockObject());
+    return lease != null && lease.commonLock == commonLock && !lease.lost;
+  }
+
   @Override
   public void unlock(CommonLock commonLock) {
-    commonLockMapper.unlock(commonLock.getLockObject());
+    String lockObject = commonLock.getLockObject();
+    if (commonLock.getLocker() == null) {
+      // not taken through this service, release it whoever holds it
+      execute(
+          () -> {
+            commonLockMapper.unlock(lockObject);
+            return null;
+          });
+      return;
+    }
+    Lease lease = heldLocks.get(lockObject);
+    if (lease == null || lease.commonLock != commonLock) {
+      logger.warn("Lock " + lockObject + " is not held by " + commonLock.getLocker());
+      return;
+    }
+    if (TransactionSynchronizationManager.isSynchronizationActive()) {
+      TransactionSynchronizationManager.registerSynchronization(
+          new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+              release(commonLock);
+            }
+          });
+    } else {
+      release(commonLock);
+    }
+  }
+
+  private void release(CommonLock commonLock) {
+    String lockObject = commonLock.getLockObject();
+    heldLocks.remove(lockObject);
+    try {
+      execute(() -> commonLockMapper.release(lockObject, commonLock.getLocker()));
+    } finally {
+      localQueues.get(lockObject).release();
+    }
   }
 
   @Override
   public List<CommonLock> getAll() {
     return commonLockMapper.getAll();
   }
+
+  public synchronized void close() {
+    if (renewFuture != null) {
+      renewFuture.cancel(false);
+      renewFuture = null;
+    }
+  }
+
+  private <T> T execute(Supplier<T> action) {
+    if (transactionTemplate == null) {
+      return action.get();
+    }
+    return transactionTemplate.execute(status -> action.get());
+  }
+
+  private static class Lease {
+
+    private final CommonLock commonLock;
+
+    private volatile boolean lost = false;
+
+    private Lease(CommonLock commonLock) {
+      this.commonLock = commonLock;
+    }
+  }
 }
@@ -0,0 +1,245 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.linkis.publicservice.common.lock.service.impl;
+
+import org.apache.linkis.publicservice.common.lock.Scan;
+import org.apache.linkis.publicservice.common.lock.dao.CommonLockMapper;
+import org.apache.linkis.publicservice.common.lock.entity.CommonLock;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.AdditionalAnswers;
+import org.mockito.ArgumentMatchers;
+import org.mockito.Mockito;
+
+@SpringBootTest(classes = Scan.class)
+public class CommonLockLeaseTest {
+
+  private static final String LOCK_OBJECT = "hadoop-lease-test";
+
+  @Autowired private CommonLockMapper commonLockMapper;
+
+  @Autowired private PlatformTransactionManager transactionManager;
+
+  private final List<DefaultCommonLockService> services = new ArrayList<>();
+
+  @AfterEach
+  public void tearDown() {
+    services.forEach(DefaultCommonLockService::close);
+    commonLockMapper.unlock(LOCK_OBJECT);
+  }
+
+  private DefaultCommonLockService newService(
+      CommonLockMapper mapper, long leaseMills, long pollIntervalMills) {
+    DefaultCommonLockService service = new DefaultCommonLockService(leaseMills, pollIntervalMills);
+    service.setLockManagerMapper(mapper);
+    service.setTransactionManager(transactionManager);
+    services.add(service);
+    return service;
+  }
+
+  private DefaultCommonLockService newService(long leaseMills, long pollIntervalMills) {
+    return newService(commonLockMapper, leaseMills, pollIntervalMills);
+  }
+
+  private static CommonLock newLock() {
+    CommonLock commonLock = new CommonLock();
+    commonLock.setLockObject(LOCK_OBJECT);
+    return commonLock;
+  }
+
+  private String lockerInDB() {
+    return commonLockMapper.getAll().stream()
+        .filter(this::isTestLock)
+        .map(CommonLock::getLocker)
+        .findFirst()
+        .orElse(null);
+  }
+
+  @Test
+  @DisplayName("handoffTest")
+  public void handoffTest() throws Exception {
+    CommonLockMapper countedMapper =
+        Mockito.mock(CommonLockMapper.class, AdditionalAnswers.delegatesTo(commonLockMapper));
+    // a waiter polling the database would try to acquire more than once
+    DefaultCommonLockService service = newService(countedMapper, 30000L, 60000L);
+    int threads = 8;
+    int rounds = 20;
+    AtomicInteger holders = new AtomicInteger();
+    AtomicLong lastToken = new AtomicLong();
+    ExecutorService executor = Executors.newFixedThreadPool(threads);
+    List<Future<?>> futures = new ArrayList<>();
+    for (int i = 0; i < threads; i++) {
+      futures.add(
+          executor.submit(
+              () -> {
+                for (int j = 0; j < rounds; j++) {
+                  CommonLock commonLock = newLock();
+                  Assertions.assertTrue(service.lock(commonLock, 60000L));
+                  Assertions.assertEquals(1, holders.incrementAndGet());
+                  Assertions.assertTrue(commonLock.getId() > lastToken.get());
+                  lastToken.set(commonLock.getId());
+                  holders.decrementAndGet();
+                  service.unlock(commonLock);
+                }
+                return null;
+              }));
+    }
+    for (Future<?> future : futures) {
+      future.get();
+    }
+    executor.shutdown();
+    Mockito.verify(countedMapper, Mockito.times(threads * rounds))
+        .acquire(ArgumentMatchers.any(CommonLock.class));
+    Mockito.verify(countedMapper, Mockito.never())
+        .reclaimExpired(ArgumentMatchers.anyString(), ArgumentMatchers.any(Date.class));
+    Assertions.assertNull(lockerInDB());
+  }
+
+  @Test
+  @DisplayName("crashedHolderTest")
+  public void crashedHolderTest() {
+    CommonLock crashed = newLock();
+    crashed.setLocker("crashed-instance");
+    crashed.setTimeOut(10000L);
+    crashed.setExpireTime(new Date(System.currentTimeMillis() + 1000L));
+    commonLockMapper.acquire(crashed);
+
+    DefaultCommonLockService service = newService(30000L, 50L);
+    CommonLock commonLock = newLock();
+    Assertions.assertTrue(service.lock(commonLock, 5000L));
+    // taken over only once the lease of the crashed holder ran out
+    Assertions.assertTrue(System.currentTimeMillis() >= crashed.getExpireTime().getTime());
+    Assertions.assertTrue(commonLock.getId() > crashed.getId());
+    Assertions.assertEquals(commonLock.getLocker(), lockerInDB());
+    service.unlock(commonLock);
+  }
+
+  @Test
+  @DisplayName("renewTest")
+  public void renewTest() {
+    DefaultCommonLockService holder = newService(600L, 50L);
+    DefaultCommonLockService other = newService(600L, 50L);
+    CommonLock held = newLock();
+    Assertions.assertTrue(holder.lock(held, 1000L));
+    Assertions.assertTrue(holder.isHeld(held));
+    // the lease is renewed, so it never expires while the holder is alive
+    Assertions.assertFalse(other.lock(newLock(), 2000L));
+    Assertions.assertEquals(held.getLocker(), lockerInDB());
+
+    holder.unlock(held);
+    Assertions.assertFalse(holder.isHeld(held));
+    CommonLock commonLock = newLock();
+    Assertions.assertTrue(other.lock(commonLock, 2000L));
+    // the stale unlock of the former holder does not release the new one
+    holder.unlock(held);
+    Assertions.assertEquals(commonLock.getLocker(), lockerInDB());
+    other.unlock(commonLock);
+  }
+
+  @Test
+  @DisplayName("lostLeaseTest")
+  public void lostLeaseTest() throws Exception {
+    DefaultCommonLockService holder = newService(300L, 50L);
+    DefaultCommonLockService other = newService(300L, 50L);
+    CommonLock held = newLock();
+    Assertions.assertTrue(holder.lock(held, 1000L));
+    // the row of the holder is gone, as if its lease had expired and been taken over
+    commonLockMapper.unlock(LOCK_OBJECT);
+    CommonLock commonLock = newLock();
+    Assertions.assertTrue(other.lock(commonLock, 1000L));
+    // the next renewal of the holder finds the lease lost
+    for (int i = 0; i < 100 && holder.isHeld(held); i++) {
+      Thread.sleep(20L);
+    }
+    Assertions.assertFalse(holder.isHeld(held));
+    Assertions.assertTrue(other.isHeld(commonLock));
+    holder.unlock(held);
+    Assertions.assertEquals(commonLock.getLocker(), lockerInDB());
+    other.unlock(commonLock);
+  }
+
+  @Test
+  @DisplayName("databaseFailureTest")
+  public void databaseFailureTest() {
+    CommonLockMapper failingMapper =
+        Mockito.mock(CommonLockMapper.class, AdditionalAnswers.delegatesTo(commonLockMapper));
+    Mockito.doThrow(new DataAccessResourceFailureException("connection lost"))
+        .when(failingMapper)
+        .acquire(ArgumentMatchers.any(CommonLock.class));
+    DefaultCommonLockService service = newService(failingMapper, 30000L, 50L);
+    // a failing database is not mistaken for a lock held by others
+    Assertions.assertThrows(
+        DataAccessResourceFailureException.class, () -> service.lock(newLock(), 1000L));
+    Assertions.assertNull(lockerInDB());
+    // the local queue is released for the next caller
+    DefaultCommonLockService next = newService(30000L, 50L);
+    CommonLock commonLock = newLock();
+    Assertions.assertTrue(next.lock(commonLock, 1000L));
+    next.unlock(commonLock);
+  }
+
+  @Test
+  @DisplayName("unlockAfterTransactionTest")
+  public void unlockAfterTransactionTest() throws Exception {
+    DefaultCommonLockService service = newService(30000L, 50L);
+    ExecutorService executor = Executors.newSingleThreadExecutor();
+    CommonLock held = newLock();
+    new TransactionTemplate(transactionManager)
+        .execute(
+            status -> {
+              Assertions.assertTrue(service.lock(held, 1000L));
+              service.unlock(held);
+              // still held until the transaction of the caller completes
+              Assertions.assertEquals(held.getLocker(), lockerInDB());
+              Future<Boolean> inTransaction = executor.submit(() -> service.lock(newLock(), 200L));
+              try {
+                Assertions.assertFalse(inTransaction.get());
+              } catch (Exception e) {
+                throw new IllegalStateException(e);
+              }
+              return null;
+            });
+    Assertions.assertNull(lockerInDB());
+    CommonLock commonLock = newLock();
+    Assertions.assertTrue(executor.submit(() -> service.lock(commonLock, 1000L)).get());
+    executor.submit(() -> service.unlock(commonLock)).get();
+    executor.shutdown();
+  }
+
+  private boolean isTestLock(CommonLock commonLock) {
+    return LOCK_OBJECT.equals(commonLock.getLockObject());
+  }
+}
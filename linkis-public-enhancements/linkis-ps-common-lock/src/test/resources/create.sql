@@ -23,7 +23,9 @@ DROP TABLE IF EXISTS `linkis_ps_common_lock`;
 CREATE TABLE `linkis_ps_common_lock` (
   `id` int(11) NOT NULL AUTO_INCREMENT,
   `lock_object` varchar(255)  DEFAULT NULL,
+  `locker` varchar(255) DEFAULT NULL,
   `time_out` longtext ,
+  `expire_time` datetime DEFAULT NULL,
   `update_time` datetime DEFAULT CURRENT_TIMESTAMP,
   `create_time` datetime DEFAULT CURRENT_TIMESTAMP,
   PRIMARY KEY (`id`),
@@ -19,7 +19,9 @@ DROP TABLE IF EXISTS "linkis_ps_common_lock";
 CREATE TABLE linkis_ps_common_lock (
 	id bigserial NOT NULL,
 	lock_object varchar(255) NULL,
+	locker varchar(255) NULL,
     time_out text NULL,
+	expire_time timestamp(6) NULL,
 	update_time timestamp(6) NULL DEFAULT CURRENT_TIMESTAMP,
 	create_time timestamp(6) NULL DEFAULT CURRENT_TIMESTAMP,
 	CONSTRAINT linkis_ps_common_lock_pkey PRIMARY KEY (id)
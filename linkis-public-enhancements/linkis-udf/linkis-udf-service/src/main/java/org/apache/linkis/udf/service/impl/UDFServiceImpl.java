@@ -23,6 +23,8 @@ import org.apache.linkis.bml.protocol.*;
 import org.apache.linkis.common.conf.Configuration;
 import org.apache.linkis.common.io.FsPath;
 import org.apache.linkis.common.utils.Utils;
+import org.apache.linkis.rpc.interceptor.common.CacheableRPCInterceptor;
+import org.apache.linkis.rpc.interceptor.common.RemoveRPCCacheRequest;
 import org.apache.linkis.publicservice.common.lock.entity.CommonLock;
 import org.apache.linkis.publicservice.common.lock.service.CommonLockService;
 import org.apache.linkis.storage.FSFactory;
@@ -36,7 +38,10 @@ import org.apache.linkis.udf.entity.UDFTree;
 import org.apache.linkis.udf.entity.UDFVersion;
 import org.apache.linkis.udf.excepiton.UDFException;
 import org.apache.linkis.udf.service.UDFService;
+import org.apache.linkis.udf.api.rpc.RequestUdfIds;
+import org.apache.linkis.udf.api.rpc.RequestUdfTree;
 import org.apache.linkis.udf.utils.ConstantVar;
+import org.apache.linkis.udf.utils.UdfConfiguration;
 import org.apache.linkis.udf.vo.*;
 
 import org.apache.commons.beanutils.BeanUtils;
@@ -50,6 +55,8 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.dao.DuplicateKeyException;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 import org.springframework.util.DigestUtils;
 
 import java.io.*;
@@ -109,6 +116,7 @@ public class UDFServiceImpl implements UDFService {
   @Override
   @Transactional(rollbackFor = Exception.class)
   public long addUDF(UDFAddVo udfVo, String userName) throws Exception {
+    removeUdfRPCCache();
     logger.info(userName + " add udfVo: " + udfVo.getUdfName());
     // 锁同一用户
     CommonLock commonLock = new CommonLock();
@@ -289,6 +297,7 @@ public class UDFServiceImpl implements UDFService {
   @Override
   @Transactional
   public void updateUDF(UDFUpdateVo udfUpdateVo, String userName) throws Exception {
+    removeUdfRPCCache();
     logger.info(userName + "start to update udfInfo, udfName:" + udfUpdateVo.getUdfName());
     if (udfUpdateVo.getId() == null) {
       throw new UDFException("id Can not be empty(不能为空)");
@@ -447,6 +456,7 @@ public class UDFServiceImpl implements UDFService {
   @Override
   @Transactional
   public void handoverUdf(Long udfId, String handoverUser) throws UDFException {
+    removeUdfRPCCache();
     logger.info("begin to handover udf, udfId: " + udfId);
     UDFInfo udfInfo = udfDao.getUDFById(udfId);
     UDFVersion latestVersion = udfVersionDao.selectLatestByUdfId(udfId);
@@ -524,6 +534,7 @@ public class UDFServiceImpl implements UDFService {
       throw new UDFException("非共享udf不支持发布操作！");
     }
     udfVersionDao.updatePublishStatus(udfId, version, true);
+    removeUdfRPCCache();
     logger.info("end to publish udf, udfId: " + udfId);
   }
 
@@ -531,6 +542,7 @@ public class UDFServiceImpl implements UDFService {
   public void publishLatestUdf(Long udfId) throws UDFException {
     UDFVersion udfVersion = udfVersionDao.selectLatestByUdfId(udfId);
     udfVersionDao.updatePublishStatus(udfId, udfVersion.getBmlResourceVersion(), true);
+    removeUdfRPCCache();
   }
 
   @Override
@@ -575,6 +587,7 @@ public class UDFServiceImpl implements UDFService {
             new Date(),
             udfVersion.getMd5());
     udfVersionDao.addUdfVersion(newVersion);
+    removeUdfRPCCache();
     logger.info("end to rollback udf, udfId: " + udfId);
   }
 
@@ -715,6 +728,7 @@ public class UDFServiceImpl implements UDFService {
   @Override
   @Transactional(rollbackFor = Throwable.class)
   public Boolean deleteUDF(Long udfId, String userName) throws UDFException {
+    removeUdfRPCCache();
     logger.info(userName + " begin to delete udf, udfId: " + udfId);
     UDFInfo udfInfo = udfDao.getUDFById(udfId);
     // 被用户加载的共享udf不能被删
@@ -742,6 +756,7 @@ public class UDFServiceImpl implements UDFService {
   @Override
   public Boolean deleteLoadInfo(Long id, String userName) {
     udfDao.deleteLoadInfo(id, userName);
+    removeUdfRPCCache();
     return true;
   }
 
@@ -788,6 +803,7 @@ public class UDFServiceImpl implements UDFService {
 
       }
       udfDao.addLoadInfo(id, userName);
+      removeUdfRPCCache();
     } catch (Throwable e) {
       if (e instanceof DuplicateKeyException) {
         return true;
@@ -1011,6 +1027,7 @@ public class UDFServiceImpl implements UDFService {
   @Override
   public void setUDFSharedInfo(boolean iShared, Long id) {
     udfDao.updateUDFIsShared(iShared, id);
+    removeUdfRPCCache();
   }
 
   @Override
@@ -1027,6 +1044,7 @@ public class UDFServiceImpl implements UDFService {
       long loadCount = udfDao.getUserLoadCountByUdfId(udfId, userName);
       if (loadCount > 0) {
         udfDao.updateSharedUDFExpire(udfId);
+        removeUdfRPCCache();
         logger.info(userName + " end to expire udf, udfId: " + udfId);
         return;
       }
@@ -1046,6 +1064,7 @@ public class UDFServiceImpl implements UDFService {
     for (String sharedUser : sharedUsers) {
       udfDao.insertSharedUser(sharedUser, udfId);
     }
+    removeUdfRPCCache();
   }
 
   @Override
@@ -1055,6 +1074,7 @@ public class UDFServiceImpl implements UDFService {
       udfDao.deleteSharedUser(oldsharedUser, udfId);
       udfDao.deleteLoadInfo(udfId, oldsharedUser);
     }
+    removeUdfRPCCache();
   }
 
   @Override
@@ -1094,4 +1114,32 @@ public class UDFServiceImpl implements UDFService {
   public UDFVersionVo getUdfVersionInfo(String udfName, String createUser) {
     return udfVersionDao.getUdfVersionInfoByName(udfName, createUser);
   }
+
+  /**
+   * Let the services caching UDFs drop their RPC cache once the change is committed. A shared UDF
+   * is also seen by the users it is shared with, so all the cached UDFs are dropped.
+   */
+  private void removeUdfRPCCache() {
+    String[] applicationNames =
+        UdfConfiguration.CACHE_INVALIDATE_APPLICATIONS().getValue().split(",");
+    Runnable broadcast =
+        () -> {
+          for (Class<?> protocolClass : Arrays.asList(RequestUdfTree.class, RequestUdfIds.class)) {
+            CacheableRPCInterceptor.broadcastRemoveCache(
+                applicationNames,
+                new RemoveRPCCacheRequest(protocolClass.getName(), new String[0]));
+          }
+        };
+    if (TransactionSynchronizationManager.isSynchronizationActive()) {
+      TransactionSynchronizationManager.registerSynchronization(
+          new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+              broadcast.run();
+            }
+          });
+    } else {
+      broadcast.run();
+    }
+  }
 }
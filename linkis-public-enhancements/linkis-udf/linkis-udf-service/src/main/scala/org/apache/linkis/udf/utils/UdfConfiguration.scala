@@ -32,6 +32,13 @@ object UdfConfiguration {
   val UDF_SHARE_PATH = CommonVars("wds.linkis.udf.share.path", "/mnt/bdap/udf/")
   val UDF_SHARE_PROXY_USER = CommonVars("wds.linkis.udf.share.proxy.user", "hadoop")
 
+  /**
+   * Services whose RPC cache of UDFs is dropped once a UDF changed, the ECM asks for the UDFs of
+   * every engine it starts
+   */
+  val CACHE_INVALIDATE_APPLICATIONS =
+    CommonVars("linkis.udf.cache.invalidate.applications", "linkis-cg-engineconnmanager")
+
   val NAME_REGEX: String = "^[a-zA-Z\\-\\d_\\.=/,]+$"
 
   val nameRegexPattern: Pattern = Pattern.compile(NAME_REGEX)
@@ -108,4 +108,7 @@ object GatewayConfiguration {
 
   val IS_DOWNLOAD = CommonVars("linkis.web.result.set.export.enable", true)
 
+  val REQUEST_BODY_FIELDS_EXTRACT_ENABLED =
+    CommonVars("linkis.gateway.request.body.fields.extract.enabled", true)
+
 }
@@ -34,6 +34,13 @@ trait GatewayParser {
 
   def shouldContainRequestBody(gatewayContext: GatewayContext): Boolean
 
+  /**
+   * Top level fields of the json request body needed by this parser. When every parser containing
+   * the request body declares them, the gateway extracts only these fields as the request body and
+   * forwards the original body untouched. Null means the whole request body is needed.
+   */
+  def getRequestBodyFields(gatewayContext: GatewayContext): Array[String] = null
+
   def parse(gatewayContext: GatewayContext): Unit
 
 }
@@ -101,6 +108,16 @@ class DefaultGatewayParser(gatewayParsers: Array[GatewayParser]) extends Abstrac
         case _ => gatewayParsers.exists(_.shouldContainRequestBody(gatewayContext))
       })
 
+  override def getRequestBodyFields(gatewayContext: GatewayContext): Array[String] =
+    gatewayContext.getRequest.getRequestURI match {
+      case uri if uri.startsWith(ServerConfiguration.BDP_SERVER_USER_URI.getValue) => null
+      case _ =>
+        val fields = gatewayParsers
+          .filter(_.shouldContainRequestBody(gatewayContext))
+          .map(_.getRequestBodyFields(gatewayContext))
+        if (fields.isEmpty || fields.contains(null)) null else fields.flatten.distinct
+    }
+
   override def parse(gatewayContext: GatewayContext): Unit = {
     val path = gatewayContext.getRequest.getRequestURI
     if (gatewayContext.getGatewayRoute == null) {
@@ -24,6 +24,7 @@ import org.apache.linkis.gateway.parser.{AbstractGatewayParser, RouteLabelParser
 import org.apache.linkis.gateway.springcloud.SpringCloudGatewayConfiguration._
 import org.apache.linkis.instance.label.service.InsLabelService
 import org.apache.linkis.manager.label.entity.route.RouteLabel
+import org.apache.linkis.protocol.constants.TaskConstant
 
 import org.springframework.beans.factory.annotation.Autowired
 import org.springframework.stereotype.Component
@@ -49,6 +50,16 @@ class EntranceExecutionGatewayParser extends AbstractGatewayParser {
       case _ => false
     }
 
+  /**
+   * Only the route labels are needed, so that the submitted code is never decoded by the gateway
+   */
+  override def getRequestBodyFields(gatewayContext: GatewayContext): Array[String] =
+    Array(
+      TaskConstant.LABELS,
+      TaskConstant.EXECUTEAPPLICATIONNAME,
+      TaskConstant.REQUESTAPPLICATIONNAME
+    )
+
   override def parse(gatewayContext: GatewayContext): Unit =
     gatewayContext.getRequest.getRequestURI match {
       case EntranceExecutionGatewayParser.ENTRANCE_EXECUTION_REGEX(version, _) =>
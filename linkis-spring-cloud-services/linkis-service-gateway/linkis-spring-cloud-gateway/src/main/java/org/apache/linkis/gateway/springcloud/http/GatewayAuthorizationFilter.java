@@ -19,6 +19,7 @@ package org.apache.linkis.gateway.springcloud.http;
 
 import org.apache.linkis.common.ServiceInstance;
 import org.apache.linkis.common.conf.CommonVars;
+import org.apache.linkis.gateway.config.GatewayConfiguration;
 import org.apache.linkis.gateway.exception.GatewayWarnException;
 import org.apache.linkis.gateway.http.BaseGatewayContext;
 import org.apache.linkis.gateway.parser.GatewayParser;
@@ -42,6 +43,8 @@ import org.springframework.core.Ordered;
 import org.springframework.core.codec.AbstractDataBufferDecoder;
 import org.springframework.core.io.buffer.DataBuffer;
 import org.springframework.core.io.buffer.DataBufferFactory;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.http.MediaType;
 import org.springframework.http.codec.DecoderHttpMessageReader;
 import org.springframework.http.server.reactive.AbstractServerHttpRequest;
 import org.springframework.http.server.reactive.ServerHttpRequest;
@@ -49,8 +52,10 @@ import org.springframework.http.server.reactive.ServerHttpRequestDecorator;
 import org.springframework.http.server.reactive.ServerHttpResponse;
 import org.springframework.web.server.ServerWebExchange;
 
+import java.io.IOException;
 import java.nio.charset.StandardCharsets;
 import java.util.List;
+import java.util.Optional;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -240,12 +245,72 @@ public class GatewayAuthorizationFilter implements GlobalFilter, Ordered {
     return chain.filter(exchange.mutate().request(builder.build()).build());
   }
 
+  private String[] getRequestBodyFields(
+      ServerWebExchange exchange, BaseGatewayContext gatewayContext) {
+    if (!(Boolean) GatewayConfiguration.REQUEST_BODY_FIELDS_EXTRACT_ENABLED().getValue()) {
+      return null;
+    }
+    MediaType contentType = exchange.getRequest().getHeaders().getContentType();
+    if (contentType == null || !MediaType.APPLICATION_JSON.isCompatibleWith(contentType)) {
+      return null;
+    }
+    return parser.getRequestBodyFields(gatewayContext);
+  }
+
+  /**
+   * Joins the body buffers without copying them, extracts only the needed fields as the request
+   * body, and forwards the original buffers instead of re-encoding the body.
+   */
+  private Mono<Void> filterWithBodyFields(
+      ServerWebExchange exchange,
+      GatewayFilterChain chain,
+      BaseGatewayContext gatewayContext,
+      String[] bodyFields) {
+    ServerHttpRequest request = exchange.getRequest();
+    return DataBufferUtils.join(request.getBody(), MAX_BUFFER_SIZE)
+        .map(Optional::of)
+        .defaultIfEmpty(Optional.empty())
+        .flatMap(
+            optionalBody -> {
+              if (!optionalBody.isPresent()) {
+                return gatewayDeal(exchange, chain, gatewayContext);
+              }
+              DataBuffer body = optionalBody.get();
+              String requestBody = null;
+              try {
+                requestBody = RequestBodyFieldsExtractor.extract(body, bodyFields);
+              } catch (IOException e) {
+                logger.warn("Failed to extract fields of the request body, " + e.getMessage());
+              }
+              if (requestBody == null) {
+                requestBody = body.toString(StandardCharsets.UTF_8);
+              }
+              ((SpringCloudGatewayHttpRequest) gatewayContext.getRequest())
+                  .setRequestBody(requestBody);
+              ServerHttpRequestDecorator decorator =
+                  new ServerHttpRequestDecorator(request) {
+                    @Override
+                    public Flux<DataBuffer> getBody() {
+                      // Every subscriber releases the body once written, so retain it for them
+                      return Flux.defer(() -> Flux.just(DataBufferUtils.retain(body)));
+                    }
+                  };
+              return gatewayDeal(
+                      exchange.mutate().request(decorator).build(), chain, gatewayContext)
+                  .doFinally(signalType -> DataBufferUtils.release(body));
+            });
+  }
+
   @Override
   public Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain) {
     AbstractServerHttpRequest request = (AbstractServerHttpRequest) exchange.getRequest();
     Route route = exchange.getAttribute(ServerWebExchangeUtils.GATEWAY_ROUTE_ATTR);
     BaseGatewayContext gatewayContext = getBaseGatewayContext(exchange, route);
     if (!gatewayContext.isWebSocketRequest() && parser.shouldContainRequestBody(gatewayContext)) {
+      String[] bodyFields = getRequestBodyFields(exchange, gatewayContext);
+      if (bodyFields != null) {
+        return filterWithBodyFields(exchange, chain, gatewayContext, bodyFields);
+      }
       DefaultServerRequest defaultServerRequest = new DefaultServerRequest(exchange);
       defaultServerRequest.messageReaders().stream()
           .filter(reader -> reader instanceof DecoderHttpMessageReader)
@@ -0,0 +1,74 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.linkis.gateway.springcloud.http;
+
+import org.apache.linkis.server.BDPJettyServerHelper;
+
+import org.springframework.core.io.buffer.DataBuffer;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+/**
+ * Extracts top level fields from a json request body with a streaming parser. The values of the
+ * other fields, such as the submitted code, are skipped without being decoded, and parsing stops
+ * once all the fields are found.
+ */
+public class RequestBodyFieldsExtractor {
+
+  private static final ObjectMapper MAPPER = BDPJettyServerHelper.jacksonJson();
+
+  /**
+   * The read position of the body is restored, so that it can still be forwarded.
+   *
+   * @return json object of the found fields, or null if the body is not a json object
+   */
+  public static String extract(DataBuffer body, String[] fields) throws IOException {
+    int readPosition = body.readPosition();
+    try (JsonParser parser = MAPPER.getFactory().createParser(body.asInputStream())) {
+      if (parser.nextToken() != JsonToken.START_OBJECT) {
+        return null;
+      }
+      Set<String> remainingFields = new HashSet<>(Arrays.asList(fields));
+      ObjectNode extracted = MAPPER.createObjectNode();
+      while (!remainingFields.isEmpty() && parser.nextToken() == JsonToken.FIELD_NAME) {
+        String fieldName = parser.getCurrentName();
+        parser.nextToken();
+        if (remainingFields.remove(fieldName)) {
+          JsonNode value = MAPPER.readTree(parser);
+          if (value != null) {
+            extracted.set(fieldName, value);
+          }
+        } else {
+          parser.skipChildren();
+        }
+      }
+      return extracted.toString();
+    } finally {
+      body.readPosition(readPosition);
+    }
+  }
+}
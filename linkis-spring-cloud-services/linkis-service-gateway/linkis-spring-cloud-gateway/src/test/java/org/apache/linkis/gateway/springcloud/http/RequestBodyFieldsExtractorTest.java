@@ -0,0 +1,145 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.linkis.gateway.springcloud.http;
+
+import org.apache.linkis.server.BDPJettyServerHelper;
+
+import org.apache.commons.lang3.StringUtils;
+
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.core.io.buffer.NettyDataBufferFactory;
+
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import io.netty.buffer.PooledByteBufAllocator;
+import org.junit.jupiter.api.Disabled;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Flux;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class RequestBodyFieldsExtractorTest {
+
+  private static final String[] FIELDS = new String[] {"labels", "executeApplicationName"};
+
+  private final NettyDataBufferFactory bufferFactory =
+      new NettyDataBufferFactory(PooledByteBufAllocator.DEFAULT);
+
+  private static String submission(int codeSize) {
+    return "{\"executionContent\":{\"code\":\""
+        + StringUtils.repeat('a', codeSize)
+        + "\",\"runType\":\"sql\"},\"params\":{\"variable\":{\"k\":[1,2]}},"
+        + "\"labels\":{\"engineType\":\"spark-3.2.1\",\"userCreator\":\"hadoop-IDE\","
+        + "\"route\":\"set1\"},\"executeApplicationName\":\"spark\",\"source\":{}}";
+  }
+
+  /** Splits the body into chunks the way the server receives it, then joins them */
+  private DataBuffer receive(String body) {
+    byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+    List<DataBuffer> chunks = new ArrayList<>();
+    for (int offset = 0; offset < bytes.length; offset += 8192) {
+      int length = Math.min(8192, bytes.length - offset);
+      DataBuffer chunk = bufferFactory.allocateBuffer(length);
+      chunk.write(bytes, offset, length);
+      chunks.add(chunk);
+    }
+    return DataBufferUtils.join(Flux.fromIterable(chunks)).block();
+  }
+
+  @Test
+  void testExtract() throws Exception {
+    DataBuffer body = receive(submission(1024));
+    int readableByteCount = body.readableByteCount();
+    String extracted = RequestBodyFieldsExtractor.extract(body, FIELDS);
+    Map<?, ?> json = BDPJettyServerHelper.gson().fromJson(extracted, Map.class);
+    assertEquals(2, json.size());
+    assertEquals("set1", ((Map<?, ?>) json.get("labels")).get("route"));
+    assertEquals("spark", json.get("executeApplicationName"));
+    // the body can still be forwarded as it is
+    assertEquals(readableByteCount, body.readableByteCount());
+    assertEquals(submission(1024), body.toString(StandardCharsets.UTF_8));
+    DataBufferUtils.release(body);
+  }
+
+  @Test
+  void testNotJsonObject() throws Exception {
+    DataBuffer body = receive("[1,2,3]");
+    assertNull(RequestBodyFieldsExtractor.extract(body, FIELDS));
+    DataBufferUtils.release(body);
+  }
+
+  @Test
+  void testLargeBody() throws Exception {
+    // the fields follow a code of several chunks
+    String submission = submission(1024 * 1024);
+    DataBuffer body = receive(submission);
+    int readableByteCount = body.readableByteCount();
+    String extracted = RequestBodyFieldsExtractor.extract(body, FIELDS);
+    Map<?, ?> json = BDPJettyServerHelper.gson().fromJson(extracted, Map.class);
+    assertEquals(2, json.size());
+    assertEquals("hadoop-IDE", ((Map<?, ?>) json.get("labels")).get("userCreator"));
+    assertEquals("spark", json.get("executeApplicationName"));
+    assertEquals(readableByteCount, body.readableByteCount());
+    assertEquals(submission, body.toString(StandardCharsets.UTF_8));
+    DataBufferUtils.release(body);
+  }
+
+  /** Compares the allocation and latency with decoding the whole body, as done before. */
+  @Test
+  @Disabled("Benchmark, run it manually")
+  void testAllocationAndLatency() throws Exception {
+    com.sun.management.ThreadMXBean threadMXBean =
+        (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+    long threadId = Thread.currentThread().getId();
+    for (int codeSize : new int[] {1024, 1024 * 1024, 20 * 1024 * 1024}) {
+      String submission = submission(codeSize);
+      int rounds = codeSize > 1024 * 1024 ? 5 : 50;
+      long extractBytes = 0, extractNanos = 0, decodeBytes = 0, decodeNanos = 0;
+      for (int i = 0; i < rounds; i++) {
+        DataBuffer body = receive(submission);
+        long bytes = threadMXBean.getThreadAllocatedBytes(threadId);
+        long start = System.nanoTime();
+        RequestBodyFieldsExtractor.extract(body, FIELDS);
+        extractNanos += System.nanoTime() - start;
+        extractBytes += threadMXBean.getThreadAllocatedBytes(threadId) - bytes;
+
+        bytes = threadMXBean.getThreadAllocatedBytes(threadId);
+        start = System.nanoTime();
+        String decoded = body.toString(StandardCharsets.UTF_8);
+        BDPJettyServerHelper.gson().fromJson(decoded, Map.class);
+        decoded.getBytes(StandardCharsets.UTF_8);
+        decodeNanos += System.nanoTime() - start;
+        decodeBytes += threadMXBean.getThreadAllocatedBytes(threadId) - bytes;
+        DataBufferUtils.release(body);
+      }
+      System.out.printf(
+          "body %d bytes, extract fields: %d KB, %.3f ms; decode whole body: %d KB, %.3f ms%n",
+          submission.length(),
+          extractBytes / rounds / 1024,
+          extractNanos / rounds / 1e6,
+          decodeBytes / rounds / 1024,
+          decodeNanos / rounds / 1e6);
+    }
+  }
+}